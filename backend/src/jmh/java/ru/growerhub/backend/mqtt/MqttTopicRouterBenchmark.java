@@ -0,0 +1,152 @@
+package ru.growerhub.backend.mqtt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.growerhub.backend.common.config.mqtt.MqttTopicSettings;
+
+// Smes' topikov/payload tipichnogo potoka: 64 ustrojstva (state 7:1:1 k ack/events) i 8 zigbee koordinatorov.
+// Zapusk: ./gradlew jmh; kolonka gc.alloc.rate.norm - bajty na soobshchenie.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MqttTopicRouterBenchmark {
+    private static final byte[] STATE_PAYLOAD = ("{\"fw_ver\":\"1.4.2\",\"soil_moisture\":41.5,\"air_temperature\":23.1,"
+            + "\"air_humidity\":55.0,\"pump\":{\"status\":\"off\"},\"light\":{\"status\":\"on\"}}")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ACK_PAYLOAD = "{\"correlation_id\":\"c-1\",\"result\":\"accepted\",\"status\":\"running\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EVENT_PAYLOAD = "{\"type\":\"sensor_failure\",\"sensor_scope\":\"soil\",\"channel\":1}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ZIGBEE_PAYLOAD = ("{\"battery\":97,\"linkquality\":120,\"water_leak\":false,"
+            + "\"voltage\":3000,\"last_seen\":\"2026-10-17T10:00:00Z\"}").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] AVAILABILITY_PAYLOAD = "{\"state\":\"online\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MqttTopicSettings settings = new MqttTopicSettings();
+    private MqttTopicRouter router;
+    private String[] topics;
+    private byte[][] payloads;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        router = new MqttTopicRouter(settings);
+        List<String> recordedTopics = new ArrayList<>();
+        List<byte[]> recordedPayloads = new ArrayList<>();
+        for (int device = 0; device < 64; device++) {
+            String prefix = "gh/dev/esp32-" + device;
+            for (int repeat = 0; repeat < 7; repeat++) {
+                recordedTopics.add(prefix + "/state");
+                recordedPayloads.add(STATE_PAYLOAD);
+            }
+            recordedTopics.add(prefix + "/state/ack");
+            recordedPayloads.add(ACK_PAYLOAD);
+            recordedTopics.add(prefix + "/events");
+            recordedPayloads.add(EVENT_PAYLOAD);
+        }
+        for (int user = 0; user < 8; user++) {
+            String base = "gh/z2m/user-" + user;
+            for (int sensor = 0; sensor < 4; sensor++) {
+                recordedTopics.add(base + "/leak_sensor_" + sensor);
+                recordedPayloads.add(ZIGBEE_PAYLOAD);
+                recordedTopics.add(base + "/leak_sensor_" + sensor + "/availability");
+                recordedPayloads.add(AVAILABILITY_PAYLOAD);
+            }
+            recordedTopics.add(base + "/bridge/state");
+            recordedPayloads.add(AVAILABILITY_PAYLOAD);
+        }
+        topics = recordedTopics.toArray(String[]::new);
+        payloads = recordedPayloads.toArray(byte[][]::new);
+        for (String topic : topics) {
+            router.route(topic);
+        }
+    }
+
+    @Benchmark
+    public MqttRoute route() {
+        return router.route(nextTopic());
+    }
+
+    @Benchmark
+    public MqttRoute parseUncached() {
+        return router.parse(nextTopic());
+    }
+
+    // Translitem: prezhnij put' MqttMessageHandler - resolveKind, endsWith-cepochka, split dlja deviceId i sender.
+    @Benchmark
+    public void legacyClassify(Blackhole blackhole) {
+        String topic = nextTopic();
+        blackhole.consume(legacyKind(topic));
+        blackhole.consume(legacySegment(topic, Integer.MAX_VALUE));
+        if (topic.endsWith(settings.getAckSuffix())) {
+            blackhole.consume(legacySegment(topic, 5));
+        } else if (topic.endsWith(settings.getEventsSuffix()) || topic.endsWith(settings.getStateSuffix())) {
+            blackhole.consume(legacySegment(topic, 4));
+        }
+    }
+
+    @Benchmark
+    public Object zigbeePayloadFromBytes() throws Exception {
+        return objectMapper.readValue(ZIGBEE_PAYLOAD, Object.class);
+    }
+
+    @Benchmark
+    public Object zigbeePayloadFromString() throws Exception {
+        return objectMapper.readValue(new String(ZIGBEE_PAYLOAD, StandardCharsets.UTF_8), Object.class);
+    }
+
+    @Benchmark
+    public Object routeAndParseZigbeePayload() throws Exception {
+        int index = nextIndex();
+        MqttRoute route = router.route(topics[index]);
+        if (route.kind() == MqttRoute.Kind.ZIGBEE) {
+            return objectMapper.readValue(payloads[index], Object.class);
+        }
+        return route.deviceId();
+    }
+
+    private String nextTopic() {
+        return topics[nextIndex()];
+    }
+
+    private int nextIndex() {
+        int index = cursor;
+        cursor = index + 1 == topics.length ? 0 : index + 1;
+        return index;
+    }
+
+    private String legacyKind(String topic) {
+        if (topic.endsWith(settings.getAckSuffix())) {
+            return "ack";
+        }
+        if (topic.endsWith(settings.getEventsSuffix())) {
+            return "event";
+        }
+        if (topic.endsWith(settings.getStateSuffix())) {
+            return "state";
+        }
+        if (topic.startsWith(settings.getZigbeeBase() + "/") || topic.startsWith(settings.getZigbeeUserPrefix() + "/")) {
+            return "zigbee";
+        }
+        return "raw";
+    }
+
+    private String legacySegment(String topic, int expectedParts) {
+        String[] parts = topic.split("/");
+        if (expectedParts != Integer.MAX_VALUE && parts.length != expectedParts) {
+            return null;
+        }
+        return parts.length >= 3 && "gh".equals(parts[0]) && "dev".equals(parts[1]) ? parts[2] : null;
+    }
+}
@@ -1,5 +1,6 @@
 package ru.growerhub.backend.api;
 
+import java.util.List;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
@@ -30,6 +31,24 @@ public class AdminAutomationController {
         return automationFacade.getOverview(user);
     }
 
+    @GetMapping("/api/admin/automation/evaluation")
+    public AutomationData.EvaluationStats getEvaluationStats(@AuthenticationPrincipal AuthenticatedUser user) {
+        requireAdmin(user);
+        return automationFacade.getEvaluationStats();
+    }
+
+    @GetMapping("/api/admin/automation/shards")
+    public List<AutomationData.ShardAssignment> getShardAssignments(@AuthenticationPrincipal AuthenticatedUser user) {
+        requireAdmin(user);
+        return automationFacade.getShardAssignments();
+    }
+
+    @GetMapping("/api/admin/automation/leak-reaction")
+    public AutomationData.LeakReactionStats getLeakReactionStats(@AuthenticationPrincipal AuthenticatedUser user) {
+        requireAdmin(user);
+        return automationFacade.getLeakReactionStats();
+    }
+
     @PostMapping("/api/admin/automation/rooms")
     public AutomationData.Overview createRoom(
             @AuthenticationPrincipal AuthenticatedUser user,
@@ -0,0 +1,30 @@
+package ru.growerhub.backend.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.growerhub.backend.cluster.ClusterFacade;
+import ru.growerhub.backend.cluster.contract.ClusterData;
+import ru.growerhub.backend.common.contract.AuthenticatedUser;
+
+@RestController
+public class AdminClusterController {
+    private final ClusterFacade clusterFacade;
+
+    public AdminClusterController(ClusterFacade clusterFacade) {
+        this.clusterFacade = clusterFacade;
+    }
+
+    @GetMapping("/api/admin/cluster")
+    public ClusterData.Overview getOverview(@AuthenticationPrincipal AuthenticatedUser user) {
+        requireAdmin(user);
+        return clusterFacade.getOverview();
+    }
+
+    private void requireAdmin(AuthenticatedUser user) {
+        if (user == null || !user.isAdmin()) {
+            throw new ApiException(HttpStatus.FORBIDDEN, "Nedostatochno prav");
+        }
+    }
+}
@@ -9,16 +9,26 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.growerhub.backend.api.dto.MqttDtos;
 import ru.growerhub.backend.common.contract.AuthenticatedUser;
+import ru.growerhub.backend.mqtt.MqttIngestionPipeline;
 import ru.growerhub.backend.mqtt.MqttMessageLog;
+import ru.growerhub.backend.mqtt.MqttPublishMetrics;
 import ru.growerhub.backend.mqtt.MqttRecordedMessage;
 
 @RestController
 @Validated
 public class AdminMqttController {
     private final MqttMessageLog messageLog;
+    private final MqttIngestionPipeline ingestionPipeline;
+    private final MqttPublishMetrics publishMetrics;
 
-    public AdminMqttController(MqttMessageLog messageLog) {
+    public AdminMqttController(
+            MqttMessageLog messageLog,
+            MqttIngestionPipeline ingestionPipeline,
+            MqttPublishMetrics publishMetrics
+    ) {
         this.messageLog = messageLog;
+        this.ingestionPipeline = ingestionPipeline;
+        this.publishMetrics = publishMetrics;
     }
 
     @GetMapping("/api/admin/mqtt/messages")
@@ -34,6 +44,43 @@ public class AdminMqttController {
                 .toList();
     }
 
+    @GetMapping("/api/admin/mqtt/ingestion")
+    public List<MqttDtos.MqttIngestionLaneResponse> listIngestionLanes(
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        requireAdmin(user);
+        return ingestionPipeline.stats().stream()
+                .map(lane -> new MqttDtos.MqttIngestionLaneResponse(
+                        lane.lane(),
+                        lane.queued(),
+                        lane.capacity(),
+                        lane.processed(),
+                        lane.dropped(),
+                        lane.failed(),
+                        lane.lastLagMs(),
+                        lane.maxLagMs()
+                ))
+                .toList();
+    }
+
+    @GetMapping("/api/admin/mqtt/publisher")
+    public MqttDtos.MqttPublisherResponse getPublisherStats(@AuthenticationPrincipal AuthenticatedUser user) {
+        requireAdmin(user);
+        MqttPublishMetrics.Snapshot snapshot = publishMetrics.snapshot();
+        return new MqttDtos.MqttPublisherResponse(
+                snapshot.maxInFlight(),
+                snapshot.inFlight(),
+                snapshot.published(),
+                snapshot.delivered(),
+                snapshot.failed(),
+                snapshot.retried(),
+                snapshot.rejected(),
+                snapshot.avgMs(),
+                snapshot.maxMs(),
+                snapshot.histogram()
+        );
+    }
+
     private MqttDtos.MqttMessageResponse toResponse(MqttRecordedMessage message) {
         return new MqttDtos.MqttMessageResponse(
                 message.id(),
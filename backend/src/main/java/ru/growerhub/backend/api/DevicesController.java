@@ -29,6 +29,7 @@ import ru.growerhub.backend.device.contract.DeviceCredential;
 import ru.growerhub.backend.device.contract.DeviceServiceEventView;
 import ru.growerhub.backend.device.contract.DeviceSettingsData;
 import ru.growerhub.backend.device.contract.DeviceSettingsUpdate;
+import ru.growerhub.backend.device.contract.DeviceShadowCacheStats;
 import ru.growerhub.backend.device.contract.DeviceShadowState;
 import ru.growerhub.backend.device.contract.DeviceSummary;
 import ru.growerhub.backend.pump.PumpFacade;
@@ -183,6 +184,25 @@ public class DevicesController {
         return responses;
     }
 
+    @GetMapping("/api/admin/devices/shadow-cache")
+    public DeviceDtos.ShadowCacheStatsResponse getShadowCacheStats(@AuthenticationPrincipal AuthenticatedUser user) {
+        requireAdmin(user);
+        DeviceShadowCacheStats stats = deviceFacade.getShadowCacheStats();
+        return new DeviceDtos.ShadowCacheStatsResponse(
+                stats.size(),
+                stats.maxSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.loadCount(),
+                stats.loadNotFoundCount(),
+                stats.averageLoadMs(),
+                stats.sizeEvictionCount(),
+                stats.idleEvictionCount(),
+                stats.preloadedCount()
+        );
+    }
+
     @PostMapping("/api/devices/assign-to-me")
     public DeviceDtos.DeviceResponse assignToMe(
             @Valid @RequestBody DeviceDtos.AssignToMeRequest request,
@@ -328,15 +348,17 @@ public class DevicesController {
     }
 
     private List<DeviceDtos.DeviceResponse> mapDeviceResponses(List<DeviceSummary> summaries) {
+        Map<String, DeviceShadowState> states = deviceFacade.getShadowStates(
+                summaries.stream().map(DeviceSummary::deviceId).toList()
+        );
         List<DeviceDtos.DeviceResponse> responses = new ArrayList<>();
         for (DeviceSummary summary : summaries) {
-            responses.add(mapDeviceResponse(summary));
+            responses.add(mapDeviceResponse(summary, states.get(summary.deviceId())));
         }
         return responses;
     }
 
-    private DeviceDtos.DeviceResponse mapDeviceResponse(DeviceSummary summary) {
-        DeviceShadowState state = deviceFacade.getShadowState(summary.deviceId());
+    private DeviceDtos.DeviceResponse mapDeviceResponse(DeviceSummary summary, DeviceShadowState state) {
         List<SensorView> sensors = sensorFacade.listByDeviceId(summary.id());
         List<PumpView> pumps = pumpFacade.listByDeviceId(summary.id(), state);
         return buildDeviceResponse(summary, sensors, pumps);
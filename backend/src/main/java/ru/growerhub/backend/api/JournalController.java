@@ -1,8 +1,15 @@
 ﻿package ru.growerhub.backend.api;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
@@ -14,11 +21,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.growerhub.backend.api.ApiException;
 import ru.growerhub.backend.api.dto.PlantDtos;
+import ru.growerhub.backend.common.config.journal.JournalPhotoSettings;
 import ru.growerhub.backend.common.contract.AuthenticatedUser;
 import ru.growerhub.backend.journal.JournalFacade;
 import ru.growerhub.backend.journal.contract.JournalEntry;
+import ru.growerhub.backend.journal.contract.JournalExport;
+import ru.growerhub.backend.journal.contract.JournalPhoto;
 import ru.growerhub.backend.journal.contract.JournalPhotoData;
 import ru.growerhub.backend.journal.contract.JournalWateringDetails;
 
@@ -26,32 +38,46 @@ import ru.growerhub.backend.journal.contract.JournalWateringDetails;
 @Validated
 public class JournalController {
     private final JournalFacade journalFacade;
+    private final JournalPhotoSettings photoSettings;
 
-    public JournalController(JournalFacade journalFacade) {
+    public JournalController(JournalFacade journalFacade, JournalPhotoSettings photoSettings) {
         this.journalFacade = journalFacade;
+        this.photoSettings = photoSettings;
     }
 
     @GetMapping("/api/plants/{plant_id}/journal")
     public List<PlantDtos.PlantJournalEntryResponse> listJournalEntries(
             @PathVariable("plant_id") Integer plantId,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "before_event_at", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeEventAt,
+            @RequestParam(value = "before_id", required = false) Integer beforeId,
             @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        return journalFacade.listEntries(plantId, user).stream()
+        return journalFacade.listEntries(plantId, user, limit, beforeEventAt, beforeId).stream()
                 .map(this::toJournalEntryResponse)
                 .toList();
     }
 
     @GetMapping("/api/plants/{plant_id}/journal/export")
-    public ResponseEntity<String> exportJournal(
+    public ResponseEntity<StreamingResponseBody> exportJournal(
             @PathVariable("plant_id") Integer plantId,
             @RequestParam(value = "format", defaultValue = "md") String format,
             @AuthenticationPrincipal AuthenticatedUser user
     ) {
-        String markdown = journalFacade.exportJournal(plantId, format, user);
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"plant_journal_" + plantId + ".md\"");
-        headers.set(HttpHeaders.CONTENT_TYPE, "text/markdown; charset=utf-8");
-        return new ResponseEntity<>(markdown, headers, HttpStatus.OK);
+        JournalExport export = journalFacade.prepareExport(List.of(plantId), null, format, user);
+        return streamExport(export, "plant_journal_" + plantId);
+    }
+
+    @GetMapping("/api/journal/export")
+    public ResponseEntity<StreamingResponseBody> exportJournals(
+            @RequestParam(value = "format", defaultValue = "md") String format,
+            @RequestParam(value = "plant_ids", required = false) List<Integer> plantIds,
+            @RequestParam(value = "group_id", required = false) Integer groupId,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        JournalExport export = journalFacade.prepareExport(plantIds, groupId, format, user);
+        return streamExport(export, "grow_journal");
     }
 
     @PostMapping("/api/plants/{plant_id}/journal")
@@ -98,8 +124,19 @@ public class JournalController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/api/plants/{plant_id}/journal/{entry_id}/photos")
+    public PlantDtos.PlantJournalPhotoResponse uploadJournalPhoto(
+            @PathVariable("plant_id") Integer plantId,
+            @PathVariable("entry_id") Integer entryId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "caption", required = false) String caption,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        return toJournalPhotoResponse(journalFacade.uploadPhoto(plantId, entryId, user, file, caption));
+    }
+
     @GetMapping("/api/journal/photos/{photo_id}")
-    public ResponseEntity<byte[]> getJournalPhoto(
+    public ResponseEntity<Resource> getJournalPhoto(
             @PathVariable("photo_id") Integer photoId,
             @AuthenticationPrincipal AuthenticatedUser user
     ) {
@@ -107,21 +144,51 @@ public class JournalController {
         if (photo == null) {
             throw new ApiException(HttpStatus.NOT_FOUND, "foto ne naideno ili nedostupno");
         }
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(HttpHeaders.CONTENT_TYPE, photo.contentType());
-        return new ResponseEntity<>(photo.data(), headers, HttpStatus.OK);
+        return toPhotoResponse(photo);
+    }
+
+    @GetMapping("/api/journal/photos/{photo_id}/thumbnail")
+    public ResponseEntity<Resource> getJournalPhotoThumbnail(
+            @PathVariable("photo_id") Integer photoId,
+            @AuthenticationPrincipal AuthenticatedUser user
+    ) {
+        return toPhotoResponse(journalFacade.getPhotoThumbnail(photoId, user));
+    }
+
+    // Translitem: Spring sam otvechaet 304 na If-None-Match po ETag i 206 na Range dlja Resource
+    // (Content-Length/Content-Range tozhe stavit on); soderzhimoe po kljuchu neizmenno, poetomu kesh
+    // mozhno derzhat' dolgo (private - foto vladel'ca).
+    private ResponseEntity<Resource> toPhotoResponse(JournalPhotoData photo) {
+        return ResponseEntity.ok()
+                .contentType(resolveMediaType(photo.contentType()))
+                .eTag(photo.etag())
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(photoSettings.getCacheMaxAgeSeconds()))
+                        .cachePrivate())
+                .body(photo.resource());
+    }
+
+    private MediaType resolveMediaType(String contentType) {
+        try {
+            return MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException ex) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamExport(JournalExport export, String baseName) {
+        StreamingResponseBody body = output -> journalFacade.writeExport(export, output);
+        return ResponseEntity.ok()
+                .header(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + baseName + "." + export.format().extension() + "\""
+                )
+                .header(HttpHeaders.CONTENT_TYPE, export.format().contentType())
+                .body(body);
     }
 
     private PlantDtos.PlantJournalEntryResponse toJournalEntryResponse(JournalEntry entry) {
         List<PlantDtos.PlantJournalPhotoResponse> photos = entry.photos() != null
-                ? entry.photos().stream()
-                .map(photo -> new PlantDtos.PlantJournalPhotoResponse(
-                        photo.id(),
-                        photo.url(),
-                        photo.caption(),
-                        photo.hasData()
-                ))
-                .toList()
+                ? entry.photos().stream().map(this::toJournalPhotoResponse).toList()
                 : List.of();
 
         PlantDtos.PlantJournalWateringDetailsResponse details = null;
@@ -150,4 +217,16 @@ public class JournalController {
                 details
         );
     }
+
+    private PlantDtos.PlantJournalPhotoResponse toJournalPhotoResponse(JournalPhoto photo) {
+        return new PlantDtos.PlantJournalPhotoResponse(
+                photo.id(),
+                photo.url(),
+                photo.caption(),
+                photo.hasData(),
+                photo.contentType(),
+                photo.sizeBytes(),
+                photo.hasThumbnail()
+        );
+    }
 }
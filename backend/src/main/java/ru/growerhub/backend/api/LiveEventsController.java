@@ -0,0 +1,87 @@
+package ru.growerhub.backend.api;
+
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.growerhub.backend.common.config.LiveEventSettings;
+import ru.growerhub.backend.common.contract.AuthenticatedUser;
+import ru.growerhub.backend.live.LiveFacade;
+import ru.growerhub.backend.live.contract.LiveData;
+import ru.growerhub.backend.live.contract.LiveSink;
+
+@RestController
+public class LiveEventsController {
+    private final LiveFacade liveFacade;
+    private final LiveEventSettings settings;
+
+    public LiveEventsController(LiveFacade liveFacade, LiveEventSettings settings) {
+        this.liveFacade = liveFacade;
+        this.settings = settings;
+    }
+
+    // Translitem: EventSource ne umeet zagolovok Authorization, klient chitaet potok cherez fetch s Bearer;
+    // last_event_id v query - dlja klientov, kotorye ne mogut postavit' Last-Event-ID.
+    @GetMapping(value = "/api/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "last_event_id", required = false) String lastEventIdParam,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            HttpServletResponse response
+    ) {
+        if (user == null) {
+            throw new ApiException(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(Math.max(1L, settings.getEmitterTimeoutMinutes())));
+        EmitterSink sink = new EmitterSink(emitter);
+        emitter.onCompletion(() -> liveFacade.unsubscribe(sink));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> liveFacade.unsubscribe(sink));
+        // Translitem: nginx ne dolzhen buferizovat' potok, inache sobytija pridut pachkoj.
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+        liveFacade.subscribe(user, lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam, sink);
+        return emitter;
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements LiveSink {
+        @Override
+        public boolean send(List<LiveData.Event> events) {
+            try {
+                for (LiveData.Event event : events) {
+                    SseEmitter.SseEventBuilder builder = SseEmitter.event().name(event.type());
+                    if (event.id() != null) {
+                        builder.id(event.id());
+                    }
+                    emitter.send(builder.data(event.data(), MediaType.APPLICATION_JSON));
+                }
+                return true;
+            } catch (IOException | IllegalStateException ex) {
+                return false;
+            }
+        }
+
+        @Override
+        public boolean heartbeat() {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+                return true;
+            } catch (IOException | IllegalStateException ex) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -9,6 +9,7 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -116,8 +117,11 @@ public class PlantController {
         List<PlantDtos.PlantListResponse> responses = new ArrayList<>();
         try {
             List<PlantInfo> plants = plantFacade.listPlants(user);
+            Map<Integer, List<SensorView>> sensorsByPlant = sensorFacade.listByPlantIdsLight(
+                    plants.stream().map(PlantInfo::id).toList()
+            );
             for (PlantInfo plant : plants) {
-                responses.add(toPlantListResponse(plant));
+                responses.add(toPlantListResponse(plant, sensorsByPlant.getOrDefault(plant.id(), List.of())));
             }
             return responses;
         } finally {
@@ -235,12 +239,11 @@ public class PlantController {
         );
     }
 
-    private PlantDtos.PlantListResponse toPlantListResponse(PlantInfo plant) {
+    private PlantDtos.PlantListResponse toPlantListResponse(PlantInfo plant, List<SensorView> sensorViews) {
         PlantGroupInfo group = plant.plantGroup();
         PlantDtos.PlantGroupResponse groupResponse = group != null
                 ? new PlantDtos.PlantGroupResponse(group.id(), group.name(), group.userId())
                 : null;
-        List<SensorView> sensorViews = sensorFacade.listByPlantIdLight(plant.id());
         List<PumpView> pumpViews = pumpFacade.listByPlantIdLight(plant.id());
         HashMap<Integer, Boolean> onlineByDeviceId = new HashMap<>();
         List<PlantDtos.PlantListSensorResponse> sensors = mapListSensors(sensorViews, onlineByDeviceId);
@@ -1,7 +1,10 @@
 ﻿package ru.growerhub.backend.api;
 
 import jakarta.validation.Valid;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,6 +14,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import ru.growerhub.backend.api.ApiException;
 import ru.growerhub.backend.api.dto.CommonDtos;
 import ru.growerhub.backend.api.dto.HistoryDtos;
@@ -19,6 +23,7 @@ import ru.growerhub.backend.automation.AutomationFacade;
 import ru.growerhub.backend.automation.contract.AutomationData;
 import ru.growerhub.backend.common.config.pump.PumpAckWaitSettings;
 import ru.growerhub.backend.common.contract.AuthenticatedUser;
+import ru.growerhub.backend.common.contract.DomainException;
 import ru.growerhub.backend.pump.PumpFacade;
 import ru.growerhub.backend.pump.contract.PumpAck;
 
@@ -170,7 +175,7 @@ public class PumpController {
     }
 
     @GetMapping("/api/pumps/watering/wait-ack")
-    public PumpDtos.PumpWateringAckResponse waitAck(
+    public DeferredResult<PumpDtos.PumpWateringAckResponse> waitAck(
             @RequestParam("correlation_id") String correlationId,
             @RequestParam(value = "timeout_s", required = false) Integer timeoutSeconds,
             @AuthenticationPrincipal AuthenticatedUser user
@@ -184,33 +189,31 @@ public class PumpController {
         if (resolvedTimeout < 1 || resolvedTimeout > ackWaitSettings.getMaxTimeoutSeconds()) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "timeout_s nekorrektnyi");
         }
-        long deadline = System.nanoTime() + resolvedTimeout * 1_000_000_000L;
-        while (true) {
-            PumpAck ack = pumpFacade.getAck(correlationId);
-            if (ack != null) {
-                return new PumpDtos.PumpWateringAckResponse(
+        // Translitem: potok servlet'a osvobozhdaetsja srazu, otvet uhodit iz potoka MQTT pri prihode ACK.
+        DeferredResult<PumpDtos.PumpWateringAckResponse> result = new DeferredResult<>(
+                TimeUnit.SECONDS.toMillis(resolvedTimeout + 5L),
+                this::ackTimeout
+        );
+        pumpFacade.awaitAck(correlationId, Duration.ofSeconds(resolvedTimeout)).whenComplete((ack, error) -> {
+            if (error == null) {
+                result.setResult(new PumpDtos.PumpWateringAckResponse(
                         ack.correlationId(),
                         ack.result(),
                         ack.reason(),
                         ack.status()
-                );
-            }
-            if (System.nanoTime() >= deadline) {
-                throw new ApiException(
-                        HttpStatus.REQUEST_TIMEOUT,
-                        "ACK ne poluchen v zadannoe vremya"
-                );
-            }
-            try {
-                Thread.sleep(ackWaitSettings.getPollIntervalMs());
-            } catch (InterruptedException ex) {
-                Thread.currentThread().interrupt();
-                throw new ApiException(
-                        HttpStatus.REQUEST_TIMEOUT,
-                        "ACK ne poluchen v zadannoe vremya"
-                );
+                ));
+                return;
             }
-        }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            result.setErrorResult(cause instanceof DomainException ? cause : ackTimeout());
+        });
+        return result;
+    }
+
+    private ApiException ackTimeout() {
+        return new ApiException(HttpStatus.REQUEST_TIMEOUT, "ACK ne poluchen v zadannoe vremya");
     }
 
     private String asString(Object value) {
@@ -14,7 +14,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import jakarta.validation.Valid;
+import ru.growerhub.backend.api.dto.AuthDtos;
 import ru.growerhub.backend.api.dto.UserDtos;
+import ru.growerhub.backend.common.config.security.AuthPrincipalCache;
 import ru.growerhub.backend.common.contract.AuthenticatedUser;
 import ru.growerhub.backend.user.UserFacade;
 
@@ -23,9 +25,11 @@ import ru.growerhub.backend.user.UserFacade;
 public class UsersController {
 
     private final UserFacade userFacade;
+    private final AuthPrincipalCache principalCache;
 
-    public UsersController(UserFacade userFacade) {
+    public UsersController(UserFacade userFacade, AuthPrincipalCache principalCache) {
         this.userFacade = userFacade;
+        this.principalCache = principalCache;
     }
 
     @GetMapping("/api/users")
@@ -97,12 +101,36 @@ public class UsersController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/api/admin/auth/principal-cache")
+    public AuthDtos.PrincipalCacheStatsResponse getPrincipalCacheStats(@AuthenticationPrincipal AuthenticatedUser user) {
+        requireAdmin(user);
+        AuthPrincipalCache.Stats stats = principalCache.stats();
+        return new AuthDtos.PrincipalCacheStatsResponse(
+                stats.enabled(),
+                stats.maxEntries(),
+                toRegionResponse(stats.tokens()),
+                toRegionResponse(stats.users()),
+                toRegionResponse(stats.devices())
+        );
+    }
+
     private void requireAdmin(AuthenticatedUser user) {
         if (user == null || !user.isAdmin()) {
             throw new ApiException(HttpStatus.FORBIDDEN, "Nedostatochno prav");
         }
     }
 
+    private AuthDtos.PrincipalCacheRegionResponse toRegionResponse(AuthPrincipalCache.RegionStats stats) {
+        return new AuthDtos.PrincipalCacheRegionResponse(
+                stats.size(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                stats.invalidationCount()
+        );
+    }
+
     private UserResponse toResponse(UserFacade.UserProfile user) {
         return new UserResponse(
                 user.id(),
@@ -59,4 +59,23 @@ public final class AuthDtos {
 
     public record SsoLoginResponse(@JsonProperty("url") String url) {
     }
+
+    public record PrincipalCacheStatsResponse(
+            @JsonProperty("enabled") Boolean enabled,
+            @JsonProperty("max_entries") Integer maxEntries,
+            @JsonProperty("tokens") PrincipalCacheRegionResponse tokens,
+            @JsonProperty("users") PrincipalCacheRegionResponse users,
+            @JsonProperty("devices") PrincipalCacheRegionResponse devices
+    ) {
+    }
+
+    public record PrincipalCacheRegionResponse(
+            @JsonProperty("size") Integer size,
+            @JsonProperty("hit_count") Long hitCount,
+            @JsonProperty("miss_count") Long missCount,
+            @JsonProperty("hit_rate") Double hitRate,
+            @JsonProperty("eviction_count") Long evictionCount,
+            @JsonProperty("invalidation_count") Long invalidationCount
+    ) {
+    }
 }
@@ -175,4 +175,19 @@ public final class DeviceDtos {
             @JsonProperty("issued_at") LocalDateTime issuedAt
     ) {
     }
+
+    public record ShadowCacheStatsResponse(
+            @JsonProperty("size") Integer size,
+            @JsonProperty("max_size") Integer maxSize,
+            @JsonProperty("hit_count") Long hitCount,
+            @JsonProperty("miss_count") Long missCount,
+            @JsonProperty("hit_rate") Double hitRate,
+            @JsonProperty("load_count") Long loadCount,
+            @JsonProperty("load_not_found_count") Long loadNotFoundCount,
+            @JsonProperty("average_load_ms") Double averageLoadMs,
+            @JsonProperty("size_eviction_count") Long sizeEvictionCount,
+            @JsonProperty("idle_eviction_count") Long idleEvictionCount,
+            @JsonProperty("preloaded_count") Long preloadedCount
+    ) {
+    }
 }
@@ -2,6 +2,7 @@ package ru.growerhub.backend.api.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 public class MqttDtos {
     public record MqttMessageResponse(
@@ -14,4 +15,30 @@ public class MqttDtos {
             @JsonProperty("payload") String payload
     ) {
     }
+
+    public record MqttPublisherResponse(
+            @JsonProperty("max_in_flight") int maxInFlight,
+            @JsonProperty("in_flight") int inFlight,
+            @JsonProperty("published") long published,
+            @JsonProperty("delivered") long delivered,
+            @JsonProperty("failed") long failed,
+            @JsonProperty("retried") long retried,
+            @JsonProperty("rejected") long rejected,
+            @JsonProperty("avg_ms") Double avgMs,
+            @JsonProperty("max_ms") Long maxMs,
+            @JsonProperty("histogram") Map<String, Long> histogram
+    ) {
+    }
+
+    public record MqttIngestionLaneResponse(
+            @JsonProperty("lane") int lane,
+            @JsonProperty("queued") int queued,
+            @JsonProperty("capacity") int capacity,
+            @JsonProperty("processed") long processed,
+            @JsonProperty("dropped") long dropped,
+            @JsonProperty("failed") long failed,
+            @JsonProperty("last_lag_ms") long lastLagMs,
+            @JsonProperty("max_lag_ms") long maxLagMs
+    ) {
+    }
 }
@@ -138,7 +138,10 @@ public final class PlantDtos {
             @JsonProperty("id") Integer id,
             @JsonProperty("url") String url,
             @JsonProperty("caption") String caption,
-            @JsonProperty("has_data") Boolean hasData
+            @JsonProperty("has_data") Boolean hasData,
+            @JsonProperty("content_type") String contentType,
+            @JsonProperty("size_bytes") Long sizeBytes,
+            @JsonProperty("has_thumbnail") Boolean hasThumbnail
     ) {
     }
 
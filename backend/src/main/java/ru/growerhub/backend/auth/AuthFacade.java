@@ -5,7 +5,9 @@ import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.net.URI;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
 import org.springframework.stereotype.Service;
@@ -216,14 +218,20 @@ public class AuthFacade {
         authService.deleteIdentities(userId);
     }
 
-    public Integer parseUserId(String token) {
+    // Translitem: proverka podpisi + user_id i srok dejstvija dlja kesha principal'ov; null - token ne prinjat.
+    public AccessToken verifyAccessToken(String token) {
         Claims claims;
         try {
             claims = jwtService.parseToken(token);
         } catch (JwtException | IllegalArgumentException ex) {
             return null;
         }
-        return parseUserIdClaim(claims.get("user_id"));
+        Integer userId = parseUserIdClaim(claims.get("user_id"));
+        if (userId == null) {
+            return null;
+        }
+        Date expiration = claims.getExpiration();
+        return new AccessToken(userId, expiration != null ? expiration.toInstant() : null);
     }
 
     private Integer parseUserIdClaim(Object rawValue) {
@@ -280,6 +288,9 @@ public class AuthFacade {
         return target + separator + name + "=" + value;
     }
 
+    public record AccessToken(Integer userId, Instant expiresAt) {
+    }
+
     public record SsoLoginResult(String authUrl, boolean json) {
     }
 
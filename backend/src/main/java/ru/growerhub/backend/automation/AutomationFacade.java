@@ -22,8 +22,14 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.growerhub.backend.automation.contract.AutomationData;
+import ru.growerhub.backend.automation.engine.AutomationCatalog;
+import ru.growerhub.backend.automation.engine.AutomationCatalogStore;
+import ru.growerhub.backend.automation.engine.AutomationEvaluationPlan;
+import ru.growerhub.backend.automation.engine.AutomationScopeRunner;
+import ru.growerhub.backend.automation.engine.LeakReactionDispatcher;
 import ru.growerhub.backend.automation.jpa.AutomationActionLogEntity;
 import ru.growerhub.backend.automation.jpa.AutomationActionLogRepository;
 import ru.growerhub.backend.automation.jpa.AutomationBoxEntity;
@@ -38,25 +44,14 @@ import ru.growerhub.backend.automation.jpa.AutomationScenarioConfigEntity;
 import ru.growerhub.backend.automation.jpa.AutomationScenarioConfigRepository;
 import ru.growerhub.backend.automation.jpa.AutomationScenarioStateEntity;
 import ru.growerhub.backend.automation.jpa.AutomationScenarioStateRepository;
+import ru.growerhub.backend.cluster.ClusterFacade;
 import ru.growerhub.backend.common.config.AutomationSettings;
 import ru.growerhub.backend.common.contract.AuthenticatedUser;
 import ru.growerhub.backend.common.contract.DomainException;
-import ru.growerhub.backend.device.DeviceFacade;
-import ru.growerhub.backend.device.contract.DeviceShadowState;
-import ru.growerhub.backend.device.contract.DeviceSummary;
-import ru.growerhub.backend.plant.PlantFacade;
-import ru.growerhub.backend.plant.contract.AdminPlantInfo;
-import ru.growerhub.backend.plant.contract.PlantInfo;
 import ru.growerhub.backend.pump.PumpFacade;
 import ru.growerhub.backend.pump.contract.PumpSessionData;
 import ru.growerhub.backend.pump.contract.PumpStartResult;
-import ru.growerhub.backend.pump.contract.PumpView;
-import ru.growerhub.backend.sensor.SensorFacade;
-import ru.growerhub.backend.sensor.contract.SensorView;
 import ru.growerhub.backend.zigbee.ZigbeeFacade;
-import ru.growerhub.backend.zigbee.contract.ZigbeeDeviceData;
-import ru.growerhub.backend.zigbee.contract.ZigbeeFeatureData;
-import ru.growerhub.backend.zigbee.contract.ZigbeeOwnedDeviceData;
 
 @Service
 @Transactional
@@ -90,11 +85,12 @@ public class AutomationFacade {
     private final AutomationScenarioConfigRepository configRepository;
     private final AutomationScenarioStateRepository stateRepository;
     private final AutomationActionLogRepository actionLogRepository;
-    private final DeviceFacade deviceFacade;
-    private final SensorFacade sensorFacade;
     private final PumpFacade pumpFacade;
-    private final PlantFacade plantFacade;
     private final ZigbeeFacade zigbeeFacade;
+    private final ClusterFacade clusterFacade;
+    private final AutomationCatalogStore catalogStore;
+    private final LeakReactionDispatcher leakReactionDispatcher;
+    private final AutomationScopeRunner scopeRunner;
     private final AutomationSettings settings;
     private final ObjectMapper objectMapper;
 
@@ -106,11 +102,12 @@ public class AutomationFacade {
             AutomationScenarioConfigRepository configRepository,
             AutomationScenarioStateRepository stateRepository,
             AutomationActionLogRepository actionLogRepository,
-            DeviceFacade deviceFacade,
-            SensorFacade sensorFacade,
             PumpFacade pumpFacade,
-            PlantFacade plantFacade,
             ZigbeeFacade zigbeeFacade,
+            ClusterFacade clusterFacade,
+            AutomationCatalogStore catalogStore,
+            LeakReactionDispatcher leakReactionDispatcher,
+            AutomationScopeRunner scopeRunner,
             AutomationSettings settings,
             ObjectMapper objectMapper
     ) {
@@ -121,11 +118,12 @@ public class AutomationFacade {
         this.configRepository = configRepository;
         this.stateRepository = stateRepository;
         this.actionLogRepository = actionLogRepository;
-        this.deviceFacade = deviceFacade;
-        this.sensorFacade = sensorFacade;
         this.pumpFacade = pumpFacade;
-        this.plantFacade = plantFacade;
         this.zigbeeFacade = zigbeeFacade;
+        this.clusterFacade = clusterFacade;
+        this.catalogStore = catalogStore;
+        this.leakReactionDispatcher = leakReactionDispatcher;
+        this.scopeRunner = scopeRunner;
         this.settings = settings;
         this.objectMapper = objectMapper;
     }
@@ -167,7 +165,7 @@ public class AutomationFacade {
 
     public AutomationData.Overview getOverview(AuthenticatedUser user) {
         requireAuthenticated(user);
-        Catalog catalog = buildCatalog(user);
+        AutomationCatalog catalog = catalogStore.build(user);
         List<AutomationRoomEntity> rooms = user.isAdmin()
                 ? roomRepository.findAllByOrderByNameAscIdAsc()
                 : roomRepository.findAllByUserIdOrderByNameAscIdAsc(user.id());
@@ -299,7 +297,7 @@ public class AutomationFacade {
             AutomationData.SavePlantsRequest request
     ) {
         AutomationBoxEntity box = requireBox(user, boxId);
-        Catalog catalog = buildCatalog(user);
+        AutomationCatalog catalog = catalogStore.build(user);
         LocalDateTime now = nowUtc();
         List<AutomationData.BoxPlantRequest> items = boxPlantRequests(request);
         List<Integer> plantIds = items.stream().map(AutomationData.BoxPlantRequest::plantId).toList();
@@ -315,7 +313,7 @@ public class AutomationFacade {
             if (item.rateMlPerHour() != null && item.rateMlPerHour() <= 0) {
                 throw new DomainException("bad_request", "Поле rate_ml_per_hour должно быть больше нуля");
             }
-            if (!catalog.plantsById.containsKey(plantId)) {
+            if (!catalog.plantsById().containsKey(plantId)) {
                 throw new DomainException("not_found", "Растение не найдено");
             }
         }
@@ -356,7 +354,7 @@ public class AutomationFacade {
             AutomationData.SaveResourcesRequest request
     ) {
         requireRoom(user, roomId);
-        replaceResources(AutomationData.SCOPE_ROOM, roomId, request, buildCatalog(user));
+        replaceResources(AutomationData.SCOPE_ROOM, roomId, request, catalogStore.build(user));
         return getOverview(user);
     }
 
@@ -367,7 +365,7 @@ public class AutomationFacade {
     ) {
         requireBox(user, boxId);
         Integer previousPumpId = automationPumpId(boxId);
-        replaceResources(AutomationData.SCOPE_BOX, boxId, request, buildCatalog(user));
+        replaceResources(AutomationData.SCOPE_BOX, boxId, request, catalogStore.build(user));
         Integer nextPumpId = automationPumpId(boxId);
         Set<Integer> affectedPumpIds = new HashSet<>();
         if (previousPumpId != null) {
@@ -382,10 +380,10 @@ public class AutomationFacade {
 
     @Transactional(readOnly = true)
     public AutomationData.ManualWateringOverview getManualWateringOverview() {
-        Catalog catalog = buildCatalog();
+        AutomationCatalog catalog = catalogStore.build(null);
         WateringTopology topology = buildWateringTopology(catalog);
         Map<Integer, PumpSessionData.View> sessionsByPump = new HashMap<>();
-        for (Integer pumpId : catalog.pumpsById.keySet()) {
+        for (Integer pumpId : catalog.pumpsById().keySet()) {
             PumpSessionData.View session = pumpFacade.currentSession(pumpId);
             if (session != null) {
                 sessionsByPump.put(pumpId, session);
@@ -394,7 +392,7 @@ public class AutomationFacade {
         List<PumpSessionData.Probe> activeProbes = pumpFacade.listActiveSessionProbes();
 
         List<AutomationData.ManualWateringPump> pumps = new ArrayList<>();
-        for (AutomationData.NativeDevice device : catalog.nativeDevices) {
+        for (AutomationData.NativeDevice device : catalog.nativeDevices()) {
             for (AutomationData.NativePump pump : device.pumps()) {
                 PumpSessionData.View currentSession = sessionsByPump.get(pump.id());
                 List<AutomationData.ManualWateringBox> boxes = topology.boxesByPump.getOrDefault(pump.id(), List.of());
@@ -437,7 +435,7 @@ public class AutomationFacade {
             AutomationData.ManualWateringStartRequest request,
             AuthenticatedUser user
     ) {
-        Catalog catalog = buildCatalog();
+        AutomationCatalog catalog = catalogStore.build(null);
         WateringTopology topology = buildWateringTopology(catalog);
         AutomationData.ManualWateringStartRequest safeRequest = request != null
                 ? request
@@ -472,7 +470,7 @@ public class AutomationFacade {
                     "Укажите water_volume_l или duration_s для запуска полива"
             );
         }
-        Catalog catalog = buildCatalog();
+        AutomationCatalog catalog = catalogStore.build(null);
         List<PumpSessionData.BoxTarget> targets = buildWateringTopology(catalog)
                 .targetsByPump
                 .getOrDefault(pumpId, List.of());
@@ -545,55 +543,106 @@ public class AutomationFacade {
         return getOverview(user);
     }
 
+    // Translitem: tik bez obshchej tranzakcii - AutomationScopeRunner vyzyvaet evaluateBoxScope/evaluateRoomScope,
+    // u kazhdogo scope svoja tranzakcija.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void evaluateAll() {
+        scopeRunner.evaluateAll();
+    }
+
+    @Transactional(readOnly = true)
+    public AutomationEvaluationPlan planEvaluation() {
         LocalDateTime now = nowUtc();
-        Catalog catalog = buildCatalog();
-        List<AutomationRoomEntity> rooms = roomRepository.findAllByOrderByNameAscIdAsc();
-        List<AutomationBoxEntity> boxes = boxRepository.findAllByOrderByNameAscIdAsc();
-        Map<Integer, AutomationRoomEntity> roomsById = rooms.stream()
-                .collect(Collectors.toMap(AutomationRoomEntity::getId, Function.identity()));
+        AutomationCatalog catalog = catalogStore.current();
+        List<Integer> boxIds = boxRepository.findAllByOrderByNameAscIdAsc().stream()
+                .map(AutomationBoxEntity::getId)
+                .toList();
+        Map<Integer, Integer> pumpByBox = new HashMap<>();
+        if (!boxIds.isEmpty()) {
+            for (AutomationResourceBindingEntity binding
+                    : resourceRepository.findAllByScopeTypeAndScopeIdIn(AutomationData.SCOPE_BOX, boxIds)) {
+                if (AutomationData.ROLE_WATER_PUMP.equals(binding.getRole()) && binding.getNativePumpId() != null) {
+                    pumpByBox.put(binding.getScopeId(), binding.getNativePumpId());
+                }
+            }
+        }
+        // Translitem: boksy s obshchim nasosom - odin shard, inache dva boksa odnovremenno startujut odin nasos.
+        Map<String, List<Integer>> shards = new LinkedHashMap<>();
+        for (Integer boxId : boxIds) {
+            Integer pumpId = pumpByBox.get(boxId);
+            String shardKey = pumpId != null ? "pump:" + pumpId : "box:" + boxId;
+            shards.computeIfAbsent(shardKey, ignored -> new ArrayList<>()).add(boxId);
+        }
+        List<AutomationEvaluationPlan.BoxShard> boxShards = shards.entrySet().stream()
+                .map(entry -> new AutomationEvaluationPlan.BoxShard(entry.getKey(), List.copyOf(entry.getValue())))
+                .toList();
+        List<Integer> roomIds = roomRepository.findAllByOrderByNameAscIdAsc().stream()
+                .map(AutomationRoomEntity::getId)
+                .toList();
+        return new AutomationEvaluationPlan(catalog, now, boxShards, roomIds);
+    }
 
-        for (AutomationBoxEntity box : boxes) {
-            AutomationRoomEntity room = roomsById.get(box.getRoomId());
-            evaluateBoxClimate(box, room, catalog, now);
-            evaluateLightSchedule(box, catalog, now);
-            evaluateWatering(box, catalog, now);
+    // Translitem: raspredelenie shard'ov po uzlam glazami etogo uzla (ego poslednij spisok zhivyh uzlov).
+    @Transactional(readOnly = true)
+    public List<AutomationData.ShardAssignment> getShardAssignments() {
+        AutomationEvaluationPlan plan = planEvaluation();
+        List<AutomationData.ShardAssignment> assignments = new ArrayList<>();
+        for (AutomationEvaluationPlan.BoxShard shard : plan.boxShards()) {
+            assignments.add(new AutomationData.ShardAssignment(
+                    shard.key(),
+                    AutomationData.SCOPE_BOX,
+                    shard.boxIds(),
+                    clusterFacade.shardOwner(shard.key())
+            ));
         }
-        for (AutomationRoomEntity room : rooms) {
-            evaluateRoomClimate(room, boxes, catalog, now);
+        for (Integer roomId : plan.roomIds()) {
+            String key = AutomationEvaluationPlan.roomShardKey(roomId);
+            assignments.add(new AutomationData.ShardAssignment(
+                    key,
+                    AutomationData.SCOPE_ROOM,
+                    List.of(roomId),
+                    clusterFacade.shardOwner(key)
+            ));
         }
+        return assignments;
+    }
+
+    public void evaluateBoxScope(Integer boxId, AutomationEvaluationPlan plan) {
+        AutomationBoxEntity box = boxRepository.findById(boxId).orElse(null);
+        if (box == null) {
+            return;
+        }
+        evaluateBoxClimate(box, box.getRoom(), plan.catalog(), plan.now());
+        evaluateLightSchedule(box, plan.catalog(), plan.now());
+        evaluateWatering(box, plan.catalog(), plan.now());
+    }
+
+    public void evaluateRoomScope(Integer roomId, AutomationEvaluationPlan plan) {
+        AutomationRoomEntity room = roomRepository.findById(roomId).orElse(null);
+        if (room == null) {
+            return;
+        }
+        evaluateRoomClimate(room, boxRepository.findAllByOrderByNameAscIdAsc(), plan.catalog(), plan.now());
+    }
+
+    @Transactional(readOnly = true)
+    public AutomationData.EvaluationStats getEvaluationStats() {
+        return scopeRunner.stats();
     }
 
     @Transactional(readOnly = true)
     public void evaluateActiveWateringSessions() {
         LocalDateTime now = nowUtc();
         List<PumpSessionData.Probe> probes = pumpFacade.listActiveSessionProbes();
+        leakReactionDispatcher.track(probes);
         if (probes.isEmpty()) {
             return;
         }
-        Catalog catalog = buildCatalog();
-        Map<String, AutomationData.NativeDevice> devicesByKey = catalog.nativeDevices.stream()
-                .collect(Collectors.toMap(AutomationData.NativeDevice::deviceId, Function.identity()));
+        AutomationCatalog catalog = catalogStore.current();
         for (PumpSessionData.Probe probe : probes) {
             Long sessionId = probe != null ? probe.sessionId() : null;
             try {
-                AutomationData.NativeDevice device = devicesByKey.get(probe.deviceKey());
-                AutomationData.NativePump pump = catalog.pumpsById.get(probe.pumpId());
-                List<PumpSessionData.LeakState> leakStates = probe.leakSensors().stream()
-                        .map(sensor -> currentLeakState(sensor, catalog))
-                        .toList();
-                pumpFacade.advanceSession(
-                        sessionId,
-                        new PumpSessionData.LeakProbe(
-                                device != null ? device.isOnline() : Boolean.FALSE,
-                                pump != null ? pump.isRunning() : null,
-                                pump != null
-                                        ? pump.lastSeenAt()
-                                        : device != null ? device.lastSeenAt() : null,
-                                leakStates
-                        ),
-                        now
-                );
+                advanceWateringSession(probe, catalog, now);
             } catch (RuntimeException ex) {
                 log.warn(
                         "Obrabotka sessii poliva {} zavershilas oshibkoj: {}",
@@ -605,11 +654,66 @@ public class AutomationFacade {
         }
     }
 
+    // Translitem: na uzlah bez lidera poliva indeks leak target obnovljaetsja otdel'no - zigbee state
+    // prihodit na ljuboj uzel shared-gruppy.
+    @Transactional(readOnly = true)
+    public void refreshLeakIndex() {
+        if (!leakReactionDispatcher.isEnabled()) {
+            return;
+        }
+        leakReactionDispatcher.track(pumpFacade.listActiveSessionProbes());
+    }
+
+    // Translitem: vozvrashchaet true, esli etot vyzov perevel sessiju v ostanovku po protechke.
+    @Transactional(readOnly = true)
+    public boolean advanceLeakSession(Long sessionId) {
+        PumpSessionData.Probe probe = pumpFacade.listActiveSessionProbes().stream()
+                .filter(item -> item != null && Objects.equals(item.sessionId(), sessionId))
+                .findFirst()
+                .orElse(null);
+        if (probe == null) {
+            return false;
+        }
+        PumpSessionData.View view = advanceWateringSession(probe, catalogStore.current(), nowUtc());
+        return view != null
+                && PumpSessionData.REASON_LEAK.equals(view.completionReason())
+                && !Objects.equals(view.phase(), probe.phase());
+    }
+
+    @Transactional(readOnly = true)
+    public AutomationData.LeakReactionStats getLeakReactionStats() {
+        return leakReactionDispatcher.stats();
+    }
+
+    private PumpSessionData.View advanceWateringSession(
+            PumpSessionData.Probe probe,
+            AutomationCatalog catalog,
+            LocalDateTime now
+    ) {
+        AutomationData.NativeDevice device = catalog.nativeDevicesByKey().get(probe.deviceKey());
+        AutomationData.NativePump pump = catalog.pumpsById().get(probe.pumpId());
+        List<PumpSessionData.LeakState> leakStates = probe.leakSensors().stream()
+                .map(sensor -> currentLeakState(sensor, catalog))
+                .toList();
+        return pumpFacade.advanceSession(
+                probe.sessionId(),
+                new PumpSessionData.LeakProbe(
+                        device != null ? device.isOnline() : Boolean.FALSE,
+                        pump != null ? pump.isRunning() : null,
+                        pump != null
+                                ? pump.lastSeenAt()
+                                : device != null ? device.lastSeenAt() : null,
+                        leakStates
+                ),
+                now
+        );
+    }
+
     private void replaceResources(
             String scopeType,
             Integer scopeId,
             AutomationData.SaveResourcesRequest request,
-            Catalog catalog
+            AutomationCatalog catalog
     ) {
         LocalDateTime now = nowUtc();
         List<AutomationData.ResourceBindingRequest> resources =
@@ -630,7 +734,7 @@ public class AutomationFacade {
             entity.setNativePumpId(item.nativePumpId());
             if (AutomationData.SOURCE_ZIGBEE_DEVICE.equals(sourceType)) {
                 UUID publicCoordinatorId = resolveCoordinatorPublicId(catalog, item.zigbeeCoordinatorId());
-                Integer coordinatorId = catalog.coordinatorInternalByPublic.get(publicCoordinatorId);
+                Integer coordinatorId = catalog.coordinatorInternalByPublic().get(publicCoordinatorId);
                 if (coordinatorId == null) {
                     throw new DomainException("bad_request", "Координатор Zigbee не найден");
                 }
@@ -714,7 +818,7 @@ public class AutomationFacade {
         if (number(cfg.get("pulse_run_minutes"), 3.0) <= 0.0 || number(cfg.get("pulse_pause_minutes"), 5.0) <= 0.0) {
             throw new DomainException("bad_request", "Интервалы импульсного полива должны быть больше нуля");
         }
-        Catalog catalog = buildCatalog();
+        AutomationCatalog catalog = catalogStore.build(null);
         Integer pumpId = automationPumpId(scopeId);
         if (pumpId == null || !hasConfiguredLeakSensorForPump(pumpId, null, catalog)) {
             throw new DomainException("bad_request", "Для режима until_drain нужен датчик LEAK_SENSOR");
@@ -725,7 +829,7 @@ public class AutomationFacade {
             String scopeType,
             Integer scopeId,
             List<AutomationResourceBindingEntity> nextResources,
-            Catalog catalog
+            AutomationCatalog catalog
     ) {
         if (!AutomationData.SCOPE_BOX.equals(scopeType)) {
             return;
@@ -756,7 +860,7 @@ public class AutomationFacade {
     private void evaluateBoxClimate(
             AutomationBoxEntity box,
             AutomationRoomEntity room,
-            Catalog catalog,
+            AutomationCatalog catalog,
             LocalDateTime now
     ) {
         AutomationScenarioConfigEntity config = configFor(AutomationData.SCOPE_BOX, box.getId(), AutomationData.SCENARIO_BOX_CLIMATE);
@@ -826,7 +930,7 @@ public class AutomationFacade {
     private void evaluateRoomClimate(
             AutomationRoomEntity room,
             List<AutomationBoxEntity> allBoxes,
-            Catalog catalog,
+            AutomationCatalog catalog,
             LocalDateTime now
     ) {
         AutomationScenarioConfigEntity config = configFor(AutomationData.SCOPE_ROOM, room.getId(), AutomationData.SCENARIO_ROOM_CLIMATE);
@@ -880,7 +984,7 @@ public class AutomationFacade {
         markState(state, "active", null, false, now);
     }
 
-    private void evaluateLightSchedule(AutomationBoxEntity box, Catalog catalog, LocalDateTime now) {
+    private void evaluateLightSchedule(AutomationBoxEntity box, AutomationCatalog catalog, LocalDateTime now) {
         AutomationScenarioConfigEntity config = configFor(AutomationData.SCOPE_BOX, box.getId(), AutomationData.SCENARIO_LIGHT_SCHEDULE);
         AutomationScenarioStateEntity state = stateFor(AutomationData.SCOPE_BOX, box.getId(), AutomationData.SCENARIO_LIGHT_SCHEDULE, now);
         AutomationData.Readiness readiness = lightReadiness(box.getId(), catalog);
@@ -905,7 +1009,7 @@ public class AutomationFacade {
         markState(state, "active", null, false, now);
     }
 
-    private void evaluateWatering(AutomationBoxEntity box, Catalog catalog, LocalDateTime now) {
+    private void evaluateWatering(AutomationBoxEntity box, AutomationCatalog catalog, LocalDateTime now) {
         AutomationScenarioConfigEntity config = configFor(AutomationData.SCOPE_BOX, box.getId(), AutomationData.SCENARIO_WATERING);
         AutomationScenarioStateEntity state = stateFor(AutomationData.SCOPE_BOX, box.getId(), AutomationData.SCENARIO_WATERING, now);
         AutomationData.Readiness readiness = wateringReadiness(box.getId(), catalog);
@@ -1024,7 +1128,7 @@ public class AutomationFacade {
     private void sendSwitchIfNeeded(
             AutomationResourceBindingEntity binding,
             boolean on,
-            Catalog catalog,
+            AutomationCatalog catalog,
             String scenarioType,
             String scopeType,
             Integer scopeId,
@@ -1114,7 +1218,7 @@ public class AutomationFacade {
             Map<String, List<AutomationResourceBindingEntity>> resources,
             Map<String, List<AutomationScenarioConfigEntity>> configs,
             Map<String, List<AutomationScenarioStateEntity>> states,
-            Catalog catalog
+            AutomationCatalog catalog
     ) {
         return new AutomationData.Room(
                 room.getId(),
@@ -1148,7 +1252,7 @@ public class AutomationFacade {
             Map<String, List<AutomationResourceBindingEntity>> resources,
             Map<String, List<AutomationScenarioConfigEntity>> configs,
             Map<String, List<AutomationScenarioStateEntity>> states,
-            Catalog catalog,
+            AutomationCatalog catalog,
             Integer roomId
     ) {
         Map<String, AutomationData.Readiness> readiness = new LinkedHashMap<>();
@@ -1161,7 +1265,7 @@ public class AutomationFacade {
                 box.getName(),
                 box.isEnabled(),
                 plantsByBox.getOrDefault(box.getId(), List.of()).stream()
-                        .map(binding -> toBoxPlantData(binding, catalog.plantsById.get(binding.getPlantId())))
+                        .map(binding -> toBoxPlantData(binding, catalog.plantsById().get(binding.getPlantId())))
                         .filter(Objects::nonNull)
                         .toList(),
                 resources.getOrDefault(key(AutomationData.SCOPE_BOX, box.getId()), List.of()).stream()
@@ -1191,7 +1295,7 @@ public class AutomationFacade {
             Integer scopeId,
             List<String> scenarioTypes,
             List<AutomationScenarioConfigEntity> configs,
-            Catalog catalog,
+            AutomationCatalog catalog,
             Integer roomId
     ) {
         Map<String, AutomationScenarioConfigEntity> byType = configs.stream()
@@ -1214,7 +1318,7 @@ public class AutomationFacade {
         return result;
     }
 
-    private AutomationData.ResourceBinding toBindingData(AutomationResourceBindingEntity binding, Catalog catalog) {
+    private AutomationData.ResourceBinding toBindingData(AutomationResourceBindingEntity binding, AutomationCatalog catalog) {
         ResourceStatus status = resolveResourceStatus(binding, catalog);
         ConnectionStatus connectionStatus = connectionStatus(binding.getRole(), status, nowUtc());
         return new AutomationData.ResourceBinding(
@@ -1225,7 +1329,7 @@ public class AutomationFacade {
                 binding.getSourceType(),
                 binding.getNativeSensorId(),
                 binding.getNativePumpId(),
-                catalog.coordinatorPublicByInternal.get(binding.getZigbeeCoordinatorId()),
+                catalog.coordinatorPublicByInternal().get(binding.getZigbeeCoordinatorId()),
                 binding.getZigbeeIeeeAddress(),
                 binding.getZigbeeProperty(),
                 binding.getCommandProperty(),
@@ -1278,7 +1382,7 @@ public class AutomationFacade {
             Integer scopeId,
             String scenarioType,
             Integer roomId,
-            Catalog catalog
+            AutomationCatalog catalog
     ) {
         if (AutomationData.SCOPE_ROOM.equals(scopeType)) {
             return roomClimateReadiness(scopeId, boxRepository.findAllByRoom_IdOrderByNameAscIdAsc(scopeId), catalog);
@@ -1294,7 +1398,7 @@ public class AutomationFacade {
     private AutomationData.Readiness roomClimateReadiness(
             Integer roomId,
             List<AutomationBoxEntity> roomBoxes,
-            Catalog catalog
+            AutomationCatalog catalog
     ) {
         List<String> roles = List.of(AutomationData.ROLE_AC_SWITCH);
         ResourceStatus ac = resolveResourceStatus(resource(AutomationData.SCOPE_ROOM, roomId, AutomationData.ROLE_AC_SWITCH), catalog);
@@ -1316,7 +1420,7 @@ public class AutomationFacade {
         return new AutomationData.Readiness(true, null, roles);
     }
 
-    private AutomationData.Readiness boxClimateReadiness(Integer boxId, Integer roomId, Catalog catalog) {
+    private AutomationData.Readiness boxClimateReadiness(Integer boxId, Integer roomId, AutomationCatalog catalog) {
         List<String> roles = List.of(
                 AutomationData.ROLE_AIR_TEMPERATURE_SENSOR,
                 AutomationData.ROLE_EXHAUST_SWITCH,
@@ -1346,7 +1450,7 @@ public class AutomationFacade {
         return new AutomationData.Readiness(true, null, roles);
     }
 
-    private AutomationData.Readiness lightReadiness(Integer boxId, Catalog catalog) {
+    private AutomationData.Readiness lightReadiness(Integer boxId, AutomationCatalog catalog) {
         List<String> roles = List.of(AutomationData.ROLE_LIGHT_SWITCH);
         ResourceStatus light = resolveResourceStatus(resource(AutomationData.SCOPE_BOX, boxId, AutomationData.ROLE_LIGHT_SWITCH), catalog);
         if (!light.ready()) {
@@ -1355,7 +1459,7 @@ public class AutomationFacade {
         return new AutomationData.Readiness(true, null, roles);
     }
 
-    private AutomationData.Readiness wateringReadiness(Integer boxId, Catalog catalog) {
+    private AutomationData.Readiness wateringReadiness(Integer boxId, AutomationCatalog catalog) {
         List<String> roles = List.of(AutomationData.ROLE_SOIL_MOISTURE_SENSOR, AutomationData.ROLE_WATER_PUMP);
         ResourceStatus soil = resolveResourceStatus(
                 resource(AutomationData.SCOPE_BOX, boxId, AutomationData.ROLE_SOIL_MOISTURE_SENSOR),
@@ -1371,12 +1475,12 @@ public class AutomationFacade {
         return new AutomationData.Readiness(true, null, roles);
     }
 
-    private ResourceStatus resolveResourceStatus(AutomationResourceBindingEntity binding, Catalog catalog) {
+    private ResourceStatus resolveResourceStatus(AutomationResourceBindingEntity binding, AutomationCatalog catalog) {
         if (binding == null) {
             return ResourceStatus.notReady("resource ne privyazan");
         }
         if (AutomationData.SOURCE_NATIVE_SENSOR.equals(binding.getSourceType())) {
-            AutomationData.NativeSensor sensor = catalog.sensorsById.get(binding.getNativeSensorId());
+            AutomationData.NativeSensor sensor = catalog.sensorsById().get(binding.getNativeSensorId());
             if (sensor == null) {
                 return ResourceStatus.notReady("Датчик GrowerHub не найден");
             }
@@ -1390,7 +1494,7 @@ public class AutomationFacade {
             );
         }
         if (AutomationData.SOURCE_NATIVE_PUMP.equals(binding.getSourceType())) {
-            AutomationData.NativePump pump = catalog.pumpsById.get(binding.getNativePumpId());
+            AutomationData.NativePump pump = catalog.pumpsById().get(binding.getNativePumpId());
             if (pump == null) {
                 return ResourceStatus.notReady("Насос GrowerHub не найден");
             }
@@ -1422,12 +1526,12 @@ public class AutomationFacade {
         return "DISCONNECTED".equals(sensor.status()) || "ERROR".equals(sensor.status());
     }
 
-    private SensorValue readSensorValue(AutomationResourceBindingEntity binding, Catalog catalog) {
+    private SensorValue readSensorValue(AutomationResourceBindingEntity binding, AutomationCatalog catalog) {
         if (binding == null) {
             return null;
         }
         if (AutomationData.SOURCE_NATIVE_SENSOR.equals(binding.getSourceType())) {
-            AutomationData.NativeSensor sensor = catalog.sensorsById.get(binding.getNativeSensorId());
+            AutomationData.NativeSensor sensor = catalog.sensorsById().get(binding.getNativeSensorId());
             return sensor != null ? new SensorValue(sensor.lastValue(), sensor.lastTs()) : null;
         }
         if (AutomationData.SOURCE_ZIGBEE_DEVICE.equals(binding.getSourceType())) {
@@ -1438,7 +1542,7 @@ public class AutomationFacade {
         return null;
     }
 
-    private Object readSwitchValue(AutomationResourceBindingEntity binding, Catalog catalog) {
+    private Object readSwitchValue(AutomationResourceBindingEntity binding, AutomationCatalog catalog) {
         if (binding == null || !AutomationData.SOURCE_ZIGBEE_DEVICE.equals(binding.getSourceType())) {
             return null;
         }
@@ -1468,13 +1572,13 @@ public class AutomationFacade {
         return null;
     }
 
-    private void validateResource(String role, AutomationData.ResourceBindingRequest item, Catalog catalog) {
+    private void validateResource(String role, AutomationData.ResourceBindingRequest item, AutomationCatalog catalog) {
         String sourceType = normalizeRequired(item.sourceType(), "source_type");
         if (AutomationData.SOURCE_ZIGBEE_DEVICE.equals(sourceType)) {
             requireZigbeeDeviceReference(catalog, item.zigbeeCoordinatorId(), item.zigbeeIeeeAddress());
         }
         if (AutomationData.ROLE_WATER_PUMP.equals(role)) {
-            if (!AutomationData.SOURCE_NATIVE_PUMP.equals(sourceType) || !catalog.pumpsById.containsKey(item.nativePumpId())) {
+            if (!AutomationData.SOURCE_NATIVE_PUMP.equals(sourceType) || !catalog.pumpsById().containsKey(item.nativePumpId())) {
                 throw new DomainException("bad_request", "В первой версии WATER_PUMP должен быть насосом GrowerHub");
             }
             return;
@@ -1512,7 +1616,7 @@ public class AutomationFacade {
         if (AutomationData.ROLE_AIR_TEMPERATURE_SENSOR.equals(role) || AutomationData.ROLE_SOIL_MOISTURE_SENSOR.equals(role)) {
             String expectedType = AutomationData.ROLE_AIR_TEMPERATURE_SENSOR.equals(role) ? "AIR_TEMPERATURE" : "SOIL_MOISTURE";
             if (AutomationData.SOURCE_NATIVE_SENSOR.equals(sourceType)) {
-                AutomationData.NativeSensor sensor = catalog.sensorsById.get(item.nativeSensorId());
+                AutomationData.NativeSensor sensor = catalog.sensorsById().get(item.nativeSensorId());
                 if (sensor == null || !expectedType.equals(sensor.type())) {
                     throw new DomainException("bad_request", role + " должен ссылаться на датчик " + expectedType);
                 }
@@ -1535,13 +1639,13 @@ public class AutomationFacade {
     }
 
     private AutomationData.ZigbeeDevice requireZigbeeDeviceReference(
-            Catalog catalog,
+            AutomationCatalog catalog,
             UUID coordinatorId,
             String ieeeAddress
     ) {
         UUID resolvedCoordinatorId = resolveCoordinatorPublicId(catalog, coordinatorId);
         if (resolvedCoordinatorId == null
-                || !catalog.coordinatorInternalByPublic.containsKey(resolvedCoordinatorId)) {
+                || !catalog.coordinatorInternalByPublic().containsKey(resolvedCoordinatorId)) {
             throw new DomainException("not_found", "Устройство Zigbee не найдено");
         }
         AutomationData.ZigbeeDevice device = findZigbeeDevice(catalog, resolvedCoordinatorId, ieeeAddress);
@@ -1552,7 +1656,7 @@ public class AutomationFacade {
     }
 
     private boolean zigbeeHasWritableProperty(
-            Catalog catalog,
+            AutomationCatalog catalog,
             UUID coordinatorId,
             String ieeeAddress,
             String property
@@ -1565,7 +1669,7 @@ public class AutomationFacade {
     }
 
     private boolean zigbeeHasReadableProperty(
-            Catalog catalog,
+            AutomationCatalog catalog,
             UUID coordinatorId,
             String ieeeAddress,
             String property
@@ -1580,141 +1684,37 @@ public class AutomationFacade {
 
     private AutomationData.ZigbeeDevice findZigbeeDevice(
             AutomationResourceBindingEntity binding,
-            Catalog catalog
+            AutomationCatalog catalog
     ) {
         if (binding == null) {
             return null;
         }
-        UUID coordinatorId = catalog.coordinatorPublicByInternal.get(binding.getZigbeeCoordinatorId());
+        UUID coordinatorId = catalog.coordinatorPublicByInternal().get(binding.getZigbeeCoordinatorId());
         return findZigbeeDevice(catalog, coordinatorId, binding.getZigbeeIeeeAddress());
     }
 
     private AutomationData.ZigbeeDevice findZigbeeDevice(
-            Catalog catalog,
+            AutomationCatalog catalog,
             UUID coordinatorId,
             String ieeeAddress
     ) {
         UUID resolvedCoordinatorId = resolveCoordinatorPublicId(catalog, coordinatorId);
         String key = zigbeeKey(resolvedCoordinatorId, blankToNull(ieeeAddress));
-        return key != null ? catalog.zigbeeByKey.get(key) : null;
+        return key != null ? catalog.zigbeeByKey().get(key) : null;
     }
 
-    private UUID resolveCoordinatorPublicId(Catalog catalog, UUID requestedCoordinatorId) {
+    private UUID resolveCoordinatorPublicId(AutomationCatalog catalog, UUID requestedCoordinatorId) {
         if (requestedCoordinatorId != null) {
             return requestedCoordinatorId;
         }
-        if (catalog.coordinatorInternalByPublic.size() == 1) {
-            return catalog.coordinatorInternalByPublic.keySet().iterator().next();
+        if (catalog.coordinatorInternalByPublic().size() == 1) {
+            return catalog.coordinatorInternalByPublic().keySet().iterator().next();
         }
         return null;
     }
 
     private String zigbeeKey(UUID coordinatorId, String ieeeAddress) {
-        if (coordinatorId == null || ieeeAddress == null || ieeeAddress.isBlank()) {
-            return null;
-        }
-        return coordinatorId + "|" + ieeeAddress;
-    }
-
-    private Catalog buildCatalog() {
-        return buildCatalog(null);
-    }
-
-    private Catalog buildCatalog(AuthenticatedUser user) {
-        boolean allData = user == null || user.isAdmin();
-        List<AutomationData.Plant> plants = allData
-                ? plantFacade.listAdminPlants(SYSTEM_ADMIN).stream().map(this::toPlantData).toList()
-                : plantFacade.listPlants(user).stream().map(this::toPlantData).toList();
-        Map<Integer, AutomationData.Plant> plantsById = plants.stream()
-                .collect(Collectors.toMap(AutomationData.Plant::id, Function.identity()));
-
-        List<AutomationData.NativeDevice> nativeDevices = new ArrayList<>();
-        Map<Integer, AutomationData.NativeSensor> sensorsById = new HashMap<>();
-        Map<Integer, AutomationData.NativePump> pumpsById = new HashMap<>();
-        List<DeviceSummary> deviceSummaries = allData
-                ? deviceFacade.listAdminDevices()
-                : deviceFacade.listMyDevices(user.id());
-        for (DeviceSummary summary : deviceSummaries) {
-            DeviceShadowState shadow = deviceFacade.getShadowState(summary.deviceId());
-            List<AutomationData.NativeSensor> sensors = sensorFacade.listByDeviceId(summary.id()).stream()
-                    .map(sensor -> toNativeSensorData(sensor, summary))
-                    .toList();
-            sensors.forEach(sensor -> sensorsById.put(sensor.id(), sensor));
-            List<AutomationData.NativePump> pumps = pumpFacade.listByDeviceId(summary.id(), shadow).stream()
-                    .map(pump -> toNativePumpData(pump, summary))
-                    .toList();
-            pumps.forEach(pump -> pumpsById.put(pump.id(), pump));
-            nativeDevices.add(new AutomationData.NativeDevice(
-                    summary.id(),
-                    summary.deviceId(),
-                    summary.name(),
-                    summary.isOnline(),
-                    summary.lastSeen(),
-                    sensors,
-                    pumps
-            ));
-        }
-
-        List<ZigbeeOwnedDeviceData> ownedZigbeeDevices = allData
-                ? zigbeeFacade.getDevicesForAutomation()
-                : zigbeeFacade.getDevicesForUser(user);
-        List<AutomationData.ZigbeeDevice> zigbeeDevices = ownedZigbeeDevices.stream()
-                .filter(item -> !item.device().coordinator())
-                .map(this::toZigbeeDeviceData)
-                .toList();
-        Map<String, AutomationData.ZigbeeDevice> zigbeeByKey = ownedZigbeeDevices.stream()
-                .filter(item -> !item.device().coordinator())
-                .filter(item -> item.device().ieeeAddress() != null)
-                .collect(Collectors.toMap(
-                        item -> zigbeeKey(item.coordinatorId(), item.device().ieeeAddress()),
-                        this::toZigbeeDeviceData,
-                        (left, right) -> left
-                ));
-        Map<Integer, UUID> coordinatorPublicByInternal = ownedZigbeeDevices.stream()
-                .collect(Collectors.toMap(
-                        ZigbeeOwnedDeviceData::coordinatorInternalId,
-                        ZigbeeOwnedDeviceData::coordinatorId,
-                        (left, right) -> left
-                ));
-        Map<UUID, Integer> coordinatorInternalByPublic = ownedZigbeeDevices.stream()
-                .collect(Collectors.toMap(
-                        ZigbeeOwnedDeviceData::coordinatorId,
-                        ZigbeeOwnedDeviceData::coordinatorInternalId,
-                        (left, right) -> left
-                ));
-        return new Catalog(
-                plants,
-                plantsById,
-                nativeDevices,
-                sensorsById,
-                pumpsById,
-                zigbeeDevices,
-                zigbeeByKey,
-                coordinatorPublicByInternal,
-                coordinatorInternalByPublic
-        );
-    }
-
-    private AutomationData.Plant toPlantData(AdminPlantInfo plant) {
-        return new AutomationData.Plant(
-                plant.id(),
-                plant.name(),
-                plant.ownerEmail(),
-                plant.ownerUsername(),
-                plant.ownerId(),
-                plant.groupName()
-        );
-    }
-
-    private AutomationData.Plant toPlantData(PlantInfo plant) {
-        return new AutomationData.Plant(
-                plant.id(),
-                plant.name(),
-                null,
-                null,
-                plant.userId(),
-                plant.plantGroup() != null ? plant.plantGroup().name() : null
-        );
+        return AutomationCatalog.zigbeeKey(coordinatorId, ieeeAddress);
     }
 
     private AutomationData.BoxPlant toBoxPlantData(
@@ -1735,62 +1735,6 @@ public class AutomationFacade {
         );
     }
 
-    private AutomationData.NativeSensor toNativeSensorData(SensorView sensor, DeviceSummary summary) {
-        return new AutomationData.NativeSensor(
-                sensor.id(),
-                sensor.deviceId(),
-                sensor.type() != null ? sensor.type().name() : null,
-                sensor.channel(),
-                sensor.label(),
-                sensor.status() != null ? sensor.status().name() : null,
-                sensor.lastValue(),
-                sensor.lastTs(),
-                summary != null ? summary.lastSeen() : null
-        );
-    }
-
-    private AutomationData.NativePump toNativePumpData(PumpView pump, DeviceSummary summary) {
-        return new AutomationData.NativePump(
-                pump.id(),
-                pump.deviceId(),
-                pump.channel(),
-                pump.label(),
-                pump.isRunning(),
-                summary.isOnline(),
-                summary.lastSeen()
-        );
-    }
-
-    private AutomationData.ZigbeeDevice toZigbeeDeviceData(ZigbeeOwnedDeviceData ownedDevice) {
-        ZigbeeDeviceData device = ownedDevice.device();
-        return new AutomationData.ZigbeeDevice(
-                ownedDevice.coordinatorId(),
-                ownedDevice.coordinatorName(),
-                device.ieeeAddress(),
-                device.friendlyName(),
-                device.type(),
-                device.imageUrl(),
-                device.definition(),
-                device.metrics().stream().map(this::toZigbeeFeatureData).toList(),
-                device.controls().stream().map(this::toZigbeeFeatureData).toList(),
-                device.availability(),
-                device.lastStateAt()
-        );
-    }
-
-    private AutomationData.ZigbeeFeature toZigbeeFeatureData(ZigbeeFeatureData feature) {
-        return new AutomationData.ZigbeeFeature(
-                feature.type(),
-                feature.property(),
-                feature.label() != null ? feature.label() : feature.name(),
-                feature.unit(),
-                feature.access(),
-                feature.value(),
-                feature.valueOn(),
-                feature.valueOff()
-        );
-    }
-
     private void validateRoleForScope(String scopeType, String role) {
         if (AutomationData.SCOPE_ROOM.equals(scopeType)) {
             if (!AutomationData.ROLE_AC_SWITCH.equals(role)) {
@@ -1819,7 +1763,7 @@ public class AutomationFacade {
                 || AutomationData.ROLE_LIGHT_SWITCH.equals(role);
     }
 
-    private WateringTopology buildWateringTopology(Catalog catalog) {
+    private WateringTopology buildWateringTopology(AutomationCatalog catalog) {
         List<AutomationRoomEntity> rooms = roomRepository.findAllByOrderByNameAscIdAsc();
         List<AutomationBoxEntity> boxes = boxRepository.findAllByOrderByNameAscIdAsc();
         Map<Integer, AutomationRoomEntity> roomsById = rooms.stream()
@@ -1844,7 +1788,7 @@ public class AutomationFacade {
             }
             AutomationRoomEntity room = roomsById.get(box.getRoomId());
             List<AutomationData.BoxPlant> plants = plantsByBox.getOrDefault(box.getId(), List.of()).stream()
-                    .map(binding -> toBoxPlantData(binding, catalog.plantsById.get(binding.getPlantId())))
+                    .map(binding -> toBoxPlantData(binding, catalog.plantsById().get(binding.getPlantId())))
                     .filter(Objects::nonNull)
                     .toList();
             List<PumpSessionData.LeakTarget> leakSensors = boxResources.stream()
@@ -1884,7 +1828,7 @@ public class AutomationFacade {
     private boolean hasConfiguredLeakSensorForPump(
             Integer pumpId,
             Integer excludedBoxId,
-            Catalog catalog
+            AutomationCatalog catalog
     ) {
         return buildWateringTopology(catalog).targetsByPump.getOrDefault(pumpId, List.of()).stream()
                 .filter(target -> !Objects.equals(target.boxId(), excludedBoxId))
@@ -1931,7 +1875,7 @@ public class AutomationFacade {
 
     private PumpSessionData.LeakTarget toLeakTarget(
             AutomationResourceBindingEntity binding,
-            Catalog catalog
+            AutomationCatalog catalog
     ) {
         AutomationData.ZigbeeDevice device = findZigbeeDevice(binding, catalog);
         String property = defaultProperty(AutomationData.ROLE_LEAK_SENSOR, binding.getZigbeeProperty());
@@ -1940,7 +1884,7 @@ public class AutomationFacade {
                 binding.getId(),
                 binding.getSourceType(),
                 zigbeeKey(
-                        catalog.coordinatorPublicByInternal.get(binding.getZigbeeCoordinatorId()),
+                        catalog.coordinatorPublicByInternal().get(binding.getZigbeeCoordinatorId()),
                         binding.getZigbeeIeeeAddress()
                 ),
                 property,
@@ -1952,9 +1896,9 @@ public class AutomationFacade {
 
     private PumpSessionData.LeakState currentLeakState(
             PumpSessionData.LeakTarget target,
-            Catalog catalog
+            AutomationCatalog catalog
     ) {
-        AutomationData.ZigbeeDevice device = catalog.zigbeeByKey.get(target.externalId());
+        AutomationData.ZigbeeDevice device = catalog.zigbeeByKey().get(target.externalId());
         return new PumpSessionData.LeakState(
                 target.reference(),
                 isLeakAvailable(device, target.property()),
@@ -1996,7 +1940,7 @@ public class AutomationFacade {
     }
 
     private void syncAutomationPump(Integer pumpId) {
-        Catalog catalog = buildCatalog();
+        AutomationCatalog catalog = catalogStore.build(null);
         WateringTopology topology = buildWateringTopology(catalog);
         pumpFacade.syncAutomationBindings(pumpId, topology.targetsByPump.getOrDefault(pumpId, List.of()));
     }
@@ -2495,20 +2439,4 @@ public class AutomationFacade {
             Map<Integer, List<PumpSessionData.BoxTarget>> targetsByPump
     ) {
     }
-
-    private record Catalog(
-            List<AutomationData.Plant> plants,
-            Map<Integer, AutomationData.Plant> plantsById,
-            List<AutomationData.NativeDevice> nativeDevices,
-            Map<Integer, AutomationData.NativeSensor> sensorsById,
-            Map<Integer, AutomationData.NativePump> pumpsById,
-            List<AutomationData.ZigbeeDevice> zigbeeDevices,
-            Map<String, AutomationData.ZigbeeDevice> zigbeeByKey,
-            Map<Integer, UUID> coordinatorPublicByInternal,
-            Map<UUID, Integer> coordinatorInternalByPublic
-    ) {
-        AutomationData.ResourceCatalog toData() {
-            return new AutomationData.ResourceCatalog(plants, nativeDevices, zigbeeDevices);
-        }
-    }
 }
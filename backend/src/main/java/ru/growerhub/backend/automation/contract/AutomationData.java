@@ -52,6 +52,49 @@ public final class AutomationData {
         }
     }
 
+    public record LeakReactionStats(
+            @JsonProperty("enabled") boolean enabled,
+            @JsonProperty("tracked_sensors") int trackedSensors,
+            @JsonProperty("queued") int queued,
+            @JsonProperty("triggered") long triggered,
+            @JsonProperty("dropped") long dropped,
+            @JsonProperty("failed") long failed,
+            @JsonProperty("stops") long stops,
+            @JsonProperty("last_stop_latency_ms") Long lastStopLatencyMs,
+            @JsonProperty("max_stop_latency_ms") Long maxStopLatencyMs,
+            @JsonProperty("avg_stop_latency_ms") Double avgStopLatencyMs
+    ) {
+    }
+
+    public record EvaluationStats(
+            @JsonProperty("concurrency") int concurrency,
+            @JsonProperty("ticks") long ticks,
+            @JsonProperty("last_tick_ms") Long lastTickMs,
+            @JsonProperty("max_tick_ms") Long maxTickMs,
+            @JsonProperty("skipped_in_flight") long skippedInFlight,
+            @JsonProperty("skipped_not_owned") long skippedNotOwned,
+            @JsonProperty("scopes") List<ScopeTiming> scopes
+    ) {
+    }
+
+    public record ShardAssignment(
+            @JsonProperty("shard_key") String shardKey,
+            @JsonProperty("scope_type") String scopeType,
+            @JsonProperty("scope_ids") List<Integer> scopeIds,
+            @JsonProperty("owner_node") String ownerNode
+    ) {
+    }
+
+    public record ScopeTiming(
+            @JsonProperty("scope_type") String scopeType,
+            @JsonProperty("count") long count,
+            @JsonProperty("failures") long failures,
+            @JsonProperty("avg_ms") Double avgMs,
+            @JsonProperty("max_ms") Long maxMs,
+            @JsonProperty("histogram") Map<String, Long> histogram
+    ) {
+    }
+
     public record Settings(
             @JsonProperty("timezone") String timezone,
             @JsonProperty("stale_sensor_minutes") int staleSensorMinutes,
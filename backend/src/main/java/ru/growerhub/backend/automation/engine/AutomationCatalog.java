@@ -0,0 +1,33 @@
+package ru.growerhub.backend.automation.engine;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import ru.growerhub.backend.automation.contract.AutomationData;
+
+// Snimok resursov dlja avtomatizacii: rastenija, nativnye ustrojstva s sensorami/pompami i zigbee ustrojstva.
+// version rastet pri kazhdom izmenenii istochnikov, po nemu worker'y ponimajut, chto katalog ne menjalsja.
+public record AutomationCatalog(
+        long version,
+        List<AutomationData.Plant> plants,
+        Map<Integer, AutomationData.Plant> plantsById,
+        List<AutomationData.NativeDevice> nativeDevices,
+        Map<String, AutomationData.NativeDevice> nativeDevicesByKey,
+        Map<Integer, AutomationData.NativeSensor> sensorsById,
+        Map<Integer, AutomationData.NativePump> pumpsById,
+        List<AutomationData.ZigbeeDevice> zigbeeDevices,
+        Map<String, AutomationData.ZigbeeDevice> zigbeeByKey,
+        Map<Integer, UUID> coordinatorPublicByInternal,
+        Map<UUID, Integer> coordinatorInternalByPublic
+) {
+    public AutomationData.ResourceCatalog toData() {
+        return new AutomationData.ResourceCatalog(plants, nativeDevices, zigbeeDevices);
+    }
+
+    public static String zigbeeKey(UUID coordinatorId, String ieeeAddress) {
+        if (coordinatorId == null || ieeeAddress == null || ieeeAddress.isBlank()) {
+            return null;
+        }
+        return coordinatorId + "|" + ieeeAddress;
+    }
+}
@@ -0,0 +1,562 @@
+package ru.growerhub.backend.automation.engine;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.growerhub.backend.automation.contract.AutomationData;
+import ru.growerhub.backend.common.config.AutomationCatalogSettings;
+import ru.growerhub.backend.common.config.DeviceSettings;
+import ru.growerhub.backend.common.contract.AuthenticatedUser;
+import ru.growerhub.backend.common.contract.ChangeBus;
+import ru.growerhub.backend.device.DeviceFacade;
+import ru.growerhub.backend.device.contract.DeviceChangedEvent;
+import ru.growerhub.backend.device.contract.DeviceShadowState;
+import ru.growerhub.backend.device.contract.DeviceSummary;
+import ru.growerhub.backend.plant.PlantFacade;
+import ru.growerhub.backend.plant.contract.AdminPlantInfo;
+import ru.growerhub.backend.plant.contract.PlantChangedEvent;
+import ru.growerhub.backend.plant.contract.PlantInfo;
+import ru.growerhub.backend.pump.PumpFacade;
+import ru.growerhub.backend.pump.contract.PumpView;
+import ru.growerhub.backend.sensor.SensorFacade;
+import ru.growerhub.backend.sensor.contract.SensorView;
+import ru.growerhub.backend.zigbee.ZigbeeFacade;
+import ru.growerhub.backend.zigbee.contract.ZigbeeDeviceChangedEvent;
+import ru.growerhub.backend.zigbee.contract.ZigbeeDeviceData;
+import ru.growerhub.backend.zigbee.contract.ZigbeeFeatureData;
+import ru.growerhub.backend.zigbee.contract.ZigbeeOwnedDeviceData;
+
+// Katalog resursov avtomatizacii. build(user) - polnaja sborka dlja API,
+// current() - sistemnyj katalog dlja worker'ov: segmenty obnovljajutsja po sobytijam domenov posle commit,
+// bez izmenenij vozvrashchaetsja prezhnij snimok, raz v fullRefreshMs katalog peresobiraetsja celikom.
+// Pomechennye segmenty rassylajutsja po shine izmenenij, drugie uzly pomechajut te zhe segmenty u sebja.
+@Component
+public class AutomationCatalogStore {
+    private static final Logger log = LoggerFactory.getLogger(AutomationCatalogStore.class);
+    static final String CHANGE_TOPIC = "catalog";
+    private static final AuthenticatedUser SYSTEM_ADMIN = new AuthenticatedUser(0, "admin");
+
+    private final DeviceFacade deviceFacade;
+    private final SensorFacade sensorFacade;
+    private final PumpFacade pumpFacade;
+    private final PlantFacade plantFacade;
+    private final ZigbeeFacade zigbeeFacade;
+    private final AutomationCatalogSettings settings;
+    private final DeviceSettings deviceSettings;
+    private final Clock clock;
+    private final ObjectMapper objectMapper;
+    private final ChangeBus changeBus;
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean fullRefreshRequested = new AtomicBoolean();
+    private final AtomicBoolean plantsDirty = new AtomicBoolean();
+    private final Set<String> dirtyDevices = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> dirtyCoordinators = ConcurrentHashMap.newKeySet();
+    private final Set<ZigbeeRef> dirtyZigbeeDevices = ConcurrentHashMap.newKeySet();
+
+    // Translitem: segmenty menjajutsja tol'ko vnutri current() pod monitorom this.
+    private List<AutomationData.Plant> plants = List.of();
+    private final Map<String, DeviceSegment> devices = new LinkedHashMap<>();
+    private final Map<Integer, Map<String, ZigbeeOwnedDeviceData>> zigbeeByCoordinator = new LinkedHashMap<>();
+    private boolean initialized;
+    private long lastFullRefreshNs;
+    private AutomationCatalog snapshot;
+    private long snapshotAtNs;
+
+    public AutomationCatalogStore(
+            DeviceFacade deviceFacade,
+            SensorFacade sensorFacade,
+            PumpFacade pumpFacade,
+            PlantFacade plantFacade,
+            ZigbeeFacade zigbeeFacade,
+            AutomationCatalogSettings settings,
+            DeviceSettings deviceSettings,
+            Clock clock,
+            ObjectMapper objectMapper,
+            ChangeBus changeBus
+    ) {
+        this.deviceFacade = deviceFacade;
+        this.sensorFacade = sensorFacade;
+        this.pumpFacade = pumpFacade;
+        this.plantFacade = plantFacade;
+        this.zigbeeFacade = zigbeeFacade;
+        this.settings = settings;
+        this.deviceSettings = deviceSettings;
+        this.clock = clock;
+        this.objectMapper = objectMapper;
+        this.changeBus = changeBus;
+        changeBus.subscribe(CHANGE_TOPIC, this::applyRemote);
+        // Translitem: pometki za vremja razryva shiny mogli poterjat'sja - sledujushchij current() peresobiraet vse.
+        changeBus.onResync(this::requestFullRefresh);
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public AutomationCatalog build(AuthenticatedUser user) {
+        boolean allData = user == null || user.isAdmin();
+        long currentVersion = version.get();
+        List<AutomationData.Plant> plantData = allData ? loadPlants() : plantFacade.listPlants(user).stream()
+                .map(this::toPlantData)
+                .toList();
+        List<DeviceSummary> deviceSummaries = allData
+                ? deviceFacade.listAdminDevices()
+                : deviceFacade.listMyDevices(user.id());
+        List<ZigbeeOwnedDeviceData> ownedZigbeeDevices = allData
+                ? zigbeeFacade.getDevicesForAutomation()
+                : zigbeeFacade.getDevicesForUser(user);
+        return assemble(currentVersion, plantData, loadSegments(deviceSummaries), ownedZigbeeDevices, null);
+    }
+
+    public synchronized AutomationCatalog current() {
+        if (!settings.isIncremental()) {
+            return build(null);
+        }
+        long nowNs = System.nanoTime();
+        long currentVersion = version.get();
+        long fullRefreshNs = TimeUnit.MILLISECONDS.toNanos(settings.getFullRefreshMs());
+        boolean refreshRequested = fullRefreshRequested.getAndSet(false);
+        if (!initialized || refreshRequested || (fullRefreshNs > 0 && nowNs - lastFullRefreshNs > fullRefreshNs)) {
+            try {
+                refreshAll();
+            } catch (RuntimeException ex) {
+                if (refreshRequested) {
+                    fullRefreshRequested.set(true);
+                }
+                throw ex;
+            }
+            lastFullRefreshNs = nowNs;
+            initialized = true;
+        } else {
+            long maxAgeNs = TimeUnit.MILLISECONDS.toNanos(settings.getMaxSnapshotAgeMs());
+            if (snapshot != null && snapshot.version() == currentVersion && nowNs - snapshotAtNs < maxAgeNs) {
+                return snapshot;
+            }
+            refreshDirty();
+        }
+        List<ZigbeeOwnedDeviceData> ownedZigbeeDevices = new ArrayList<>();
+        zigbeeByCoordinator.values().forEach(items -> ownedZigbeeDevices.addAll(items.values()));
+        snapshot = assemble(
+                currentVersion,
+                plants,
+                devices.values(),
+                ownedZigbeeDevices,
+                LocalDateTime.now(clock)
+        );
+        snapshotAtNs = nowNs;
+        return snapshot;
+    }
+
+    // Translitem: sobytija tol'ko pomechajut segmenty, chtenie BD proishodit v current() na potoke worker'a.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        if (settings.isIncremental() && event.deviceId() != null) {
+            markDevice(event.deviceId());
+            publish(new CatalogChange(event.deviceId(), null, null, false));
+        }
+    }
+
+    // Translitem: pomechaem ran'she LeakReactionDispatcher, chtoby reakcija na protechku uvidela svezhij segment.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onZigbeeDeviceChanged(ZigbeeDeviceChangedEvent event) {
+        if (!settings.isIncremental() || event.coordinatorInternalId() == null) {
+            return;
+        }
+        markZigbee(event.coordinatorInternalId(), event.friendlyName());
+        publish(new CatalogChange(null, event.coordinatorInternalId(), event.friendlyName(), false));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlantChanged(PlantChangedEvent event) {
+        if (settings.isIncremental()) {
+            markPlants();
+            publish(new CatalogChange(null, null, null, true));
+        }
+    }
+
+    private void markDevice(String deviceId) {
+        dirtyDevices.add(deviceId);
+        version.incrementAndGet();
+    }
+
+    private void markZigbee(Integer coordinatorInternalId, String friendlyName) {
+        if (friendlyName == null) {
+            dirtyCoordinators.add(coordinatorInternalId);
+        } else {
+            dirtyZigbeeDevices.add(new ZigbeeRef(coordinatorInternalId, friendlyName));
+        }
+        version.incrementAndGet();
+    }
+
+    private void markPlants() {
+        plantsDirty.set(true);
+        version.incrementAndGet();
+    }
+
+    private void requestFullRefresh() {
+        fullRefreshRequested.set(true);
+        version.incrementAndGet();
+    }
+
+    private void publish(CatalogChange change) {
+        if (!changeBus.isClustered()) {
+            return;
+        }
+        try {
+            changeBus.publish(CHANGE_TOPIC, objectMapper.writeValueAsString(change));
+        } catch (Exception ex) {
+            log.warn("Izmenenie kataloga avtomatizacii ne otpravleno v shinu izmenenij: {}", ex.getMessage());
+        }
+    }
+
+    private void applyRemote(String payload) {
+        CatalogChange change;
+        try {
+            change = objectMapper.readValue(payload, CatalogChange.class);
+        } catch (Exception ex) {
+            log.warn("Ne udalos razobrat izmenenie kataloga iz shiny izmenenij: {}", ex.getMessage());
+            return;
+        }
+        if (!settings.isIncremental()) {
+            return;
+        }
+        if (change.deviceId() != null) {
+            markDevice(change.deviceId());
+        }
+        if (change.coordinatorInternalId() != null) {
+            markZigbee(change.coordinatorInternalId(), change.friendlyName());
+        }
+        if (change.plants()) {
+            markPlants();
+        }
+    }
+
+    private void refreshAll() {
+        plantsDirty.set(false);
+        dirtyDevices.clear();
+        dirtyCoordinators.clear();
+        dirtyZigbeeDevices.clear();
+        plants = loadPlants();
+        devices.clear();
+        for (DeviceSegment segment : loadSegments(deviceFacade.listAdminDevices())) {
+            devices.put(segment.summary().deviceId(), segment);
+        }
+        zigbeeByCoordinator.clear();
+        for (ZigbeeOwnedDeviceData item : zigbeeFacade.getDevicesForAutomation()) {
+            putZigbee(item);
+        }
+    }
+
+    private void refreshDirty() {
+        if (plantsDirty.getAndSet(false)) {
+            try {
+                plants = loadPlants();
+            } catch (RuntimeException ex) {
+                plantsDirty.set(true);
+                log.warn("Ne udalos obnovit rastenija v kataloge avtomatizacii: {}", ex.getMessage());
+            }
+        }
+        for (String deviceId : drain(dirtyDevices)) {
+            try {
+                refreshDevice(deviceId);
+            } catch (RuntimeException ex) {
+                dirtyDevices.add(deviceId);
+                log.warn("Ne udalos obnovit ustrojstvo {} v kataloge avtomatizacii: {}", deviceId, ex.getMessage());
+            }
+        }
+        List<Integer> coordinators = drain(dirtyCoordinators);
+        for (Integer coordinatorId : coordinators) {
+            try {
+                zigbeeByCoordinator.remove(coordinatorId);
+                zigbeeFacade.getCoordinatorDevicesForAutomation(coordinatorId).forEach(this::putZigbee);
+            } catch (RuntimeException ex) {
+                dirtyCoordinators.add(coordinatorId);
+                log.warn("Ne udalos obnovit zigbee koordinator {} v kataloge: {}", coordinatorId, ex.getMessage());
+            }
+        }
+        for (ZigbeeRef ref : drain(dirtyZigbeeDevices)) {
+            if (coordinators.contains(ref.coordinatorInternalId())) {
+                continue;
+            }
+            try {
+                refreshZigbeeDevice(ref);
+            } catch (RuntimeException ex) {
+                dirtyZigbeeDevices.add(ref);
+                log.warn("Ne udalos obnovit zigbee ustrojstvo {} v kataloge: {}", ref.friendlyName(), ex.getMessage());
+            }
+        }
+    }
+
+    private void refreshDevice(String deviceId) {
+        Integer devicePk = deviceFacade.findDeviceId(deviceId);
+        DeviceSummary summary = devicePk != null ? deviceFacade.getDeviceSummary(devicePk) : null;
+        if (summary == null) {
+            devices.remove(deviceId);
+            return;
+        }
+        devices.put(deviceId, loadSegment(summary, deviceFacade.getShadowState(deviceId)));
+    }
+
+    private void refreshZigbeeDevice(ZigbeeRef ref) {
+        Map<String, ZigbeeOwnedDeviceData> items = zigbeeByCoordinator.get(ref.coordinatorInternalId());
+        ZigbeeOwnedDeviceData item = zigbeeFacade.getDeviceForAutomation(ref.coordinatorInternalId(), ref.friendlyName());
+        if (item == null) {
+            if (items != null) {
+                items.remove(ref.friendlyName());
+            }
+            return;
+        }
+        putZigbee(item);
+    }
+
+    private void putZigbee(ZigbeeOwnedDeviceData item) {
+        if (item.device() == null || item.device().friendlyName() == null) {
+            return;
+        }
+        zigbeeByCoordinator.computeIfAbsent(item.coordinatorInternalId(), key -> new LinkedHashMap<>())
+                .put(item.device().friendlyName(), item);
+    }
+
+    private List<AutomationData.Plant> loadPlants() {
+        return plantFacade.listAdminPlants(SYSTEM_ADMIN).stream().map(this::toPlantData).toList();
+    }
+
+    private List<DeviceSegment> loadSegments(List<DeviceSummary> deviceSummaries) {
+        Map<String, DeviceShadowState> shadows = deviceFacade.getShadowStates(
+                deviceSummaries.stream().map(DeviceSummary::deviceId).toList()
+        );
+        List<DeviceSegment> segments = new ArrayList<>(deviceSummaries.size());
+        for (DeviceSummary summary : deviceSummaries) {
+            segments.add(loadSegment(summary, shadows.get(summary.deviceId())));
+        }
+        return segments;
+    }
+
+    private DeviceSegment loadSegment(DeviceSummary summary, DeviceShadowState shadow) {
+        List<AutomationData.NativeSensor> sensors = sensorFacade.listByDeviceId(summary.id()).stream()
+                .map(sensor -> toNativeSensorData(sensor, summary))
+                .toList();
+        List<AutomationData.NativePump> pumps = pumpFacade.listByDeviceId(summary.id(), shadow).stream()
+                .map(pump -> toNativePumpData(pump, summary))
+                .toList();
+        return new DeviceSegment(summary, sensors, pumps);
+    }
+
+    // Translitem: now != null - online pereschityvaetsja po lastSeen, t.k. segment mog byt' postroen ran'she.
+    private AutomationCatalog assemble(
+            long catalogVersion,
+            List<AutomationData.Plant> plantData,
+            Collection<DeviceSegment> segments,
+            List<ZigbeeOwnedDeviceData> ownedZigbeeDevices,
+            LocalDateTime now
+    ) {
+        Map<Integer, AutomationData.Plant> plantsById = plantData.stream()
+                .collect(Collectors.toMap(AutomationData.Plant::id, Function.identity()));
+
+        List<AutomationData.NativeDevice> nativeDevices = new ArrayList<>(segments.size());
+        Map<String, AutomationData.NativeDevice> nativeDevicesByKey = new HashMap<>();
+        Map<Integer, AutomationData.NativeSensor> sensorsById = new HashMap<>();
+        Map<Integer, AutomationData.NativePump> pumpsById = new HashMap<>();
+        for (DeviceSegment segment : segments) {
+            DeviceSummary summary = segment.summary();
+            Boolean online = now != null ? Boolean.valueOf(isOnline(summary.lastSeen(), now)) : summary.isOnline();
+            List<AutomationData.NativePump> pumps = Objects.equals(online, summary.isOnline())
+                    ? segment.pumps()
+                    : segment.pumps().stream().map(pump -> withOnline(pump, online)).toList();
+            segment.sensors().forEach(sensor -> sensorsById.put(sensor.id(), sensor));
+            pumps.forEach(pump -> pumpsById.put(pump.id(), pump));
+            AutomationData.NativeDevice device = new AutomationData.NativeDevice(
+                    summary.id(),
+                    summary.deviceId(),
+                    summary.name(),
+                    online,
+                    summary.lastSeen(),
+                    segment.sensors(),
+                    pumps
+            );
+            nativeDevices.add(device);
+            nativeDevicesByKey.putIfAbsent(summary.deviceId(), device);
+        }
+
+        List<AutomationData.ZigbeeDevice> zigbeeDevices = ownedZigbeeDevices.stream()
+                .filter(item -> !item.device().coordinator())
+                .map(this::toZigbeeDeviceData)
+                .toList();
+        Map<String, AutomationData.ZigbeeDevice> zigbeeByKey = ownedZigbeeDevices.stream()
+                .filter(item -> !item.device().coordinator())
+                .filter(item -> item.device().ieeeAddress() != null)
+                .collect(Collectors.toMap(
+                        item -> AutomationCatalog.zigbeeKey(item.coordinatorId(), item.device().ieeeAddress()),
+                        this::toZigbeeDeviceData,
+                        (left, right) -> left
+                ));
+        Map<Integer, UUID> coordinatorPublicByInternal = ownedZigbeeDevices.stream()
+                .collect(Collectors.toMap(
+                        ZigbeeOwnedDeviceData::coordinatorInternalId,
+                        ZigbeeOwnedDeviceData::coordinatorId,
+                        (left, right) -> left
+                ));
+        Map<UUID, Integer> coordinatorInternalByPublic = ownedZigbeeDevices.stream()
+                .collect(Collectors.toMap(
+                        ZigbeeOwnedDeviceData::coordinatorId,
+                        ZigbeeOwnedDeviceData::coordinatorInternalId,
+                        (left, right) -> left
+                ));
+        return new AutomationCatalog(
+                catalogVersion,
+                plantData,
+                plantsById,
+                nativeDevices,
+                nativeDevicesByKey,
+                sensorsById,
+                pumpsById,
+                zigbeeDevices,
+                zigbeeByKey,
+                coordinatorPublicByInternal,
+                coordinatorInternalByPublic
+        );
+    }
+
+    private boolean isOnline(LocalDateTime lastSeen, LocalDateTime now) {
+        return lastSeen != null && Duration.between(lastSeen, now).getSeconds() <= deviceSettings.getOnlineThresholdS();
+    }
+
+    private AutomationData.NativePump withOnline(AutomationData.NativePump pump, Boolean online) {
+        return new AutomationData.NativePump(
+                pump.id(),
+                pump.deviceId(),
+                pump.channel(),
+                pump.label(),
+                pump.isRunning(),
+                online,
+                pump.lastSeenAt()
+        );
+    }
+
+    private AutomationData.Plant toPlantData(AdminPlantInfo plant) {
+        return new AutomationData.Plant(
+                plant.id(),
+                plant.name(),
+                plant.ownerEmail(),
+                plant.ownerUsername(),
+                plant.ownerId(),
+                plant.groupName()
+        );
+    }
+
+    private AutomationData.Plant toPlantData(PlantInfo plant) {
+        return new AutomationData.Plant(
+                plant.id(),
+                plant.name(),
+                null,
+                null,
+                plant.userId(),
+                plant.plantGroup() != null ? plant.plantGroup().name() : null
+        );
+    }
+
+    private AutomationData.NativeSensor toNativeSensorData(SensorView sensor, DeviceSummary summary) {
+        return new AutomationData.NativeSensor(
+                sensor.id(),
+                sensor.deviceId(),
+                sensor.type() != null ? sensor.type().name() : null,
+                sensor.channel(),
+                sensor.label(),
+                sensor.status() != null ? sensor.status().name() : null,
+                sensor.lastValue(),
+                sensor.lastTs(),
+                summary != null ? summary.lastSeen() : null
+        );
+    }
+
+    private AutomationData.NativePump toNativePumpData(PumpView pump, DeviceSummary summary) {
+        return new AutomationData.NativePump(
+                pump.id(),
+                pump.deviceId(),
+                pump.channel(),
+                pump.label(),
+                pump.isRunning(),
+                summary.isOnline(),
+                summary.lastSeen()
+        );
+    }
+
+    private AutomationData.ZigbeeDevice toZigbeeDeviceData(ZigbeeOwnedDeviceData ownedDevice) {
+        ZigbeeDeviceData device = ownedDevice.device();
+        return new AutomationData.ZigbeeDevice(
+                ownedDevice.coordinatorId(),
+                ownedDevice.coordinatorName(),
+                device.ieeeAddress(),
+                device.friendlyName(),
+                device.type(),
+                device.imageUrl(),
+                device.definition(),
+                device.metrics().stream().map(this::toZigbeeFeatureData).toList(),
+                device.controls().stream().map(this::toZigbeeFeatureData).toList(),
+                device.availability(),
+                device.lastStateAt()
+        );
+    }
+
+    private AutomationData.ZigbeeFeature toZigbeeFeatureData(ZigbeeFeatureData feature) {
+        return new AutomationData.ZigbeeFeature(
+                feature.type(),
+                feature.property(),
+                feature.label() != null ? feature.label() : feature.name(),
+                feature.unit(),
+                feature.access(),
+                feature.value(),
+                feature.valueOn(),
+                feature.valueOff()
+        );
+    }
+
+    private static <T> List<T> drain(Set<T> dirty) {
+        List<T> drained = new ArrayList<>(dirty);
+        dirty.removeAll(drained);
+        return drained;
+    }
+
+    private record DeviceSegment(
+            DeviceSummary summary,
+            List<AutomationData.NativeSensor> sensors,
+            List<AutomationData.NativePump> pumps
+    ) {
+    }
+
+    private record ZigbeeRef(Integer coordinatorInternalId, String friendlyName) {
+    }
+
+    private record CatalogChange(
+            @JsonProperty("device_id") String deviceId,
+            @JsonProperty("coordinator_internal_id") Integer coordinatorInternalId,
+            @JsonProperty("friendly_name") String friendlyName,
+            @JsonProperty("plants") boolean plants
+    ) {
+    }
+}
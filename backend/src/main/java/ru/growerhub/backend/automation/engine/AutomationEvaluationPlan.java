@@ -0,0 +1,21 @@
+package ru.growerhub.backend.automation.engine;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Plan odnogo tika avtomatizacii: boksy s obshchim nasosom poliva lezhat v odnom shard'e i ocenivajutsja
+// posledovatel'no, shard'y i pomeshchenija - parallel'no, kazhdyj scope v svoej tranzakcii.
+// Kljuch shard'a (pump:<id>/box:<id>) - edinica raspredelenija mezhdu uzlami klastera.
+public record AutomationEvaluationPlan(
+        AutomationCatalog catalog,
+        LocalDateTime now,
+        List<BoxShard> boxShards,
+        List<Integer> roomIds
+) {
+    public static String roomShardKey(Integer roomId) {
+        return "room:" + roomId;
+    }
+
+    public record BoxShard(String key, List<Integer> boxIds) {
+    }
+}
@@ -0,0 +1,208 @@
+package ru.growerhub.backend.automation.engine;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.automation.AutomationFacade;
+import ru.growerhub.backend.automation.contract.AutomationData;
+import ru.growerhub.backend.cluster.ClusterFacade;
+import ru.growerhub.backend.common.config.AutomationEvaluationSettings;
+
+// Tik avtomatizacii po scope: snachala boksy (climate/light/watering), potom pomeshchenija (room climate chitaet
+// zaprosy boksov etogo tika). Kazhdyj scope - otdel'naja korotkaja tranzakcija facade, oshibka ne zadevaet sosedej.
+// V klastere uzel ocenivaet tol'ko svoi shard'y; pomeshchenie vidit zaprosy boksov drugih uzlov cherez BD
+// (ne pozzhe predydushchego tika).
+@Component
+public class AutomationScopeRunner {
+    private static final Logger log = LoggerFactory.getLogger(AutomationScopeRunner.class);
+    private static final long[] BUCKETS_MS = {10, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private final AutomationEvaluationSettings settings;
+    private final AutomationFacade automationFacade;
+    private final ClusterFacade clusterFacade;
+    private final ExecutorService executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<String, ScopeHistogram> histograms = new ConcurrentHashMap<>();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong maxTickMs = new AtomicLong();
+    private final AtomicLong skippedInFlight = new AtomicLong();
+    private final AtomicLong skippedNotOwned = new AtomicLong();
+    private volatile Long lastTickMs;
+
+    public AutomationScopeRunner(
+            AutomationEvaluationSettings settings,
+            @Lazy AutomationFacade automationFacade,
+            ClusterFacade clusterFacade
+    ) {
+        this.settings = settings;
+        this.automationFacade = automationFacade;
+        this.clusterFacade = clusterFacade;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(1, settings.getConcurrency()),
+                runnable -> Thread.ofPlatform()
+                        .name("automation-scope-" + threadIndex.incrementAndGet())
+                        .daemon(true)
+                        .unstarted(runnable)
+        );
+    }
+
+    public void evaluateAll() {
+        long startedNs = System.nanoTime();
+        AutomationEvaluationPlan plan = automationFacade.planEvaluation();
+        List<Runnable> boxTasks = new ArrayList<>(plan.boxShards().size());
+        for (AutomationEvaluationPlan.BoxShard shard : plan.boxShards()) {
+            if (!clusterFacade.ownsShard(shard.key())) {
+                skippedNotOwned.incrementAndGet();
+                continue;
+            }
+            boxTasks.add(() -> shard.boxIds().forEach(boxId -> runScope(
+                    AutomationData.SCOPE_BOX,
+                    boxId,
+                    () -> automationFacade.evaluateBoxScope(boxId, plan)
+            )));
+        }
+        runPhase(boxTasks);
+        List<Runnable> roomTasks = new ArrayList<>(plan.roomIds().size());
+        for (Integer roomId : plan.roomIds()) {
+            if (!clusterFacade.ownsShard(AutomationEvaluationPlan.roomShardKey(roomId))) {
+                skippedNotOwned.incrementAndGet();
+                continue;
+            }
+            roomTasks.add(() -> runScope(
+                    AutomationData.SCOPE_ROOM,
+                    roomId,
+                    () -> automationFacade.evaluateRoomScope(roomId, plan)
+            ));
+        }
+        runPhase(roomTasks);
+        long tickMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNs);
+        ticks.incrementAndGet();
+        lastTickMs = tickMs;
+        maxTickMs.accumulateAndGet(tickMs, Math::max);
+    }
+
+    public AutomationData.EvaluationStats stats() {
+        List<AutomationData.ScopeTiming> scopes = new ArrayList<>();
+        for (String scopeType : List.of(AutomationData.SCOPE_BOX, AutomationData.SCOPE_ROOM)) {
+            ScopeHistogram histogram = histograms.get(scopeType);
+            if (histogram != null) {
+                scopes.add(histogram.snapshot(scopeType));
+            }
+        }
+        long tickCount = ticks.get();
+        return new AutomationData.EvaluationStats(
+                Math.max(1, settings.getConcurrency()),
+                tickCount,
+                lastTickMs,
+                tickCount > 0 ? maxTickMs.get() : null,
+                skippedInFlight.get(),
+                skippedNotOwned.get(),
+                scopes
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runPhase(List<Runnable> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        if (settings.getConcurrency() <= 1 || tasks.size() == 1) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        CompletableFuture<?>[] futures = tasks.stream()
+                .map(task -> CompletableFuture.runAsync(task, executor))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).get(Math.max(1L, settings.getPhaseTimeoutMs()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // Translitem: nezavershennye scope dorabatyvajut v fone, sledujushchij tik propustit ih po inFlight.
+            log.warn("Faza avtomatizacii ne uspela za {} ms", settings.getPhaseTimeoutMs());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            log.warn("Faza avtomatizacii zavershilas oshibkoj: {}", ex.getMessage());
+        }
+    }
+
+    private void runScope(String scopeType, Integer scopeId, Runnable evaluation) {
+        String key = scopeType + ":" + scopeId;
+        if (!inFlight.add(key)) {
+            skippedInFlight.incrementAndGet();
+            return;
+        }
+        ScopeHistogram histogram = histograms.computeIfAbsent(scopeType, ignored -> new ScopeHistogram());
+        long startedNs = System.nanoTime();
+        boolean failed = false;
+        try {
+            evaluation.run();
+        } catch (RuntimeException ex) {
+            failed = true;
+            log.warn("Ocenka avtomatizacii {} {} zavershilas oshibkoj: {}", scopeType, scopeId, ex.getMessage(), ex);
+        } finally {
+            inFlight.remove(key);
+            histogram.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNs), failed);
+        }
+    }
+
+    private static final class ScopeHistogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS_MS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalMs = new AtomicLong();
+        private final AtomicLong maxMs = new AtomicLong();
+
+        void record(long durationMs, boolean failed) {
+            int index = 0;
+            while (index < BUCKETS_MS.length && durationMs > BUCKETS_MS[index]) {
+                index++;
+            }
+            buckets.incrementAndGet(index);
+            count.incrementAndGet();
+            totalMs.addAndGet(durationMs);
+            maxMs.accumulateAndGet(durationMs, Math::max);
+            if (failed) {
+                failures.incrementAndGet();
+            }
+        }
+
+        AutomationData.ScopeTiming snapshot(String scopeType) {
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKETS_MS.length; i++) {
+                histogram.put("le_" + BUCKETS_MS[i] + "ms", buckets.get(i));
+            }
+            histogram.put("gt_" + BUCKETS_MS[BUCKETS_MS.length - 1] + "ms", buckets.get(BUCKETS_MS.length));
+            long total = count.get();
+            return new AutomationData.ScopeTiming(
+                    scopeType,
+                    total,
+                    failures.get(),
+                    total > 0 ? (double) totalMs.get() / total : null,
+                    total > 0 ? maxMs.get() : null,
+                    histogram
+            );
+        }
+    }
+}
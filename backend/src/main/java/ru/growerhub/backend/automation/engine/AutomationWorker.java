@@ -5,19 +5,29 @@ import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import ru.growerhub.backend.automation.AutomationFacade;
+import ru.growerhub.backend.cluster.ClusterFacade;
 
 @Component
 public class AutomationWorker {
     private static final Logger log = LoggerFactory.getLogger(AutomationWorker.class);
+    private static final String EVALUATION_JOB = "automation-evaluation";
+    private static final String WATERING_JOB = "automation-watering";
 
     private final AutomationFacade automationFacade;
+    private final ClusterFacade clusterFacade;
 
-    public AutomationWorker(AutomationFacade automationFacade) {
+    public AutomationWorker(AutomationFacade automationFacade, ClusterFacade clusterFacade) {
         this.automationFacade = automationFacade;
+        this.clusterFacade = clusterFacade;
     }
 
+    // Translitem: pri shardinge tik idet na vseh uzlah, kazhdyj ocenivaet svoi shard'y (AutomationScopeRunner);
+    // bez shardinga - tol'ko lider.
     @Scheduled(fixedDelayString = "${automation.workerPeriodMs:30000}")
     public void tick() {
+        if (!clusterFacade.isShardingEnabled() && !clusterFacade.isLeader(EVALUATION_JOB)) {
+            return;
+        }
         try {
             automationFacade.evaluateAll();
         } catch (RuntimeException ex) {
@@ -25,12 +35,25 @@ public class AutomationWorker {
         }
     }
 
+    // Translitem: advance sessij - tol'ko lider; ostal'nye uzly derzhat indeks leak target dlja LeakReactionDispatcher.
     @Scheduled(fixedDelayString = "${automation.wateringWorkerPeriodMs:1000}")
     public void wateringTick() {
+        if (!clusterFacade.isLeader(WATERING_JOB)) {
+            refreshLeakIndex();
+            return;
+        }
         try {
             automationFacade.evaluateActiveWateringSessions();
         } catch (RuntimeException ex) {
             log.warn("Automation watering tick failed: {}", ex.getMessage(), ex);
         }
     }
+
+    private void refreshLeakIndex() {
+        try {
+            automationFacade.refreshLeakIndex();
+        } catch (RuntimeException ex) {
+            log.warn("Automation leak index refresh failed: {}", ex.getMessage(), ex);
+        }
+    }
 }
@@ -0,0 +1,157 @@
+package ru.growerhub.backend.automation.engine;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.growerhub.backend.automation.AutomationFacade;
+import ru.growerhub.backend.automation.contract.AutomationData;
+import ru.growerhub.backend.common.config.LeakReactionSettings;
+import ru.growerhub.backend.pump.contract.PumpSessionData;
+import ru.growerhub.backend.zigbee.contract.ZigbeeDeviceChangedEvent;
+
+// Reaktivnaja ostanovka poliva: state/availability zigbee ustrojstva, kotoroe javljaetsja leak target aktivnoj
+// sessii, srazu stavit advance tol'ko etoj sessii v ochered'. Worker poliva ostaetsja fallback; indeks obnovljaetsja
+// na kazhdom uzle (lider - tikom poliva, ostal'nye - refreshLeakIndex), t.k. zigbee state prihodit na ljuboj uzel.
+@Component
+public class LeakReactionDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(LeakReactionDispatcher.class);
+
+    private final LeakReactionSettings settings;
+    private final AutomationFacade automationFacade;
+    private final Clock clock;
+    private final ThreadPoolExecutor executor;
+
+    private volatile Map<String, Set<Long>> sessionsBySensor = Map.of();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong triggered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong stops = new AtomicLong();
+    private final AtomicLong totalStopLatencyMs = new AtomicLong();
+    private final AtomicLong maxStopLatencyMs = new AtomicLong();
+    private volatile Long lastStopLatencyMs;
+
+    public LeakReactionDispatcher(
+            LeakReactionSettings settings,
+            @Lazy AutomationFacade automationFacade,
+            Clock clock
+    ) {
+        this.settings = settings;
+        this.automationFacade = automationFacade;
+        this.clock = clock;
+        this.executor = new ThreadPoolExecutor(
+                1,
+                1,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity())),
+                runnable -> Thread.ofPlatform().name("leak-reaction").daemon(true).unstarted(runnable)
+        );
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    // Translitem: vyzyvaetsja worker'om poliva na kazhdom uzle s aktual'nym spiskom aktivnyh sessij.
+    public void track(List<PumpSessionData.Probe> probes) {
+        Map<String, Set<Long>> next = new HashMap<>();
+        for (PumpSessionData.Probe probe : probes) {
+            if (probe == null || probe.sessionId() == null || probe.leakSensors() == null) {
+                continue;
+            }
+            for (PumpSessionData.LeakTarget target : probe.leakSensors()) {
+                if (target != null && target.externalId() != null) {
+                    next.computeIfAbsent(target.externalId(), key -> new HashSet<>()).add(probe.sessionId());
+                }
+            }
+        }
+        sessionsBySensor = next;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onZigbeeDeviceChanged(ZigbeeDeviceChangedEvent event) {
+        if (!settings.isEnabled() || event.receivedAt() == null) {
+            return;
+        }
+        String key = AutomationCatalog.zigbeeKey(event.coordinatorId(), event.ieeeAddress());
+        Set<Long> sessionIds = key != null ? sessionsBySensor.get(key) : null;
+        if (sessionIds == null) {
+            return;
+        }
+        for (Long sessionId : sessionIds) {
+            // Translitem: sessija uzhe v ocheredi - ee advance prochitaet svezhij katalog, vtoraja zadacha ne nuzhna.
+            if (pending.add(sessionId)) {
+                submit(sessionId, event.receivedAt());
+            }
+        }
+    }
+
+    public AutomationData.LeakReactionStats stats() {
+        long stopCount = stops.get();
+        return new AutomationData.LeakReactionStats(
+                settings.isEnabled(),
+                sessionsBySensor.size(),
+                executor.getQueue().size(),
+                triggered.get(),
+                dropped.get(),
+                failed.get(),
+                stopCount,
+                lastStopLatencyMs,
+                stopCount > 0 ? maxStopLatencyMs.get() : null,
+                stopCount > 0 ? (double) totalStopLatencyMs.get() / stopCount : null
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(Long sessionId, LocalDateTime receivedAt) {
+        try {
+            executor.execute(() -> react(sessionId, receivedAt));
+        } catch (RejectedExecutionException ex) {
+            pending.remove(sessionId);
+            dropped.incrementAndGet();
+            log.warn("Ochered' reakcii na protechku perepolnena, sessija {} ostanetsja na worker'e poliva", sessionId);
+        }
+    }
+
+    private void react(Long sessionId, LocalDateTime receivedAt) {
+        pending.remove(sessionId);
+        triggered.incrementAndGet();
+        try {
+            if (automationFacade.advanceLeakSession(sessionId)) {
+                recordStop(Math.max(0L, Duration.between(receivedAt, LocalDateTime.now(clock)).toMillis()));
+            }
+        } catch (RuntimeException ex) {
+            failed.incrementAndGet();
+            log.warn("Reakcija na protechku dlja sessii {} zavershilas oshibkoj: {}", sessionId, ex.getMessage());
+        }
+    }
+
+    private void recordStop(long latencyMs) {
+        stops.incrementAndGet();
+        totalStopLatencyMs.addAndGet(latencyMs);
+        maxStopLatencyMs.accumulateAndGet(latencyMs, Math::max);
+        lastStopLatencyMs = latencyMs;
+    }
+}
@@ -0,0 +1,198 @@
+package ru.growerhub.backend.cluster;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.growerhub.backend.cluster.contract.ClusterData;
+import ru.growerhub.backend.cluster.engine.ClusterCoordinator;
+import ru.growerhub.backend.cluster.jpa.ClusterLeaseEntity;
+import ru.growerhub.backend.cluster.jpa.ClusterLeaseRepository;
+import ru.growerhub.backend.cluster.jpa.ClusterNodeEntity;
+import ru.growerhub.backend.cluster.jpa.ClusterNodeRepository;
+import ru.growerhub.backend.common.config.cluster.ClusterSettings;
+
+@Service
+public class ClusterFacade {
+    // Translitem: mertvye uzly vidny v admin eshche desjat' nodeTtl, potom udaljajutsja heartbeat'om.
+    private static final int STALE_NODE_TTL_FACTOR = 10;
+
+    private final ClusterNodeRepository nodeRepository;
+    private final ClusterLeaseRepository leaseRepository;
+    private final ClusterCoordinator coordinator;
+    private final ClusterSettings settings;
+    private final Clock clock;
+
+    public ClusterFacade(
+            ClusterNodeRepository nodeRepository,
+            ClusterLeaseRepository leaseRepository,
+            ClusterCoordinator coordinator,
+            ClusterSettings settings,
+            Clock clock
+    ) {
+        this.nodeRepository = nodeRepository;
+        this.leaseRepository = leaseRepository;
+        this.coordinator = coordinator;
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    // Translitem: true - etot uzel vladeet lease zadachi i dolzhen ee vypolnit' v etom tike.
+    public boolean isLeader(String jobName) {
+        return coordinator.isLeader(jobName);
+    }
+
+    public boolean isShardingEnabled() {
+        return coordinator.isShardingEnabled();
+    }
+
+    public boolean ownsShard(String shardKey) {
+        return coordinator.ownsShard(shardKey);
+    }
+
+    // Translitem: fencing token dlja dolgoj zadachi; null - etot uzel ne lider.
+    public Long leaderToken(String jobName) {
+        return coordinator.leaderToken(jobName);
+    }
+
+    // Translitem: vyzyvaetsja pered kazhdym chunk'om dolgoj zadachi; false - lease poterjan, rabotu nado ostanovit'.
+    public boolean renewLease(String jobName, long fencingToken) {
+        return coordinator.renewLease(jobName, fencingToken);
+    }
+
+    public String shardOwner(String shardKey) {
+        return coordinator.shardOwner(shardKey);
+    }
+
+    public boolean isEnabled() {
+        return coordinator.isEnabled();
+    }
+
+    public String ownerNode(String key) {
+        return coordinator.ownerNode(key);
+    }
+
+    public String nodeId() {
+        return coordinator.nodeId();
+    }
+
+    public void heartbeat() {
+        coordinator.heartbeat();
+    }
+
+    public void leave() {
+        coordinator.leave();
+    }
+
+    // Translitem: lease zabiraetsja pod blokirovkoj stroki, esli on svoj ili prosrochen; smena vladel'ca
+    // uvelichivaet fencing token. Gonka vstavki pervoj stroki zavershaetsja oshibkoj unikal'nosti u proigravshego.
+    @Transactional
+    public ClusterData.Lease acquireLease(String jobName, String nodeId, LocalDateTime now, LocalDateTime leaseUntil) {
+        ClusterLeaseEntity lease = leaseRepository.findLockedByJobName(jobName).orElse(null);
+        if (lease == null) {
+            lease = leaseRepository.saveAndFlush(ClusterLeaseEntity.create(jobName, nodeId, now, leaseUntil));
+            return toLease(lease, now);
+        }
+        boolean own = nodeId.equals(lease.getOwnerNode());
+        if (!own && lease.getLeaseUntil().isAfter(now)) {
+            return toLease(lease, now);
+        }
+        if (!own) {
+            lease.setOwnerNode(nodeId);
+            lease.setAcquiredAt(now);
+            lease.setFencingToken(lease.getFencingToken() + 1);
+        }
+        lease.setLeaseUntil(leaseUntil);
+        leaseRepository.save(lease);
+        return toLease(lease, now);
+    }
+
+    @Transactional
+    public boolean renewHeldLease(
+            String jobName,
+            String nodeId,
+            long fencingToken,
+            LocalDateTime now,
+            LocalDateTime leaseUntil
+    ) {
+        return leaseRepository.renewHeld(jobName, nodeId, fencingToken, now, leaseUntil) == 1;
+    }
+
+    @Transactional
+    public ClusterData.Membership recordHeartbeat(
+            String nodeId,
+            String host,
+            LocalDateTime startedAt,
+            LocalDateTime now,
+            LocalDateTime liveCutoff,
+            LocalDateTime leaseUntil
+    ) {
+        ClusterNodeEntity node = nodeRepository.findById(nodeId)
+                .orElseGet(() -> ClusterNodeEntity.create(nodeId, host, startedAt));
+        node.setHost(host);
+        node.setStartedAt(startedAt);
+        node.setHeartbeatAt(now);
+        nodeRepository.save(node);
+        leaseRepository.renewOwned(nodeId, now, leaseUntil);
+        nodeRepository.deleteStale(now.minus(nodeTtl().multipliedBy(STALE_NODE_TTL_FACTOR)));
+        List<String> liveNodeIds = nodeRepository.findAllByHeartbeatAtAfterOrderByNodeIdAsc(liveCutoff).stream()
+                .map(ClusterNodeEntity::getNodeId)
+                .toList();
+        List<ClusterData.Lease> ownedLeases = leaseRepository.findAllByOwnerNodeAndLeaseUntilAfter(nodeId, now).stream()
+                .map(lease -> toLease(lease, now))
+                .toList();
+        return new ClusterData.Membership(liveNodeIds, ownedLeases);
+    }
+
+    // Translitem: pri ostanovke lease otdajutsja srazu, chtoby drugoj uzel ne zhdal leaseTtlMs.
+    @Transactional
+    public void releaseNode(String nodeId, LocalDateTime now) {
+        leaseRepository.releaseOwned(nodeId, now);
+        nodeRepository.deleteById(nodeId);
+    }
+
+    @Transactional(readOnly = true)
+    public ClusterData.Overview getOverview() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime liveCutoff = now.minus(nodeTtl());
+        List<ClusterData.Node> nodes = nodeRepository.findAllByOrderByNodeIdAsc().stream()
+                .map(node -> new ClusterData.Node(
+                        node.getNodeId(),
+                        node.getHost(),
+                        node.getStartedAt(),
+                        node.getHeartbeatAt(),
+                        node.getHeartbeatAt().isAfter(liveCutoff)
+                ))
+                .toList();
+        List<ClusterData.Lease> leases = leaseRepository.findAllByOrderByJobNameAsc().stream()
+                .map(lease -> toLease(lease, now))
+                .toList();
+        return new ClusterData.Overview(
+                coordinator.nodeId(),
+                settings.isEnabled(),
+                coordinator.isShardingEnabled(),
+                Math.max(1000L, settings.getLeaseTtlMs()),
+                nodeTtl().toMillis(),
+                coordinator.liveNodes(),
+                nodes,
+                leases
+        );
+    }
+
+    private Duration nodeTtl() {
+        return Duration.ofMillis(Math.max(1000L, settings.getNodeTtlMs()));
+    }
+
+    private static ClusterData.Lease toLease(ClusterLeaseEntity lease, LocalDateTime now) {
+        return new ClusterData.Lease(
+                lease.getJobName(),
+                lease.getOwnerNode(),
+                lease.getAcquiredAt(),
+                lease.getLeaseUntil(),
+                lease.getFencingToken(),
+                lease.getLeaseUntil().isAfter(now)
+        );
+    }
+}
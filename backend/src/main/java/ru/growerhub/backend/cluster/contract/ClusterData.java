@@ -0,0 +1,45 @@
+package ru.growerhub.backend.cluster.contract;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public final class ClusterData {
+    private ClusterData() {
+    }
+
+    public record Lease(
+            @JsonProperty("job_name") String jobName,
+            @JsonProperty("owner_node") String ownerNode,
+            @JsonProperty("acquired_at") LocalDateTime acquiredAt,
+            @JsonProperty("lease_until") LocalDateTime leaseUntil,
+            @JsonProperty("fencing_token") long fencingToken,
+            @JsonProperty("active") boolean active
+    ) {
+    }
+
+    public record Node(
+            @JsonProperty("node_id") String nodeId,
+            @JsonProperty("host") String host,
+            @JsonProperty("started_at") LocalDateTime startedAt,
+            @JsonProperty("heartbeat_at") LocalDateTime heartbeatAt,
+            @JsonProperty("live") boolean live
+    ) {
+    }
+
+    // Translitem: rezul'tat heartbeat - zhivye uzly (po imeni) i lease, kotorye ostalis' za etim uzlom.
+    public record Membership(List<String> liveNodeIds, List<Lease> ownedLeases) {
+    }
+
+    public record Overview(
+            @JsonProperty("node_id") String nodeId,
+            @JsonProperty("enabled") boolean enabled,
+            @JsonProperty("shard_automation") boolean shardAutomation,
+            @JsonProperty("lease_ttl_ms") long leaseTtlMs,
+            @JsonProperty("node_ttl_ms") long nodeTtlMs,
+            @JsonProperty("live_nodes") List<String> liveNodes,
+            @JsonProperty("nodes") List<Node> nodes,
+            @JsonProperty("leases") List<Lease> leases
+    ) {
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * eto public kontrakty domena
+ * razresheny dlya adapterov i drugikh domenov tolko cherez facade
+ */
+package ru.growerhub.backend.cluster.contract;
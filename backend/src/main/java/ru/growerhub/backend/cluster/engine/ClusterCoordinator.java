@@ -0,0 +1,251 @@
+package ru.growerhub.backend.cluster.engine;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.cluster.ClusterFacade;
+import ru.growerhub.backend.cluster.contract.ClusterData;
+import ru.growerhub.backend.common.config.cluster.ClusterSettings;
+
+// Koordinacija scheduled-zadach mezhdu ekzempljarami: lease na zadachu (lider) i rendezvous-hash shard'ov po zhivym
+// uzlam. Lease prodlevaetsja heartbeat'om, poetomu isLeader u dejstvujushchego lidera ne hodit v BD.
+// Vremja - chasy uzla (UTC), uzly dolzhny byt' sinhronizirovany po NTP; zapas - polovina leaseTtlMs.
+@Component
+public class ClusterCoordinator {
+    private static final Logger log = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+    private final ClusterSettings settings;
+    private final Clock clock;
+    private final ClusterFacade clusterFacade;
+    private final String nodeId;
+    private final String host;
+    private final LocalDateTime startedAt;
+    private final Map<String, HeldLease> heldLeases = new ConcurrentHashMap<>();
+    private volatile List<String> liveNodes;
+    private volatile LocalDateTime membershipAt;
+
+    public ClusterCoordinator(ClusterSettings settings, Clock clock, @Lazy ClusterFacade clusterFacade) {
+        this.settings = settings;
+        this.clock = clock;
+        this.clusterFacade = clusterFacade;
+        this.host = resolveHost();
+        this.nodeId = settings.getNodeId() != null && !settings.getNodeId().isBlank()
+                ? settings.getNodeId().trim()
+                : (host != null ? host : "node") + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.startedAt = now();
+        this.liveNodes = List.of(nodeId);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    public boolean isShardingEnabled() {
+        return settings.isEnabled() && settings.isShardAutomation();
+    }
+
+    public boolean isLeader(String jobName) {
+        return !settings.isEnabled() || acquire(jobName) != null;
+    }
+
+    // Translitem: fencing token lease, esli etot uzel - lider zadachi; null - zadacha ne nasha.
+    // Bez koordinacii token vsegda 0.
+    public Long leaderToken(String jobName) {
+        if (!settings.isEnabled()) {
+            return 0L;
+        }
+        HeldLease held = acquire(jobName);
+        return held != null ? held.fencingToken() : null;
+    }
+
+    // Translitem: proverka pered ocherednym chunk'om dolgoj zadachi - lease vse eshche s tem zhe fencing token.
+    // Poka do konca lease bol'she poloviny leaseTtlMs, BD ne trogaem (kak isLeader), inache prodlevaem
+    // UPDATE s usloviem na token: esli zadachu uzhe zabral drugoj uzel, stroka ne obnovitsja.
+    public boolean renewLease(String jobName, long fencingToken) {
+        if (!settings.isEnabled()) {
+            return true;
+        }
+        LocalDateTime now = now();
+        HeldLease held = heldLeases.get(jobName);
+        if (held != null
+                && held.fencingToken() == fencingToken
+                && held.until().isAfter(now.plus(leaseTtl().dividedBy(2)))) {
+            return true;
+        }
+        LocalDateTime leaseUntil = now.plus(leaseTtl());
+        try {
+            if (clusterFacade.renewHeldLease(jobName, nodeId, fencingToken, now, leaseUntil)) {
+                heldLeases.put(jobName, new HeldLease(leaseUntil, fencingToken));
+                return true;
+            }
+        } catch (RuntimeException ex) {
+            log.debug("Lease zadachi {} ne prodlen: {}", jobName, ex.getMessage());
+        }
+        if (heldLeases.remove(jobName) != null) {
+            log.info("Uzel {} poterjal liderstvo zadachi {} (fencing token {})", nodeId, jobName, fencingToken);
+        }
+        return false;
+    }
+
+    private HeldLease acquire(String jobName) {
+        LocalDateTime now = now();
+        HeldLease held = heldLeases.get(jobName);
+        if (held != null && held.until().isAfter(now.plus(leaseTtl().dividedBy(2)))) {
+            return held;
+        }
+        try {
+            ClusterData.Lease lease = clusterFacade.acquireLease(jobName, nodeId, now, now.plus(leaseTtl()));
+            if (lease != null && nodeId.equals(lease.ownerNode())) {
+                if (held == null) {
+                    log.info("Uzel {} stal liderom zadachi {} (fencing token {})", nodeId, jobName, lease.fencingToken());
+                }
+                HeldLease acquired = new HeldLease(lease.leaseUntil(), lease.fencingToken());
+                heldLeases.put(jobName, acquired);
+                return acquired;
+            }
+        } catch (RuntimeException ex) {
+            // Translitem: gonka vstavki pervoj stroki lease ili nedostupnaja BD - v etot tik zadacha ne nasha.
+            log.debug("Lease zadachi {} ne poluchen: {}", jobName, ex.getMessage());
+        }
+        if (held != null) {
+            log.info("Uzel {} poterjal liderstvo zadachi {}", nodeId, jobName);
+        }
+        heldLeases.remove(jobName);
+        return null;
+    }
+
+    // Translitem: bez svezhego heartbeat drugie uzly uzhe schitajut etot mertvym i zabrali ego shard'y.
+    public boolean ownsShard(String shardKey) {
+        if (!isShardingEnabled()) {
+            return true;
+        }
+        LocalDateTime lastMembership = membershipAt;
+        if (lastMembership == null || !lastMembership.isAfter(now().minus(nodeTtl()))) {
+            return false;
+        }
+        return nodeId.equals(ownerOf(liveNodes, shardKey));
+    }
+
+    public String shardOwner(String shardKey) {
+        if (!isShardingEnabled()) {
+            return nodeId;
+        }
+        return ownerOf(liveNodes, shardKey);
+    }
+
+    // Translitem: HRW-vladelec kljucha sredi zhivyh uzlov nezavisimo ot shardAutomation (privjazka ustrojstv MQTT).
+    public String ownerNode(String key) {
+        if (!settings.isEnabled()) {
+            return nodeId;
+        }
+        return ownerOf(liveNodes, key);
+    }
+
+    public List<String> liveNodes() {
+        return liveNodes;
+    }
+
+    public void heartbeat() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        LocalDateTime now = now();
+        ClusterData.Membership membership = clusterFacade.recordHeartbeat(
+                nodeId,
+                host,
+                startedAt,
+                now,
+                now.minus(nodeTtl()),
+                now.plus(leaseTtl())
+        );
+        List<String> nodes = new ArrayList<>(membership.liveNodeIds());
+        if (!nodes.contains(nodeId)) {
+            nodes.add(nodeId);
+            Collections.sort(nodes);
+        }
+        if (!nodes.equals(liveNodes)) {
+            log.info("Zhivye uzly backend: {}", nodes);
+        }
+        liveNodes = List.copyOf(nodes);
+        Map<String, HeldLease> owned = new HashMap<>();
+        for (ClusterData.Lease lease : membership.ownedLeases()) {
+            owned.put(lease.jobName(), new HeldLease(lease.leaseUntil(), lease.fencingToken()));
+        }
+        heldLeases.keySet().retainAll(owned.keySet());
+        heldLeases.putAll(owned);
+        membershipAt = now;
+    }
+
+    public void leave() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        heldLeases.clear();
+        membershipAt = null;
+        clusterFacade.releaseNode(nodeId, now());
+    }
+
+    // Translitem: rendezvous (HRW) hash - pri vhode/vyhode uzla pereezzhajut tol'ko ego shard'y.
+    static String ownerOf(List<String> nodes, String shardKey) {
+        String owner = null;
+        long best = Long.MIN_VALUE;
+        for (String node : nodes) {
+            long weight = mix(((long) node.hashCode() << 32) ^ (shardKey.hashCode() & 0xFFFFFFFFL));
+            if (owner == null || weight > best || (weight == best && node.compareTo(owner) < 0)) {
+                owner = node;
+                best = weight;
+            }
+        }
+        return owner;
+    }
+
+    private static long mix(long value) {
+        long mixed = value;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xff51afd7ed558ccdL;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xc4ceb9fe1a85ec53L;
+        mixed ^= mixed >>> 33;
+        return mixed;
+    }
+
+    private Duration leaseTtl() {
+        return Duration.ofMillis(Math.max(1000L, settings.getLeaseTtlMs()));
+    }
+
+    private Duration nodeTtl() {
+        return Duration.ofMillis(Math.max(1000L, settings.getNodeTtlMs()));
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private record HeldLease(LocalDateTime until, long fencingToken) {
+    }
+
+    private static String resolveHost() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            return null;
+        }
+    }
+}
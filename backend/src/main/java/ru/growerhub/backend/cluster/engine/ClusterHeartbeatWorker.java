@@ -0,0 +1,60 @@
+package ru.growerhub.backend.cluster.engine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.cluster.ClusterFacade;
+import ru.growerhub.backend.common.config.cluster.ClusterSettings;
+
+// Heartbeat uzla: otmetka v cluster_nodes, prodlenie svoih lease i obnovlenie spiska zhivyh uzlov dlja shard'ov.
+// Idet na svoem potoke: dolgie @Scheduled zadachi (prorezhivanie istorii, perenos foto) zanimajut obshchij
+// planirovshchik chasami, i bez etogo zanjatyj lider terjal by shard'y i lease.
+@Component
+public class ClusterHeartbeatWorker {
+    private static final Logger log = LoggerFactory.getLogger(ClusterHeartbeatWorker.class);
+
+    private final ClusterFacade clusterFacade;
+    private final ClusterSettings settings;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().name("cluster-heartbeat").daemon(true).unstarted(runnable)
+    );
+
+    public ClusterHeartbeatWorker(ClusterFacade clusterFacade, ClusterSettings settings) {
+        this.clusterFacade = clusterFacade;
+        this.settings = settings;
+    }
+
+    @PostConstruct
+    public void start() {
+        long periodMs = Math.max(100L, settings.getHeartbeatPeriodMs());
+        executor.scheduleWithFixedDelay(this::heartbeat, 0, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void heartbeat() {
+        try {
+            clusterFacade.heartbeat();
+        } catch (RuntimeException ex) {
+            log.warn("Heartbeat uzla {} zavershilsja oshibkoj: {}", clusterFacade.nodeId(), ex.getMessage(), ex);
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            clusterFacade.leave();
+        } catch (RuntimeException ex) {
+            log.warn("Osvobozhdenie lease uzla {} zavershilos oshibkoj: {}", clusterFacade.nodeId(), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.growerhub.backend.cluster.jpa;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "cluster_leases")
+public class ClusterLeaseEntity {
+    @Id
+    @Column(name = "job_name", nullable = false, length = 64)
+    private String jobName;
+
+    @Column(name = "owner_node", nullable = false, length = 128)
+    private String ownerNode;
+
+    @Column(name = "acquired_at", nullable = false)
+    private LocalDateTime acquiredAt;
+
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "fencing_token", nullable = false)
+    private long fencingToken;
+
+    protected ClusterLeaseEntity() {
+    }
+
+    public static ClusterLeaseEntity create(String jobName, String ownerNode, LocalDateTime now, LocalDateTime leaseUntil) {
+        ClusterLeaseEntity entity = new ClusterLeaseEntity();
+        entity.jobName = jobName;
+        entity.ownerNode = ownerNode;
+        entity.acquiredAt = now;
+        entity.leaseUntil = leaseUntil;
+        entity.fencingToken = 1;
+        return entity;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getOwnerNode() {
+        return ownerNode;
+    }
+
+    public void setOwnerNode(String ownerNode) {
+        this.ownerNode = ownerNode;
+    }
+
+    public LocalDateTime getAcquiredAt() {
+        return acquiredAt;
+    }
+
+    public void setAcquiredAt(LocalDateTime acquiredAt) {
+        this.acquiredAt = acquiredAt;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+}
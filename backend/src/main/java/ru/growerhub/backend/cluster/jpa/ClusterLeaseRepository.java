@@ -0,0 +1,63 @@
+package ru.growerhub.backend.cluster.jpa;
+
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ClusterLeaseRepository extends JpaRepository<ClusterLeaseEntity, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT lease FROM ClusterLeaseEntity lease WHERE lease.jobName = :jobName")
+    Optional<ClusterLeaseEntity> findLockedByJobName(@Param("jobName") String jobName);
+
+    List<ClusterLeaseEntity> findAllByOrderByJobNameAsc();
+
+    List<ClusterLeaseEntity> findAllByOwnerNodeAndLeaseUntilAfter(String ownerNode, LocalDateTime now);
+
+    // Translitem: odin UPDATE s usloviem na vladel'ca i srok - lease, uzhe zabrannyj drugim uzlom, ne prodlevaetsja.
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            UPDATE ClusterLeaseEntity lease
+            SET lease.leaseUntil = :leaseUntil
+            WHERE lease.ownerNode = :ownerNode
+              AND lease.leaseUntil > :now
+            """)
+    int renewOwned(
+            @Param("ownerNode") String ownerNode,
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil
+    );
+
+    // Translitem: prodlenie lease konkretnoj zadachi, tol'ko poka vladelec i fencing token prezhnie.
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            UPDATE ClusterLeaseEntity lease
+            SET lease.leaseUntil = :leaseUntil
+            WHERE lease.jobName = :jobName
+              AND lease.ownerNode = :ownerNode
+              AND lease.fencingToken = :fencingToken
+              AND lease.leaseUntil > :now
+            """)
+    int renewHeld(
+            @Param("jobName") String jobName,
+            @Param("ownerNode") String ownerNode,
+            @Param("fencingToken") long fencingToken,
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil
+    );
+
+    // Translitem: stroka ostaetsja, chtoby fencing token prodolzhal rasti u sledujushchego vladel'ca.
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            UPDATE ClusterLeaseEntity lease
+            SET lease.leaseUntil = :now
+            WHERE lease.ownerNode = :ownerNode
+              AND lease.leaseUntil > :now
+            """)
+    int releaseOwned(@Param("ownerNode") String ownerNode, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,64 @@
+package ru.growerhub.backend.cluster.jpa;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "cluster_nodes")
+public class ClusterNodeEntity {
+    @Id
+    @Column(name = "node_id", nullable = false, length = 128)
+    private String nodeId;
+
+    @Column(name = "host")
+    private String host;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+
+    protected ClusterNodeEntity() {
+    }
+
+    public static ClusterNodeEntity create(String nodeId, String host, LocalDateTime startedAt) {
+        ClusterNodeEntity entity = new ClusterNodeEntity();
+        entity.nodeId = nodeId;
+        entity.host = host;
+        entity.startedAt = startedAt;
+        entity.heartbeatAt = startedAt;
+        return entity;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.growerhub.backend.cluster.jpa;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ClusterNodeRepository extends JpaRepository<ClusterNodeEntity, String> {
+    List<ClusterNodeEntity> findAllByOrderByNodeIdAsc();
+
+    List<ClusterNodeEntity> findAllByHeartbeatAtAfterOrderByNodeIdAsc(LocalDateTime cutoff);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM ClusterNodeEntity node WHERE node.heartbeatAt < :cutoff")
+    int deleteStale(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,72 @@
+package ru.growerhub.backend.common.component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.growerhub.backend.common.contract.ChangeBus;
+
+// Shina izmenenij vnutri JVM: odin uzel bez BD ili neskol'ko "uzlov" v teste, svjazannyh cherez connectPeer().
+// Dostavka sinhronnaja, v potoke publish.
+public class LocalChangeBus implements ChangeBus {
+    private static final Logger log = LoggerFactory.getLogger(LocalChangeBus.class);
+
+    private final List<LocalChangeBus> network;
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    public LocalChangeBus() {
+        this(new CopyOnWriteArrayList<>());
+    }
+
+    private LocalChangeBus(List<LocalChangeBus> network) {
+        this.network = network;
+        network.add(this);
+    }
+
+    // Translitem: novyj uzel v toj zhe seti - poluchaet publish ostal'nyh i naoborot.
+    public LocalChangeBus connectPeer() {
+        return new LocalChangeBus(network);
+    }
+
+    @Override
+    public boolean publish(String topic, String payload) {
+        if (topic == null || payload == null || payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            return false;
+        }
+        for (LocalChangeBus peer : network) {
+            if (peer != this) {
+                peer.deliver(topic, payload);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void subscribe(String topic, Consumer<String> listener) {
+        listeners.computeIfAbsent(topic, ignored -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public void onResync(Runnable listener) {
+        // Translitem: vnutri JVM soobshchenija ne terjajutsja.
+    }
+
+    @Override
+    public boolean isClustered() {
+        return network.size() > 1;
+    }
+
+    private void deliver(String topic, String payload) {
+        for (Consumer<String> listener : listeners.getOrDefault(topic, List.of())) {
+            try {
+                listener.accept(payload);
+            } catch (RuntimeException ex) {
+                log.warn("Obrabotchik izmenenija {} upal: {}", topic, ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package ru.growerhub.backend.common.component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.growerhub.backend.common.config.cluster.ChangeBusSettings;
+import ru.growerhub.backend.common.contract.ChangeBus;
+
+// Shina izmenenij cherez Postgres LISTEN/NOTIFY. Otpravka - fonovyj potok pachkami cherez pul soedinenij,
+// priem - otdel'noe soedinenie vne pula (LISTEN derzhit ego postojanno). Svoi soobshchenija otsekajutsja po origin.
+public class PostgresChangeBus implements ChangeBus {
+    private static final Logger log = LoggerFactory.getLogger(PostgresChangeBus.class);
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, payload) "
+            + "FROM unnest(?::text[]) WITH ORDINALITY AS changes(payload, position) ORDER BY position";
+    private static final char SEPARATOR = '|';
+
+    private final ChangeBusSettings settings;
+    private final DataSource dataSource;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    private final List<Runnable> resyncListeners = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<String> outbox;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running;
+    private volatile Connection listenConnection;
+    private Thread listenThread;
+    private Thread sendThread;
+
+    public PostgresChangeBus(
+            ChangeBusSettings settings,
+            DataSource dataSource,
+            String url,
+            String username,
+            String password
+    ) {
+        if (settings.getChannel() == null || !CHANNEL_PATTERN.matcher(settings.getChannel()).matches()) {
+            throw new IllegalStateException("cluster.changeBus.channel nekorrektnyj: " + settings.getChannel());
+        }
+        this.settings = settings;
+        this.dataSource = dataSource;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = settings.getChannel();
+        this.outbox = new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity()));
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        listenThread = new Thread(this::listenLoop, "change-bus-listen");
+        listenThread.setDaemon(true);
+        listenThread.start();
+        sendThread = new Thread(this::sendLoop, "change-bus-send");
+        sendThread.setDaemon(true);
+        sendThread.start();
+    }
+
+    @Override
+    public boolean publish(String topic, String payload) {
+        if (!running || topic == null || payload == null) {
+            return false;
+        }
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            return false;
+        }
+        if (!outbox.offer(encode(origin, topic, payload))) {
+            // Translitem: drugie uzly dochitajut izmenenie iz BD pri promahe.
+            if (dropped.incrementAndGet() % 1000 == 1) {
+                log.warn("Ochered' shiny izmenenij perepolnena, propushcheno soobshchenij: {}", dropped.get());
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void subscribe(String topic, Consumer<String> listener) {
+        listeners.computeIfAbsent(topic, ignored -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public void onResync(Runnable listener) {
+        resyncListeners.add(listener);
+    }
+
+    @Override
+    public boolean isClustered() {
+        return true;
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public void close() {
+        running = false;
+        closeQuietly(listenConnection);
+        join(sendThread);
+        join(listenThread);
+    }
+
+    static String encode(String origin, String topic, String payload) {
+        return origin + SEPARATOR + topic + SEPARATOR + payload;
+    }
+
+    // Translitem: [origin, topic, payload] ili null, esli soobshchenie ne nashego formata.
+    static String[] decode(String frame) {
+        if (frame == null) {
+            return null;
+        }
+        int first = frame.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : frame.indexOf(SEPARATOR, first + 1);
+        if (first <= 0 || second <= first + 1) {
+            return null;
+        }
+        return new String[] {frame.substring(0, first), frame.substring(first + 1, second), frame.substring(second + 1)};
+    }
+
+    private void listenLoop() {
+        boolean interrupted = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                listenConnection = connection;
+                if (interrupted) {
+                    log.info("Shina izmenenij: LISTEN {} vosstanovlen", channel);
+                    fireResync();
+                    interrupted = false;
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int timeoutMs = (int) Math.max(1L, settings.getPollTimeoutMs());
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(timeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                interrupted = true;
+                log.warn("Shina izmenenij: LISTEN {} prervan: {}", channel, ex.getMessage());
+                sleep(settings.getReconnectDelayMs());
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    private void sendLoop() {
+        int batchSize = Math.max(1, settings.getBatchSize());
+        while (running || !outbox.isEmpty()) {
+            String first;
+            try {
+                first = outbox.poll(Math.max(1L, settings.getPollTimeoutMs()), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            List<String> batch = new ArrayList<>(batchSize);
+            batch.add(first);
+            outbox.drainTo(batch, batchSize - 1);
+            send(batch);
+        }
+    }
+
+    private void send(List<String> batch) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(NOTIFY_SQL)) {
+            statement.setString(1, channel);
+            statement.setArray(2, connection.createArrayOf("text", batch.toArray()));
+            statement.executeQuery().close();
+        } catch (SQLException ex) {
+            dropped.addAndGet(batch.size());
+            log.warn("Shina izmenenij: NOTIFY ({} soobshchenij) ne otpravlen: {}", batch.size(), ex.getMessage());
+        }
+    }
+
+    private void dispatch(String frame) {
+        String[] parts = decode(frame);
+        if (parts == null || origin.equals(parts[0])) {
+            return;
+        }
+        for (Consumer<String> listener : listeners.getOrDefault(parts[1], List.of())) {
+            try {
+                listener.accept(parts[2]);
+            } catch (RuntimeException ex) {
+                log.warn("Obrabotchik izmenenija {} upal: {}", parts[1], ex.getMessage());
+            }
+        }
+    }
+
+    private void fireResync() {
+        for (Runnable listener : resyncListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException ex) {
+                log.warn("Obrabotchik resync shiny izmenenij upal: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private static void sleep(long delayMs) {
+        try {
+            Thread.sleep(Math.max(100L, delayMs));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void join(Thread thread) {
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            // soedinenie uzhe zakryto
+        }
+    }
+}
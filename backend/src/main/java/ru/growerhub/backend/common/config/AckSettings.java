@@ -6,6 +6,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class AckSettings {
     private int ttlSeconds = 180;
     private int cleanupPeriodSeconds = 60;
+    private int maxWaiters = 1000;
 
     public int getTtlSeconds() {
         return ttlSeconds;
@@ -23,4 +24,12 @@ public class AckSettings {
         this.cleanupPeriodSeconds = cleanupPeriodSeconds;
     }
 
+    public int getMaxWaiters() {
+        return maxWaiters;
+    }
+
+    public void setMaxWaiters(int maxWaiters) {
+        this.maxWaiters = maxWaiters;
+    }
+
 }
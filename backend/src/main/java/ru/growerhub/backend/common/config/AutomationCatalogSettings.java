@@ -0,0 +1,35 @@
+package ru.growerhub.backend.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki inkremental'nogo kataloga resursov avtomatizacii dlja worker'ov.
+@ConfigurationProperties(prefix = "automation.catalog")
+public class AutomationCatalogSettings {
+    private boolean incremental = true;
+    private long fullRefreshMs = 300000;
+    private long maxSnapshotAgeMs = 5000;
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public long getFullRefreshMs() {
+        return fullRefreshMs;
+    }
+
+    public void setFullRefreshMs(long fullRefreshMs) {
+        this.fullRefreshMs = fullRefreshMs;
+    }
+
+    public long getMaxSnapshotAgeMs() {
+        return maxSnapshotAgeMs;
+    }
+
+    public void setMaxSnapshotAgeMs(long maxSnapshotAgeMs) {
+        this.maxSnapshotAgeMs = maxSnapshotAgeMs;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.growerhub.backend.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki parallel'noj ocenki scenariev avtomatizacii po scope (boks/pomeshchenie).
+@ConfigurationProperties(prefix = "automation.evaluation")
+public class AutomationEvaluationSettings {
+    private int concurrency = 4;
+    private long phaseTimeoutMs = 25000;
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public long getPhaseTimeoutMs() {
+        return phaseTimeoutMs;
+    }
+
+    public void setPhaseTimeoutMs(long phaseTimeoutMs) {
+        this.phaseTimeoutMs = phaseTimeoutMs;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.growerhub.backend.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki keshej razreshenija device/sensor/plant na gorjachem puti priema state.
+@ConfigurationProperties(prefix = "ingest.resolution-cache")
+public class IngestCacheSettings {
+    private boolean enabled = true;
+    private int lastSeenWriteIntervalS = 30;
+    private long bindingTtlSeconds = 300;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLastSeenWriteIntervalS() {
+        return lastSeenWriteIntervalS;
+    }
+
+    public void setLastSeenWriteIntervalS(int lastSeenWriteIntervalS) {
+        this.lastSeenWriteIntervalS = lastSeenWriteIntervalS;
+    }
+
+    public long getBindingTtlSeconds() {
+        return bindingTtlSeconds;
+    }
+
+    public void setBindingTtlSeconds(long bindingTtlSeconds) {
+        this.bindingTtlSeconds = bindingTtlSeconds;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.growerhub.backend.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki reaktivnoj ostanovki poliva po sobytijam zigbee datchikov protechki.
+@ConfigurationProperties(prefix = "automation.leak-reaction")
+public class LeakReactionSettings {
+    private boolean enabled = true;
+    private int queueCapacity = 256;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,89 @@
+package ru.growerhub.backend.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki potoka zhivyh izmenenij (SSE) ustrojstv, nasosov i zigbee.
+@ConfigurationProperties(prefix = "live")
+public class LiveEventSettings {
+    private boolean enabled = true;
+    private long coalesceMs = 500;
+    private long heartbeatSeconds = 20;
+    private int maxConnectionsPerUser = 4;
+    private int maxConnections = 2000;
+    private int bufferSize = 256;
+    private int sinkQueueEvents = 1024;
+    private long resumeWindowSeconds = 120;
+    private long emitterTimeoutMinutes = 30;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getCoalesceMs() {
+        return coalesceMs;
+    }
+
+    public void setCoalesceMs(long coalesceMs) {
+        this.coalesceMs = coalesceMs;
+    }
+
+    public long getHeartbeatSeconds() {
+        return heartbeatSeconds;
+    }
+
+    public void setHeartbeatSeconds(long heartbeatSeconds) {
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    public int getMaxConnectionsPerUser() {
+        return maxConnectionsPerUser;
+    }
+
+    public void setMaxConnectionsPerUser(int maxConnectionsPerUser) {
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getSinkQueueEvents() {
+        return sinkQueueEvents;
+    }
+
+    public void setSinkQueueEvents(int sinkQueueEvents) {
+        this.sinkQueueEvents = sinkQueueEvents;
+    }
+
+    public long getResumeWindowSeconds() {
+        return resumeWindowSeconds;
+    }
+
+    public void setResumeWindowSeconds(long resumeWindowSeconds) {
+        this.resumeWindowSeconds = resumeWindowSeconds;
+    }
+
+    public long getEmitterTimeoutMinutes() {
+        return emitterTimeoutMinutes;
+    }
+
+    public void setEmitterTimeoutMinutes(long emitterTimeoutMinutes) {
+        this.emitterTimeoutMinutes = emitterTimeoutMinutes;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.growerhub.backend.common.config.cluster;
+
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.growerhub.backend.common.component.LocalChangeBus;
+import ru.growerhub.backend.common.component.PostgresChangeBus;
+import ru.growerhub.backend.common.contract.ChangeBus;
+
+// Vybor realizacii shiny izmenenij: Postgres LISTEN/NOTIFY ili vnutri JVM (testy, BD ne Postgres).
+@Configuration
+public class ChangeBusConfig {
+    private static final Logger log = LoggerFactory.getLogger(ChangeBusConfig.class);
+
+    @Bean
+    ChangeBus changeBus(ChangeBusSettings settings, DataSourceProperties dataSourceProperties, DataSource dataSource) {
+        String url = dataSourceProperties.determineUrl();
+        if (!"postgres".equalsIgnoreCase(settings.getType()) || url == null || !url.startsWith("jdbc:postgresql:")) {
+            log.info("Shina izmenenij vnutri JVM: izmenenija ACK, shadow i sbrosy keshej ne rasprostranjajutsja na drugie uzly");
+            return new LocalChangeBus();
+        }
+        PostgresChangeBus bus = new PostgresChangeBus(
+                settings,
+                dataSource,
+                url,
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        );
+        bus.start();
+        return bus;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.growerhub.backend.common.config.cluster;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki shiny izmenenij mezhdu ekzempljarami backend (ACK i shadow ustrojstv).
+@ConfigurationProperties(prefix = "cluster.change-bus")
+public class ChangeBusSettings {
+    private String type = "postgres";
+    private String channel = "growerhub_changes";
+    private int queueCapacity = 10000;
+    private int batchSize = 200;
+    private long pollTimeoutMs = 1000;
+    private long reconnectDelayMs = 5000;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getPollTimeoutMs() {
+        return pollTimeoutMs;
+    }
+
+    public void setPollTimeoutMs(long pollTimeoutMs) {
+        this.pollTimeoutMs = pollTimeoutMs;
+    }
+
+    public long getReconnectDelayMs() {
+        return reconnectDelayMs;
+    }
+
+    public void setReconnectDelayMs(long reconnectDelayMs) {
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+}
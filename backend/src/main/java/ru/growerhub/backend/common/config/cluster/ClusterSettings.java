@@ -0,0 +1,62 @@
+package ru.growerhub.backend.common.config.cluster;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki koordinacii scheduled-zadach mezhdu ekzempljarami backend: lease na zadachu i shard'y avtomatizacii.
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterSettings {
+    private boolean enabled = true;
+    private String nodeId = "";
+    private long heartbeatPeriodMs = 10000;
+    private long nodeTtlMs = 30000;
+    private long leaseTtlMs = 30000;
+    private boolean shardAutomation = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public long getHeartbeatPeriodMs() {
+        return heartbeatPeriodMs;
+    }
+
+    public void setHeartbeatPeriodMs(long heartbeatPeriodMs) {
+        this.heartbeatPeriodMs = heartbeatPeriodMs;
+    }
+
+    public long getNodeTtlMs() {
+        return nodeTtlMs;
+    }
+
+    public void setNodeTtlMs(long nodeTtlMs) {
+        this.nodeTtlMs = nodeTtlMs;
+    }
+
+    public long getLeaseTtlMs() {
+        return leaseTtlMs;
+    }
+
+    public void setLeaseTtlMs(long leaseTtlMs) {
+        this.leaseTtlMs = leaseTtlMs;
+    }
+
+    public boolean isShardAutomation() {
+        return shardAutomation;
+    }
+
+    public void setShardAutomation(boolean shardAutomation) {
+        this.shardAutomation = shardAutomation;
+    }
+}
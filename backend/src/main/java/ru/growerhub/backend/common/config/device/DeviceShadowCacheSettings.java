@@ -0,0 +1,35 @@
+package ru.growerhub.backend.common.config.device;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki ogranichennogo in-memory kesha shadow state ustrojstv.
+@ConfigurationProperties(prefix = "device.shadow-cache")
+public class DeviceShadowCacheSettings {
+    private int maxSize = 10000;
+    private long idleTtlSeconds = 21600;
+    private int preloadLimit = 1000;
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getIdleTtlSeconds() {
+        return idleTtlSeconds;
+    }
+
+    public void setIdleTtlSeconds(long idleTtlSeconds) {
+        this.idleTtlSeconds = idleTtlSeconds;
+    }
+
+    public int getPreloadLimit() {
+        return preloadLimit;
+    }
+
+    public void setPreloadLimit(int preloadLimit) {
+        this.preloadLimit = preloadLimit;
+    }
+}
@@ -0,0 +1,44 @@
+package ru.growerhub.backend.common.config.device;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki paketnoj (write-behind) zapisi state ot ustrojstv.
+@ConfigurationProperties(prefix = "device.state-write-behind")
+public class DeviceStateWriteBehindSettings {
+    private boolean enabled = false;
+    private long windowMs = 250;
+    private int maxBatchSize = 200;
+    private int queueCapacity = 5000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public void setWindowMs(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,104 @@
+package ru.growerhub.backend.common.config.journal;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki hranilishcha foto zhurnala.
+@ConfigurationProperties(prefix = "journal.photos")
+public class JournalPhotoSettings {
+    private String storageDir = "journal_photos";
+    private long maxUploadBytes = 15L * 1024 * 1024;
+    private int thumbnailMaxPx = 320;
+    private long cacheMaxAgeSeconds = 86400;
+    private boolean migrationEnabled = true;
+    private int migrationBatchSize = 20;
+    private int migrationMaxBatchesPerRun = 50;
+    private boolean orphanSweepEnabled = true;
+    private long orphanSweepGraceMinutes = 60;
+    private int orphanSweepBatchSize = 500;
+
+    public Path getStorageRoot() {
+        return Paths.get(storageDir).toAbsolutePath().normalize();
+    }
+
+    public String getStorageDir() {
+        return storageDir;
+    }
+
+    public void setStorageDir(String storageDir) {
+        this.storageDir = storageDir;
+    }
+
+    public long getMaxUploadBytes() {
+        return maxUploadBytes;
+    }
+
+    public void setMaxUploadBytes(long maxUploadBytes) {
+        this.maxUploadBytes = maxUploadBytes;
+    }
+
+    public int getThumbnailMaxPx() {
+        return thumbnailMaxPx;
+    }
+
+    public void setThumbnailMaxPx(int thumbnailMaxPx) {
+        this.thumbnailMaxPx = thumbnailMaxPx;
+    }
+
+    public long getCacheMaxAgeSeconds() {
+        return cacheMaxAgeSeconds;
+    }
+
+    public void setCacheMaxAgeSeconds(long cacheMaxAgeSeconds) {
+        this.cacheMaxAgeSeconds = cacheMaxAgeSeconds;
+    }
+
+    public boolean isMigrationEnabled() {
+        return migrationEnabled;
+    }
+
+    public void setMigrationEnabled(boolean migrationEnabled) {
+        this.migrationEnabled = migrationEnabled;
+    }
+
+    public int getMigrationBatchSize() {
+        return migrationBatchSize;
+    }
+
+    public void setMigrationBatchSize(int migrationBatchSize) {
+        this.migrationBatchSize = migrationBatchSize;
+    }
+
+    public int getMigrationMaxBatchesPerRun() {
+        return migrationMaxBatchesPerRun;
+    }
+
+    public void setMigrationMaxBatchesPerRun(int migrationMaxBatchesPerRun) {
+        this.migrationMaxBatchesPerRun = migrationMaxBatchesPerRun;
+    }
+
+    public boolean isOrphanSweepEnabled() {
+        return orphanSweepEnabled;
+    }
+
+    public void setOrphanSweepEnabled(boolean orphanSweepEnabled) {
+        this.orphanSweepEnabled = orphanSweepEnabled;
+    }
+
+    public long getOrphanSweepGraceMinutes() {
+        return orphanSweepGraceMinutes;
+    }
+
+    public void setOrphanSweepGraceMinutes(long orphanSweepGraceMinutes) {
+        this.orphanSweepGraceMinutes = orphanSweepGraceMinutes;
+    }
+
+    public int getOrphanSweepBatchSize() {
+        return orphanSweepBatchSize;
+    }
+
+    public void setOrphanSweepBatchSize(int orphanSweepBatchSize) {
+        this.orphanSweepBatchSize = orphanSweepBatchSize;
+    }
+}
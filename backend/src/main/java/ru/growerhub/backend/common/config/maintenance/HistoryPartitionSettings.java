@@ -0,0 +1,53 @@
+package ru.growerhub.backend.common.config.maintenance;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki mesjachnyh partitsij istorii (PostgreSQL): zapas budushchih partitsij i zhestkij gorizont hranenija.
+@ConfigurationProperties(prefix = "history.partitions")
+public class HistoryPartitionSettings {
+    private boolean enabled = true;
+    private int futureMonths = 2;
+    private int hardRetentionDays = 0;
+    private int maxMonthsPerRun = 24;
+    private long detachLockTimeoutMs = 500;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getFutureMonths() {
+        return futureMonths;
+    }
+
+    public void setFutureMonths(int futureMonths) {
+        this.futureMonths = futureMonths;
+    }
+
+    public int getHardRetentionDays() {
+        return hardRetentionDays;
+    }
+
+    public void setHardRetentionDays(int hardRetentionDays) {
+        this.hardRetentionDays = hardRetentionDays;
+    }
+
+    public int getMaxMonthsPerRun() {
+        return maxMonthsPerRun;
+    }
+
+    public void setMaxMonthsPerRun(int maxMonthsPerRun) {
+        this.maxMonthsPerRun = maxMonthsPerRun;
+    }
+
+    public long getDetachLockTimeoutMs() {
+        return detachLockTimeoutMs;
+    }
+
+    public void setDetachLockTimeoutMs(long detachLockTimeoutMs) {
+        this.detachLockTimeoutMs = detachLockTimeoutMs;
+    }
+}
@@ -8,6 +8,10 @@ public class HistoryRetentionSettings {
     private boolean enabled = true;
     private int rawDays = 30;
     private int maxDaysPerRun = 365;
+    private int concurrency = 2;
+    private int chunkKeys = 50;
+    private long maxRowsPerSecond = 5000;
+    private boolean dryRun = false;
 
     public boolean isEnabled() {
         return enabled;
@@ -32,4 +36,36 @@ public class HistoryRetentionSettings {
     public void setMaxDaysPerRun(int maxDaysPerRun) {
         this.maxDaysPerRun = maxDaysPerRun;
     }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getChunkKeys() {
+        return chunkKeys;
+    }
+
+    public void setChunkKeys(int chunkKeys) {
+        this.chunkKeys = chunkKeys;
+    }
+
+    public long getMaxRowsPerSecond() {
+        return maxRowsPerSecond;
+    }
+
+    public void setMaxRowsPerSecond(long maxRowsPerSecond) {
+        this.maxRowsPerSecond = maxRowsPerSecond;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
 }
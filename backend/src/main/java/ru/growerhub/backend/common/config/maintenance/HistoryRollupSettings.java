@@ -0,0 +1,89 @@
+package ru.growerhub.backend.common.config.maintenance;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki rollup istorii (5m/1h/1d agregaty) i vybora razreshenija dlja grafikov.
+@ConfigurationProperties(prefix = "history.rollup")
+public class HistoryRollupSettings {
+    private boolean enabled = true;
+    private int rawWindowHours = 48;
+    private long lagSeconds = 60;
+    private int stepHours = 6;
+    private int maxStepsPerRun = 200;
+    private int maxCoverageLagMinutes = 30;
+    private long coverageRefreshMs = 60000;
+    private int lateHorizonHours = 24;
+    private long lateRerollPeriodMinutes = 60;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRawWindowHours() {
+        return rawWindowHours;
+    }
+
+    public void setRawWindowHours(int rawWindowHours) {
+        this.rawWindowHours = rawWindowHours;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public void setLagSeconds(long lagSeconds) {
+        this.lagSeconds = lagSeconds;
+    }
+
+    public int getStepHours() {
+        return stepHours;
+    }
+
+    public void setStepHours(int stepHours) {
+        this.stepHours = stepHours;
+    }
+
+    public int getMaxStepsPerRun() {
+        return maxStepsPerRun;
+    }
+
+    public void setMaxStepsPerRun(int maxStepsPerRun) {
+        this.maxStepsPerRun = maxStepsPerRun;
+    }
+
+    public int getMaxCoverageLagMinutes() {
+        return maxCoverageLagMinutes;
+    }
+
+    public void setMaxCoverageLagMinutes(int maxCoverageLagMinutes) {
+        this.maxCoverageLagMinutes = maxCoverageLagMinutes;
+    }
+
+    public long getCoverageRefreshMs() {
+        return coverageRefreshMs;
+    }
+
+    public void setCoverageRefreshMs(long coverageRefreshMs) {
+        this.coverageRefreshMs = coverageRefreshMs;
+    }
+
+    public int getLateHorizonHours() {
+        return lateHorizonHours;
+    }
+
+    public void setLateHorizonHours(int lateHorizonHours) {
+        this.lateHorizonHours = lateHorizonHours;
+    }
+
+    public long getLateRerollPeriodMinutes() {
+        return lateRerollPeriodMinutes;
+    }
+
+    public void setLateRerollPeriodMinutes(long lateRerollPeriodMinutes) {
+        this.lateRerollPeriodMinutes = lateRerollPeriodMinutes;
+    }
+}
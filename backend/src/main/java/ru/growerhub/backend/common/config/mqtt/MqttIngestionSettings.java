@@ -0,0 +1,67 @@
+package ru.growerhub.backend.common.config.mqtt;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki asinhronnoj ocheredi vhodjashchih MQTT soobshchenij.
+@ConfigurationProperties(prefix = "mqtt.ingestion")
+public class MqttIngestionSettings {
+    private boolean enabled = true;
+    private int lanes = 4;
+    private int queueCapacity = 1000;
+    private boolean virtualThreads = true;
+    private BackpressurePolicy stateBackpressure = BackpressurePolicy.DROP_OLDEST;
+    private long shutdownTimeoutMs = 5000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    public void setLanes(int lanes) {
+        this.lanes = lanes;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public BackpressurePolicy getStateBackpressure() {
+        return stateBackpressure;
+    }
+
+    public void setStateBackpressure(BackpressurePolicy stateBackpressure) {
+        this.stateBackpressure = stateBackpressure != null ? stateBackpressure : BackpressurePolicy.BLOCK;
+    }
+
+    public long getShutdownTimeoutMs() {
+        return shutdownTimeoutMs;
+    }
+
+    public void setShutdownTimeoutMs(long shutdownTimeoutMs) {
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    public enum BackpressurePolicy {
+        BLOCK,
+        DROP_OLDEST
+    }
+}
@@ -0,0 +1,54 @@
+package ru.growerhub.backend.common.config.mqtt;
+
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki zhurnala poslednih MQTT soobshchenij (/api/admin/mqtt/messages).
+@ConfigurationProperties(prefix = "mqtt.message-log")
+public class MqttMessageLogSettings {
+    private boolean enabled = true;
+    private boolean outbound = true;
+    private int sampleEvery = 1;
+    private List<String> topicFilters = List.of();
+    private List<String> kinds = List.of();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isOutbound() {
+        return outbound;
+    }
+
+    public void setOutbound(boolean outbound) {
+        this.outbound = outbound;
+    }
+
+    public int getSampleEvery() {
+        return sampleEvery;
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = sampleEvery;
+    }
+
+    public List<String> getTopicFilters() {
+        return topicFilters;
+    }
+
+    public void setTopicFilters(List<String> topicFilters) {
+        this.topicFilters = topicFilters != null ? List.copyOf(topicFilters) : List.of();
+    }
+
+    public List<String> getKinds() {
+        return kinds;
+    }
+
+    public void setKinds(List<String> kinds) {
+        this.kinds = kinds != null ? List.copyOf(kinds) : List.of();
+    }
+}
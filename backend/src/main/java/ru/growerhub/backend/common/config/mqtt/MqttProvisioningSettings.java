@@ -11,6 +11,8 @@ public class MqttProvisioningSettings {
     private String username;
     private String password;
     private int responseTimeoutSeconds = 10;
+    private long batchWindowMs = 5;
+    private int maxBatchCommands = 200;
 
     public boolean isEnabled() {
         return enabled;
@@ -68,6 +70,22 @@ public class MqttProvisioningSettings {
         this.responseTimeoutSeconds = responseTimeoutSeconds;
     }
 
+    public long getBatchWindowMs() {
+        return batchWindowMs;
+    }
+
+    public void setBatchWindowMs(long batchWindowMs) {
+        this.batchWindowMs = batchWindowMs;
+    }
+
+    public int getMaxBatchCommands() {
+        return maxBatchCommands;
+    }
+
+    public void setMaxBatchCommands(int maxBatchCommands) {
+        this.maxBatchCommands = maxBatchCommands;
+    }
+
     private String normalize(String value) {
         if (value == null) {
             return null;
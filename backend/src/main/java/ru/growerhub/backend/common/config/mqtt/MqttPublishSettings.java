@@ -0,0 +1,44 @@
+package ru.growerhub.backend.common.config.mqtt;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki asinhronnoj publikacii MQTT komand.
+@ConfigurationProperties(prefix = "mqtt.publish")
+public class MqttPublishSettings {
+    private int maxInFlight = 64;
+    private long enqueueTimeoutMs = 2000;
+    private long deliveryTimeoutMs = 10000;
+    private int maxAttempts = 2;
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public long getEnqueueTimeoutMs() {
+        return enqueueTimeoutMs;
+    }
+
+    public void setEnqueueTimeoutMs(long enqueueTimeoutMs) {
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+    }
+
+    public long getDeliveryTimeoutMs() {
+        return deliveryTimeoutMs;
+    }
+
+    public void setDeliveryTimeoutMs(long deliveryTimeoutMs) {
+        this.deliveryTimeoutMs = deliveryTimeoutMs;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+}
@@ -0,0 +1,47 @@
+package ru.growerhub.backend.common.config.mqtt;
+
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki podpiski cherez MQTT shared subscriptions ($share/<group>/...) dlja neskol'kih ekzempljarov backend.
+@ConfigurationProperties(prefix = "mqtt.shared-subscription")
+public class MqttSharedSubscriptionSettings {
+    private boolean enabled = false;
+    private String group = "growerhub-backend";
+    // Translitem: dopolnitel'nye filtry; ack (mqtt.topics.ack) i snimki zigbee bridge podpisyvajutsja napryamuju vsegda.
+    private List<String> directTopics = List.of();
+    // Translitem: soobshchenija gh/dev/{id}/... peresylajutsja HRW-vladel'cu ustrojstva po shine izmenenij.
+    private boolean deviceAffinity = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    public boolean isDeviceAffinity() {
+        return deviceAffinity;
+    }
+
+    public void setDeviceAffinity(boolean deviceAffinity) {
+        this.deviceAffinity = deviceAffinity;
+    }
+
+    public List<String> getDirectTopics() {
+        return directTopics;
+    }
+
+    public void setDirectTopics(List<String> directTopics) {
+        this.directTopics = directTopics != null ? directTopics : List.of();
+    }
+}
@@ -7,7 +7,6 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class PumpAckWaitSettings {
     private int defaultTimeoutSeconds = 5;
     private int maxTimeoutSeconds = 15;
-    private int pollIntervalMs = 500;
 
     public int getDefaultTimeoutSeconds() {
         return defaultTimeoutSeconds;
@@ -24,12 +23,4 @@ public class PumpAckWaitSettings {
     public void setMaxTimeoutSeconds(int maxTimeoutSeconds) {
         this.maxTimeoutSeconds = maxTimeoutSeconds;
     }
-
-    public int getPollIntervalMs() {
-        return pollIntervalMs;
-    }
-
-    public void setPollIntervalMs(int pollIntervalMs) {
-        this.pollIntervalMs = pollIntervalMs;
-    }
 }
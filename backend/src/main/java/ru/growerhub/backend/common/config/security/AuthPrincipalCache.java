@@ -0,0 +1,318 @@
+package ru.growerhub.backend.common.config.security;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.growerhub.backend.auth.AuthFacade;
+import ru.growerhub.backend.common.contract.ChangeBus;
+import ru.growerhub.backend.device.contract.DeviceCredentialChangedEvent;
+import ru.growerhub.backend.user.UserFacade;
+import ru.growerhub.backend.user.contract.UserAuthChangedEvent;
+
+// Kesh autentifikacii s korotkim TTL: JWT -> userId (proverka podpisi), userId -> AuthUser (zapros users),
+// (deviceId, sha256 tokena) -> ustrojstvo proshlo proverku. Sbros po UserAuthChangedEvent/DeviceCredentialChangedEvent
+// posle commit; zagruzka, nachataja do sbrosa, v kesh ne popadaet (epoch). Sbros rassylaetsja po shine izmenenij,
+// chtoby otkljuchennyj pol'zovatel' ili smenennyj token ustrojstva ne zhili do TTL na drugih uzlah.
+@Component
+public class AuthPrincipalCache {
+    private static final Logger log = LoggerFactory.getLogger(AuthPrincipalCache.class);
+    static final String CHANGE_TOPIC = "auth";
+
+    private final AuthPrincipalCacheSettings settings;
+    private final Clock clock;
+    private final ObjectMapper objectMapper;
+    private final ChangeBus changeBus;
+    private final Region<String, Integer> tokens = new Region<>();
+    private final Region<Integer, UserFacade.AuthUser> users = new Region<>();
+    private final Region<DeviceKey, Boolean> devices = new Region<>();
+
+    public AuthPrincipalCache(
+            AuthPrincipalCacheSettings settings,
+            Clock clock,
+            ObjectMapper objectMapper,
+            ChangeBus changeBus
+    ) {
+        this.settings = settings;
+        this.clock = clock;
+        this.objectMapper = objectMapper;
+        this.changeBus = changeBus;
+        changeBus.subscribe(CHANGE_TOPIC, this::applyRemote);
+        changeBus.onResync(this::clear);
+    }
+
+    // Translitem: loader vozvrashchaet userId i expiresAt tokena; zapis' ne perezhivaet srok dejstvija JWT.
+    public Integer resolveTokenUserId(String token, Function<String, AuthFacade.AccessToken> loader) {
+        if (!settings.isEnabled()) {
+            AuthFacade.AccessToken verified = loader.apply(token);
+            return verified != null ? verified.userId() : null;
+        }
+        long nowMs = clock.millis();
+        Integer cached = tokens.get(token, nowMs);
+        if (cached != null) {
+            return cached;
+        }
+        long epoch = tokens.epoch();
+        AuthFacade.AccessToken verified = loader.apply(token);
+        if (verified == null || verified.userId() == null) {
+            return null;
+        }
+        long expiresAtMs = nowMs + ttlMs();
+        if (verified.expiresAt() != null) {
+            expiresAtMs = Math.min(expiresAtMs, verified.expiresAt().toEpochMilli());
+        }
+        tokens.put(token, verified.userId(), expiresAtMs, epoch, maxEntries(), nowMs);
+        return verified.userId();
+    }
+
+    public UserFacade.AuthUser resolveUser(Integer userId, Function<Integer, UserFacade.AuthUser> loader) {
+        if (!settings.isEnabled() || userId == null) {
+            return loader.apply(userId);
+        }
+        long nowMs = clock.millis();
+        UserFacade.AuthUser cached = users.get(userId, nowMs);
+        if (cached != null) {
+            return cached;
+        }
+        long epoch = users.epoch();
+        UserFacade.AuthUser user = loader.apply(userId);
+        if (user != null) {
+            users.put(userId, user, nowMs + ttlMs(), epoch, maxEntries(), nowMs);
+        }
+        return user;
+    }
+
+    // Translitem: keshiruetsja tol'ko uspeshnaja proverka; nevernyj token kazhdyj raz idet v BD.
+    public boolean authenticateDevice(String deviceId, String rawToken, DeviceAuthenticator authenticator) {
+        if (!settings.isEnabled() || deviceId == null || rawToken == null) {
+            return authenticator.authenticate(deviceId, rawToken);
+        }
+        long nowMs = clock.millis();
+        DeviceKey key = new DeviceKey(deviceId, sha256Hex(rawToken));
+        if (devices.get(key, nowMs) != null) {
+            return true;
+        }
+        long epoch = devices.epoch();
+        boolean valid = authenticator.authenticate(deviceId, rawToken);
+        if (valid) {
+            devices.put(key, Boolean.TRUE, nowMs + ttlMs(), epoch, maxEntries(), nowMs);
+        }
+        return valid;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAuthChanged(UserAuthChangedEvent event) {
+        if (event.userId() == null) {
+            return;
+        }
+        invalidateUser(event.userId());
+        publish(new AuthChange(event.userId(), null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceCredentialChanged(DeviceCredentialChangedEvent event) {
+        if (event.deviceId() == null) {
+            return;
+        }
+        invalidateDevice(event.deviceId());
+        publish(new AuthChange(null, event.deviceId()));
+    }
+
+    public void clear() {
+        tokens.invalidate(key -> true);
+        users.invalidate(key -> true);
+        devices.invalidate(key -> true);
+    }
+
+    public Stats stats() {
+        return new Stats(
+                settings.isEnabled(),
+                maxEntries(),
+                tokens.snapshot(),
+                users.snapshot(),
+                devices.snapshot()
+        );
+    }
+
+    private void invalidateUser(Integer changedUserId) {
+        users.invalidate(userId -> userId.equals(changedUserId));
+    }
+
+    private void invalidateDevice(String deviceId) {
+        devices.invalidate(key -> key.deviceId().equals(deviceId));
+    }
+
+    private void publish(AuthChange change) {
+        if (!changeBus.isClustered()) {
+            return;
+        }
+        try {
+            changeBus.publish(CHANGE_TOPIC, objectMapper.writeValueAsString(change));
+        } catch (Exception ex) {
+            log.warn("Sbros kesha autentifikacii ne otpravlen v shinu izmenenij: {}", ex.getMessage());
+        }
+    }
+
+    private void applyRemote(String payload) {
+        AuthChange change;
+        try {
+            change = objectMapper.readValue(payload, AuthChange.class);
+        } catch (Exception ex) {
+            log.warn("Ne udalos razobrat sbros kesha autentifikacii iz shiny izmenenij: {}", ex.getMessage());
+            return;
+        }
+        if (change.userId() != null) {
+            invalidateUser(change.userId());
+        }
+        if (change.deviceId() != null) {
+            invalidateDevice(change.deviceId());
+        }
+    }
+
+    private long ttlMs() {
+        return Math.max(0, settings.getTtlSeconds()) * 1000;
+    }
+
+    private int maxEntries() {
+        return Math.max(1, settings.getMaxEntries());
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @FunctionalInterface
+    public interface DeviceAuthenticator {
+        boolean authenticate(String deviceId, String rawToken);
+    }
+
+    public record Stats(
+            boolean enabled,
+            int maxEntries,
+            RegionStats tokens,
+            RegionStats users,
+            RegionStats devices
+    ) {
+    }
+
+    public record RegionStats(
+            int size,
+            long hitCount,
+            long missCount,
+            double hitRate,
+            long evictionCount,
+            long invalidationCount
+    ) {
+    }
+
+    private record DeviceKey(String deviceId, String tokenHash) {
+    }
+
+    private record AuthChange(
+            @JsonProperty("user_id") Integer userId,
+            @JsonProperty("device_id") String deviceId
+    ) {
+    }
+
+    private record Entry<V>(V value, long expiresAtMs) {
+    }
+
+    // Translitem: chtenie bez blokirovok; pri perepolnenii snachala udaljajutsja prosrochennye zapisi,
+    // zatem te, chto istekajut ran'she vseh (perepolnenie redko - O(n) dopustimo).
+    private static final class Region<K, V> {
+        private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+        private final AtomicLong epoch = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+        private final AtomicLong invalidations = new AtomicLong();
+
+        V get(K key, long nowMs) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (entry.expiresAtMs() <= nowMs) {
+                entries.remove(key, entry);
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value();
+        }
+
+        long epoch() {
+            return epoch.get();
+        }
+
+        void put(K key, V value, long expiresAtMs, long loadEpoch, int maxEntries, long nowMs) {
+            if (expiresAtMs <= nowMs || epoch.get() != loadEpoch) {
+                return;
+            }
+            if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+                shrink(maxEntries, nowMs);
+            }
+            entries.put(key, new Entry<>(value, expiresAtMs));
+            // Translitem: sbros mog proizojti mezhdu proverkoj epoch i put - ubiraem svoju zapis'.
+            if (epoch.get() != loadEpoch) {
+                entries.remove(key);
+            }
+        }
+
+        void invalidate(Predicate<K> matcher) {
+            epoch.incrementAndGet();
+            invalidations.incrementAndGet();
+            entries.keySet().removeIf(matcher);
+        }
+
+        RegionStats snapshot() {
+            long hitCount = hits.get();
+            long missCount = misses.get();
+            long total = hitCount + missCount;
+            return new RegionStats(
+                    entries.size(),
+                    hitCount,
+                    missCount,
+                    total > 0 ? (double) hitCount / total : 0.0,
+                    evictions.get(),
+                    invalidations.get()
+            );
+        }
+
+        private synchronized void shrink(int maxEntries, long nowMs) {
+            if (entries.size() < maxEntries) {
+                return;
+            }
+            int before = entries.size();
+            entries.values().removeIf(entry -> entry.expiresAtMs() <= nowMs);
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            if (entries.size() > target) {
+                entries.entrySet().stream()
+                        .sorted((left, right) -> Long.compare(left.getValue().expiresAtMs(), right.getValue().expiresAtMs()))
+                        .limit(entries.size() - target)
+                        .map(Map.Entry::getKey)
+                        .toList()
+                        .forEach(entries::remove);
+            }
+            evictions.addAndGet(Math.max(0, before - entries.size()));
+        }
+    }
+}
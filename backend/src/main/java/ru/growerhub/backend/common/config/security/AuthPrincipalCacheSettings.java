@@ -0,0 +1,35 @@
+package ru.growerhub.backend.common.config.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Nastroyki kesha proverennyh JWT, AuthUser i device token v JwtAuthFilter/DeviceAuthFilter.
+@ConfigurationProperties(prefix = "security.principal-cache")
+public class AuthPrincipalCacheSettings {
+    private boolean enabled = true;
+    private long ttlSeconds = 30;
+    private int maxEntries = 10000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
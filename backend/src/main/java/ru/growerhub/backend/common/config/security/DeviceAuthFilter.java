@@ -28,10 +28,12 @@ public class DeviceAuthFilter extends OncePerRequestFilter {
     );
 
     private final DeviceFacade deviceFacade;
+    private final AuthPrincipalCache principalCache;
     private final ObjectMapper objectMapper;
 
-    public DeviceAuthFilter(DeviceFacade deviceFacade, ObjectMapper objectMapper) {
+    public DeviceAuthFilter(DeviceFacade deviceFacade, AuthPrincipalCache principalCache, ObjectMapper objectMapper) {
         this.deviceFacade = deviceFacade;
+        this.principalCache = principalCache;
         this.objectMapper = objectMapper;
     }
 
@@ -56,7 +58,7 @@ public class DeviceAuthFilter extends OncePerRequestFilter {
         String deviceId = URLDecoder.decode(matcher.group(1), StandardCharsets.UTF_8);
         String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
         String rawToken = authorization.substring(DEVICE_PREFIX.length()).trim();
-        if (!deviceFacade.authenticateDevice(deviceId, rawToken)) {
+        if (!principalCache.authenticateDevice(deviceId, rawToken, deviceFacade::authenticateDevice)) {
             writeUnauthorized(response);
             return;
         }
@@ -30,11 +30,18 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final AuthFacade authFacade;
     private final UserFacade userFacade;
+    private final AuthPrincipalCache principalCache;
     private final ObjectMapper objectMapper;
 
-    public JwtAuthFilter(AuthFacade authFacade, UserFacade userFacade, ObjectMapper objectMapper) {
+    public JwtAuthFilter(
+            AuthFacade authFacade,
+            UserFacade userFacade,
+            AuthPrincipalCache principalCache,
+            ObjectMapper objectMapper
+    ) {
         this.authFacade = authFacade;
         this.userFacade = userFacade;
+        this.principalCache = principalCache;
         this.objectMapper = objectMapper;
     }
 
@@ -74,13 +81,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        Integer userId = authFacade.parseUserId(token);
+        Integer userId = principalCache.resolveTokenUserId(token, authFacade::verifyAccessToken);
         if (userId == null) {
             writeError(response, HttpServletResponse.SC_UNAUTHORIZED, "Ne udalos' raspoznavat' token", true);
             return;
         }
 
-        UserFacade.AuthUser user = userFacade.getAuthUser(userId);
+        UserFacade.AuthUser user = principalCache.resolveUser(userId, userFacade::getAuthUser);
         if (user == null) {
             writeError(response, HttpServletResponse.SC_UNAUTHORIZED, "Polzovatel' ne najden", true);
             return;
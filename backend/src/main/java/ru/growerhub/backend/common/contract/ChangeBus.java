@@ -0,0 +1,21 @@
+package ru.growerhub.backend.common.contract;
+
+import java.util.function.Consumer;
+
+// Shina izmenenij mezhdu ekzempljarami backend: soobshchenie dostavljaetsja podpischikam DRUGIH uzlov,
+// svoj uzel primenjaet izmenenie sam. Dostavka best-effort - poterjannoe soobshchenie pokryvaet chtenie iz BD.
+public interface ChangeBus {
+    // Translitem: predel payload (NOTIFY v Postgres ogranichen 8000 bajt vmeste so sluzhebnym prefiksom).
+    int MAX_PAYLOAD_BYTES = 7000;
+
+    // Translitem: false - soobshchenie ne otpravleno (slishkom bol'shoe ili ochered' perepolnena).
+    boolean publish(String topic, String payload);
+
+    void subscribe(String topic, Consumer<String> listener);
+
+    // Translitem: vyzyvaetsja posle razryva svjazi s shinoj - soobshchenija za vremja razryva mogli poterjat'sja.
+    void onResync(Runnable listener);
+
+    // Translitem: false - drugih uzlov net, publish mozhno ne gotovit'.
+    boolean isClustered();
+}
@@ -0,0 +1,72 @@
+package ru.growerhub.backend.common.util;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Imena i granicy mesjachnyh partitsij istorii: <table>_pYYYYMM, posle prorezhivanija - <table>_pYYYYMM_c.
+public final class HistoryPartitions {
+    public static final String COMPACTED_SUFFIX = "_c";
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private HistoryPartitions() {
+    }
+
+    public static String partitionName(String table, YearMonth month) {
+        return requireIdentifier(table) + "_p" + String.format("%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    public static String compactedName(String table, YearMonth month) {
+        return partitionName(table, month) + COMPACTED_SUFFIX;
+    }
+
+    public static String defaultName(String table) {
+        return requireIdentifier(table) + "_default";
+    }
+
+    public static LocalDateTime rangeStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+
+    public static LocalDateTime rangeEnd(YearMonth month) {
+        return month.plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    // Translitem: null - partitsija ne mesjachnaja (default ili chuzhaja tablica).
+    public static Partition parse(String table, String partitionName) {
+        if (partitionName == null) {
+            return null;
+        }
+        Matcher matcher = Pattern.compile(Pattern.quote(table) + "_p(\\d{4})(\\d{2})(" + COMPACTED_SUFFIX + ")?")
+                .matcher(partitionName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int monthValue = Integer.parseInt(matcher.group(2));
+        if (monthValue < 1 || monthValue > 12) {
+            return null;
+        }
+        YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), monthValue);
+        return new Partition(table, partitionName, month, matcher.group(3) != null);
+    }
+
+    // Translitem: imena tablic podstavljajutsja v DDL/DML tekstom, poetomu propuskaem tol'ko prostye identifikatory.
+    public static String requireIdentifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Nedopustimoe imja tablicy: " + name);
+        }
+        return name;
+    }
+
+    public record Partition(String table, String name, YearMonth month, boolean compacted) {
+        public LocalDateTime fromTs() {
+            return rangeStart(month);
+        }
+
+        public LocalDateTime toTs() {
+            return rangeEnd(month);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ru.growerhub.backend.common.util;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Obshchaja logika rollup istorii: setka 5m/1h/1d, agregat odnogo bucket i vybor razreshenija dlja grafika.
+public final class HistoryRollup {
+    private HistoryRollup() {
+    }
+
+    public enum Resolution {
+        FIVE_MINUTES("5m", 300),
+        HOUR("1h", 3600),
+        DAY("1d", 86400);
+
+        private final String code;
+        private final long seconds;
+
+        Resolution(String code, long seconds) {
+            this.code = code;
+            this.seconds = seconds;
+        }
+
+        public String code() {
+            return code;
+        }
+
+        public long seconds() {
+            return seconds;
+        }
+
+        public LocalDateTime bucketStart(LocalDateTime ts) {
+            long epoch = ts.toEpochSecond(ZoneOffset.UTC);
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(epoch, seconds) * seconds, 0, ZoneOffset.UTC);
+        }
+
+        public LocalDateTime bucketCeil(LocalDateTime ts) {
+            LocalDateTime start = bucketStart(ts);
+            return start.equals(ts) ? start : start.plusSeconds(seconds);
+        }
+
+        // Translitem: 1h stroitsja iz 5m, 1d - iz 1h; 5m - iz syryh strok.
+        public Resolution source() {
+            return switch (this) {
+                case FIVE_MINUTES -> null;
+                case HOUR -> FIVE_MINUTES;
+                case DAY -> HOUR;
+            };
+        }
+    }
+
+    // Translitem: samoe gruboe razreshenie, kotoroe eshche daet >= maxPoints bucket'ov v okne;
+    // null - okno korotkoe (chitaem syrye dannye kak ran'she) ili ni odno razreshenie ne daet maxPoints.
+    public static Resolution select(LocalDateTime since, LocalDateTime now, int maxPoints, Duration rawWindow) {
+        if (since == null || now == null) {
+            return null;
+        }
+        Duration window = Duration.between(since, now);
+        if (window.compareTo(rawWindow) <= 0) {
+            return null;
+        }
+        long windowSeconds = window.getSeconds();
+        for (Resolution resolution : List.of(Resolution.DAY, Resolution.HOUR, Resolution.FIVE_MINUTES)) {
+            if (windowSeconds / resolution.seconds() >= Math.max(1, maxPoints)) {
+                return resolution;
+            }
+        }
+        return null;
+    }
+
+    // Agregat min/max/avg/last/count; stroki dobavljajutsja po vozrastaniju ts.
+    public static final class Bucket {
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double sum;
+        private long count;
+        private LocalDateTime lastTs;
+        private Double lastValue;
+
+        public void add(LocalDateTime ts, double value) {
+            merge(value, value, value, 1, ts, value);
+        }
+
+        public void merge(double min, double max, double avg, long count, LocalDateTime lastTs, Double lastValue) {
+            if (count <= 0) {
+                return;
+            }
+            this.min = Math.min(this.min, min);
+            this.max = Math.max(this.max, max);
+            this.sum += avg * count;
+            this.count += count;
+            if (this.lastTs == null || (lastTs != null && !lastTs.isBefore(this.lastTs))) {
+                this.lastTs = lastTs;
+                this.lastValue = lastValue;
+            }
+        }
+
+        public double min() {
+            return min;
+        }
+
+        public double max() {
+            return max;
+        }
+
+        public double avg() {
+            return count > 0 ? sum / count : 0.0;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public LocalDateTime lastTs() {
+            return lastTs;
+        }
+
+        public Double lastValue() {
+            return lastValue;
+        }
+    }
+
+    // Granica, do kotoroj rollup zapolnen; chitaetsja iz BD ne chashche refreshMs (drugie instansy tozhe pishut).
+    public static final class Coverage {
+        private final Supplier<LocalDateTime> loader;
+        private volatile LocalDateTime coveredUntil;
+        private volatile long loadedAtMs;
+
+        public Coverage(Supplier<LocalDateTime> loader) {
+            this.loader = loader;
+        }
+
+        public LocalDateTime coveredUntil(long refreshMs) {
+            long nowMs = System.currentTimeMillis();
+            if (loadedAtMs == 0L || nowMs - loadedAtMs >= refreshMs) {
+                coveredUntil = loader.get();
+                loadedAtMs = nowMs;
+            }
+            return coveredUntil;
+        }
+
+        public boolean isFresh(LocalDateTime now, Duration maxLag, long refreshMs) {
+            LocalDateTime covered = coveredUntil(refreshMs);
+            return covered != null && !covered.isBefore(now.minus(maxLag));
+        }
+    }
+}
@@ -6,29 +6,42 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.growerhub.backend.common.contract.DomainException;
+import ru.growerhub.backend.device.contract.DeviceAck;
 import ru.growerhub.backend.device.contract.DeviceAggregate;
 import ru.growerhub.backend.device.contract.DeviceAckStore;
 import ru.growerhub.backend.device.contract.DeviceFirmwareStatus;
+import ru.growerhub.backend.device.contract.DeviceLiveState;
+import ru.growerhub.backend.device.contract.DeviceChangedEvent;
 import ru.growerhub.backend.device.contract.DeviceCredential;
+import ru.growerhub.backend.device.contract.DeviceCredentialChangedEvent;
 import ru.growerhub.backend.device.contract.DeviceServiceEventData;
 import ru.growerhub.backend.device.contract.DeviceServiceEventView;
 import ru.growerhub.backend.device.contract.DeviceSettingsData;
 import ru.growerhub.backend.device.contract.DeviceSettingsUpdate;
+import ru.growerhub.backend.device.contract.DeviceShadowCacheStats;
 import ru.growerhub.backend.device.contract.DeviceShadowState;
+import ru.growerhub.backend.device.contract.DeviceStateMessage;
 import ru.growerhub.backend.device.contract.DeviceSummary;
 import ru.growerhub.backend.device.engine.AckCleanupService;
 import ru.growerhub.backend.device.engine.DeviceAckService;
 import ru.growerhub.backend.device.engine.DeviceIngestionService;
 import ru.growerhub.backend.device.engine.DeviceQueryService;
 import ru.growerhub.backend.device.engine.DeviceServiceEventService;
+import ru.growerhub.backend.device.engine.DeviceResolutionCache;
 import ru.growerhub.backend.device.engine.DeviceShadowStore;
+import ru.growerhub.backend.device.engine.DeviceStateWriteBehind;
 import ru.growerhub.backend.device.jpa.DeviceEntity;
 import ru.growerhub.backend.device.jpa.DeviceRepository;
 import ru.growerhub.backend.device.jpa.DeviceStateLastEntity;
@@ -49,6 +62,8 @@ public class DeviceFacade {
     private final DeviceIngestionService deviceIngestionService;
     private final DeviceQueryService deviceQueryService;
     private final DeviceShadowStore shadowStore;
+    private final DeviceResolutionCache resolutionCache;
+    private final DeviceStateWriteBehind stateWriteBehind;
     private final DeviceAckService ackService;
     private final AckCleanupService ackCleanupService;
     private final MqttAckRepository mqttAckRepository;
@@ -57,6 +72,7 @@ public class DeviceFacade {
     private final SensorFacade sensorFacade;
     private final PlantFacade plantFacade;
     private final PumpFacade pumpFacade;
+    private final ApplicationEventPublisher eventPublisher;
     private final SecureRandom secureRandom = new SecureRandom();
 
     public DeviceFacade(
@@ -65,6 +81,8 @@ public class DeviceFacade {
             DeviceIngestionService deviceIngestionService,
             DeviceQueryService deviceQueryService,
             DeviceShadowStore shadowStore,
+            DeviceResolutionCache resolutionCache,
+            DeviceStateWriteBehind stateWriteBehind,
             DeviceAckService ackService,
             AckCleanupService ackCleanupService,
             MqttAckRepository mqttAckRepository,
@@ -72,13 +90,16 @@ public class DeviceFacade {
             DeviceServiceEventService deviceServiceEventService,
             SensorFacade sensorFacade,
             PlantFacade plantFacade,
-            @Lazy PumpFacade pumpFacade
+            @Lazy PumpFacade pumpFacade,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.deviceRepository = deviceRepository;
         this.deviceStateLastRepository = deviceStateLastRepository;
         this.deviceIngestionService = deviceIngestionService;
         this.deviceQueryService = deviceQueryService;
         this.shadowStore = shadowStore;
+        this.resolutionCache = resolutionCache;
+        this.stateWriteBehind = stateWriteBehind;
         this.ackService = ackService;
         this.ackCleanupService = ackCleanupService;
         this.mqttAckRepository = mqttAckRepository;
@@ -87,11 +108,20 @@ public class DeviceFacade {
         this.sensorFacade = sensorFacade;
         this.plantFacade = plantFacade;
         this.pumpFacade = pumpFacade;
+        this.eventPublisher = eventPublisher;
     }
 
     public Integer findDeviceId(String deviceId) {
+        Integer cached = resolutionCache.getDevicePk(deviceId);
+        if (cached != null) {
+            return cached;
+        }
         DeviceEntity device = deviceRepository.findByDeviceId(deviceId).orElse(null);
-        return device != null ? device.getId() : null;
+        if (device == null) {
+            return null;
+        }
+        resolutionCache.remember(deviceId, device.getId(), null);
+        return device.getId();
     }
 
     @Transactional(readOnly = true)
@@ -134,6 +164,7 @@ public class DeviceFacade {
         device.setDeviceTokenHash(hashDeviceToken(rawToken));
         device.setDeviceTokenIssuedAt(now);
         deviceRepository.save(device);
+        eventPublisher.publishEvent(new DeviceCredentialChangedEvent(device.getDeviceId()));
         return new DeviceCredential(device.getDeviceId(), rawToken, now);
     }
 
@@ -176,6 +207,40 @@ public class DeviceFacade {
         pumpFacade.finalizeWateringByDeviceId(deviceId, now);
         List<SensorReadingSummary> summaries = sensorFacade.recordMeasurements(deviceId, measurements, now);
         plantFacade.recordFromSensorBindings(summaries);
+        publishChanged(deviceId);
+    }
+
+    // Translitem: vozvrashchaet false, esli write-behind vyklyuchen - togda vyzyvajushchij pishet cherez handleState.
+    public boolean enqueueState(String deviceId, DeviceShadowState state, LocalDateTime now) {
+        boolean queued = stateWriteBehind.offer(deviceId, state, now);
+        if (queued) {
+            publishChanged(deviceId);
+        }
+        return queued;
+    }
+
+    @Transactional
+    public void handleStateBatch(List<DeviceStateMessage> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+        List<DeviceIngestionService.IngestedDevice> ingested = deviceIngestionService.handleStateBatch(messages);
+        Map<Integer, List<SensorMeasurement>> measurementsByDevicePk = new LinkedHashMap<>();
+        for (DeviceIngestionService.IngestedDevice device : ingested) {
+            Integer devicePk = device.devicePk();
+            if (devicePk != null) {
+                pumpFacade.ensureDefaultPump(devicePk);
+                for (DeviceStateMessage message : device.messages()) {
+                    pumpFacade.recordStateByDeviceId(devicePk, message.state(), message.receivedAt());
+                }
+                measurementsByDevicePk.computeIfAbsent(devicePk, key -> new ArrayList<>())
+                        .addAll(device.measurements());
+            }
+            pumpFacade.finalizeWateringByDeviceId(device.deviceId(), device.lastReceivedAt());
+            publishChanged(device.deviceId());
+        }
+        List<SensorReadingSummary> summaries = sensorFacade.recordMeasurementsBatch(measurementsByDevicePk);
+        plantFacade.recordFromSensorBindings(summaries);
     }
 
     @Transactional
@@ -197,6 +262,12 @@ public class DeviceFacade {
         deviceServiceEventService.recordEvent(deviceId, event, receivedAt);
     }
 
+    // Translitem: ACK iz mqtt_ack dlja uzla, v pamjati kotorogo ego net (prishel na drugoj uzel).
+    @Transactional(readOnly = true)
+    public DeviceAck findAck(String correlationId) {
+        return ackService.findActiveAck(correlationId, LocalDateTime.now(ZoneOffset.UTC));
+    }
+
     // Translitem: facade-orientirovannaya ochistka ACK v tranzakcii dlya scheduled worker.
     @Transactional
     public int cleanupExpiredAcks() {
@@ -219,6 +290,7 @@ public class DeviceFacade {
             device.setLastSeen(now);
             deviceRepository.save(device);
         }
+        publishChanged(deviceId);
     }
 
     @Transactional(readOnly = true)
@@ -227,6 +299,13 @@ public class DeviceFacade {
         return snapshot != null ? snapshot.state() : null;
     }
 
+    @Transactional(readOnly = true)
+    public Map<String, DeviceShadowState> getShadowStates(Collection<String> deviceIds) {
+        Map<String, DeviceShadowState> states = new HashMap<>();
+        shadowStore.getSnapshotsOrLoad(deviceIds).forEach((deviceId, snapshot) -> states.put(deviceId, snapshot.state()));
+        return states;
+    }
+
     @Transactional(noRollbackFor = RuntimeException.class)
     public void updateManualWateringState(
             String deviceId,
@@ -246,6 +325,11 @@ public class DeviceFacade {
                 null
         );
         shadowStore.updateFromStateAndPersist(deviceId, state, updatedAt);
+        publishChanged(deviceId);
+    }
+
+    public DeviceShadowCacheStats getShadowCacheStats() {
+        return shadowStore.stats();
     }
 
     @Transactional(readOnly = true)
@@ -253,6 +337,30 @@ public class DeviceFacade {
         return shadowStore.getManualWateringView(deviceId);
     }
 
+    // Translitem: odin zapros vladel'cev i multi-get shadow na pachku ustrojstv iz okna potoka izmenenij.
+    @Transactional(readOnly = true)
+    public List<DeviceLiveState> getLiveStates(Collection<String> deviceIds) {
+        if (deviceIds == null || deviceIds.isEmpty()) {
+            return List.of();
+        }
+        Map<String, DeviceShadowStore.DeviceSnapshot> snapshots = shadowStore.getSnapshotsOrLoad(deviceIds);
+        List<DeviceLiveState> result = new ArrayList<>();
+        for (DeviceEntity device : deviceRepository.findAllByDeviceIdIn(deviceIds)) {
+            DeviceShadowStore.DeviceSnapshot snapshot = snapshots.get(device.getDeviceId());
+            DeviceShadowState state = snapshot != null ? snapshot.state() : null;
+            LocalDateTime updatedAt = snapshot != null ? snapshot.updatedAt() : device.getLastSeen();
+            result.add(new DeviceLiveState(
+                    device.getDeviceId(),
+                    device.getUserId(),
+                    snapshot != null && snapshot.isOnline(),
+                    updatedAt,
+                    state,
+                    shadowStore.buildManualWateringView(state, updatedAt, "calculated")
+            ));
+        }
+        return result;
+    }
+
     @Transactional
     public DeviceSettingsData getSettings(String deviceId) {
         LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
@@ -387,8 +495,11 @@ public class DeviceFacade {
         deviceStateLastRepository.deleteByDeviceId(deviceId);
         mqttAckRepository.deleteByDeviceId(deviceId);
         deviceRepository.delete(device);
+        resolutionCache.evict(deviceId);
+        eventPublisher.publishEvent(new DeviceCredentialChangedEvent(deviceId));
         shadowStore.remove(deviceId);
         ackStore.remove(deviceId);
+        publishChanged(deviceId);
     }
 
     @Transactional
@@ -403,6 +514,13 @@ public class DeviceFacade {
         deviceRepository.saveAll(devices);
     }
 
+    // Translitem: podpischiki (katalog avtomatizacii) poluchajut sobytie posle commit ili srazu vne tranzakcii.
+    private void publishChanged(String deviceId) {
+        if (deviceId != null) {
+            eventPublisher.publishEvent(new DeviceChangedEvent(deviceId));
+        }
+    }
+
     private DeviceEntity requireDevice(Integer deviceId) {
         DeviceEntity device = deviceRepository.findById(deviceId).orElse(null);
         if (device == null) {
@@ -0,0 +1,11 @@
+package ru.growerhub.backend.device.contract;
+
+// ACK komandy iz mqtt_ack (zapas dlja uzla, do kotorogo ACK ne doshel po shine izmenenij).
+public record DeviceAck(
+        String deviceId,
+        String correlationId,
+        String result,
+        String reason,
+        String status
+) {
+}
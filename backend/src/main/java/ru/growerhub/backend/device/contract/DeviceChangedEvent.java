@@ -0,0 +1,5 @@
+package ru.growerhub.backend.device.contract;
+
+// Sobytie izmenenija ustrojstva (state, last_seen, udalenie); publikuetsja posle obnovlenija shadow.
+public record DeviceChangedEvent(String deviceId) {
+}
@@ -0,0 +1,5 @@
+package ru.growerhub.backend.device.contract;
+
+// Sobytie smeny device token ili udalenija ustrojstva; kesh principal'ov sbrasyvaet ego posle commit.
+public record DeviceCredentialChangedEvent(String deviceId) {
+}
@@ -0,0 +1,15 @@
+package ru.growerhub.backend.device.contract;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Tekushchee sostojanie ustrojstva dlja potoka zhivyh izmenenij: vladelec, online i shadow.
+public record DeviceLiveState(
+        String deviceId,
+        Integer userId,
+        boolean isOnline,
+        LocalDateTime updatedAt,
+        DeviceShadowState state,
+        Map<String, Object> manualWatering
+) {
+}
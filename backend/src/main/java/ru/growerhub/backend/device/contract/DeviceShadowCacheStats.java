@@ -0,0 +1,16 @@
+package ru.growerhub.backend.device.contract;
+
+public record DeviceShadowCacheStats(
+        int size,
+        int maxSize,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long loadCount,
+        long loadNotFoundCount,
+        double averageLoadMs,
+        long sizeEvictionCount,
+        long idleEvictionCount,
+        long preloadedCount
+) {
+}
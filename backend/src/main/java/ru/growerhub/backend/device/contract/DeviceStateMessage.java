@@ -0,0 +1,6 @@
+package ru.growerhub.backend.device.contract;
+
+import java.time.LocalDateTime;
+
+public record DeviceStateMessage(String deviceId, DeviceShadowState state, LocalDateTime receivedAt) {
+}
@@ -2,22 +2,29 @@ package ru.growerhub.backend.device.engine;
 
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import ru.growerhub.backend.cluster.ClusterFacade;
 import ru.growerhub.backend.device.DeviceFacade;
 
 @Component
 public class AckCleanupWorker {
     // Translitem: period ochistki ACK v ms, istochnik - ACK_CLEANUP_PERIOD_SECONDS (sekundy).
     private static final String CLEANUP_DELAY_MS = "${ACK_CLEANUP_PERIOD_SECONDS:60}000";
+    private static final String JOB = "ack-cleanup";
 
     private final DeviceFacade deviceFacade;
+    private final ClusterFacade clusterFacade;
 
-    public AckCleanupWorker(DeviceFacade deviceFacade) {
+    public AckCleanupWorker(DeviceFacade deviceFacade, ClusterFacade clusterFacade) {
         this.deviceFacade = deviceFacade;
+        this.clusterFacade = clusterFacade;
     }
 
-    // Translitem: scheduled-vyzov delaet cleanup cherez facade, gde est tranzakciya.
+    // Translitem: scheduled-vyzov delaet cleanup cherez facade, gde est tranzakciya; na odnom uzle klastera.
     @Scheduled(fixedDelayString = CLEANUP_DELAY_MS)
     public void cleanupExpired() {
+        if (!clusterFacade.isLeader(JOB)) {
+            return;
+        }
         deviceFacade.cleanupExpiredAcks();
     }
 }
@@ -1,9 +1,11 @@
 package ru.growerhub.backend.device.engine;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDateTime;
 import java.util.Map;
 import org.springframework.stereotype.Service;
+import ru.growerhub.backend.device.contract.DeviceAck;
 import ru.growerhub.backend.device.jpa.MqttAckEntity;
 import ru.growerhub.backend.device.jpa.MqttAckRepository;
 
@@ -45,4 +47,39 @@ public class DeviceAckService {
         record.setExpiresAt(expiresAt);
         mqttAckRepository.save(record);
     }
+
+    // Translitem: prosrochennyj po expires_at ACK schitaetsja otsutstvujushchim, kak i v AckStore posle TTL.
+    public DeviceAck findActiveAck(String correlationId, LocalDateTime now) {
+        if (correlationId == null || correlationId.isBlank()) {
+            return null;
+        }
+        MqttAckEntity record = mqttAckRepository.findByCorrelationId(correlationId).orElse(null);
+        if (record == null || record.getResult() == null) {
+            return null;
+        }
+        if (record.getExpiresAt() != null && !record.getExpiresAt().isAfter(now)) {
+            return null;
+        }
+        return new DeviceAck(
+                record.getDeviceId(),
+                record.getCorrelationId(),
+                record.getResult(),
+                readReason(record.getPayloadJson()),
+                record.getStatus()
+        );
+    }
+
+    private String readReason(String payloadJson) {
+        if (payloadJson == null) {
+            return null;
+        }
+        try {
+            Map<String, Object> payload = objectMapper.readValue(payloadJson, new TypeReference<Map<String, Object>>() {
+            });
+            Object reason = payload.get("reason");
+            return reason != null ? reason.toString() : null;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
 }
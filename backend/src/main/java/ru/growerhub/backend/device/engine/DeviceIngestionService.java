@@ -3,7 +3,10 @@
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -11,6 +14,7 @@ import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 import ru.growerhub.backend.common.config.device.DeviceDefaultsSettings;
 import ru.growerhub.backend.device.contract.DeviceShadowState;
+import ru.growerhub.backend.device.contract.DeviceStateMessage;
 import ru.growerhub.backend.device.jpa.DeviceEntity;
 import ru.growerhub.backend.device.jpa.DeviceRepository;
 import ru.growerhub.backend.device.jpa.DeviceStateLastEntity;
@@ -27,6 +31,7 @@ public class DeviceIngestionService {
     private final ObjectMapper objectMapper;
     private final TransactionTemplate transactionTemplate;
     private final DeviceDefaultsSettings defaultsSettings;
+    private final DeviceResolutionCache resolutionCache;
 
     public DeviceIngestionService(
             DeviceRepository deviceRepository,
@@ -34,7 +39,8 @@ public class DeviceIngestionService {
             DeviceShadowStore shadowStore,
             ObjectMapper objectMapper,
             PlatformTransactionManager transactionManager,
-            DeviceDefaultsSettings defaultsSettings
+            DeviceDefaultsSettings defaultsSettings,
+            DeviceResolutionCache resolutionCache
     ) {
         this.deviceRepository = deviceRepository;
         this.deviceStateLastRepository = deviceStateLastRepository;
@@ -43,21 +49,110 @@ public class DeviceIngestionService {
         this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         this.defaultsSettings = defaultsSettings;
+        this.resolutionCache = resolutionCache;
     }
 
     public List<SensorMeasurement> handleState(String deviceId, DeviceShadowState state, LocalDateTime now) {
-        DeviceEntity device = ensureDeviceExists(deviceId, now);
-        if (device != null) {
-            applyDefaults(device, deviceId);
-            device.setLastSeen(now);
-            deviceRepository.save(device);
+        // Translitem: izvestnoe ustrojstvo so svezhim last_seen ne chitaem i ne pishem - online beretsja iz shadow.
+        if (!resolutionCache.isLastSeenFresh(deviceId, now)) {
+            DeviceEntity device = ensureDeviceExists(deviceId, now);
+            if (device != null) {
+                applyDefaults(device, deviceId);
+                device.setLastSeen(now);
+                deviceRepository.save(device);
+                resolutionCache.remember(deviceId, device.getId(), now);
+            }
         }
         shadowStore.updateFromState(deviceId, state, now);
-        DeviceShadowState merged = shadowStore.getLastState(deviceId);
-        upsertDeviceState(deviceId, merged != null ? merged : state, now);
+        PersistedState persisted = persistedState(deviceId, state, now);
+        upsertDeviceState(deviceId, persisted.state(), persisted.updatedAt());
         return extractMeasurements(state, now);
     }
 
+    // Paketnaja obrabotka state: shadow uzhe obnovlen pri postanovke v ochered',
+    // zdes' tol'ko odin select devices/device_state_last na batch i upsert poslednego state po ustrojstvu.
+    public List<IngestedDevice> handleStateBatch(List<DeviceStateMessage> messages) {
+        Map<String, List<DeviceStateMessage>> byDevice = new LinkedHashMap<>();
+        for (DeviceStateMessage message : messages) {
+            if (message == null || message.deviceId() == null) {
+                continue;
+            }
+            byDevice.computeIfAbsent(message.deviceId(), key -> new ArrayList<>()).add(message);
+        }
+        if (byDevice.isEmpty()) {
+            return List.of();
+        }
+        // Translitem: ustrojstva s izvestnym pk i svezhim last_seen v devices ne chitajutsja i ne pishutsja.
+        Map<String, Integer> resolvedPks = new HashMap<>();
+        List<String> unresolved = new ArrayList<>();
+        for (Map.Entry<String, List<DeviceStateMessage>> entry : byDevice.entrySet()) {
+            List<DeviceStateMessage> deviceMessages = entry.getValue();
+            LocalDateTime latestAt = deviceMessages.get(deviceMessages.size() - 1).receivedAt();
+            Integer devicePk = resolutionCache.getDevicePk(entry.getKey());
+            if (devicePk != null && resolutionCache.isLastSeenFresh(entry.getKey(), latestAt)) {
+                resolvedPks.put(entry.getKey(), devicePk);
+            } else {
+                unresolved.add(entry.getKey());
+            }
+        }
+        Map<String, DeviceEntity> devices = new HashMap<>();
+        if (!unresolved.isEmpty()) {
+            for (DeviceEntity device : deviceRepository.findAllByDeviceIdIn(unresolved)) {
+                devices.put(device.getDeviceId(), device);
+            }
+        }
+        Map<String, DeviceStateLastEntity> stateRecords = new HashMap<>();
+        for (DeviceStateLastEntity record : deviceStateLastRepository.findAllByDeviceIdIn(byDevice.keySet())) {
+            stateRecords.put(record.getDeviceId(), record);
+        }
+        List<IngestedDevice> result = new ArrayList<>();
+        List<DeviceStateLastEntity> dirtyRecords = new ArrayList<>();
+        for (Map.Entry<String, List<DeviceStateMessage>> entry : byDevice.entrySet()) {
+            String deviceId = entry.getKey();
+            List<DeviceStateMessage> deviceMessages = entry.getValue();
+            DeviceStateMessage latest = deviceMessages.get(deviceMessages.size() - 1);
+            Integer resolvedPk = resolvedPks.get(deviceId);
+            DeviceEntity device = devices.get(deviceId);
+            if (device == null && resolvedPk == null) {
+                device = ensureDeviceExists(deviceId, latest.receivedAt());
+                if (device != null) {
+                    devices.put(deviceId, device);
+                }
+            }
+            if (device != null) {
+                applyDefaults(device, deviceId);
+                device.setLastSeen(latest.receivedAt());
+                resolutionCache.remember(deviceId, device.getId(), latest.receivedAt());
+            }
+            PersistedState persisted = persistedState(deviceId, latest.state(), latest.receivedAt());
+            DeviceStateLastEntity record = stateRecords.get(deviceId);
+            if (record == null) {
+                record = DeviceStateLastEntity.create();
+                record.setDeviceId(deviceId);
+            }
+            if (isNotOlder(persisted.updatedAt(), record)) {
+                record.setStateJson(writeStateJson(persisted.state()));
+                record.setUpdatedAt(persisted.updatedAt());
+                dirtyRecords.add(record);
+            }
+
+            List<SensorMeasurement> measurements = new ArrayList<>();
+            for (DeviceStateMessage message : deviceMessages) {
+                measurements.addAll(extractMeasurements(message.state(), message.receivedAt()));
+            }
+            result.add(new IngestedDevice(
+                    deviceId,
+                    device != null ? device.getId() : resolvedPk,
+                    deviceMessages,
+                    latest.receivedAt(),
+                    measurements
+            ));
+        }
+        deviceRepository.saveAll(devices.values());
+        deviceStateLastRepository.saveAll(dirtyRecords);
+        return result;
+    }
+
     public DeviceEntity ensureDeviceExists(String deviceId, LocalDateTime now) {
         DeviceEntity device = deviceRepository.findByDeviceId(deviceId).orElse(null);
         if (device != null) {
@@ -136,23 +231,43 @@ public class DeviceIngestionService {
         return defaultsSettings.isUpdateAvailable();
     }
 
-    private void upsertDeviceState(String deviceId, DeviceShadowState state, LocalDateTime updatedAt) {
-        String payload;
-        try {
-            payload = objectMapper.writeValueAsString(state);
-        } catch (Exception ex) {
-            throw new IllegalStateException(ex);
+    // Translitem: state i updated_at berutsja iz odnoj zapisi shadow (ona mogla ujti vpered za schet bolee
+    // pozdnih soobshchenij v ocheredi); esli shadow starshe soobshchenija - pishetsja samo soobshchenie.
+    private PersistedState persistedState(String deviceId, DeviceShadowState state, LocalDateTime receivedAt) {
+        DeviceShadowStore.DeviceSnapshot shadow = shadowStore.getMemorySnapshot(deviceId);
+        if (shadow != null && shadow.state() != null && !shadow.updatedAt().isBefore(receivedAt)) {
+            return new PersistedState(shadow.state(), shadow.updatedAt());
         }
+        return new PersistedState(state, receivedAt);
+    }
+
+    // Translitem: bolee staryj state (povtor, zapozdavshij batch) ne zatiraet device_state_last.
+    private static boolean isNotOlder(LocalDateTime updatedAt, DeviceStateLastEntity record) {
+        return record.getUpdatedAt() == null || updatedAt == null || !record.getUpdatedAt().isAfter(updatedAt);
+    }
+
+    private void upsertDeviceState(String deviceId, DeviceShadowState state, LocalDateTime updatedAt) {
         DeviceStateLastEntity record = deviceStateLastRepository.findByDeviceId(deviceId).orElse(null);
         if (record == null) {
             record = DeviceStateLastEntity.create();
             record.setDeviceId(deviceId);
+        } else if (!isNotOlder(updatedAt, record)) {
+            return;
         }
+        String payload = writeStateJson(state);
         record.setStateJson(payload);
         record.setUpdatedAt(updatedAt);
         deviceStateLastRepository.save(record);
     }
 
+    private String writeStateJson(DeviceShadowState state) {
+        try {
+            return objectMapper.writeValueAsString(state);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
     private List<SensorMeasurement> extractMeasurements(DeviceShadowState state, LocalDateTime observedAt) {
         List<SensorMeasurement> measurements = new ArrayList<>();
         if (state == null) {
@@ -223,6 +338,18 @@ public class DeviceIngestionService {
         return Boolean.TRUE.equals(port.detected()) ? SensorStatus.OK : SensorStatus.DISCONNECTED;
     }
 
+    public record IngestedDevice(
+            String deviceId,
+            Integer devicePk,
+            List<DeviceStateMessage> messages,
+            LocalDateTime lastReceivedAt,
+            List<SensorMeasurement> measurements
+    ) {
+    }
+
+    private record PersistedState(DeviceShadowState state, LocalDateTime updatedAt) {
+    }
+
     private void createIfMissing(String deviceId, LocalDateTime now) {
         transactionTemplate.executeWithoutResult(status -> {
             if (deviceRepository.findByDeviceId(deviceId).isPresent()) {
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.springframework.stereotype.Service;
 import ru.growerhub.backend.common.config.DeviceSettings;
 import ru.growerhub.backend.common.config.device.DeviceDefaultsSettings;
@@ -37,21 +38,11 @@ public class DeviceQueryService {
     }
 
     public List<DeviceSummary> listMyDevices(Integer userId) {
-        List<DeviceEntity> devices = deviceRepository.findAllByUserId(userId);
-        List<DeviceSummary> responses = new ArrayList<>();
-        for (DeviceEntity device : devices) {
-            responses.add(buildDeviceSummary(device));
-        }
-        return responses;
+        return buildDeviceSummaries(deviceRepository.findAllByUserId(userId));
     }
 
     public List<DeviceSummary> listDevices() {
-        List<DeviceEntity> devices = deviceRepository.findAll();
-        List<DeviceSummary> responses = new ArrayList<>();
-        for (DeviceEntity device : devices) {
-            responses.add(buildDeviceSummary(device));
-        }
-        return responses;
+        return buildDeviceSummaries(deviceRepository.findAll());
     }
 
     public List<DeviceSummary> listAdminDevices() {
@@ -59,7 +50,23 @@ public class DeviceQueryService {
     }
 
     public DeviceSummary buildDeviceSummary(DeviceEntity device) {
-        DeviceShadowStore.DeviceSnapshot snapshot = shadowStore.getSnapshotOrLoad(device.getDeviceId());
+        return buildDeviceSummary(device, shadowStore.getSnapshotOrLoad(device.getDeviceId()));
+    }
+
+    // Translitem: snapshot'y dlja vsego spiska berutsja odnim multi-get vmesto pary zaprosov na ustrojstvo.
+    private List<DeviceSummary> buildDeviceSummaries(List<DeviceEntity> devices) {
+        List<String> deviceIds = devices.stream()
+                .map(DeviceEntity::getDeviceId)
+                .toList();
+        Map<String, DeviceShadowStore.DeviceSnapshot> snapshots = shadowStore.getSnapshotsOrLoad(deviceIds);
+        List<DeviceSummary> responses = new ArrayList<>();
+        for (DeviceEntity device : devices) {
+            responses.add(buildDeviceSummary(device, snapshots.get(device.getDeviceId())));
+        }
+        return responses;
+    }
+
+    private DeviceSummary buildDeviceSummary(DeviceEntity device, DeviceShadowStore.DeviceSnapshot snapshot) {
         DeviceShadowState state = snapshot != null ? snapshot.state() : null;
         LocalDateTime lastSeen = snapshot != null ? snapshot.updatedAt() : device.getLastSeen();
         boolean isOnline = snapshot != null ? snapshot.isOnline() : resolveOnlineFromDevice(device);
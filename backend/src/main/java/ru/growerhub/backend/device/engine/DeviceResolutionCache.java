@@ -0,0 +1,128 @@
+package ru.growerhub.backend.device.engine;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.growerhub.backend.common.config.IngestCacheSettings;
+import ru.growerhub.backend.common.contract.ChangeBus;
+
+// Kesh deviceId -> device pk i momenta poslednej zapisi last_seen, chtoby ustojchivyj state ne chital devices.
+// Zapolnjaetsja tol'ko posle commit, chtoby otkachennaja tranzakcija ne ostavila pk nesushchestvujushchego ustrojstva.
+// Vytesnenie posle commit rassylaetsja po shine izmenenij - drugie uzly ubirajut tu zhe zapis'.
+@Component
+public class DeviceResolutionCache {
+    private static final Logger log = LoggerFactory.getLogger(DeviceResolutionCache.class);
+    static final String CHANGE_TOPIC = "device-cache";
+
+    private final IngestCacheSettings settings;
+    private final ObjectMapper objectMapper;
+    private final ChangeBus changeBus;
+    private final Map<String, CachedDevice> devices = new ConcurrentHashMap<>();
+
+    public DeviceResolutionCache(IngestCacheSettings settings, ObjectMapper objectMapper, ChangeBus changeBus) {
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+        this.changeBus = changeBus;
+        changeBus.subscribe(CHANGE_TOPIC, this::applyRemote);
+        changeBus.onResync(this::clear);
+    }
+
+    public Integer getDevicePk(String deviceId) {
+        if (!settings.isEnabled() || deviceId == null) {
+            return null;
+        }
+        CachedDevice cached = devices.get(deviceId);
+        return cached != null ? cached.devicePk() : null;
+    }
+
+    public boolean isLastSeenFresh(String deviceId, LocalDateTime now) {
+        if (!settings.isEnabled() || deviceId == null || now == null) {
+            return false;
+        }
+        CachedDevice cached = devices.get(deviceId);
+        if (cached == null || cached.lastSeenWrittenAt() == null) {
+            return false;
+        }
+        long ageS = Duration.between(cached.lastSeenWrittenAt(), now).getSeconds();
+        return ageS >= 0 && ageS < settings.getLastSeenWriteIntervalS();
+    }
+
+    // Translitem: lastSeenWrittenAt == null sohranjaet uzhe izvestnyj moment zapisi last_seen.
+    public void remember(String deviceId, Integer devicePk, LocalDateTime lastSeenWrittenAt) {
+        if (!settings.isEnabled() || deviceId == null || devicePk == null) {
+            return;
+        }
+        afterCommit(() -> devices.compute(deviceId, (key, current) -> new CachedDevice(
+                devicePk,
+                lastSeenWrittenAt != null || current == null || !devicePk.equals(current.devicePk())
+                        ? lastSeenWrittenAt
+                        : current.lastSeenWrittenAt()
+        )));
+    }
+
+    public void evict(String deviceId) {
+        if (deviceId == null) {
+            return;
+        }
+        devices.remove(deviceId);
+        afterCommit(() -> {
+            devices.remove(deviceId);
+            publishEviction(deviceId);
+        });
+    }
+
+    public void clear() {
+        devices.clear();
+    }
+
+    private void publishEviction(String deviceId) {
+        if (!changeBus.isClustered()) {
+            return;
+        }
+        try {
+            changeBus.publish(CHANGE_TOPIC, objectMapper.writeValueAsString(new DeviceEviction(deviceId)));
+        } catch (Exception ex) {
+            log.warn("Sbros kesha ustrojstva {} ne otpravlen v shinu izmenenij: {}", deviceId, ex.getMessage());
+        }
+    }
+
+    private void applyRemote(String payload) {
+        DeviceEviction eviction;
+        try {
+            eviction = objectMapper.readValue(payload, DeviceEviction.class);
+        } catch (Exception ex) {
+            log.warn("Ne udalos razobrat sbros kesha ustrojstva iz shiny izmenenij: {}", ex.getMessage());
+            return;
+        }
+        if (eviction.deviceId() != null) {
+            devices.remove(eviction.deviceId());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record CachedDevice(Integer devicePk, LocalDateTime lastSeenWrittenAt) {
+    }
+
+    private record DeviceEviction(@JsonProperty("device_id") String deviceId) {
+    }
+}
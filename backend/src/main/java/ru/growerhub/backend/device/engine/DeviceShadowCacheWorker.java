@@ -0,0 +1,37 @@
+package ru.growerhub.backend.device.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DeviceShadowCacheWorker {
+    private static final Logger logger = LoggerFactory.getLogger(DeviceShadowCacheWorker.class);
+
+    private final DeviceShadowStore shadowStore;
+
+    public DeviceShadowCacheWorker(DeviceShadowStore shadowStore) {
+        this.shadowStore = shadowStore;
+    }
+
+    // Translitem: progrev kesha poslednimi aktivnymi ustrojstvami, chtoby pervye stranicy ne hodili v BD po odnomu.
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        try {
+            int loaded = shadowStore.preloadRecent();
+            if (loaded > 0) {
+                logger.info("Device shadow cache preloaded: {} ustrojstv", loaded);
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Ne udalos progret device shadow cache: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${device.shadow-cache.sweepPeriodMs:60000}")
+    public void evictIdle() {
+        shadowStore.evictIdle();
+    }
+}
@@ -1,5 +1,6 @@
 package ru.growerhub.backend.device.engine;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Clock;
@@ -7,50 +8,95 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 import ru.growerhub.backend.common.config.DeviceSettings;
+import ru.growerhub.backend.common.config.device.DeviceShadowCacheSettings;
+import ru.growerhub.backend.common.contract.ChangeBus;
+import ru.growerhub.backend.device.contract.DeviceShadowCacheStats;
 import ru.growerhub.backend.device.contract.DeviceShadowState;
 import ru.growerhub.backend.device.jpa.DeviceEntity;
 import ru.growerhub.backend.device.jpa.DeviceRepository;
+import ru.growerhub.backend.device.jpa.DeviceShadowRow;
 import ru.growerhub.backend.device.jpa.DeviceStateLastEntity;
 import ru.growerhub.backend.device.jpa.DeviceStateLastRepository;
 import ru.growerhub.backend.diagnostics.PlantTiming;
 
+// Shadow ustrojstv v pamjati uzla. Izmenenie rassylaetsja po shine izmenenij: drugie uzly obnovljajut svoju
+// zapis' (ili vybrasyvajut ee, esli state ne vlez v soobshchenie) i pri promahe dochityvajut device_state_last.
 @Component
 public class DeviceShadowStore {
+    private static final Logger log = LoggerFactory.getLogger(DeviceShadowStore.class);
+    static final String CHANGE_TOPIC = "shadow";
     private static final DateTimeFormatter ISO_UTC = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+    private static final int LOAD_CHUNK_SIZE = 500;
 
-    private final Map<String, ShadowEntry> storage = new ConcurrentHashMap<>();
+    private final ShadowCache<String, ShadowEntry> storage;
     private final DeviceSettings settings;
+    private final DeviceShadowCacheSettings cacheSettings;
     private final ObjectMapper objectMapper;
     private final Clock clock;
     private final DeviceRepository deviceRepository;
     private final DeviceStateLastRepository deviceStateLastRepository;
+    private final ChangeBus changeBus;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadsNotFound = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder preloaded = new LongAdder();
 
     public DeviceShadowStore(
             DeviceSettings settings,
+            DeviceShadowCacheSettings cacheSettings,
             ObjectMapper objectMapper,
             Clock clock,
             DeviceRepository deviceRepository,
-            DeviceStateLastRepository deviceStateLastRepository
+            DeviceStateLastRepository deviceStateLastRepository,
+            ChangeBus changeBus
     ) {
         this.settings = settings;
+        this.cacheSettings = cacheSettings;
+        this.storage = new ShadowCache<>(
+                cacheSettings.getMaxSize(),
+                TimeUnit.SECONDS.toNanos(Math.max(0, cacheSettings.getIdleTtlSeconds())),
+                System::nanoTime
+        );
         this.objectMapper = objectMapper;
         this.clock = clock;
         this.deviceRepository = deviceRepository;
         this.deviceStateLastRepository = deviceStateLastRepository;
+        this.changeBus = changeBus;
+        changeBus.subscribe(CHANGE_TOPIC, this::applyRemote);
+        // Translitem: za vremja razryva shiny mogli propast' izmenenija - kesh sbrasyvaetsja, chtenija idut v BD.
+        changeBus.onResync(storage::clear);
     }
 
     public void updateFromState(String deviceId, DeviceShadowState state) {
         updateFromState(deviceId, state, LocalDateTime.now(clock));
     }
 
-    public void updateFromState(String deviceId, DeviceShadowState state, LocalDateTime updatedAt) {
+    // Translitem: false - u uzla uzhe bolee svezhij state (zapozdavshee soobshchenie), shadow ne otkatyvaetsja.
+    public boolean updateFromState(String deviceId, DeviceShadowState state, LocalDateTime updatedAt) {
+        ShadowEntry current = storage.get(deviceId);
+        if (current != null && current.updatedAt() != null && updatedAt != null && current.updatedAt().isAfter(updatedAt)) {
+            return false;
+        }
         DeviceShadowState merged = mergeManualWateringState(deviceId, state);
         storage.put(deviceId, new ShadowEntry(merged, updatedAt));
+        publishChange(deviceId, merged, updatedAt);
+        return true;
     }
 
     public void remove(String deviceId) {
@@ -58,11 +104,11 @@ public class DeviceShadowStore {
             return;
         }
         storage.remove(deviceId);
+        publishEviction(deviceId);
     }
 
     public void updateFromStateAndPersist(String deviceId, DeviceShadowState state, LocalDateTime updatedAt) {
-        updateFromState(deviceId, state, updatedAt);
-        if (deviceStateLastRepository == null) {
+        if (!updateFromState(deviceId, state, updatedAt) || deviceStateLastRepository == null) {
             return;
         }
         String payload = writeStateJson(state);
@@ -76,6 +122,15 @@ public class DeviceShadowStore {
         deviceStateLastRepository.save(record);
     }
 
+    // Translitem: tol'ko pamjat' uzla, bez chtenija BD; state i updatedAt iz odnoj zapisi.
+    public DeviceSnapshot getMemorySnapshot(String deviceId) {
+        ShadowEntry entry = storage.get(deviceId);
+        if (entry == null || entry.updatedAt() == null) {
+            return null;
+        }
+        return new DeviceSnapshot(entry.state(), entry.updatedAt(), isOnline(entry.updatedAt()), SnapshotSource.MEMORY);
+    }
+
     public DeviceShadowState getLastState(String deviceId) {
         ShadowEntry entry = storage.get(deviceId);
         return entry != null ? entry.state() : null;
@@ -84,20 +139,76 @@ public class DeviceShadowStore {
     public DeviceSnapshot getSnapshotOrLoad(String deviceId) {
         ShadowEntry entry = storage.get(deviceId);
         if (entry != null && entry.updatedAt() != null) {
+            hits.increment();
             PlantTiming.recordShadowHit();
             return new DeviceSnapshot(entry.state(), entry.updatedAt(), isOnline(entry.updatedAt()), SnapshotSource.MEMORY);
         }
+        misses.increment();
         PlantTiming.recordShadowMiss();
         long loadStart = PlantTiming.startTimer();
+        long loadStartNs = System.nanoTime();
         DeviceSnapshot loaded = loadFromDb(deviceId);
+        loadNanos.add(System.nanoTime() - loadStartNs);
+        loads.increment();
         PlantTiming.recordShadowLoad(loadStart);
         if (loaded == null) {
+            loadsNotFound.increment();
             return null;
         }
         storage.put(deviceId, new ShadowEntry(loaded.state(), loaded.updatedAt()));
         return loaded;
     }
 
+    // Translitem: multi-get - vse promahi dogruzhajutsja odnim IN-zaprosom (devices left join device_state_last).
+    public Map<String, DeviceSnapshot> getSnapshotsOrLoad(Collection<String> deviceIds) {
+        Map<String, DeviceSnapshot> result = new HashMap<>();
+        if (deviceIds == null || deviceIds.isEmpty()) {
+            return result;
+        }
+        Set<String> missing = new LinkedHashSet<>();
+        for (String deviceId : deviceIds) {
+            if (deviceId == null || result.containsKey(deviceId) || missing.contains(deviceId)) {
+                continue;
+            }
+            ShadowEntry entry = storage.get(deviceId);
+            if (entry != null && entry.updatedAt() != null) {
+                hits.increment();
+                PlantTiming.recordShadowHit();
+                result.put(deviceId, new DeviceSnapshot(entry.state(), entry.updatedAt(), isOnline(entry.updatedAt()), SnapshotSource.MEMORY));
+            } else {
+                misses.increment();
+                PlantTiming.recordShadowMiss();
+                missing.add(deviceId);
+            }
+        }
+        if (missing.isEmpty() || deviceRepository == null) {
+            return result;
+        }
+        List<String> pending = new ArrayList<>(missing);
+        for (int from = 0; from < pending.size(); from += LOAD_CHUNK_SIZE) {
+            List<String> chunk = pending.subList(from, Math.min(pending.size(), from + LOAD_CHUNK_SIZE));
+            long loadStart = PlantTiming.startTimer();
+            long loadStartNs = System.nanoTime();
+            List<DeviceShadowRow> rows = deviceRepository.findShadowRowsByDeviceIdIn(chunk);
+            for (DeviceShadowRow row : rows) {
+                DeviceSnapshot snapshot = toSnapshot(row);
+                result.put(row.deviceId(), snapshot);
+                if (snapshot.updatedAt() != null) {
+                    storage.putIfAbsent(row.deviceId(), new ShadowEntry(snapshot.state(), snapshot.updatedAt()));
+                }
+            }
+            loadNanos.add(System.nanoTime() - loadStartNs);
+            PlantTiming.recordShadowLoad(loadStart);
+        }
+        loads.add(missing.size());
+        for (String deviceId : missing) {
+            if (!result.containsKey(deviceId)) {
+                loadsNotFound.increment();
+            }
+        }
+        return result;
+    }
+
     public DeviceSnapshot loadFromDb(String deviceId) {
         if (deviceId == null || deviceRepository == null) {
             return null;
@@ -123,10 +234,62 @@ public class DeviceShadowStore {
         return new DeviceSnapshot(state, updatedAt, isOnline(updatedAt), source);
     }
 
+    private DeviceSnapshot toSnapshot(DeviceShadowRow row) {
+        if (row.stateUpdatedAt() != null || row.stateJson() != null) {
+            LocalDateTime updatedAt = row.stateUpdatedAt() != null ? row.stateUpdatedAt() : row.lastSeen();
+            return new DeviceSnapshot(parseStateJson(row.stateJson()), updatedAt, isOnline(updatedAt), SnapshotSource.DB_STATE);
+        }
+        return new DeviceSnapshot(null, row.lastSeen(), isOnline(row.lastSeen()), SnapshotSource.DB_FALLBACK);
+    }
+
     public void clear() {
         storage.clear();
     }
 
+    // Translitem: zagruzhaet v kesh poslednie aktivnye ustrojstva odnim zaprosom, ne zatiraja uzhe prishedshij state.
+    public int preloadRecent() {
+        int limit = Math.min(cacheSettings.getPreloadLimit(), storage.maximumSize());
+        if (limit <= 0 || deviceStateLastRepository == null) {
+            return 0;
+        }
+        List<DeviceStateLastEntity> records =
+                deviceStateLastRepository.findAllByOrderByUpdatedAtDesc(PageRequest.of(0, limit));
+        int count = 0;
+        for (DeviceStateLastEntity record : records) {
+            if (record.getDeviceId() == null || record.getUpdatedAt() == null) {
+                continue;
+            }
+            storage.putIfAbsent(record.getDeviceId(), new ShadowEntry(parseStateJson(record.getStateJson()), record.getUpdatedAt()));
+            count++;
+        }
+        preloaded.add(count);
+        return count;
+    }
+
+    public int evictIdle() {
+        return storage.evictIdle();
+    }
+
+    public DeviceShadowCacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long loadCount = loads.sum();
+        long requests = hitCount + missCount;
+        return new DeviceShadowCacheStats(
+                storage.size(),
+                storage.maximumSize(),
+                hitCount,
+                missCount,
+                requests > 0 ? (double) hitCount / requests : 0.0,
+                loadCount,
+                loadsNotFound.sum(),
+                loadCount > 0 ? loadNanos.sum() / 1_000_000.0 / loadCount : 0.0,
+                storage.sizeEvictionCount(),
+                storage.idleEvictionCount(),
+                preloaded.sum()
+        );
+    }
+
     public Map<String, Object> debugDump(String deviceId) {
         ShadowEntry entry = storage.get(deviceId);
         if (entry == null) {
@@ -290,6 +453,54 @@ public class DeviceShadowStore {
         );
     }
 
+    private void publishChange(String deviceId, DeviceShadowState merged, LocalDateTime updatedAt) {
+        if (!changeBus.isClustered() || objectMapper == null) {
+            return;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(new ShadowChange(deviceId, updatedAt, merged, false));
+            if (!changeBus.publish(CHANGE_TOPIC, payload)) {
+                publishEviction(deviceId);
+            }
+        } catch (Exception ex) {
+            log.warn("Shadow {} ne otpravlen v shinu izmenenij: {}", deviceId, ex.getMessage());
+        }
+    }
+
+    private void publishEviction(String deviceId) {
+        if (!changeBus.isClustered() || objectMapper == null) {
+            return;
+        }
+        try {
+            changeBus.publish(CHANGE_TOPIC, objectMapper.writeValueAsString(new ShadowChange(deviceId, null, null, true)));
+        } catch (Exception ex) {
+            log.warn("Sbros shadow {} ne otpravlen v shinu izmenenij: {}", deviceId, ex.getMessage());
+        }
+    }
+
+    // Translitem: state uzhe smerzhen uzlom-otpravitelem; bolee staroe izmenenie ne zatiraet svezhuju zapis'.
+    private void applyRemote(String payload) {
+        ShadowChange change;
+        try {
+            change = objectMapper.readValue(payload, ShadowChange.class);
+        } catch (Exception ex) {
+            log.warn("Ne udalos razobrat shadow iz shiny izmenenij: {}", ex.getMessage());
+            return;
+        }
+        if (change.deviceId() == null || change.deviceId().isBlank()) {
+            return;
+        }
+        if (change.evict() || change.updatedAt() == null) {
+            storage.remove(change.deviceId());
+            return;
+        }
+        ShadowEntry current = storage.get(change.deviceId());
+        if (current != null && current.updatedAt() != null && current.updatedAt().isAfter(change.updatedAt())) {
+            return;
+        }
+        storage.put(change.deviceId(), new ShadowEntry(change.state(), change.updatedAt()));
+    }
+
     private <T> T preferNonNull(T value, T fallback) {
         return value != null ? value : fallback;
     }
@@ -303,4 +514,12 @@ public class DeviceShadowStore {
 
     private record ShadowEntry(DeviceShadowState state, LocalDateTime updatedAt) {
     }
+
+    private record ShadowChange(
+            @JsonProperty("device_id") String deviceId,
+            @JsonProperty("updated_at") LocalDateTime updatedAt,
+            @JsonProperty("state") DeviceShadowState state,
+            @JsonProperty("evict") boolean evict
+    ) {
+    }
 }
@@ -0,0 +1,187 @@
+package ru.growerhub.backend.device.engine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.common.config.device.DeviceStateWriteBehindSettings;
+import ru.growerhub.backend.device.DeviceFacade;
+import ru.growerhub.backend.device.contract.DeviceShadowState;
+import ru.growerhub.backend.device.contract.DeviceStateMessage;
+
+// Write-behind dlja state: shadow obnovljaetsja srazu, a zapis' v BD kopitsja v okne windowMs
+// (ili do maxBatchSize soobshchenij) i uhodit odnoj tranzakciej cherez DeviceFacade.handleStateBatch.
+@Component
+public class DeviceStateWriteBehind implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(DeviceStateWriteBehind.class);
+
+    private final DeviceStateWriteBehindSettings settings;
+    private final DeviceShadowStore shadowStore;
+    private final DeviceFacade deviceFacade;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private List<DeviceStateMessage> buffer = new ArrayList<>();
+    private ScheduledExecutorService executor;
+
+    public DeviceStateWriteBehind(
+            DeviceStateWriteBehindSettings settings,
+            DeviceShadowStore shadowStore,
+            @Lazy DeviceFacade deviceFacade
+    ) {
+        this.settings = settings;
+        this.shadowStore = shadowStore;
+        this.deviceFacade = deviceFacade;
+    }
+
+    public boolean offer(String deviceId, DeviceShadowState state, LocalDateTime receivedAt) {
+        if (!running.get()) {
+            return false;
+        }
+        shadowStore.updateFromState(deviceId, state, receivedAt);
+        int capacity = Math.max(1, settings.getQueueCapacity());
+        lock.lock();
+        try {
+            while (buffer.size() >= capacity && running.get()) {
+                requestFlush();
+                try {
+                    notFull.await(Math.max(1, settings.getWindowMs()), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            buffer.add(new DeviceStateMessage(deviceId, state, receivedAt));
+            if (buffer.size() >= Math.max(1, settings.getMaxBatchSize())) {
+                requestFlush();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!settings.isEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "device-state-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long windowMs = Math.max(1, settings.getWindowMs());
+        executor.scheduleWithFixedDelay(this::flushSafely, windowMs, windowMs, TimeUnit.MILLISECONDS);
+        log.info("Device state write-behind started: windowMs={} maxBatchSize={}", windowMs, settings.getMaxBatchSize());
+    }
+
+    @Override
+    public void stop() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Math.max(1, settings.getWindowMs()) * 4, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // Translitem: ostatok bufera zapisyvaem sinhronno, chtoby ne poterjat' state pri ostanovke.
+        flushSafely();
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        // Translitem: ostanavlivaetsja posle MQTT ingestion (phase -1), chtoby dopisat' vse state.
+        return -2;
+    }
+
+    private void requestFlush() {
+        ScheduledExecutorService current = executor;
+        if (current != null && !current.isShutdown() && flushRequested.compareAndSet(false, true)) {
+            current.execute(this::flushSafely);
+        }
+    }
+
+    private void flushSafely() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("Device state write-behind flush failed: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private synchronized void flush() {
+        List<DeviceStateMessage> batch;
+        lock.lock();
+        try {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            batch = buffer;
+            buffer = new ArrayList<>();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        int chunkSize = Math.max(1, settings.getMaxBatchSize());
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            flushChunk(batch.subList(from, Math.min(batch.size(), from + chunkSize)));
+        }
+    }
+
+    private void flushChunk(List<DeviceStateMessage> chunk) {
+        try {
+            deviceFacade.handleStateBatch(chunk);
+        } catch (RuntimeException ex) {
+            // Translitem: odin problemnyj state ne dolzhen terjat' ves' batch - povtorjaem po odnomu, kazhdyj v svoej
+            // tranzakcii i bez shadow: tam uzhe bolee svezhie state iz ocheredi.
+            log.warn("Batch iz {} state ne zapisan ({}), povtor po odnomu", chunk.size(), ex.getMessage());
+            for (DeviceStateMessage message : chunk) {
+                try {
+                    deviceFacade.handleStateBatch(List.of(message));
+                } catch (RuntimeException inner) {
+                    log.warn("Ne udalos zapisat state ot {}: {}", message.deviceId(), inner.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package ru.growerhub.backend.device.engine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Segmented LRU: novye kljuchi popadajut v probation, povtornyj dostup perevodit ih v protected.
+// Odnokratnyj prohod (naprimer admin-spisok vseh ustrojstv) vytesnjaet tol'ko probation i ne trogaet gorjachij nabor.
+class ShadowCache<K, V> {
+    private static final int STRIPED_THRESHOLD = 1024;
+    private static final int STRIPES = 8;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final List<Shard> shards;
+    private final int maximumSize;
+    private final long idleTtlNs;
+    private final LongSupplier nanoTime;
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder idleEvictions = new LongAdder();
+
+    ShadowCache(int maximumSize, long idleTtlNs, LongSupplier nanoTime) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.idleTtlNs = Math.max(0, idleTtlNs);
+        this.nanoTime = nanoTime;
+        // Translitem: shardy snizhajut konkurenciju lane za lock, no tol'ko pri bol'shom razmere,
+        // chtoby malen'kij limit sobljudalsja tochno.
+        int count = this.maximumSize >= STRIPED_THRESHOLD ? STRIPES : 1;
+        int perShard = (this.maximumSize + count - 1) / count;
+        List<Shard> created = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            created.add(new Shard(perShard));
+        }
+        this.shards = List.copyOf(created);
+    }
+
+    V get(K key) {
+        return shardFor(key).get(key);
+    }
+
+    void put(K key, V value) {
+        shardFor(key).put(key, value, true);
+    }
+
+    // Translitem: ne perezapisyvaet svezhee znachenie (preload ne dolzhen zatirat' MQTT state).
+    void putIfAbsent(K key, V value) {
+        shardFor(key).put(key, value, false);
+    }
+
+    void remove(K key) {
+        shardFor(key).remove(key);
+    }
+
+    void clear() {
+        for (Shard shard : shards) {
+            shard.clear();
+        }
+    }
+
+    int size() {
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.size();
+        }
+        return total;
+    }
+
+    int maximumSize() {
+        return maximumSize;
+    }
+
+    int evictIdle() {
+        if (idleTtlNs == 0) {
+            return 0;
+        }
+        int removed = 0;
+        for (Shard shard : shards) {
+            removed += shard.evictIdle();
+        }
+        return removed;
+    }
+
+    long sizeEvictionCount() {
+        return sizeEvictions.sum();
+    }
+
+    long idleEvictionCount() {
+        return idleEvictions.sum();
+    }
+
+    private Shard shardFor(K key) {
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        int hash = key != null ? key.hashCode() : 0;
+        return shards.get(Math.floorMod(hash ^ (hash >>> 16), shards.size()));
+    }
+
+    private final class Node {
+        private V value;
+        private long accessedAtNs;
+
+        private Node(V value, long accessedAtNs) {
+            this.value = value;
+            this.accessedAtNs = accessedAtNs;
+        }
+    }
+
+    private final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, Node> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, Node> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        private final int protectedCapacity;
+
+        private Shard(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            this.protectedCapacity = Math.max(1, (int) (this.capacity * PROTECTED_RATIO));
+        }
+
+        private V get(K key) {
+            lock.lock();
+            try {
+                long now = nanoTime.getAsLong();
+                Node node = protectedSegment.get(key);
+                if (node != null) {
+                    if (isIdle(node, now)) {
+                        protectedSegment.remove(key);
+                        idleEvictions.increment();
+                        return null;
+                    }
+                    node.accessedAtNs = now;
+                    return node.value;
+                }
+                node = probation.get(key);
+                if (node == null) {
+                    return null;
+                }
+                if (isIdle(node, now)) {
+                    probation.remove(key);
+                    idleEvictions.increment();
+                    return null;
+                }
+                node.accessedAtNs = now;
+                promote(key, node);
+                return node.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(K key, V value, boolean overwrite) {
+            lock.lock();
+            try {
+                long now = nanoTime.getAsLong();
+                Node node = protectedSegment.get(key);
+                if (node != null) {
+                    if (overwrite) {
+                        node.value = value;
+                        node.accessedAtNs = now;
+                    }
+                    return;
+                }
+                node = probation.get(key);
+                if (node != null) {
+                    if (overwrite) {
+                        node.value = value;
+                        node.accessedAtNs = now;
+                        promote(key, node);
+                    }
+                    return;
+                }
+                probation.put(key, new Node(value, now));
+                evictOverflow();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(K key) {
+            lock.lock();
+            try {
+                if (protectedSegment.remove(key) == null) {
+                    probation.remove(key);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                probation.clear();
+                protectedSegment.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return probation.size() + protectedSegment.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int evictIdle() {
+            lock.lock();
+            try {
+                long now = nanoTime.getAsLong();
+                return evictIdle(probation, now) + evictIdle(protectedSegment, now);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int evictIdle(Map<K, Node> segment, long now) {
+            int removed = 0;
+            Iterator<Node> iterator = segment.values().iterator();
+            while (iterator.hasNext()) {
+                if (isIdle(iterator.next(), now)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+            if (removed > 0) {
+                idleEvictions.add(removed);
+            }
+            return removed;
+        }
+
+        private void promote(K key, Node node) {
+            probation.remove(key);
+            protectedSegment.put(key, node);
+            // Translitem: perepolnenie protected opuskaet samyj staryj kljuch obratno v probation.
+            while (protectedSegment.size() > protectedCapacity) {
+                Map.Entry<K, Node> eldest = protectedSegment.entrySet().iterator().next();
+                protectedSegment.remove(eldest.getKey());
+                probation.put(eldest.getKey(), eldest.getValue());
+            }
+        }
+
+        private void evictOverflow() {
+            while (probation.size() + protectedSegment.size() > capacity) {
+                LinkedHashMap<K, Node> victimSegment = !probation.isEmpty() ? probation : protectedSegment;
+                K eldest = victimSegment.keySet().iterator().next();
+                victimSegment.remove(eldest);
+                sizeEvictions.increment();
+            }
+        }
+
+        private boolean isIdle(Node node, long now) {
+            return idleTtlNs > 0 && now - node.accessedAtNs > idleTtlNs;
+        }
+    }
+}
@@ -1,12 +1,27 @@
 package ru.growerhub.backend.device.jpa;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.growerhub.backend.device.jpa.DeviceEntity;
 
 public interface DeviceRepository extends JpaRepository<DeviceEntity, Integer> {
     Optional<DeviceEntity> findByDeviceId(String deviceId);
 
     List<DeviceEntity> findAllByUserId(Integer userId);
+
+    List<DeviceEntity> findAllByDeviceIdIn(Collection<String> deviceIds);
+
+    @Query("""
+            select new ru.growerhub.backend.device.jpa.DeviceShadowRow(
+                device.deviceId, device.lastSeen, stateLast.stateJson, stateLast.updatedAt
+            )
+            from DeviceEntity device
+            left join DeviceStateLastEntity stateLast on stateLast.deviceId = device.deviceId
+            where device.deviceId in :deviceIds
+            """)
+    List<DeviceShadowRow> findShadowRowsByDeviceIdIn(@Param("deviceIds") Collection<String> deviceIds);
 }
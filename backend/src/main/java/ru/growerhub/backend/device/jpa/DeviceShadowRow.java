@@ -0,0 +1,11 @@
+package ru.growerhub.backend.device.jpa;
+
+import java.time.LocalDateTime;
+
+public record DeviceShadowRow(
+        String deviceId,
+        LocalDateTime lastSeen,
+        String stateJson,
+        LocalDateTime stateUpdatedAt
+) {
+}
@@ -1,11 +1,18 @@
 package ru.growerhub.backend.device.jpa;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.growerhub.backend.device.jpa.DeviceStateLastEntity;
 
 public interface DeviceStateLastRepository extends JpaRepository<DeviceStateLastEntity, Integer> {
     Optional<DeviceStateLastEntity> findByDeviceId(String deviceId);
 
+    List<DeviceStateLastEntity> findAllByDeviceIdIn(Collection<String> deviceIds);
+
+    List<DeviceStateLastEntity> findAllByOrderByUpdatedAtDesc(Pageable pageable);
+
     void deleteByDeviceId(String deviceId);
 }
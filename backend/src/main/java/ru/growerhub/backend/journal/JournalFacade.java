@@ -1,24 +1,55 @@
 ﻿package ru.growerhub.backend.journal;
 
-import java.time.LocalDate;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 import ru.growerhub.backend.common.contract.AuthenticatedUser;
+import ru.growerhub.backend.common.config.journal.JournalPhotoSettings;
 import ru.growerhub.backend.common.contract.DomainException;
 import ru.growerhub.backend.journal.contract.JournalEntry;
+import ru.growerhub.backend.journal.contract.JournalExport;
+import ru.growerhub.backend.journal.contract.JournalExportFormat;
+import ru.growerhub.backend.journal.engine.JournalExportWriter;
+import ru.growerhub.backend.journal.engine.JournalPhotoStore;
+import ru.growerhub.backend.journal.engine.JournalPhotoThumbnailer;
 import ru.growerhub.backend.journal.engine.JournalService;
 import ru.growerhub.backend.journal.jpa.PlantJournalEntryEntity;
 import ru.growerhub.backend.journal.jpa.PlantJournalEntryRepository;
+import ru.growerhub.backend.journal.jpa.PlantJournalEntryRow;
 import ru.growerhub.backend.journal.jpa.PlantJournalPhotoEntity;
+import ru.growerhub.backend.journal.jpa.PlantJournalPhotoFileRow;
 import ru.growerhub.backend.journal.jpa.PlantJournalPhotoRepository;
+import ru.growerhub.backend.journal.jpa.PlantJournalPhotoRow;
 import ru.growerhub.backend.journal.jpa.PlantJournalWateringDetailsEntity;
 import ru.growerhub.backend.journal.jpa.PlantJournalWateringDetailsRepository;
 import ru.growerhub.backend.journal.contract.JournalPhoto;
@@ -30,6 +61,8 @@ import ru.growerhub.backend.plant.contract.PlantInfo;
 
 @Service
 public class JournalFacade {
+    private static final Logger log = LoggerFactory.getLogger(JournalFacade.class);
+    private static final int MAX_PAGE_SIZE = 500;
     private static final Set<String> JOURNAL_TYPES = Set.of(
             "watering",
             "feeding",
@@ -43,6 +76,10 @@ public class JournalFacade {
     private final PlantJournalPhotoRepository photoRepository;
     private final PlantJournalWateringDetailsRepository wateringDetailsRepository;
     private final JournalService journalService;
+    private final JournalPhotoStore photoStore;
+    private final JournalPhotoThumbnailer thumbnailer;
+    private final JournalPhotoSettings photoSettings;
+    private final JournalExportWriter exportWriter;
     private final PlantFacade plantFacade;
 
     public JournalFacade(
@@ -50,23 +87,53 @@ public class JournalFacade {
             PlantJournalPhotoRepository photoRepository,
             PlantJournalWateringDetailsRepository wateringDetailsRepository,
             JournalService journalService,
+            JournalPhotoStore photoStore,
+            JournalPhotoThumbnailer thumbnailer,
+            JournalPhotoSettings photoSettings,
+            JournalExportWriter exportWriter,
             @Lazy PlantFacade plantFacade
     ) {
         this.entryRepository = entryRepository;
         this.photoRepository = photoRepository;
         this.wateringDetailsRepository = wateringDetailsRepository;
         this.journalService = journalService;
+        this.photoStore = photoStore;
+        this.thumbnailer = thumbnailer;
+        this.photoSettings = photoSettings;
+        this.exportWriter = exportWriter;
         this.plantFacade = plantFacade;
     }
 
+    /**
+     * Lenta zhurnala: zapisi s detaljami poliva i metadannye foto za dva zaprosa, bez chtenija bajtov foto.
+     * Keyset: sledujushchaja stranica - beforeEventAt/beforeId poslednej zapisi predydushchej.
+     */
     @Transactional(readOnly = true)
-    public List<JournalEntry> listEntries(Integer plantId, AuthenticatedUser user) {
+    public List<JournalEntry> listEntries(
+            Integer plantId,
+            AuthenticatedUser user,
+            Integer limit,
+            LocalDateTime beforeEventAt,
+            Integer beforeId
+    ) {
         plantFacade.requireOwnedPlantInfo(plantId, user);
-        List<PlantJournalEntryEntity> entries =
-                entryRepository.findAllByPlantIdOrderByEventAtDesc(plantId);
-        List<JournalEntry> responses = new ArrayList<>();
-        for (PlantJournalEntryEntity entry : entries) {
-            responses.add(toJournalEntry(entry));
+        if ((beforeEventAt == null) != (beforeId == null)) {
+            throw new DomainException("bad_request", "before_event_at i before_id peredayutsya vmeste");
+        }
+        Pageable page = limit != null
+                ? PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)))
+                : Pageable.unpaged();
+        List<PlantJournalEntryRow> rows = beforeEventAt != null
+                ? entryRepository.findRowsByPlantIdBefore(plantId, beforeEventAt, beforeId, page)
+                : entryRepository.findRowsByPlantId(plantId, page);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, List<JournalPhoto>> photosByEntry =
+                loadPhotos(rows.stream().map(PlantJournalEntryRow::id).toList());
+        List<JournalEntry> responses = new ArrayList<>(rows.size());
+        for (PlantJournalEntryRow row : rows) {
+            responses.add(toJournalEntry(row, photosByEntry.getOrDefault(row.id(), List.of())));
         }
         return responses;
     }
@@ -101,15 +168,50 @@ public class JournalFacade {
         );
     }
 
+    /**
+     * Proverjaet format i prava na rastenija do nachala otveta: plantIds, libo vse rastenija gruppy groupId,
+     * libo ves' grow pol'zovatelja. Sami zapisi chitajutsja pozzhe v writeExport.
+     */
+    @Transactional(readOnly = true)
+    public JournalExport prepareExport(
+            List<Integer> plantIds,
+            Integer groupId,
+            String format,
+            AuthenticatedUser user
+    ) {
+        JournalExportFormat exportFormat = JournalExportFormat.parse(format);
+        if (exportFormat == null) {
+            throw new DomainException("bad_request", "podderzhivayutsya formaty md, csv, jsonl");
+        }
+        List<PlantInfo> plants = new ArrayList<>();
+        if (plantIds != null && !plantIds.isEmpty()) {
+            for (Integer plantId : new LinkedHashSet<>(plantIds)) {
+                plants.add(plantFacade.requireOwnedPlantInfo(plantId, user));
+            }
+        } else {
+            for (PlantInfo plant : plantFacade.listPlants(user)) {
+                if (groupId == null
+                        || (plant.plantGroup() != null && groupId.equals(plant.plantGroup().id()))) {
+                    plants.add(plant);
+                }
+            }
+        }
+        plants.sort(Comparator.comparing(PlantInfo::id));
+        return new JournalExport(exportFormat, List.copyOf(plants));
+    }
+
+    // Translitem: vyzyvaetsja iz potoka StreamingResponseBody; odin zapros s kursorom, pamjat' ne rastet s dlinoj zhurnala.
     @Transactional(readOnly = true)
-    public String exportJournal(Integer plantId, String format, AuthenticatedUser user) {
-        if (!"md".equals(format)) {
-            throw new DomainException("bad_request", "podderzhivaetsya tolko format=md");
-        }
-        PlantInfo plant = plantFacade.requireOwnedPlantInfo(plantId, user);
-        List<PlantJournalEntryEntity> entries =
-                entryRepository.findAllByPlantIdOrderByEventAtAsc(plantId);
-        return buildJournalMarkdown(plant, entries);
+    public void writeExport(JournalExport export, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (export.plants().isEmpty()) {
+            exportWriter.write(export.format(), export.plants(), Stream.empty(), writer);
+            return;
+        }
+        List<Integer> plantIds = export.plants().stream().map(PlantInfo::id).toList();
+        try (Stream<PlantJournalEntryRow> rows = entryRepository.streamExportRows(plantIds)) {
+            exportWriter.write(export.format(), export.plants(), rows, writer);
+        }
     }
 
     @Transactional
@@ -171,27 +273,153 @@ public class JournalFacade {
         entryRepository.delete(entry);
     }
 
+    /**
+     * Foto iz fajlovogo hranilishcha otdaetsja potokom; BLOB chitaetsja tol'ko dlja eshche ne perenesennyh foto.
+     */
     @Transactional(readOnly = true)
     public JournalPhotoData getPhoto(Integer photoId, AuthenticatedUser user) {
-        PlantJournalPhotoEntity photo = photoRepository.findById(photoId).orElse(null);
-        if (photo == null) {
-            throw new DomainException("not_found", "foto ne naideno ili nedostupno");
-        }
-        PlantJournalEntryEntity entry = photo.getJournalEntry();
-        if (entry == null) {
-            throw new DomainException("not_found", "foto ne naideno ili nedostupno");
+        PlantJournalPhotoFileRow photo = requireOwnedPhoto(photoId, user);
+        String contentType = photo.contentType() != null ? photo.contentType() : "application/octet-stream";
+        if (photo.storageKey() != null) {
+            Resource resource = photoStore.open(photo.storageKey());
+            if (resource == null) {
+                throw new DomainException("not_found", "binarnye dannye dlya etogo foto otsutstvuyut");
+            }
+            return new JournalPhotoData(resource, contentType, photo.storageKey());
         }
-        try {
-            plantFacade.requireOwnedPlantInfo(entry.getPlantId(), user);
-        } catch (DomainException ex) {
-            throw new DomainException("not_found", "foto ne naideno ili nedostupno");
+        if (photo.sizeBytes() == null || photo.sizeBytes() == 0) {
+            throw new DomainException("not_found", "binarnye dannye dlya etogo foto otsutstvuyut");
         }
-        byte[] data = photo.getData();
+        byte[] data = photoRepository.findLegacyDataById(photoId);
         if (data == null || data.length == 0) {
             throw new DomainException("not_found", "binarnye dannye dlya etogo foto otsutstvuyut");
         }
-        String contentType = photo.getContentType() != null ? photo.getContentType() : "application/octet-stream";
-        return new JournalPhotoData(data, contentType);
+        // Translitem: BLOB stroki neizmenen do perenosa, poetomu id i razmer dostatochny dlja ETag bez hesha bajtov.
+        return new JournalPhotoData(new ByteArrayResource(data), contentType, "legacy-" + photoId + "-" + data.length);
+    }
+
+    @Transactional(readOnly = true)
+    public JournalPhotoData getPhotoThumbnail(Integer photoId, AuthenticatedUser user) {
+        PlantJournalPhotoFileRow photo = requireOwnedPhoto(photoId, user);
+        Resource resource = photo.thumbnailKey() != null ? photoStore.open(photo.thumbnailKey()) : null;
+        if (resource == null) {
+            throw new DomainException("not_found", "miniatjura dlya etogo foto otsutstvuet");
+        }
+        return new JournalPhotoData(resource, JournalPhotoThumbnailer.CONTENT_TYPE, photo.thumbnailKey());
+    }
+
+    /**
+     * Zagruzka foto v zapis' zhurnala: fajl pishetsja v hranilishche potokom, miniatjura stroitsja srazu.
+     */
+    @Transactional
+    public JournalPhoto uploadPhoto(
+            Integer plantId,
+            Integer entryId,
+            AuthenticatedUser user,
+            MultipartFile file,
+            String caption
+    ) {
+        plantFacade.requireOwnedPlantInfo(plantId, user);
+        PlantJournalEntryEntity entry = entryRepository
+                .findByIdAndPlantIdAndUserId(entryId, plantId, user.id())
+                .orElse(null);
+        if (entry == null) {
+            throw new DomainException("not_found", "zapis' ne naidena");
+        }
+        if (file == null || file.isEmpty()) {
+            throw new DomainException("bad_request", "pustoi fail");
+        }
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("image/")) {
+            throw new DomainException("bad_request", "podderzhivayutsya tolko izobrazheniya");
+        }
+        JournalPhotoStore.StoredPhoto stored;
+        try (InputStream input = file.getInputStream()) {
+            stored = photoStore.store(input, photoSettings.getMaxUploadBytes());
+        } catch (JournalPhotoStore.TooLargeException ex) {
+            throw new DomainException("bad_request", "fail prevyshaet dopustimyi razmer");
+        } catch (IOException ex) {
+            throw new DomainException("internal_error", "write failed");
+        }
+        PlantJournalPhotoEntity photo = PlantJournalPhotoEntity.create();
+        photo.setJournalEntry(entry);
+        photo.setCaption(caption);
+        photo.setContentType(contentType);
+        photo.setStorageKey(stored.key());
+        photo.setSizeBytes(stored.sizeBytes());
+        photo.setThumbnailKey(storeThumbnail(photoStore.open(stored.key())));
+        photoRepository.save(photo);
+        return new JournalPhoto(
+                photo.getId(),
+                photo.getUrl(),
+                photo.getCaption(),
+                stored.sizeBytes() > 0,
+                contentType,
+                stored.sizeBytes(),
+                photo.getThumbnailKey() != null
+        );
+    }
+
+    /**
+     * Perenosit ocherednuju pachku BLOB foto v fajlovoe hranilishche i ochishchaet data v BD.
+     * Vozvrashchaet kolichestvo perenesennyh foto.
+     */
+    @Transactional
+    public int migrateLegacyPhotos(int batchSize) {
+        List<Integer> ids = photoRepository.findLegacyPhotoIds(PageRequest.of(0, Math.max(1, batchSize)));
+        int migrated = 0;
+        for (Integer photoId : ids) {
+            PlantJournalPhotoEntity photo = photoRepository.findById(photoId).orElse(null);
+            if (photo == null || photo.getStorageKey() != null || photo.getData() == null) {
+                continue;
+            }
+            JournalPhotoStore.StoredPhoto stored;
+            try {
+                stored = photoStore.store(new ByteArrayInputStream(photo.getData()), 0);
+            } catch (IOException ex) {
+                throw new IllegalStateException("journal photo " + photoId + " write failed", ex);
+            }
+            photo.setStorageKey(stored.key());
+            photo.setSizeBytes(stored.sizeBytes());
+            if (isImage(photo.getContentType())) {
+                photo.setThumbnailKey(storeThumbnail(photoStore.open(stored.key())));
+            }
+            photo.setData(null);
+            photoRepository.save(photo);
+            migrated++;
+        }
+        return migrated;
+    }
+
+    /**
+     * Udaljaet iz hranilishcha fajly starshe grace, na kotorye ne ssylaetsja ni odno foto: fajly pishutsja
+     * do kommita stroki i odin fajl delitsja odinakovymi foto, poetomu udalenie foto i zapisej ih ne trogaet.
+     * leaseHeld proverjaetsja pered kazhdoj pachkoj; false ostanavlivaet chistku.
+     * Vozvrashchaet kolichestvo udalennyh fajlov.
+     */
+    public int sweepOrphanedPhotoFiles(Duration grace, int batchSize, BooleanSupplier leaseHeld) {
+        Instant cutoff = Instant.now().minus(grace);
+        int limit = Math.max(1, batchSize);
+        int deleted = 0;
+        try (Stream<String> keys = photoStore.keysModifiedBefore(cutoff)) {
+            List<String> batch = new ArrayList<>(limit);
+            for (String key : (Iterable<String>) keys::iterator) {
+                batch.add(key);
+                if (batch.size() == limit) {
+                    if (!leaseHeld.getAsBoolean()) {
+                        return deleted;
+                    }
+                    deleted += deleteUnreferenced(batch, cutoff);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty() && leaseHeld.getAsBoolean()) {
+                deleted += deleteUnreferenced(batch, cutoff);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("journal photo sweep failed", ex);
+        }
+        return deleted;
     }
 
     @Transactional
@@ -245,19 +473,96 @@ public class JournalFacade {
         journalService.createSessionWateringEntries(mapped, eventAt, ph, fertilizersPerLiter);
     }
 
-    private JournalEntry toJournalEntry(PlantJournalEntryEntity entry) {
-        List<PlantJournalPhotoEntity> photos =
-                photoRepository.findAllByJournalEntry_Id(entry.getId());
-        List<JournalPhoto> photoResponses = new ArrayList<>();
-        for (PlantJournalPhotoEntity photo : photos) {
-            boolean hasData = photo.getData() != null && photo.getData().length > 0;
-            photoResponses.add(new JournalPhoto(
-                    photo.getId(),
-                    photo.getUrl(),
-                    photo.getCaption(),
-                    hasData
+    private PlantJournalPhotoFileRow requireOwnedPhoto(Integer photoId, AuthenticatedUser user) {
+        PlantJournalPhotoFileRow photo = photoRepository.findFileRowById(photoId).orElse(null);
+        if (photo == null) {
+            throw new DomainException("not_found", "foto ne naideno ili nedostupno");
+        }
+        try {
+            plantFacade.requireOwnedPlantInfo(photo.plantId(), user);
+        } catch (DomainException ex) {
+            throw new DomainException("not_found", "foto ne naideno ili nedostupno");
+        }
+        return photo;
+    }
+
+    // Translitem: miniatjura ne objazatel'na - nepodderzhivaemyj format ili oshibka dekodirovanija ne lomaet zagruzku.
+    private String storeThumbnail(Resource original) {
+        if (original == null) {
+            return null;
+        }
+        try (InputStream input = original.getInputStream()) {
+            byte[] thumbnail = thumbnailer.thumbnail(input, photoSettings.getThumbnailMaxPx());
+            if (thumbnail == null) {
+                return null;
+            }
+            return photoStore.store(new ByteArrayInputStream(thumbnail), 0).key();
+        } catch (IOException | RuntimeException ex) {
+            log.debug("Miniatjura foto zhurnala ne postroena: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private int deleteUnreferenced(List<String> keys, Instant cutoff) throws IOException {
+        Set<String> referenced = new HashSet<>(photoRepository.findReferencedStorageKeys(keys));
+        referenced.addAll(photoRepository.findReferencedThumbnailKeys(keys));
+        int deleted = 0;
+        for (String key : keys) {
+            if (!referenced.contains(key) && photoStore.deleteIfModifiedBefore(key, cutoff)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private boolean isImage(String contentType) {
+        return contentType == null || contentType.toLowerCase(Locale.ROOT).startsWith("image/");
+    }
+
+    private Map<Integer, List<JournalPhoto>> loadPhotos(List<Integer> entryIds) {
+        Map<Integer, List<JournalPhoto>> result = new HashMap<>();
+        for (PlantJournalPhotoRow photo : photoRepository.findRowsByJournalEntryIdIn(entryIds)) {
+            result.computeIfAbsent(photo.journalEntryId(), key -> new ArrayList<>()).add(new JournalPhoto(
+                    photo.id(),
+                    photo.url(),
+                    photo.caption(),
+                    photo.sizeBytes() != null && photo.sizeBytes() > 0,
+                    photo.contentType(),
+                    photo.sizeBytes(),
+                    photo.thumbnailKey() != null
             ));
         }
+        return result;
+    }
+
+    private JournalEntry toJournalEntry(PlantJournalEntryRow row, List<JournalPhoto> photos) {
+        JournalWateringDetails detailsResponse = null;
+        if ("watering".equals(row.type()) && row.wateringDetailsId() != null) {
+            detailsResponse = new JournalWateringDetails(
+                    row.waterVolumeL(),
+                    row.durationS(),
+                    row.ph(),
+                    row.fertilizersPerLiter(),
+                    row.pumpSessionId(),
+                    row.mode(),
+                    row.completionReason()
+            );
+        }
+        return new JournalEntry(
+                row.id(),
+                row.plantId(),
+                row.userId(),
+                row.type(),
+                row.text(),
+                row.eventAt(),
+                row.createdAt(),
+                photos,
+                detailsResponse
+        );
+    }
+
+    private JournalEntry toJournalEntry(PlantJournalEntryEntity entry) {
+        List<JournalPhoto> photoResponses = loadPhotos(List.of(entry.getId())).getOrDefault(entry.getId(), List.of());
 
         JournalWateringDetails detailsResponse = null;
         if ("watering".equals(entry.getType())) {
@@ -290,98 +595,6 @@ public class JournalFacade {
         );
     }
 
-    private String buildJournalMarkdown(PlantInfo plant, List<PlantJournalEntryEntity> entries) {
-        LocalDate plantedDate = plant.plantedAt() != null
-                ? plant.plantedAt().toLocalDate()
-                : LocalDate.now();
-        long ageDays = java.time.temporal.ChronoUnit.DAYS.between(plantedDate, LocalDate.now());
-        List<String> lines = new ArrayList<>();
-        lines.add("# Zhurnal rasteniya");
-        lines.add("");
-        lines.add("Nazvanie: " + plant.name());
-        lines.add("Data posadki: " + plantedDate);
-        lines.add("Tekushchii vozrast: " + Math.max(ageDays, 0) + " dnei");
-        lines.add("");
-
-        entries.sort(Comparator.comparing(PlantJournalEntryEntity::getEventAt));
-        LocalDate currentDay = null;
-        for (PlantJournalEntryEntity entry : entries) {
-            LocalDate entryDay = entry.getEventAt().toLocalDate();
-            if (!entryDay.equals(currentDay)) {
-                if (currentDay != null) {
-                    lines.add("");
-                }
-                lines.add("## " + entryDay);
-                currentDay = entryDay;
-            }
-            String timePart = entry.getEventAt().toLocalTime().withSecond(0).withNano(0).toString();
-            if (timePart.length() > 5) {
-                timePart = timePart.substring(0, 5);
-            }
-            String icon = "??";
-            String label = "Nablyudenie";
-            String text = entry.getText() != null ? entry.getText() : "";
-
-            if ("watering".equals(entry.getType())) {
-                icon = "??";
-                label = "Poliv";
-                PlantJournalWateringDetailsEntity details = wateringDetailsRepository
-                        .findByJournalEntry_Id(entry.getId())
-                        .orElse(null);
-                String detailsText = buildWateringText(details);
-                if (!detailsText.isEmpty()) {
-                    text = detailsText;
-                }
-            } else if ("feeding".equals(entry.getType())) {
-                icon = "??";
-                label = "Uhod";
-            } else if ("photo".equals(entry.getType())) {
-                icon = "??";
-                label = "Foto";
-                if (text.isEmpty()) {
-                    text = "Foto";
-                }
-            }
-
-            String textSuffix = text.isEmpty() ? "" : ": " + text;
-            lines.add("- " + timePart + " " + icon + " " + label + textSuffix);
-        }
-
-        String payload = String.join("\n", lines).trim();
-        return payload + "\n";
-    }
-
-    private String buildWateringText(PlantJournalWateringDetailsEntity details) {
-        if (details == null) {
-            return "";
-        }
-        List<String> parts = new ArrayList<>();
-        String volume = formatVolumeLiters(details.getWaterVolumeL());
-        if (volume != null) {
-            parts.add(volume);
-        }
-        if (details.getFertilizersPerLiter() != null && !details.getFertilizersPerLiter().isEmpty()) {
-            parts.add("udobreniya: " + details.getFertilizersPerLiter());
-        }
-        return String.join("; ", parts);
-    }
-
-    private String formatVolumeLiters(Double value) {
-        if (value == null) {
-            return null;
-        }
-        String formatted = String.format(Locale.US, "%.2f", value);
-        if (formatted.contains(".")) {
-            while (formatted.endsWith("0")) {
-                formatted = formatted.substring(0, formatted.length() - 1);
-            }
-            if (formatted.endsWith(".")) {
-                formatted = formatted.substring(0, formatted.length() - 1);
-            }
-        }
-        return formatted.replace(".", ",") + " l";
-    }
-
     private void validateJournalType(String type) {
         if (type == null) {
             throw new DomainException("unprocessable", "Field required");
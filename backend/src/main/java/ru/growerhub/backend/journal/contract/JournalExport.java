@@ -0,0 +1,8 @@
+package ru.growerhub.backend.journal.contract;
+
+import java.util.List;
+import ru.growerhub.backend.plant.contract.PlantInfo;
+
+// Translitem: proverennyj plan eksporta - rastenija uzhe prinadlezhat pol'zovatelju, zapisi chitajutsja pri zapisi otveta.
+public record JournalExport(JournalExportFormat format, List<PlantInfo> plants) {
+}
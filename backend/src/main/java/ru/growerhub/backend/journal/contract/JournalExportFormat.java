@@ -0,0 +1,38 @@
+package ru.growerhub.backend.journal.contract;
+
+import java.util.Locale;
+
+public enum JournalExportFormat {
+    MD("md", "text/markdown; charset=utf-8"),
+    CSV("csv", "text/csv; charset=utf-8"),
+    JSONL("jsonl", "application/x-ndjson; charset=utf-8");
+
+    private final String extension;
+    private final String contentType;
+
+    JournalExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public static JournalExportFormat parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (JournalExportFormat format : values()) {
+            if (format.extension.equals(normalized)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -1,4 +1,12 @@
 ﻿package ru.growerhub.backend.journal.contract;
 
-public record JournalPhoto(Integer id, String url, String caption, Boolean hasData) {
+public record JournalPhoto(
+        Integer id,
+        String url,
+        String caption,
+        Boolean hasData,
+        String contentType,
+        Long sizeBytes,
+        Boolean hasThumbnail
+) {
 }
@@ -1,4 +1,7 @@
 ﻿package ru.growerhub.backend.journal.contract;
 
-public record JournalPhotoData(byte[] data, String contentType) {
+import org.springframework.core.io.Resource;
+
+// Translitem: resource chitaetsja potokom pri otvete; etag - sha256 soderzhimogo.
+public record JournalPhotoData(Resource resource, String contentType, String etag) {
 }
@@ -0,0 +1,139 @@
+package ru.growerhub.backend.journal.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.common.config.journal.JournalPhotoSettings;
+
+// Translitem: fajly lezhat v {storageDir}/{pervye 2 simvola kljucha}/{kljuch}; zapis' idet vo vremennyj fajl
+// s podschetom sha256 na letu i zatem atomarno pereimenovyvaetsja - chitatel' ne uvidit nedopisannyj fajl.
+@Component
+public class FileSystemJournalPhotoStore implements JournalPhotoStore {
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final JournalPhotoSettings settings;
+
+    public FileSystemJournalPhotoStore(JournalPhotoSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public StoredPhoto store(InputStream input, long maxBytes) throws IOException {
+        Path root = settings.getStorageRoot();
+        Files.createDirectories(root);
+        Path temp = Files.createTempFile(root, ".upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[COPY_BUFFER_BYTES];
+                int read;
+                while ((read = input.read(buffer)) >= 0) {
+                    size += read;
+                    if (maxBytes > 0 && size > maxBytes) {
+                        throw new TooLargeException(maxBytes);
+                    }
+                    digest.update(buffer, 0, read);
+                    output.write(buffer, 0, read);
+                }
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(key);
+            if (Files.exists(target)) {
+                touch(target);
+                return new StoredPhoto(key, size);
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                moveIntoPlace(temp, target);
+            } catch (FileAlreadyExistsException ex) {
+                // Translitem: parallel'naja zagruzka togo zhe foto uzhe zapisala identichnyj fajl.
+                touch(target);
+            }
+            return new StoredPhoto(key, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Resource open(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            return null;
+        }
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public Stream<String> keysModifiedBefore(Instant cutoff) throws IOException {
+        Path root = settings.getStorageRoot();
+        if (!Files.isDirectory(root)) {
+            return Stream.empty();
+        }
+        return Files.find(
+                        root,
+                        2,
+                        (path, attributes) -> attributes.isRegularFile()
+                                && attributes.lastModifiedTime().toInstant().isBefore(cutoff)
+                                && KEY_PATTERN.matcher(path.getFileName().toString()).matches()
+                )
+                .map(path -> path.getFileName().toString());
+    }
+
+    @Override
+    public boolean deleteIfModifiedBefore(String key, Instant cutoff) throws IOException {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            return false;
+        }
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path) || !Files.getLastModifiedTime(path).toInstant().isBefore(cutoff)) {
+            return false;
+        }
+        return Files.deleteIfExists(path);
+    }
+
+    // Translitem: dedup-zagruzka oznachaet novuju ssylku na fajl - svezhee vremja zashchishchaet ego ot chistki sirot.
+    private void touch(Path target) throws IOException {
+        Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+    }
+
+    private void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, target);
+        }
+    }
+
+    private Path resolve(String key) {
+        return settings.getStorageRoot().resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("sha256 unavailable", ex);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package ru.growerhub.backend.journal.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.journal.contract.JournalExportFormat;
+import ru.growerhub.backend.journal.jpa.PlantJournalEntryRow;
+import ru.growerhub.backend.plant.contract.PlantInfo;
+
+// Potokovaja zapis' eksporta zhurnala: stroka za strokoj iz kursora, bez nakoplenija vsego zhurnala v pamjati.
+// Stroki dolzhny idti po plantId, zatem po eventAt - v tom zhe porjadke, chto i spisok rastenij.
+@Component
+public class JournalExportWriter {
+    private static final String[] CSV_HEADER = {
+            "plant_id",
+            "plant_name",
+            "entry_id",
+            "event_at",
+            "type",
+            "text",
+            "water_volume_l",
+            "duration_s",
+            "ph",
+            "fertilizers_per_liter",
+            "mode",
+            "completion_reason"
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public JournalExportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void write(
+            JournalExportFormat format,
+            List<PlantInfo> plants,
+            Stream<PlantJournalEntryRow> rows,
+            Writer output
+    ) throws IOException {
+        switch (format) {
+            case MD -> writeMarkdown(plants, rows.iterator(), output);
+            case CSV -> writeCsv(plants, rows.iterator(), output);
+            case JSONL -> writeJsonLines(plants, rows.iterator(), output);
+        }
+        output.flush();
+    }
+
+    private void writeMarkdown(List<PlantInfo> plants, Iterator<PlantJournalEntryRow> rows, Writer output)
+            throws IOException {
+        PlantJournalEntryRow pending = rows.hasNext() ? rows.next() : null;
+        boolean first = true;
+        for (PlantInfo plant : plants) {
+            if (!first) {
+                output.write("\n");
+            }
+            first = false;
+            writeMarkdownHeader(plant, output);
+            LocalDate currentDay = null;
+            while (pending != null && plant.id().equals(pending.plantId())) {
+                LocalDate entryDay = pending.eventAt().toLocalDate();
+                if (!entryDay.equals(currentDay)) {
+                    output.write("\n## " + entryDay + "\n");
+                    currentDay = entryDay;
+                }
+                output.write(markdownLine(pending));
+                output.write("\n");
+                pending = rows.hasNext() ? rows.next() : null;
+            }
+        }
+    }
+
+    private void writeMarkdownHeader(PlantInfo plant, Writer output) throws IOException {
+        LocalDate plantedDate = plant.plantedAt() != null
+                ? plant.plantedAt().toLocalDate()
+                : LocalDate.now();
+        long ageDays = ChronoUnit.DAYS.between(plantedDate, LocalDate.now());
+        output.write("# Zhurnal rasteniya\n\n");
+        output.write("Nazvanie: " + plant.name() + "\n");
+        output.write("Data posadki: " + plantedDate + "\n");
+        output.write("Tekushchii vozrast: " + Math.max(ageDays, 0) + " dnei\n");
+    }
+
+    private String markdownLine(PlantJournalEntryRow entry) {
+        String timePart = entry.eventAt().toLocalTime().withSecond(0).withNano(0).toString();
+        if (timePart.length() > 5) {
+            timePart = timePart.substring(0, 5);
+        }
+        String icon = "??";
+        String label = "Nablyudenie";
+        String text = entry.text() != null ? entry.text() : "";
+
+        if ("watering".equals(entry.type())) {
+            icon = "??";
+            label = "Poliv";
+            String detailsText = buildWateringText(entry);
+            if (!detailsText.isEmpty()) {
+                text = detailsText;
+            }
+        } else if ("feeding".equals(entry.type())) {
+            icon = "??";
+            label = "Uhod";
+        } else if ("photo".equals(entry.type())) {
+            icon = "??";
+            label = "Foto";
+            if (text.isEmpty()) {
+                text = "Foto";
+            }
+        }
+
+        String textSuffix = text.isEmpty() ? "" : ": " + text;
+        return "- " + timePart + " " + icon + " " + label + textSuffix;
+    }
+
+    private void writeCsv(List<PlantInfo> plants, Iterator<PlantJournalEntryRow> rows, Writer output)
+            throws IOException {
+        writeCsvRecord(output, (Object[]) CSV_HEADER);
+        Map<Integer, String> names = plantNames(plants);
+        while (rows.hasNext()) {
+            PlantJournalEntryRow entry = rows.next();
+            boolean watering = hasWateringDetails(entry);
+            writeCsvRecord(
+                    output,
+                    entry.plantId(),
+                    names.get(entry.plantId()),
+                    entry.id(),
+                    entry.eventAt(),
+                    entry.type(),
+                    entry.text(),
+                    watering ? entry.waterVolumeL() : null,
+                    watering ? entry.durationS() : null,
+                    watering ? entry.ph() : null,
+                    watering ? entry.fertilizersPerLiter() : null,
+                    watering ? entry.mode() : null,
+                    watering ? entry.completionReason() : null
+            );
+        }
+    }
+
+    private void writeJsonLines(List<PlantInfo> plants, Iterator<PlantJournalEntryRow> rows, Writer output)
+            throws IOException {
+        Map<Integer, String> names = plantNames(plants);
+        while (rows.hasNext()) {
+            PlantJournalEntryRow entry = rows.next();
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("plant_id", entry.plantId());
+            line.put("plant_name", names.get(entry.plantId()));
+            line.put("id", entry.id());
+            line.put("type", entry.type());
+            line.put("text", entry.text());
+            line.put("event_at", isoString(entry.eventAt()));
+            line.put("created_at", isoString(entry.createdAt()));
+            Map<String, Object> details = null;
+            if (hasWateringDetails(entry)) {
+                details = new LinkedHashMap<>();
+                details.put("water_volume_l", entry.waterVolumeL());
+                details.put("duration_s", entry.durationS());
+                details.put("ph", entry.ph());
+                details.put("fertilizers_per_liter", entry.fertilizersPerLiter());
+                details.put("pump_session_id", entry.pumpSessionId());
+                details.put("mode", entry.mode());
+                details.put("completion_reason", entry.completionReason());
+            }
+            line.put("watering_details", details);
+            output.write(objectMapper.writeValueAsString(line));
+            output.write("\n");
+        }
+    }
+
+    static void writeCsvRecord(Writer output, Object... values) throws IOException {
+        for (int index = 0; index < values.length; index++) {
+            if (index > 0) {
+                output.write(',');
+            }
+            Object value = values[index];
+            if (value != null) {
+                output.write(csvField(value.toString()));
+            }
+        }
+        output.write("\r\n");
+    }
+
+    // Translitem: RFC 4180 - polja s zapjatoj, kavychkami ili perevodom stroki berutsja v kavychki.
+    static String csvField(String value) {
+        boolean quote = false;
+        for (int index = 0; index < value.length() && !quote; index++) {
+            char ch = value.charAt(index);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private boolean hasWateringDetails(PlantJournalEntryRow entry) {
+        return "watering".equals(entry.type()) && entry.wateringDetailsId() != null;
+    }
+
+    private String buildWateringText(PlantJournalEntryRow entry) {
+        if (!hasWateringDetails(entry)) {
+            return "";
+        }
+        List<String> parts = new ArrayList<>();
+        String volume = formatVolumeLiters(entry.waterVolumeL());
+        if (volume != null) {
+            parts.add(volume);
+        }
+        if (entry.fertilizersPerLiter() != null && !entry.fertilizersPerLiter().isEmpty()) {
+            parts.add("udobreniya: " + entry.fertilizersPerLiter());
+        }
+        return String.join("; ", parts);
+    }
+
+    private String formatVolumeLiters(Double value) {
+        if (value == null) {
+            return null;
+        }
+        String formatted = String.format(Locale.US, "%.2f", value);
+        if (formatted.contains(".")) {
+            while (formatted.endsWith("0")) {
+                formatted = formatted.substring(0, formatted.length() - 1);
+            }
+            if (formatted.endsWith(".")) {
+                formatted = formatted.substring(0, formatted.length() - 1);
+            }
+        }
+        return formatted.replace(".", ",") + " l";
+    }
+
+    private Map<Integer, String> plantNames(List<PlantInfo> plants) {
+        Map<Integer, String> names = new LinkedHashMap<>();
+        for (PlantInfo plant : plants) {
+            names.put(plant.id(), plant.name());
+        }
+        return names;
+    }
+
+    private String isoString(LocalDateTime value) {
+        return value != null ? value.toString() : null;
+    }
+}
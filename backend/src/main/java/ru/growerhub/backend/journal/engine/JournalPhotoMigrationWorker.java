@@ -0,0 +1,73 @@
+package ru.growerhub.backend.journal.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.cluster.ClusterFacade;
+import ru.growerhub.backend.common.config.journal.JournalPhotoSettings;
+import ru.growerhub.backend.journal.JournalFacade;
+
+// Perenos staryh BLOB foto iz plant_journal_photos.data v fajlovoe hranilishche pachkami, kazhdaja - svoja tranzakcija.
+@Component
+public class JournalPhotoMigrationWorker {
+    private static final Logger log = LoggerFactory.getLogger(JournalPhotoMigrationWorker.class);
+    private static final String JOB = "journal-photo-migration";
+
+    private final JournalFacade journalFacade;
+    private final JournalPhotoSettings settings;
+    private final ClusterFacade clusterFacade;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public JournalPhotoMigrationWorker(
+            JournalFacade journalFacade,
+            JournalPhotoSettings settings,
+            ClusterFacade clusterFacade
+    ) {
+        this.journalFacade = journalFacade;
+        this.settings = settings;
+        this.clusterFacade = clusterFacade;
+    }
+
+    @Scheduled(
+            initialDelayString = "${journal.photos.migrationStartupDelayMs:60000}",
+            fixedDelayString = "${journal.photos.migrationPeriodMs:300000}"
+    )
+    public void scheduledRun() {
+        runMigration();
+    }
+
+    private void runMigration() {
+        if (!settings.isMigrationEnabled()) {
+            return;
+        }
+        Long fencingToken = clusterFacade.leaderToken(JOB);
+        if (fencingToken == null || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int batchSize = Math.max(1, settings.getMigrationBatchSize());
+            int maxBatches = Math.max(1, settings.getMigrationMaxBatchesPerRun());
+            int migrated = 0;
+            for (int index = 0; index < maxBatches; index++) {
+                if (!clusterFacade.renewLease(JOB, fencingToken)) {
+                    log.warn("Perenos foto zhurnala ostanovlen: lease zadachi {} poterjan", JOB);
+                    break;
+                }
+                int moved = journalFacade.migrateLegacyPhotos(batchSize);
+                migrated += moved;
+                if (moved < batchSize) {
+                    break;
+                }
+            }
+            if (migrated > 0) {
+                log.info("Perenos foto zhurnala: {} foto pereneseno v fajlovoe hranilishche", migrated);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Perenos foto zhurnala zavershilsja oshibkoj: {}", ex.getMessage(), ex);
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.growerhub.backend.journal.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.stream.Stream;
+import org.springframework.core.io.Resource;
+
+// Hranilishche bajtov foto zhurnala: kljuch - sha256 soderzhimogo, odinakovye foto hranjatsja odin raz.
+public interface JournalPhotoStore {
+    StoredPhoto store(InputStream input, long maxBytes) throws IOException;
+
+    // Translitem: null - kljuch neizvesten hranilishchu (fajl udalen ili kljuch nekorrekten).
+    Resource open(String key);
+
+    // Translitem: kljuchi fajlov, ne menjavshihsja s cutoff; potok nuzhno zakryt'.
+    Stream<String> keysModifiedBefore(Instant cutoff) throws IOException;
+
+    // Translitem: udaljaet fajl, tol'ko esli on vse eshche staree cutoff - povtornaja zagruzka obnovljaet vremja fajla.
+    boolean deleteIfModifiedBefore(String key, Instant cutoff) throws IOException;
+
+    record StoredPhoto(String key, long sizeBytes) {
+    }
+
+    class TooLargeException extends IOException {
+        public TooLargeException(long maxBytes) {
+            super("photo exceeds " + maxBytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.growerhub.backend.journal.engine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.cluster.ClusterFacade;
+import ru.growerhub.backend.common.config.journal.JournalPhotoSettings;
+import ru.growerhub.backend.journal.JournalFacade;
+
+// Chistka fajlov foto zhurnala, ostavshihsja bez ssylok posle udalenija foto, zapisej i rastenij.
+@Component
+public class JournalPhotoSweepWorker {
+    private static final Logger log = LoggerFactory.getLogger(JournalPhotoSweepWorker.class);
+    private static final String JOB = "journal-photo-sweep";
+
+    private final JournalFacade journalFacade;
+    private final JournalPhotoSettings settings;
+    private final ClusterFacade clusterFacade;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public JournalPhotoSweepWorker(
+            JournalFacade journalFacade,
+            JournalPhotoSettings settings,
+            ClusterFacade clusterFacade
+    ) {
+        this.journalFacade = journalFacade;
+        this.settings = settings;
+        this.clusterFacade = clusterFacade;
+    }
+
+    @Scheduled(
+            initialDelayString = "${journal.photos.orphanSweepStartupDelayMs:600000}",
+            fixedDelayString = "${journal.photos.orphanSweepPeriodMs:3600000}"
+    )
+    public void scheduledRun() {
+        runSweep();
+    }
+
+    private void runSweep() {
+        if (!settings.isOrphanSweepEnabled()) {
+            return;
+        }
+        Long fencingToken = clusterFacade.leaderToken(JOB);
+        if (fencingToken == null || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int deleted = journalFacade.sweepOrphanedPhotoFiles(
+                    Duration.ofMinutes(Math.max(1, settings.getOrphanSweepGraceMinutes())),
+                    settings.getOrphanSweepBatchSize(),
+                    () -> clusterFacade.renewLease(JOB, fencingToken)
+            );
+            if (deleted > 0) {
+                log.info("Chistka foto zhurnala: udaleno {} fajlov bez ssylok", deleted);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Chistka foto zhurnala zavershilas' oshibkoj: {}", ex.getMessage(), ex);
+        } finally {
+            running.set(false);
+        }
+    }
+}
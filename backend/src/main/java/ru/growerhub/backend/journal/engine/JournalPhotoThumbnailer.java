@@ -0,0 +1,86 @@
+package ru.growerhub.backend.journal.engine;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.springframework.stereotype.Component;
+
+// Miniatjury foto zhurnala (JPEG): dekodirovanie s subsampling, chtoby bol'shoe foto ne razvorachivalos'
+// v heap celikom.
+@Component
+public class JournalPhotoThumbnailer {
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    // Translitem: null - format ne podderzhivaetsja ImageIO (heic/webp), foto sohranjaetsja bez miniatjury.
+    public byte[] thumbnail(InputStream source, int maxPx) throws IOException {
+        int boundPx = Math.max(16, maxPx);
+        try (ImageInputStream input = ImageIO.createImageInputStream(source)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Translitem: chitaem ~2x ot celevogo razmera, ostatok - kachestvennoe masshtabirovanie nizhe.
+                int step = Math.max(1, Math.max(width, height) / (boundPx * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+                return encode(scale(decoded, boundPx));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static int[] fitWithin(int width, int height, int maxPx) {
+        if (width <= maxPx && height <= maxPx) {
+            return new int[] {width, height};
+        }
+        double ratio = Math.min((double) maxPx / width, (double) maxPx / height);
+        return new int[] {
+                Math.max(1, (int) Math.round(width * ratio)),
+                Math.max(1, (int) Math.round(height * ratio))
+        };
+    }
+
+    private BufferedImage scale(BufferedImage source, int maxPx) {
+        int[] size = fitWithin(source.getWidth(), source.getHeight(), maxPx);
+        // Translitem: JPEG bez al'fa-kanala - vsegda risuem v RGB na belom fone.
+        BufferedImage target = new BufferedImage(size[0], size[1], BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, size[0], size[1]);
+            graphics.drawImage(source, 0, 0, size[0], size[1], null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, "jpg", output)) {
+            return null;
+        }
+        return output.toByteArray();
+    }
+}
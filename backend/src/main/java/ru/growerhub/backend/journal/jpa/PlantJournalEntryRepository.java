@@ -1,10 +1,16 @@
 package ru.growerhub.backend.journal.jpa;
 
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.growerhub.backend.journal.jpa.PlantJournalEntryEntity;
 
@@ -24,9 +30,58 @@ public interface PlantJournalEntryRepository extends JpaRepository<PlantJournalE
             @Param("since") LocalDateTime since
     );
 
-    List<PlantJournalEntryEntity> findAllByPlantIdOrderByEventAtDesc(Integer plantId);
+    // Translitem: lenta zhurnala odnim zaprosom - bez zagruzki sushchnostej (i eager OneToOne wateringDetails).
+    @Query("""
+            select new ru.growerhub.backend.journal.jpa.PlantJournalEntryRow(
+                entry.id, entry.plantId, entry.userId, entry.type, entry.text, entry.eventAt, entry.createdAt,
+                details.id, details.waterVolumeL, details.durationS, details.ph, details.fertilizersPerLiter,
+                details.pumpSessionId, details.mode, details.completionReason
+            )
+            from PlantJournalEntryEntity entry
+            left join entry.wateringDetails details
+            where entry.plantId = :plantId
+            order by entry.eventAt desc, entry.id desc
+            """)
+    List<PlantJournalEntryRow> findRowsByPlantId(@Param("plantId") Integer plantId, Pageable pageable);
 
-    List<PlantJournalEntryEntity> findAllByPlantIdOrderByEventAtAsc(Integer plantId);
+    // Translitem: keyset po (eventAt, id) - sledujushchaja stranica posle poslednej zapisi predydushchej.
+    @Query("""
+            select new ru.growerhub.backend.journal.jpa.PlantJournalEntryRow(
+                entry.id, entry.plantId, entry.userId, entry.type, entry.text, entry.eventAt, entry.createdAt,
+                details.id, details.waterVolumeL, details.durationS, details.ph, details.fertilizersPerLiter,
+                details.pumpSessionId, details.mode, details.completionReason
+            )
+            from PlantJournalEntryEntity entry
+            left join entry.wateringDetails details
+            where entry.plantId = :plantId
+              and (entry.eventAt < :beforeEventAt
+                or (entry.eventAt = :beforeEventAt and entry.id < :beforeId))
+            order by entry.eventAt desc, entry.id desc
+            """)
+    List<PlantJournalEntryRow> findRowsByPlantIdBefore(
+            @Param("plantId") Integer plantId,
+            @Param("beforeEventAt") LocalDateTime beforeEventAt,
+            @Param("beforeId") Integer beforeId,
+            Pageable pageable
+    );
+
+    // Translitem: eksport odnim zaprosom s kursorom (fetch size) - stroki chitajutsja po mere zapisi otveta.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new ru.growerhub.backend.journal.jpa.PlantJournalEntryRow(
+                entry.id, entry.plantId, entry.userId, entry.type, entry.text, entry.eventAt, entry.createdAt,
+                details.id, details.waterVolumeL, details.durationS, details.ph, details.fertilizersPerLiter,
+                details.pumpSessionId, details.mode, details.completionReason
+            )
+            from PlantJournalEntryEntity entry
+            left join entry.wateringDetails details
+            where entry.plantId in :plantIds
+            order by entry.plantId, entry.eventAt, entry.id
+            """)
+    Stream<PlantJournalEntryRow> streamExportRows(@Param("plantIds") Collection<Integer> plantIds);
 
     Optional<PlantJournalEntryEntity> findTopByPlantIdAndTypeOrderByEventAtDesc(Integer plantId, String type);
 
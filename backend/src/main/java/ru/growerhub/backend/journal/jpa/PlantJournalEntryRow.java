@@ -0,0 +1,22 @@
+package ru.growerhub.backend.journal.jpa;
+
+import java.time.LocalDateTime;
+
+public record PlantJournalEntryRow(
+        Integer id,
+        Integer plantId,
+        Integer userId,
+        String type,
+        String text,
+        LocalDateTime eventAt,
+        LocalDateTime createdAt,
+        Integer wateringDetailsId,
+        Double waterVolumeL,
+        Integer durationS,
+        Double ph,
+        String fertilizersPerLiter,
+        Long pumpSessionId,
+        String mode,
+        String completionReason
+) {
+}
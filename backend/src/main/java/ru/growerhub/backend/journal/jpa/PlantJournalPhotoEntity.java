@@ -39,6 +39,15 @@ public class PlantJournalPhotoEntity {
     @Column(name = "content_type", nullable = true)
     private String contentType;
 
+    @Column(name = "storage_key", nullable = true, length = 64)
+    private String storageKey;
+
+    @Column(name = "thumbnail_key", nullable = true, length = 64)
+    private String thumbnailKey;
+
+    @Column(name = "size_bytes", nullable = true)
+    private Long sizeBytes;
+
     protected PlantJournalPhotoEntity() {
     }
 
@@ -89,4 +98,28 @@ public class PlantJournalPhotoEntity {
     public void setContentType(String contentType) {
         this.contentType = contentType;
     }
+
+    public String getStorageKey() {
+        return storageKey;
+    }
+
+    public void setStorageKey(String storageKey) {
+        this.storageKey = storageKey;
+    }
+
+    public String getThumbnailKey() {
+        return thumbnailKey;
+    }
+
+    public void setThumbnailKey(String thumbnailKey) {
+        this.thumbnailKey = thumbnailKey;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
 }
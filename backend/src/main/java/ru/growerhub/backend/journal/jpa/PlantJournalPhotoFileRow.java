@@ -0,0 +1,11 @@
+package ru.growerhub.backend.journal.jpa;
+
+public record PlantJournalPhotoFileRow(
+        Integer id,
+        Integer plantId,
+        String contentType,
+        String storageKey,
+        String thumbnailKey,
+        Long sizeBytes
+) {
+}
@@ -1,9 +1,65 @@
 package ru.growerhub.backend.journal.jpa;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.growerhub.backend.journal.jpa.PlantJournalPhotoEntity;
 
 public interface PlantJournalPhotoRepository extends JpaRepository<PlantJournalPhotoEntity, Integer> {
-    List<PlantJournalPhotoEntity> findAllByJournalEntry_Id(Integer journalEntryId);
+    // Translitem: tol'ko metadannye - razmer beretsja iz size_bytes (ili schitaetsja BD dlja eshche
+    // ne perenesennyh BLOB), bajty foto ne chitajutsja.
+    @Query("""
+            select new ru.growerhub.backend.journal.jpa.PlantJournalPhotoRow(
+                photo.id, photo.journalEntry.id, photo.url, photo.caption, photo.contentType,
+                coalesce(photo.sizeBytes, cast(octet_length(photo.data) as Long)), photo.thumbnailKey
+            )
+            from PlantJournalPhotoEntity photo
+            where photo.journalEntry.id in :journalEntryIds
+            order by photo.id
+            """)
+    List<PlantJournalPhotoRow> findRowsByJournalEntryIdIn(
+            @Param("journalEntryIds") Collection<Integer> journalEntryIds
+    );
+
+    @Query("""
+            select new ru.growerhub.backend.journal.jpa.PlantJournalPhotoFileRow(
+                photo.id, entry.plantId, photo.contentType, photo.storageKey, photo.thumbnailKey,
+                coalesce(photo.sizeBytes, cast(octet_length(photo.data) as Long))
+            )
+            from PlantJournalPhotoEntity photo
+            join photo.journalEntry entry
+            where photo.id = :photoId
+            """)
+    Optional<PlantJournalPhotoFileRow> findFileRowById(@Param("photoId") Integer photoId);
+
+    @Query("select photo.data from PlantJournalPhotoEntity photo where photo.id = :photoId")
+    byte[] findLegacyDataById(@Param("photoId") Integer photoId);
+
+    @Query("""
+            select photo.id
+            from PlantJournalPhotoEntity photo
+            where photo.storageKey is null
+              and photo.data is not null
+            order by photo.id
+            """)
+    List<Integer> findLegacyPhotoIds(Pageable pageable);
+
+    // Translitem: kakie iz kljuchej hranilishcha eshche nuzhny - kak original ili kak miniatjura.
+    @Query("""
+            select photo.storageKey
+            from PlantJournalPhotoEntity photo
+            where photo.storageKey in :keys
+            """)
+    List<String> findReferencedStorageKeys(@Param("keys") Collection<String> keys);
+
+    @Query("""
+            select photo.thumbnailKey
+            from PlantJournalPhotoEntity photo
+            where photo.thumbnailKey in :keys
+            """)
+    List<String> findReferencedThumbnailKeys(@Param("keys") Collection<String> keys);
 }
@@ -0,0 +1,12 @@
+package ru.growerhub.backend.journal.jpa;
+
+public record PlantJournalPhotoRow(
+        Integer id,
+        Integer journalEntryId,
+        String url,
+        String caption,
+        String contentType,
+        Long sizeBytes,
+        String thumbnailKey
+) {
+}
@@ -0,0 +1,32 @@
+package ru.growerhub.backend.live;
+
+import org.springframework.stereotype.Service;
+import ru.growerhub.backend.common.contract.AuthenticatedUser;
+import ru.growerhub.backend.live.contract.LiveSink;
+import ru.growerhub.backend.live.engine.LiveEventHub;
+
+@Service
+public class LiveFacade {
+    private final LiveEventHub hub;
+
+    public LiveFacade(LiveEventHub hub) {
+        this.hub = hub;
+    }
+
+    // Translitem: lastEventId - zagolovok Last-Event-ID; esli vozobnovit' nel'zja, pervym pridet sobytie reset.
+    public void subscribe(AuthenticatedUser user, String lastEventId, LiveSink sink) {
+        hub.subscribe(user, lastEventId, sink);
+    }
+
+    public void unsubscribe(LiveSink sink) {
+        hub.unsubscribe(sink);
+    }
+
+    public void flush() {
+        hub.flush();
+    }
+
+    public void heartbeat() {
+        hub.heartbeat();
+    }
+}
@@ -0,0 +1,58 @@
+package ru.growerhub.backend.live.contract;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import ru.growerhub.backend.device.contract.DeviceShadowState;
+import ru.growerhub.backend.pump.contract.PumpSessionData;
+
+public final class LiveData {
+    public static final String TYPE_READY = "ready";
+    public static final String TYPE_RESET = "reset";
+    public static final String TYPE_DEVICE = "device";
+    public static final String TYPE_PUMP = "pump";
+    public static final String TYPE_ZIGBEE = "zigbee";
+
+    private LiveData() {
+    }
+
+    // Translitem: id == null - sluzhebnoe sobytie, ne uchastvuet v vozobnovlenii.
+    public record Event(String id, String type, Object data) {
+    }
+
+    // Translitem: resumed == false - klient dolzhen perechitat' ekran cherez REST.
+    public record Ready(@JsonProperty("resumed") boolean resumed) {
+    }
+
+    public record Reset(@JsonProperty("reason") String reason) {
+    }
+
+    public record Device(
+            @JsonProperty("device_id") String deviceId,
+            @JsonProperty("is_online") boolean isOnline,
+            @JsonProperty("updated_at") LocalDateTime updatedAt,
+            @JsonProperty("state") DeviceShadowState state,
+            @JsonProperty("manual_watering") Map<String, Object> manualWatering
+    ) {
+    }
+
+    public record Pump(
+            @JsonProperty("pump_id") Integer pumpId,
+            @JsonProperty("session") PumpSessionData.View session
+    ) {
+    }
+
+    // Translitem: friendly_name == null - izmenilsja spisok ustrojstv koordinatora, klient perechityvaet ego celikom.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Zigbee(
+            @JsonProperty("coordinator_id") UUID coordinatorId,
+            @JsonProperty("friendly_name") String friendlyName,
+            @JsonProperty("ieee_address") String ieeeAddress,
+            @JsonProperty("state") Object state,
+            @JsonProperty("availability") String availability,
+            @JsonProperty("last_state_at") LocalDateTime lastStateAt
+    ) {
+    }
+}
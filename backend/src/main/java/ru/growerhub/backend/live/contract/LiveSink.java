@@ -0,0 +1,12 @@
+package ru.growerhub.backend.live.contract;
+
+import java.util.List;
+
+// Poluchatel' potoka zhivyh izmenenij (odno SSE soedinenie); false - soedinenie poterjano, podpiska snimaetsja.
+public interface LiveSink {
+    boolean send(List<LiveData.Event> events);
+
+    boolean heartbeat();
+
+    void close();
+}
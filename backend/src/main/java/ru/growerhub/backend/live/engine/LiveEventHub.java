@@ -0,0 +1,576 @@
+package ru.growerhub.backend.live.engine;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.growerhub.backend.common.config.LiveEventSettings;
+import ru.growerhub.backend.common.contract.AuthenticatedUser;
+import ru.growerhub.backend.common.contract.ChangeBus;
+import ru.growerhub.backend.common.contract.DomainException;
+import ru.growerhub.backend.device.DeviceFacade;
+import ru.growerhub.backend.device.contract.DeviceChangedEvent;
+import ru.growerhub.backend.device.contract.DeviceLiveState;
+import ru.growerhub.backend.live.contract.LiveData;
+import ru.growerhub.backend.live.contract.LiveSink;
+import ru.growerhub.backend.pump.PumpFacade;
+import ru.growerhub.backend.pump.contract.PumpSessionChangedEvent;
+import ru.growerhub.backend.pump.contract.PumpSessionData;
+import ru.growerhub.backend.zigbee.ZigbeeFacade;
+import ru.growerhub.backend.zigbee.contract.ZigbeeDeviceChangedEvent;
+import ru.growerhub.backend.zigbee.contract.ZigbeeDeviceData;
+import ru.growerhub.backend.zigbee.contract.ZigbeeLiveDeviceData;
+
+// Potok zhivyh izmenenij: sobytija domenov tol'ko pomechajut resurs, flush raz v coalesceMs chitaet poslednee
+// sostojanie i rassylaet ego kanalu vladel'ca i kanalu adminov. Drugie uzly poluchajut kljuchi cherez shinu izmenenij.
+// V soedinenie pishet tol'ko ego virtual'nyj potok iz ogranichennoj ocheredi - tik planirovshchika ne zhdet klienta.
+@Component
+public class LiveEventHub {
+    private static final Logger log = LoggerFactory.getLogger(LiveEventHub.class);
+    private static final String BUS_TOPIC = "live";
+    private static final Integer ADMIN_CHANNEL = -1;
+    private static final String DEVICE_PREFIX = "d:";
+    private static final String PUMP_PREFIX = "p:";
+    private static final String ZIGBEE_PREFIX = "z:";
+    private static final TypeReference<List<String>> KEYS_TYPE = new TypeReference<>() {
+    };
+
+    private final LiveEventSettings settings;
+    private final DeviceFacade deviceFacade;
+    private final PumpFacade pumpFacade;
+    private final ZigbeeFacade zigbeeFacade;
+    private final ChangeBus changeBus;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    // Translitem: id sobytija "<epoch>-<seq>"; chuzhaja epoha (restart, drugoj uzel) oznachaet reset.
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Boolean> pending = new LinkedHashMap<>();
+    private final Map<Integer, Channel> channels = new ConcurrentHashMap<>();
+    private final Map<LiveSink, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> connectionsPerUser = new HashMap<>();
+    private final Object subscriptionLock = new Object();
+    private final Object flushLock = new Object();
+    private final ExecutorService sender = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("live-sink-", 0).factory()
+    );
+
+    public LiveEventHub(
+            LiveEventSettings settings,
+            DeviceFacade deviceFacade,
+            PumpFacade pumpFacade,
+            ZigbeeFacade zigbeeFacade,
+            ChangeBus changeBus,
+            ObjectMapper objectMapper,
+            Clock clock
+    ) {
+        this.settings = settings;
+        this.deviceFacade = deviceFacade;
+        this.pumpFacade = pumpFacade;
+        this.zigbeeFacade = zigbeeFacade;
+        this.changeBus = changeBus;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        changeBus.subscribe(BUS_TOPIC, this::onRemote);
+        changeBus.onResync(() -> broadcast(new LiveData.Reset("resync")));
+    }
+
+    // Translitem: admin poluchaet kanal vseh resursov (vkljuchaja legacy koordinator bez vladel'ca).
+    public void subscribe(AuthenticatedUser user, String lastEventId, LiveSink sink) {
+        if (!settings.isEnabled()) {
+            throw new DomainException("unavailable", "Potok izmenenij otkljuchen");
+        }
+        Integer channelKey = user.isAdmin() ? ADMIN_CHANNEL : user.id();
+        boolean delivered;
+        synchronized (subscriptionLock) {
+            if (subscriptions.size() >= settings.getMaxConnections()) {
+                throw new DomainException("unavailable", "Slishkom mnogo potokov izmenenij na uzle");
+            }
+            if (connectionsPerUser.getOrDefault(user.id(), 0) >= Math.max(1, settings.getMaxConnectionsPerUser())) {
+                throw new DomainException("too_many_requests", "Slishkom mnogo otkrytyh potokov izmenenij");
+            }
+            Channel channel = channels.computeIfAbsent(
+                    channelKey,
+                    ignored -> new Channel(sequence.get(), Math.max(1, settings.getBufferSize()))
+            );
+            Outbox outbox = new Outbox(sink);
+            subscriptions.put(sink, new Subscription(user.id(), channelKey, outbox));
+            connectionsPerUser.merge(user.id(), 1, Integer::sum);
+            delivered = channel.attach(outbox, resumeSequence(lastEventId), epoch);
+        }
+        if (!delivered) {
+            drop(sink);
+        }
+    }
+
+    public void unsubscribe(LiveSink sink) {
+        synchronized (subscriptionLock) {
+            Subscription subscription = subscriptions.remove(sink);
+            if (subscription == null) {
+                return;
+            }
+            subscription.outbox().discard();
+            connectionsPerUser.computeIfPresent(subscription.userId(), (ignored, count) -> count > 1 ? count - 1 : null);
+            Channel channel = channels.get(subscription.channelKey());
+            if (channel != null) {
+                channel.detach(subscription.outbox(), clock.millis());
+            }
+        }
+    }
+
+    public int connectionCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        if (event.deviceId() != null) {
+            mark(DEVICE_PREFIX + event.deviceId(), true);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPumpSessionChanged(PumpSessionChangedEvent event) {
+        if (event.pumpId() != null) {
+            mark(PUMP_PREFIX + event.pumpId(), true);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onZigbeeDeviceChanged(ZigbeeDeviceChangedEvent event) {
+        if (event.coordinatorInternalId() != null) {
+            String friendlyName = event.friendlyName() != null ? event.friendlyName() : "";
+            mark(ZIGBEE_PREFIX + event.coordinatorInternalId() + ":" + friendlyName, true);
+        }
+    }
+
+    // Translitem: vse izmenenija resursa za okno skleivajutsja v odno sobytie s sostojaniem na moment flush.
+    public void flush() {
+        synchronized (flushLock) {
+            Map<String, Boolean> batch;
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new LinkedHashMap<>(pending);
+                pending.clear();
+            }
+            forward(batch);
+            if (channels.isEmpty()) {
+                return;
+            }
+            deliver(resolve(batch.keySet()));
+        }
+    }
+
+    // Translitem: kommentarij v potok derzhit proksi otkrytymi i vyjavljaet zakrytye soedinenija.
+    public void heartbeat() {
+        for (Subscription subscription : List.copyOf(subscriptions.values())) {
+            if (!subscription.outbox().offer(List.of())) {
+                drop(subscription.outbox().sink());
+            }
+        }
+        long idleBefore = clock.millis() - TimeUnit.SECONDS.toMillis(Math.max(0L, settings.getResumeWindowSeconds()));
+        synchronized (subscriptionLock) {
+            channels.values().removeIf(channel -> channel.isIdleSince(idleBefore));
+        }
+    }
+
+    private void mark(String key, boolean local) {
+        if (!settings.isEnabled() || (channels.isEmpty() && (!local || !changeBus.isClustered()))) {
+            return;
+        }
+        synchronized (pending) {
+            pending.merge(key, local, Boolean::logicalOr);
+        }
+    }
+
+    private void onRemote(String payload) {
+        List<String> keys;
+        try {
+            keys = objectMapper.readValue(payload, KEYS_TYPE);
+        } catch (JsonProcessingException ex) {
+            log.warn("Potok izmenenij: nekorrektnoe soobshchenie shiny: {}", ex.getMessage());
+            return;
+        }
+        for (String key : keys) {
+            if (key != null && (key.startsWith(DEVICE_PREFIX) || key.startsWith(PUMP_PREFIX) || key.startsWith(ZIGBEE_PREFIX))) {
+                mark(key, false);
+            }
+        }
+    }
+
+    // Translitem: na drugie uzly uhodjat tol'ko svoi kljuchi, chtoby izmenenija ne hodili po krugu.
+    private void forward(Map<String, Boolean> batch) {
+        if (!changeBus.isClustered()) {
+            return;
+        }
+        int budget = ChangeBus.MAX_PAYLOAD_BYTES / 2;
+        List<String> chunk = new ArrayList<>();
+        int size = 2;
+        for (Map.Entry<String, Boolean> entry : batch.entrySet()) {
+            if (!entry.getValue()) {
+                continue;
+            }
+            int keySize = entry.getKey().getBytes(StandardCharsets.UTF_8).length + 3;
+            if (!chunk.isEmpty() && size + keySize > budget) {
+                publishKeys(chunk);
+                chunk = new ArrayList<>();
+                size = 2;
+            }
+            chunk.add(entry.getKey());
+            size += keySize;
+        }
+        if (!chunk.isEmpty()) {
+            publishKeys(chunk);
+        }
+    }
+
+    private void publishKeys(List<String> keys) {
+        try {
+            changeBus.publish(BUS_TOPIC, objectMapper.writeValueAsString(keys));
+        } catch (JsonProcessingException ex) {
+            log.warn("Potok izmenenij: kljuchi ne otpravleny v shinu: {}", ex.getMessage());
+        }
+    }
+
+    private List<Routed> resolve(Iterable<String> keys) {
+        List<String> deviceIds = new ArrayList<>();
+        List<Integer> pumpIds = new ArrayList<>();
+        List<String> zigbeeKeys = new ArrayList<>();
+        for (String key : keys) {
+            if (key.startsWith(DEVICE_PREFIX)) {
+                deviceIds.add(key.substring(DEVICE_PREFIX.length()));
+            } else if (key.startsWith(PUMP_PREFIX)) {
+                Integer pumpId = parseInteger(key.substring(PUMP_PREFIX.length()));
+                if (pumpId != null) {
+                    pumpIds.add(pumpId);
+                }
+            } else if (key.startsWith(ZIGBEE_PREFIX)) {
+                zigbeeKeys.add(key.substring(ZIGBEE_PREFIX.length()));
+            }
+        }
+        List<Routed> result = new ArrayList<>();
+        if (!deviceIds.isEmpty()) {
+            try {
+                for (DeviceLiveState state : deviceFacade.getLiveStates(deviceIds)) {
+                    result.add(new Routed(state.userId(), LiveData.TYPE_DEVICE, new LiveData.Device(
+                            state.deviceId(),
+                            state.isOnline(),
+                            state.updatedAt(),
+                            state.state(),
+                            state.manualWatering()
+                    )));
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Potok izmenenij: sostojanie ustrojstv ne prochitano: {}", ex.getMessage());
+            }
+        }
+        if (!pumpIds.isEmpty()) {
+            try {
+                for (PumpSessionData.LiveState state : pumpFacade.getLiveStates(pumpIds)) {
+                    result.add(new Routed(
+                            state.ownerUserId(),
+                            LiveData.TYPE_PUMP,
+                            new LiveData.Pump(state.pumpId(), state.session())
+                    ));
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Potok izmenenij: sessii nasosov ne prochitany: {}", ex.getMessage());
+            }
+        }
+        for (String zigbeeKey : zigbeeKeys) {
+            int separator = zigbeeKey.indexOf(':');
+            Integer coordinatorId = separator > 0 ? parseInteger(zigbeeKey.substring(0, separator)) : null;
+            if (coordinatorId == null) {
+                continue;
+            }
+            String friendlyName = zigbeeKey.substring(separator + 1);
+            try {
+                ZigbeeLiveDeviceData live = zigbeeFacade.getLiveDevice(
+                        coordinatorId,
+                        friendlyName.isEmpty() ? null : friendlyName
+                );
+                if (live != null) {
+                    result.add(new Routed(live.ownerUserId(), LiveData.TYPE_ZIGBEE, toZigbee(live)));
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Potok izmenenij: zigbee {} ne prochitan: {}", zigbeeKey, ex.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private void deliver(List<Routed> routed) {
+        Map<Channel, List<LiveData.Event>> perChannel = new LinkedHashMap<>();
+        for (Routed item : routed) {
+            Channel owner = item.ownerUserId() != null ? channels.get(item.ownerUserId()) : null;
+            Channel admin = channels.get(ADMIN_CHANNEL);
+            if (owner == null && admin == null) {
+                continue;
+            }
+            long seq = sequence.incrementAndGet();
+            LiveData.Event event = new LiveData.Event(eventId(seq), item.type(), item.data());
+            for (Channel channel : new Channel[] {owner, admin}) {
+                if (channel != null) {
+                    perChannel.computeIfAbsent(channel, ignored -> new ArrayList<>()).add(event);
+                }
+            }
+        }
+        for (Map.Entry<Channel, List<LiveData.Event>> entry : perChannel.entrySet()) {
+            List<LiveData.Event> events = entry.getValue();
+            for (Outbox outbox : entry.getKey().append(events, sequence(events.get(events.size() - 1)))) {
+                if (!outbox.offer(events)) {
+                    drop(outbox.sink());
+                }
+            }
+        }
+    }
+
+    private void broadcast(LiveData.Reset reset) {
+        List<LiveData.Event> events = List.of(new LiveData.Event(null, LiveData.TYPE_RESET, reset));
+        for (Subscription subscription : List.copyOf(subscriptions.values())) {
+            if (!subscription.outbox().offer(events)) {
+                drop(subscription.outbox().sink());
+            }
+        }
+    }
+
+    // Translitem: zakrytie zhdet tu zhe blokirovku, chto i zavisshaja zapis' v soedinenie, - tozhe ne na tike.
+    private void drop(LiveSink sink) {
+        unsubscribe(sink);
+        try {
+            sender.execute(() -> close(sink));
+        } catch (RejectedExecutionException ex) {
+            close(sink);
+        }
+    }
+
+    private void close(LiveSink sink) {
+        try {
+            sink.close();
+        } catch (RuntimeException ex) {
+            log.debug("Potok izmenenij: soedinenie uzhe zakryto: {}", ex.getMessage());
+        }
+    }
+
+    private LiveData.Zigbee toZigbee(ZigbeeLiveDeviceData live) {
+        ZigbeeDeviceData device = live.device();
+        if (device == null) {
+            return new LiveData.Zigbee(live.coordinatorId(), null, null, null, null, null);
+        }
+        return new LiveData.Zigbee(
+                live.coordinatorId(),
+                device.friendlyName(),
+                device.ieeeAddress(),
+                device.state(),
+                device.availability(),
+                device.lastStateAt()
+        );
+    }
+
+    private String eventId(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    // Translitem: null - novoe podkljuchenie, -1 - id chuzhoj epohi ili bityj (nuzhen reset).
+    private Long resumeSequence(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        String value = lastEventId.trim();
+        int separator = value.lastIndexOf('-');
+        if (separator <= 0 || !epoch.equals(value.substring(0, separator))) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(value.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    private static long sequence(LiveData.Event event) {
+        return Long.parseLong(event.id().substring(event.id().lastIndexOf('-') + 1));
+    }
+
+    private static Integer parseInteger(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private record Subscription(Integer userId, Integer channelKey, Outbox outbox) {
+    }
+
+    private record Routed(Integer ownerUserId, String type, Object data) {
+    }
+
+    private record Buffered(long seq, LiveData.Event event) {
+    }
+
+    // Translitem: ochered' odnogo soedinenija, razbiraemaja odnim virtual'nym potokom. Pustaja pachka - heartbeat.
+    // Klient, ne uspevajushchij za potokom (sverh sinkQueueEvents sobytij), otkljuchaetsja i dochityvaet
+    // propushchennoe po Last-Event-ID; odna pachka v pustuju ochered' prinimaetsja vsegda (vozobnovlenie).
+    private final class Outbox {
+        private final LiveSink sink;
+        private final ArrayDeque<List<LiveData.Event>> queue = new ArrayDeque<>();
+        private int queuedEvents;
+        private boolean draining;
+        private boolean discarded;
+
+        private Outbox(LiveSink sink) {
+            this.sink = sink;
+        }
+
+        private LiveSink sink() {
+            return sink;
+        }
+
+        private boolean offer(List<LiveData.Event> events) {
+            synchronized (this) {
+                if (discarded) {
+                    return true;
+                }
+                if (events.isEmpty() && (draining || !queue.isEmpty())) {
+                    return true;
+                }
+                int capacity = Math.max(1, settings.getSinkQueueEvents());
+                if (!queue.isEmpty() && queuedEvents + events.size() > capacity) {
+                    log.info("Potok izmenenij: klient ne uspevaet za potokom ({} sobytij v ocheredi), otkljuchen", queuedEvents);
+                    discard();
+                    return false;
+                }
+                queue.addLast(events);
+                queuedEvents += events.size();
+                if (draining) {
+                    return true;
+                }
+                draining = true;
+            }
+            try {
+                sender.execute(this::drain);
+                return true;
+            } catch (RejectedExecutionException ex) {
+                discard();
+                return false;
+            }
+        }
+
+        private synchronized void discard() {
+            discarded = true;
+            queue.clear();
+            queuedEvents = 0;
+        }
+
+        private void drain() {
+            while (true) {
+                List<LiveData.Event> events;
+                synchronized (this) {
+                    events = queue.pollFirst();
+                    if (events == null || discarded) {
+                        draining = false;
+                        return;
+                    }
+                    queuedEvents -= events.size();
+                }
+                boolean sent = events.isEmpty() ? sink.heartbeat() : sink.send(events);
+                if (!sent) {
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    discard();
+                    drop(sink);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Translitem: kanal pol'zovatelja (ili adminov) s kol'cevym buferom dlja vozobnovlenija po Last-Event-ID.
+    private static final class Channel {
+        private final List<Outbox> sinks = new CopyOnWriteArrayList<>();
+        private final ArrayDeque<Buffered> buffer = new ArrayDeque<>();
+        private final int capacity;
+        // Translitem: sobytij kanala s seq <= evictedSeq v bufere uzhe net.
+        private long evictedSeq;
+        private long headSeq;
+        private long idleSinceMs = -1;
+
+        private Channel(long createdSeq, int capacity) {
+            this.evictedSeq = createdSeq;
+            this.headSeq = createdSeq;
+            this.capacity = capacity;
+        }
+
+        private synchronized boolean attach(Outbox outbox, Long resumeSeq, String epoch) {
+            List<LiveData.Event> initial = new ArrayList<>();
+            boolean resumed = false;
+            if (resumeSeq != null) {
+                if (resumeSeq >= evictedSeq && resumeSeq <= headSeq) {
+                    for (Buffered item : buffer) {
+                        if (item.seq() > resumeSeq) {
+                            initial.add(item.event());
+                        }
+                    }
+                    resumed = true;
+                } else {
+                    initial.add(new LiveData.Event(null, LiveData.TYPE_RESET, new LiveData.Reset("expired")));
+                }
+            }
+            initial.add(new LiveData.Event(epoch + "-" + headSeq, LiveData.TYPE_READY, new LiveData.Ready(resumed)));
+            sinks.add(outbox);
+            idleSinceMs = -1;
+            return outbox.offer(initial);
+        }
+
+        private synchronized void detach(Outbox outbox, long nowMs) {
+            sinks.remove(outbox);
+            if (sinks.isEmpty()) {
+                idleSinceMs = nowMs;
+            }
+        }
+
+        private synchronized List<Outbox> append(List<LiveData.Event> events, long lastSeq) {
+            for (LiveData.Event event : events) {
+                buffer.addLast(new Buffered(sequence(event), event));
+                if (buffer.size() > capacity) {
+                    evictedSeq = buffer.removeFirst().seq();
+                }
+            }
+            headSeq = lastSeq;
+            return List.copyOf(sinks);
+        }
+
+        private synchronized boolean isIdleSince(long thresholdMs) {
+            return sinks.isEmpty() && idleSinceMs >= 0 && idleSinceMs <= thresholdMs;
+        }
+    }
+}
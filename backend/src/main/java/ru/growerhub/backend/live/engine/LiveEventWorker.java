@@ -0,0 +1,38 @@
+package ru.growerhub.backend.live.engine;
+
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.live.LiveFacade;
+
+@Component
+public class LiveEventWorker {
+    private static final Logger log = LoggerFactory.getLogger(LiveEventWorker.class);
+
+    private final LiveFacade liveFacade;
+
+    public LiveEventWorker(LiveFacade liveFacade) {
+        this.liveFacade = liveFacade;
+    }
+
+    // Translitem: tik idet na kazhdom uzle - u kazhdogo svoi SSE soedinenija.
+    @Scheduled(fixedDelayString = "${live.coalesceMs:500}")
+    public void flush() {
+        try {
+            liveFacade.flush();
+        } catch (RuntimeException ex) {
+            log.warn("Live events flush failed: {}", ex.getMessage(), ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${live.heartbeatSeconds:20}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        try {
+            liveFacade.heartbeat();
+        } catch (RuntimeException ex) {
+            log.warn("Live events heartbeat failed: {}", ex.getMessage(), ex);
+        }
+    }
+}
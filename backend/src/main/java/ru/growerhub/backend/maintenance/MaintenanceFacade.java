@@ -3,15 +3,37 @@ package ru.growerhub.backend.maintenance;
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.ToIntBiFunction;
 import java.util.stream.Stream;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.growerhub.backend.common.config.maintenance.HistoryPartitionSettings;
 import ru.growerhub.backend.common.config.maintenance.HistoryRetentionSettings;
-import ru.growerhub.backend.maintenance.contract.HistoryRetentionResult;
+import ru.growerhub.backend.common.config.maintenance.HistoryRollupSettings;
+import ru.growerhub.backend.common.util.HistoryPartitions;
+import ru.growerhub.backend.common.util.HistoryRollup;
+import ru.growerhub.backend.maintenance.contract.HistoryCompactionChunk;
+import ru.growerhub.backend.maintenance.contract.HistoryCompactionTable;
+import ru.growerhub.backend.maintenance.contract.HistoryPartitionResult;
+import ru.growerhub.backend.maintenance.contract.HistoryRollupResult;
+import ru.growerhub.backend.maintenance.jpa.HistoryCompactionCheckpointEntity;
+import ru.growerhub.backend.maintenance.jpa.HistoryCompactionCheckpointRepository;
+import ru.growerhub.backend.maintenance.jpa.HistoryPartitionRepository;
 import ru.growerhub.backend.maintenance.jpa.HistoryRetentionStateEntity;
 import ru.growerhub.backend.maintenance.jpa.HistoryRetentionStateRepository;
+import ru.growerhub.backend.maintenance.jpa.HistoryRollupStateEntity;
+import ru.growerhub.backend.maintenance.jpa.HistoryRollupStateRepository;
 import ru.growerhub.backend.plant.PlantFacade;
 import ru.growerhub.backend.pump.PumpFacade;
 import ru.growerhub.backend.sensor.SensorFacade;
@@ -20,86 +42,434 @@ import ru.growerhub.backend.zigbee.ZigbeeFacade;
 @Service
 public class MaintenanceFacade {
     private static final int RETENTION_STATE_ID = 1;
+    private static final int ROLLUP_STATE_ID = 1;
 
     private final HistoryRetentionStateRepository stateRepository;
+    private final HistoryRollupStateRepository rollupStateRepository;
+    private final HistoryCompactionCheckpointRepository checkpointRepository;
+    private final HistoryPartitionRepository partitionRepository;
     private final SensorFacade sensorFacade;
     private final PlantFacade plantFacade;
     private final PumpFacade pumpFacade;
     private final ZigbeeFacade zigbeeFacade;
     private final HistoryRetentionSettings settings;
+    private final HistoryRollupSettings rollupSettings;
+    private final HistoryPartitionSettings partitionSettings;
     private final Clock clock;
+    private final TransactionTemplate transactionTemplate;
+    private final List<PartitionedTable> partitionedTables;
 
     public MaintenanceFacade(
             HistoryRetentionStateRepository stateRepository,
+            HistoryRollupStateRepository rollupStateRepository,
+            HistoryCompactionCheckpointRepository checkpointRepository,
+            HistoryPartitionRepository partitionRepository,
             SensorFacade sensorFacade,
             PlantFacade plantFacade,
             PumpFacade pumpFacade,
             ZigbeeFacade zigbeeFacade,
             HistoryRetentionSettings settings,
-            Clock clock
+            HistoryRollupSettings rollupSettings,
+            HistoryPartitionSettings partitionSettings,
+            Clock clock,
+            PlatformTransactionManager transactionManager
     ) {
         this.stateRepository = stateRepository;
+        this.rollupStateRepository = rollupStateRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.partitionRepository = partitionRepository;
         this.sensorFacade = sensorFacade;
         this.plantFacade = plantFacade;
         this.pumpFacade = pumpFacade;
         this.zigbeeFacade = zigbeeFacade;
         this.settings = settings;
+        this.rollupSettings = rollupSettings;
+        this.partitionSettings = partitionSettings;
         this.clock = clock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Translitem: porjadok vazhen - sobytija zigbee kopirujutsja po uzhe prorezhennym pokazanijam.
+        this.partitionedTables = List.of(
+                new PartitionedTable("sensor_readings", sensorFacade::copyCompactedHistoryPartition),
+                new PartitionedTable("plant_metric_samples", plantFacade::copyCompactedHistoryPartition),
+                new PartitionedTable("pump_state_readings", pumpFacade::copyCompactedHistoryPartition),
+                new PartitionedTable(
+                        "zigbee_device_property_readings",
+                        zigbeeFacade::copyCompactedPropertyHistoryPartition
+                ),
+                new PartitionedTable("zigbee_device_state_events", zigbeeFacade::copyCompactedStateEventPartition)
+        );
     }
 
+    // Translitem: odin chunk prorezhivanija tablicy - den' x diapazon ne bol'she chunkKeys serij, svoja korotkaja
+    // tranzakcija i checkpoint tablicy pod blokirovkoj. dryRun tol'ko schitaet udaljaemye stroki (COUNT po tem zhe
+    // vyborkam) i ne trogaet checkpoint, kursor idet cherez previous.
     @Transactional
-    public HistoryRetentionResult compactNextDay() {
+    public HistoryCompactionChunk compactNextChunk(
+            HistoryCompactionTable table,
+            HistoryCompactionChunk previous,
+            boolean dryRun
+    ) {
         if (!settings.isEnabled()) {
-            return HistoryRetentionResult.noWork(true);
+            return HistoryCompactionChunk.noWork(table);
         }
         LocalDateTime now = LocalDateTime.now(clock);
         LocalDate cutoffDay = LocalDate.now(clock).minusDays(Math.max(1, settings.getRawDays()));
-        HistoryRetentionStateEntity state = stateRepository.findLockedById(RETENTION_STATE_ID)
-                .orElseGet(() -> stateRepository.saveAndFlush(
-                        HistoryRetentionStateEntity.create(RETENTION_STATE_ID, now)
-                ));
-        if (state.getNextDay() == null) {
-            state.setNextDay(resolveFirstHistoryDay(cutoffDay));
-            state.setUpdatedAt(now);
-            stateRepository.save(state);
+        HistoryCompactionCheckpointEntity checkpoint = dryRun
+                ? checkpointRepository.findById(table.tableName()).orElse(null)
+                : checkpointRepository.findLockedByTableName(table.tableName())
+                        .orElseGet(() -> checkpointRepository.saveAndFlush(
+                                HistoryCompactionCheckpointEntity.create(table.tableName(), now)
+                        ));
+        LocalDate day;
+        Integer fromKey;
+        if (dryRun && previous != null) {
+            day = previous.nextDay();
+            fromKey = previous.nextKey();
+        } else {
+            day = checkpoint != null && checkpoint.getNextDay() != null
+                    ? checkpoint.getNextDay()
+                    : resolveFirstHistoryDay(table, cutoffDay);
+            fromKey = checkpoint != null ? checkpoint.getNextKey() : null;
         }
-        LocalDate day = state.getNextDay();
         if (day == null || !day.isBefore(cutoffDay)) {
-            return HistoryRetentionResult.noWork(true);
+            return HistoryCompactionChunk.noWork(table);
         }
 
         LocalDateTime fromTs = day.atStartOfDay();
         LocalDateTime toTs = day.plusDays(1).atStartOfDay();
-        int sensorDeleted = sensorFacade.compactHistoryDay(fromTs, toTs);
-        int plantDeleted = plantFacade.compactHistoryDay(fromTs, toTs);
-        int pumpDeleted = pumpFacade.compactHistoryDay(fromTs, toTs);
-        int zigbeeDeleted = zigbeeFacade.compactHistoryDay(fromTs, toTs);
+        int chunkKeys = Math.max(1, settings.getChunkKeys());
+        List<Integer> keys = findHistoryKeys(
+                table,
+                fromTs,
+                toTs,
+                fromKey != null ? fromKey : Integer.MIN_VALUE,
+                chunkKeys
+        );
+        Integer firstKey = keys.isEmpty() ? null : keys.get(0);
+        Integer lastKey = keys.isEmpty() ? null : keys.get(keys.size() - 1);
+        long deleted = 0L;
+        if (!keys.isEmpty()) {
+            deleted = dryRun
+                    ? countCompactableHistory(table, fromTs, toTs, firstKey, lastKey)
+                    : compactHistoryChunk(table, fromTs, toTs, firstKey, lastKey);
+        }
+        boolean dayCompleted = keys.size() < chunkKeys || lastKey == Integer.MAX_VALUE;
+        LocalDate nextDay = dayCompleted ? day.plusDays(1) : day;
+        Integer nextKey = dayCompleted ? null : lastKey + 1;
 
-        LocalDate nextDay = day.plusDays(1);
-        state.setNextDay(nextDay);
-        state.setUpdatedAt(now);
-        stateRepository.save(state);
-        return new HistoryRetentionResult(
+        if (!dryRun) {
+            checkpoint.setNextDay(nextDay);
+            checkpoint.setNextKey(nextKey);
+            checkpoint.setRowsDeleted(checkpoint.getRowsDeleted() + deleted);
+            checkpoint.setUpdatedAt(now);
+            checkpointRepository.save(checkpoint);
+        }
+        return new HistoryCompactionChunk(
+                table,
                 day,
-                sensorDeleted,
-                plantDeleted,
-                pumpDeleted,
-                zigbeeDeleted,
+                firstKey,
+                lastKey,
+                deleted,
+                nextDay,
+                nextKey,
                 !nextDay.isBefore(cutoffDay)
         );
     }
 
-    private LocalDate resolveFirstHistoryDay(LocalDate cutoffDay) {
+    @Transactional(readOnly = true)
+    public boolean isHistoryPartitioned() {
+        return partitionSettings.isEnabled() && !resolvePartitionedTables().isEmpty();
+    }
+
+    // Translitem: odin shag obsluzhivanija partitsij: budushchie mesjacy, DROP za zhestkim gorizontom
+    // i zamena odnogo zakrytogo mesjaca ego prorezhennoj kopiej vo vseh tablicah.
+    // Kazhdaja tablica - v svoej tranzakcii: DETACH derzhit ACCESS EXCLUSIVE na roditele do commit,
+    // i obshchaja tranzakcija na vse tablicy ostanavlivala by priem na vremja kopirovanija ostal'nyh.
+    public HistoryPartitionResult maintainNextPartition() {
+        if (!partitionSettings.isEnabled()) {
+            return HistoryPartitionResult.noWork(true);
+        }
+        List<PartitionedTable> tables = resolvePartitionedTables();
+        if (tables.isEmpty()) {
+            return HistoryPartitionResult.noWork(true);
+        }
+        int created = 0;
+        int dropped = 0;
+        Map<String, Set<YearMonth>> pendingByTable = new HashMap<>();
+        TreeSet<YearMonth> pendingMonths = new TreeSet<>();
+        for (PartitionedTable table : tables) {
+            PartitionPlan plan = transactionTemplate.execute(status -> planPartitions(table));
+            created += plan.created();
+            dropped += plan.dropped();
+            pendingByTable.put(table.name(), plan.pending());
+            pendingMonths.addAll(plan.pending());
+        }
+        if (pendingMonths.isEmpty()) {
+            return new HistoryPartitionResult(null, created, dropped, 0L, 0L, true);
+        }
+
+        YearMonth month = pendingMonths.first();
+        long kept = 0L;
+        long removed = 0L;
+        for (PartitionedTable table : tables) {
+            if (!pendingByTable.get(table.name()).contains(month)) {
+                continue;
+            }
+            PartitionSwap swap = transactionTemplate.execute(status -> swapCompactedPartition(table, month));
+            kept += swap.copied();
+            removed += Math.max(0L, swap.before() - swap.copied());
+        }
+        return new HistoryPartitionResult(month, created, dropped, kept, removed, pendingMonths.size() == 1);
+    }
+
+    // Translitem: odin shag catch-up rollup ot vodjanogo znaka do zakrytogo 5m bucket (now - lag), ne bol'she stepHours.
+    @Transactional
+    public HistoryRollupResult rollupNextWindow() {
+        if (!rollupSettings.isEnabled()) {
+            return HistoryRollupResult.noWork(true);
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime target = HistoryRollup.Resolution.FIVE_MINUTES
+                .bucketStart(now.minusSeconds(Math.max(0L, rollupSettings.getLagSeconds())));
+        HistoryRollupStateEntity state = rollupStateRepository.findLockedById(ROLLUP_STATE_ID)
+                .orElseGet(() -> rollupStateRepository.saveAndFlush(
+                        HistoryRollupStateEntity.create(ROLLUP_STATE_ID, now)
+                ));
+        LocalDateTime fromTs = state.getRolledUpTo();
+        if (fromTs == null) {
+            LocalDateTime oldest = resolveOldestRollupTimestamp();
+            if (oldest == null) {
+                return HistoryRollupResult.noWork(true);
+            }
+            fromTs = HistoryRollup.Resolution.DAY.bucketStart(oldest);
+        }
+        if (!fromTs.isBefore(target)) {
+            return rerollNextWindow(state, now);
+        }
+        LocalDateTime toTs = fromTs.plusHours(Math.max(1, rollupSettings.getStepHours()));
+        if (toTs.isAfter(target)) {
+            toTs = target;
+        }
+        int sensorBuckets = sensorFacade.rollupHistory(fromTs, toTs);
+        int plantBuckets = plantFacade.rollupHistory(fromTs, toTs);
+        int zigbeeBuckets = zigbeeFacade.rollupHistory(fromTs, toTs);
+
+        state.setRolledUpTo(toTs);
+        state.setUpdatedAt(now);
+        rollupStateRepository.save(state);
+        return new HistoryRollupResult(
+                fromTs,
+                toTs,
+                sensorBuckets,
+                plantBuckets,
+                zigbeeBuckets,
+                !toTs.isBefore(target) && !isRerollDue(state, now)
+        );
+    }
+
+    // Translitem: rolled_up_to tol'ko rastet, a stroki s ts nizhe nego prihodjat pozzhe (bufer offline ustrojstv,
+    // write-behind po statusObservedAt). Raz v lateRerollPeriodMinutes hvost lateHorizonHours perestraivaetsja
+    // shagami stepHours; rollup zamenjaet bucket'y diapazona, povtor bezopasen.
+    private HistoryRollupResult rerollNextWindow(HistoryRollupStateEntity state, LocalDateTime now) {
+        LocalDateTime end = state.getRolledUpTo();
+        LocalDateTime fromTs = state.getRerollFrom();
+        if (fromTs == null) {
+            if (!isRerollDue(state, now)) {
+                return HistoryRollupResult.noWork(true);
+            }
+            fromTs = HistoryRollup.Resolution.FIVE_MINUTES.bucketStart(
+                    end.minusHours(rollupSettings.getLateHorizonHours())
+            );
+            // Translitem: prorezhennye dni ne perestraivaem - agregaty tam posschitany po polnym syrym dannym.
+            if (settings.isEnabled()) {
+                LocalDateTime rawFloor = LocalDate.now(clock).minusDays(Math.max(1, settings.getRawDays())).atStartOfDay();
+                if (fromTs.isBefore(rawFloor)) {
+                    fromTs = rawFloor;
+                }
+            }
+        }
+        if (!fromTs.isBefore(end)) {
+            state.setRerollFrom(null);
+            state.setRerolledAt(now);
+            state.setUpdatedAt(now);
+            rollupStateRepository.save(state);
+            return HistoryRollupResult.noWork(true);
+        }
+        LocalDateTime toTs = fromTs.plusHours(Math.max(1, rollupSettings.getStepHours()));
+        if (toTs.isAfter(end)) {
+            toTs = end;
+        }
+        int sensorBuckets = sensorFacade.rollupHistory(fromTs, toTs);
+        int plantBuckets = plantFacade.rollupHistory(fromTs, toTs);
+        int zigbeeBuckets = zigbeeFacade.rollupHistory(fromTs, toTs);
+
+        boolean finished = !toTs.isBefore(end);
+        state.setRerollFrom(finished ? null : toTs);
+        if (finished) {
+            state.setRerolledAt(now);
+        }
+        state.setUpdatedAt(now);
+        rollupStateRepository.save(state);
+        return new HistoryRollupResult(fromTs, toTs, sensorBuckets, plantBuckets, zigbeeBuckets, finished);
+    }
+
+    private boolean isRerollDue(HistoryRollupStateEntity state, LocalDateTime now) {
+        if (rollupSettings.getLateHorizonHours() <= 0) {
+            return false;
+        }
+        LocalDateTime rerolledAt = state.getRerolledAt();
+        return rerolledAt == null
+                || !rerolledAt.isAfter(now.minusMinutes(Math.max(0L, rollupSettings.getLateRerollPeriodMinutes())));
+    }
+
+    private List<Integer> findHistoryKeys(
+            HistoryCompactionTable table,
+            LocalDateTime fromTs,
+            LocalDateTime toTs,
+            Integer fromKey,
+            int maxKeys
+    ) {
+        return switch (table) {
+            case SENSOR_READINGS -> sensorFacade.findHistoryKeys(fromTs, toTs, fromKey, maxKeys);
+            case PLANT_METRIC_SAMPLES -> plantFacade.findHistoryKeys(fromTs, toTs, fromKey, maxKeys);
+            case PUMP_STATE_READINGS -> pumpFacade.findHistoryKeys(fromTs, toTs, fromKey, maxKeys);
+            case ZIGBEE_HISTORY -> zigbeeFacade.findHistoryKeys(fromTs, toTs, fromKey, maxKeys);
+        };
+    }
+
+    private int compactHistoryChunk(
+            HistoryCompactionTable table,
+            LocalDateTime fromTs,
+            LocalDateTime toTs,
+            Integer fromKey,
+            Integer toKey
+    ) {
+        return switch (table) {
+            case SENSOR_READINGS -> sensorFacade.compactHistoryChunk(fromTs, toTs, fromKey, toKey);
+            case PLANT_METRIC_SAMPLES -> plantFacade.compactHistoryChunk(fromTs, toTs, fromKey, toKey);
+            case PUMP_STATE_READINGS -> pumpFacade.compactHistoryChunk(fromTs, toTs, fromKey, toKey);
+            case ZIGBEE_HISTORY -> zigbeeFacade.compactHistoryChunk(fromTs, toTs, fromKey, toKey);
+        };
+    }
+
+    private long countCompactableHistory(
+            HistoryCompactionTable table,
+            LocalDateTime fromTs,
+            LocalDateTime toTs,
+            Integer fromKey,
+            Integer toKey
+    ) {
+        return switch (table) {
+            case SENSOR_READINGS -> sensorFacade.countCompactableHistory(fromTs, toTs, fromKey, toKey);
+            case PLANT_METRIC_SAMPLES -> plantFacade.countCompactableHistory(fromTs, toTs, fromKey, toKey);
+            case PUMP_STATE_READINGS -> pumpFacade.countCompactableHistory(fromTs, toTs, fromKey, toKey);
+            case ZIGBEE_HISTORY -> zigbeeFacade.countCompactableHistory(fromTs, toTs, fromKey, toKey);
+        };
+    }
+
+    private LocalDate resolveFirstHistoryDay(HistoryCompactionTable table, LocalDate cutoffDay) {
+        LocalDateTime oldest = switch (table) {
+            case SENSOR_READINGS -> sensorFacade.getOldestHistoryTimestamp();
+            case PLANT_METRIC_SAMPLES -> plantFacade.getOldestHistoryTimestamp();
+            case PUMP_STATE_READINGS -> pumpFacade.getOldestHistoryTimestamp();
+            case ZIGBEE_HISTORY -> zigbeeFacade.getOldestHistoryTimestamp();
+        };
+        if (oldest == null || !oldest.toLocalDate().isBefore(cutoffDay)) {
+            return cutoffDay;
+        }
+        return oldest.toLocalDate();
+    }
+
+    private PartitionPlan planPartitions(PartitionedTable table) {
+        lockRetentionState();
+        YearMonth currentMonth = YearMonth.now(clock);
+        LocalDateTime cutoff = LocalDate.now(clock).minusDays(Math.max(1, settings.getRawDays())).atStartOfDay();
+        LocalDateTime horizon = partitionSettings.getHardRetentionDays() > 0
+                ? LocalDate.now(clock).minusDays(partitionSettings.getHardRetentionDays()).atStartOfDay()
+                : null;
+        int created = 0;
+        int dropped = 0;
+        Set<YearMonth> existing = new HashSet<>();
+        Set<YearMonth> pending = new HashSet<>();
+        for (String name : partitionRepository.findPartitionNames(table.name())) {
+            HistoryPartitions.Partition partition = HistoryPartitions.parse(table.name(), name);
+            if (partition == null) {
+                continue;
+            }
+            if (horizon != null && !partition.toTs().isAfter(horizon)) {
+                partitionRepository.dropPartition(table.name(), partition.name());
+                dropped++;
+                continue;
+            }
+            existing.add(partition.month());
+            if (settings.isEnabled() && !partition.compacted() && !partition.toTs().isAfter(cutoff)) {
+                pending.add(partition.month());
+            }
+        }
+        for (int offset = 0; offset <= Math.max(0, partitionSettings.getFutureMonths()); offset++) {
+            YearMonth month = currentMonth.plusMonths(offset);
+            if (!existing.contains(month)) {
+                partitionRepository.createPartition(
+                        table.name(),
+                        HistoryPartitions.partitionName(table.name(), month),
+                        HistoryPartitions.rangeStart(month),
+                        HistoryPartitions.rangeEnd(month)
+                );
+                created++;
+            }
+        }
+        return new PartitionPlan(created, dropped, pending);
+    }
+
+    // Translitem: istochnik blokiruetsja (EXCLUSIVE: chtenie idet, zapisi zhdut commit) do kopirovanija,
+    // inache stroki, popavshie v mesjac mezhdu kopiej i DETACH, propali by vmeste so staroj partitsiej.
+    // lock_timeout na DETACH: vstavka v zablokirovannyj mesjac derzhit lock roditelja, i pri vzaimnom
+    // ozhidanii otkatyvaetsja etot shag (povtor v sledujushchem zapuske), a ne priem.
+    private PartitionSwap swapCompactedPartition(PartitionedTable table, YearMonth month) {
+        lockRetentionState();
+        LocalDateTime fromTs = HistoryPartitions.rangeStart(month);
+        LocalDateTime toTs = HistoryPartitions.rangeEnd(month);
+        String source = HistoryPartitions.partitionName(table.name(), month);
+        String target = HistoryPartitions.compactedName(table.name(), month);
+        partitionRepository.lockPartition(source);
+        partitionRepository.createDetachedCopy(table.name(), target, fromTs, toTs);
+        long before = partitionRepository.countRows(source);
+        int copied = table.copier().applyAsInt(source, target);
+        partitionRepository.setLockTimeout(partitionSettings.getDetachLockTimeoutMs());
+        partitionRepository.swapPartition(table.name(), source, target, fromTs, toTs);
+        return new PartitionSwap(before, copied);
+    }
+
+    private void lockRetentionState() {
+        stateRepository.findLockedById(RETENTION_STATE_ID)
+                .orElseGet(() -> stateRepository.saveAndFlush(
+                        HistoryRetentionStateEntity.create(RETENTION_STATE_ID, LocalDateTime.now(clock))
+                ));
+    }
+
+    private List<PartitionedTable> resolvePartitionedTables() {
+        return partitionedTables.stream()
+                .filter(table -> partitionRepository.isPartitioned(table.name()))
+                .toList();
+    }
+
+    private LocalDateTime resolveOldestRollupTimestamp() {
         return Stream.of(
                         sensorFacade.getOldestHistoryTimestamp(),
                         plantFacade.getOldestHistoryTimestamp(),
-                        pumpFacade.getOldestHistoryTimestamp(),
                         zigbeeFacade.getOldestHistoryTimestamp()
                 )
                 .filter(Objects::nonNull)
-                .map(LocalDateTime::toLocalDate)
                 .min(Comparator.naturalOrder())
-                .map(day -> day.isBefore(cutoffDay) ? day : cutoffDay)
-                .orElse(cutoffDay);
+                .orElse(null);
+    }
+
+    private record PartitionedTable(String name, ToIntBiFunction<String, String> copier) {
+    }
+
+    private record PartitionPlan(int created, int dropped, Set<YearMonth> pending) {
+    }
+
+    private record PartitionSwap(long before, int copied) {
     }
 }
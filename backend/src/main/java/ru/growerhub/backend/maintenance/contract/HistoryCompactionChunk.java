@@ -0,0 +1,22 @@
+package ru.growerhub.backend.maintenance.contract;
+
+import java.time.LocalDate;
+
+public record HistoryCompactionChunk(
+        HistoryCompactionTable table,
+        LocalDate day,
+        Integer fromKey,
+        Integer toKey,
+        long rowsDeleted,
+        LocalDate nextDay,
+        Integer nextKey,
+        boolean caughtUp
+) {
+    public boolean dayCompleted() {
+        return day != null && !day.equals(nextDay);
+    }
+
+    public static HistoryCompactionChunk noWork(HistoryCompactionTable table) {
+        return new HistoryCompactionChunk(table, null, null, null, 0L, null, null, true);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.growerhub.backend.maintenance.contract;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record HistoryCompactionReport(
+        boolean dryRun,
+        long durationMs,
+        List<TableProgress> tables
+) {
+    public long totalRowsDeleted() {
+        return tables.stream().mapToLong(TableProgress::rowsDeleted).sum();
+    }
+
+    public boolean caughtUp() {
+        return tables.stream().allMatch(TableProgress::caughtUp);
+    }
+
+    // Translitem: pri dryRun rowsDeleted - skol'ko strok bylo by udaleno.
+    public record TableProgress(
+            HistoryCompactionTable table,
+            LocalDate firstDay,
+            LocalDate lastDay,
+            int daysCompleted,
+            int chunks,
+            long rowsDeleted,
+            boolean caughtUp
+    ) {
+    }
+}
@@ -0,0 +1,19 @@
+package ru.growerhub.backend.maintenance.contract;
+
+// Tablicy chunk-prorezhivanija; zigbee sobytija prorezhivajutsja vmeste s pokazanijami svoego koordinatora.
+public enum HistoryCompactionTable {
+    SENSOR_READINGS("sensor_readings"),
+    PLANT_METRIC_SAMPLES("plant_metric_samples"),
+    PUMP_STATE_READINGS("pump_state_readings"),
+    ZIGBEE_HISTORY("zigbee_device_property_readings");
+
+    private final String tableName;
+
+    HistoryCompactionTable(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.growerhub.backend.maintenance.contract;
+
+import java.time.YearMonth;
+
+public record HistoryPartitionResult(
+        YearMonth compactedMonth,
+        int partitionsCreated,
+        int partitionsDropped,
+        long rowsKept,
+        long rowsRemoved,
+        boolean caughtUp
+) {
+    public boolean noWork() {
+        return compactedMonth == null && partitionsCreated == 0 && partitionsDropped == 0;
+    }
+
+    public static HistoryPartitionResult noWork(boolean caughtUp) {
+        return new HistoryPartitionResult(null, 0, 0, 0L, 0L, caughtUp);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.growerhub.backend.maintenance.contract;
+
+import java.time.LocalDateTime;
+
+public record HistoryRollupResult(
+        LocalDateTime fromTs,
+        LocalDateTime toTs,
+        int sensorBuckets,
+        int plantBuckets,
+        int zigbeeBuckets,
+        boolean caughtUp
+) {
+    public int totalBuckets() {
+        return sensorBuckets + plantBuckets + zigbeeBuckets;
+    }
+
+    public static HistoryRollupResult noWork(boolean caughtUp) {
+        return new HistoryRollupResult(null, null, 0, 0, 0, caughtUp);
+    }
+}
@@ -0,0 +1,116 @@
+package ru.growerhub.backend.maintenance.engine;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.common.config.maintenance.HistoryRetentionSettings;
+import ru.growerhub.backend.maintenance.MaintenanceFacade;
+import ru.growerhub.backend.maintenance.contract.HistoryCompactionChunk;
+import ru.growerhub.backend.maintenance.contract.HistoryCompactionReport;
+import ru.growerhub.backend.maintenance.contract.HistoryCompactionTable;
+
+// Prorezhivanie istorii po tablicam parallel'no na ogranichennom pule: kazhdaja tablica idet svoimi chunk'ami
+// (den' x diapazon serij) v otdel'nyh korotkih tranzakcijah, obshchij limit strok/sek ne daet konkurirovat' s priemom.
+@Component
+public class HistoryCompactionRunner {
+    private static final Logger log = LoggerFactory.getLogger(HistoryCompactionRunner.class);
+
+    private final MaintenanceFacade maintenanceFacade;
+    private final HistoryRetentionSettings settings;
+    private final ExecutorService executor;
+
+    public HistoryCompactionRunner(MaintenanceFacade maintenanceFacade, HistoryRetentionSettings settings) {
+        this.maintenanceFacade = maintenanceFacade;
+        this.settings = settings;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(1, settings.getConcurrency()),
+                runnable -> Thread.ofPlatform()
+                        .name("history-compaction-" + threadIndex.incrementAndGet())
+                        .daemon(true)
+                        .unstarted(runnable)
+        );
+    }
+
+    // Translitem: leaseHeld vyzyvaetsja pered kazhdym chunk'om; false ostanavlivaet tablicu (lease ushel drugomu uzlu).
+    public HistoryCompactionReport run(boolean dryRun, BooleanSupplier leaseHeld) {
+        long startedNs = System.nanoTime();
+        RowRateThrottle throttle = new RowRateThrottle(settings.getMaxRowsPerSecond());
+        List<CompletableFuture<HistoryCompactionReport.TableProgress>> futures = new ArrayList<>();
+        for (HistoryCompactionTable table : HistoryCompactionTable.values()) {
+            futures.add(CompletableFuture.supplyAsync(() -> compactTable(table, dryRun, throttle, leaseHeld), executor));
+        }
+        List<HistoryCompactionReport.TableProgress> tables = new ArrayList<>(futures.size());
+        for (CompletableFuture<HistoryCompactionReport.TableProgress> future : futures) {
+            tables.add(future.join());
+        }
+        return new HistoryCompactionReport(
+                dryRun,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNs),
+                tables
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Translitem: oshibka chunk'a ostanavlivaet tol'ko svoju tablicu; checkpoint ostaetsja na poslednem uspeshnom chunk'e.
+    private HistoryCompactionReport.TableProgress compactTable(
+            HistoryCompactionTable table,
+            boolean dryRun,
+            RowRateThrottle throttle,
+            BooleanSupplier leaseHeld
+    ) {
+        int maxDays = Math.max(1, settings.getMaxDaysPerRun());
+        LocalDate firstDay = null;
+        LocalDate lastDay = null;
+        int days = 0;
+        int chunks = 0;
+        long rows = 0L;
+        boolean caughtUp = false;
+        HistoryCompactionChunk previous = null;
+        try {
+            while (days < maxDays) {
+                if (!leaseHeld.getAsBoolean()) {
+                    log.warn("Prorezhivanie {} ostanovleno: lease zadachi poterjan", table.tableName());
+                    break;
+                }
+                HistoryCompactionChunk chunk = maintenanceFacade.compactNextChunk(table, previous, dryRun);
+                if (chunk.day() == null) {
+                    caughtUp = true;
+                    break;
+                }
+                chunks++;
+                rows += chunk.rowsDeleted();
+                firstDay = firstDay != null ? firstDay : chunk.day();
+                lastDay = chunk.day();
+                if (chunk.dayCompleted()) {
+                    days++;
+                }
+                if (chunk.caughtUp()) {
+                    caughtUp = true;
+                    break;
+                }
+                throttle.pace(chunk.rowsDeleted());
+                previous = chunk;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.warn("Prorezhivanie {} ostanovleno oshibkoj: {}", table.tableName(), ex.getMessage(), ex);
+        }
+        return new HistoryCompactionReport.TableProgress(table, firstDay, lastDay, days, chunks, rows, caughtUp);
+    }
+}
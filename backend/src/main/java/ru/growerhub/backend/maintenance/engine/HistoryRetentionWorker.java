@@ -1,28 +1,42 @@
 package ru.growerhub.backend.maintenance.engine;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import ru.growerhub.backend.cluster.ClusterFacade;
+import ru.growerhub.backend.common.config.maintenance.HistoryPartitionSettings;
 import ru.growerhub.backend.common.config.maintenance.HistoryRetentionSettings;
 import ru.growerhub.backend.maintenance.MaintenanceFacade;
-import ru.growerhub.backend.maintenance.contract.HistoryRetentionResult;
+import ru.growerhub.backend.maintenance.contract.HistoryCompactionReport;
+import ru.growerhub.backend.maintenance.contract.HistoryPartitionResult;
 
 @Component
 public class HistoryRetentionWorker {
     private static final Logger log = LoggerFactory.getLogger(HistoryRetentionWorker.class);
+    private static final String JOB = "history-retention";
 
     private final MaintenanceFacade maintenanceFacade;
+    private final HistoryCompactionRunner compactionRunner;
     private final HistoryRetentionSettings settings;
+    private final HistoryPartitionSettings partitionSettings;
+    private final ClusterFacade clusterFacade;
     private final AtomicBoolean running = new AtomicBoolean();
 
     public HistoryRetentionWorker(
             MaintenanceFacade maintenanceFacade,
-            HistoryRetentionSettings settings
+            HistoryCompactionRunner compactionRunner,
+            HistoryRetentionSettings settings,
+            HistoryPartitionSettings partitionSettings,
+            ClusterFacade clusterFacade
     ) {
         this.maintenanceFacade = maintenanceFacade;
+        this.compactionRunner = compactionRunner;
         this.settings = settings;
+        this.partitionSettings = partitionSettings;
+        this.clusterFacade = clusterFacade;
     }
 
     @Scheduled(
@@ -42,35 +56,75 @@ public class HistoryRetentionWorker {
     }
 
     private void runCatchUp() {
-        if (!settings.isEnabled() || !running.compareAndSet(false, true)) {
+        if (!settings.isEnabled() && !partitionSettings.isEnabled()) {
             return;
         }
+        Long fencingToken = clusterFacade.leaderToken(JOB);
+        if (fencingToken == null || !running.compareAndSet(false, true)) {
+            return;
+        }
+        // Translitem: zapusk idet chasami - lease proverjaetsja pered kazhdym chunk'om/mesjacem po fencing token,
+        // a ne odnim isLeader na starte, chtoby dva uzla ne prorezhivali tablicy odnovremenno.
+        BooleanSupplier leaseHeld = () -> clusterFacade.renewLease(JOB, fencingToken);
         try {
-            int maxDays = Math.max(1, settings.getMaxDaysPerRun());
-            for (int index = 0; index < maxDays; index++) {
-                HistoryRetentionResult result = maintenanceFacade.compactNextDay();
-                if (result.day() == null) {
-                    return;
+            if (maintenanceFacade.isHistoryPartitioned()) {
+                runPartitionMaintenance(leaseHeld);
+                return;
+            }
+            if (!settings.isEnabled()) {
+                return;
+            }
+            HistoryCompactionReport report = compactionRunner.run(settings.isDryRun(), leaseHeld);
+            for (HistoryCompactionReport.TableProgress table : report.tables()) {
+                if (table.chunks() == 0) {
+                    continue;
                 }
                 log.info(
-                        "Prorezhivanie istorii za {}: udaleno {} strok "
-                                + "(sensor={}, plant={}, pump={}, zigbee={})",
-                        result.day(),
-                        result.totalRowsDeleted(),
-                        result.sensorRowsDeleted(),
-                        result.plantRowsDeleted(),
-                        result.pumpRowsDeleted(),
-                        result.zigbeeRowsDeleted()
+                        "Prorezhivanie istorii {}{}: dni {}..{} ({} zaversheno), chunk'ov {}, {} {} strok",
+                        table.table().tableName(),
+                        report.dryRun() ? " (dry-run)" : "",
+                        table.firstDay(),
+                        table.lastDay(),
+                        table.daysCompleted(),
+                        table.chunks(),
+                        report.dryRun() ? "bylo by udaleno" : "udaleno",
+                        table.rowsDeleted()
                 );
-                if (result.caughtUp()) {
-                    return;
-                }
             }
-            log.info("Prorezhivanie istorii ostavilo backlog posle limita za odin zapusk");
+            if (!report.caughtUp()) {
+                log.info("Prorezhivanie istorii ostavilo backlog posle limita za odin zapusk");
+            }
         } catch (RuntimeException ex) {
             log.warn("Prorezhivanie istorii zavershilos oshibkoj: {}", ex.getMessage(), ex);
         } finally {
             running.set(false);
         }
     }
+
+    // Translitem: partitsionirovannye tablicy prorezhivajutsja zamenoj mesjaca celikom, bez DELETE po dnjam.
+    private void runPartitionMaintenance(BooleanSupplier leaseHeld) {
+        int maxMonths = Math.max(1, partitionSettings.getMaxMonthsPerRun());
+        for (int index = 0; index < maxMonths; index++) {
+            if (!leaseHeld.getAsBoolean()) {
+                log.warn("Prorezhivanie partitsij istorii ostanovleno: lease zadachi {} poterjan", JOB);
+                return;
+            }
+            HistoryPartitionResult result = maintenanceFacade.maintainNextPartition();
+            if (!result.noWork()) {
+                log.info(
+                        "Partitsii istorii: prorezhen mesjac {} (ostavleno {}, udaleno {} strok), "
+                                + "sozdano {}, udaleno {} partitsij",
+                        result.compactedMonth(),
+                        result.rowsKept(),
+                        result.rowsRemoved(),
+                        result.partitionsCreated(),
+                        result.partitionsDropped()
+                );
+            }
+            if (result.caughtUp()) {
+                return;
+            }
+        }
+        log.info("Prorezhivanie partitsij istorii ostavilo backlog posle limita za odin zapusk");
+    }
 }
@@ -0,0 +1,80 @@
+package ru.growerhub.backend.maintenance.engine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.cluster.ClusterFacade;
+import ru.growerhub.backend.common.config.maintenance.HistoryRollupSettings;
+import ru.growerhub.backend.maintenance.MaintenanceFacade;
+import ru.growerhub.backend.maintenance.contract.HistoryRollupResult;
+
+@Component
+public class HistoryRollupWorker {
+    private static final Logger log = LoggerFactory.getLogger(HistoryRollupWorker.class);
+    private static final String JOB = "history-rollup";
+
+    private final MaintenanceFacade maintenanceFacade;
+    private final HistoryRollupSettings settings;
+    private final ClusterFacade clusterFacade;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public HistoryRollupWorker(
+            MaintenanceFacade maintenanceFacade,
+            HistoryRollupSettings settings,
+            ClusterFacade clusterFacade
+    ) {
+        this.maintenanceFacade = maintenanceFacade;
+        this.settings = settings;
+        this.clusterFacade = clusterFacade;
+    }
+
+    @Scheduled(
+            initialDelayString = "${history.rollup.startupDelayMs:30000}",
+            fixedDelayString = "${history.rollup.periodMs:60000}"
+    )
+    public void scheduledRun() {
+        runCatchUp();
+    }
+
+    private void runCatchUp() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        Long fencingToken = clusterFacade.leaderToken(JOB);
+        if (fencingToken == null || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int maxSteps = Math.max(1, settings.getMaxStepsPerRun());
+            for (int index = 0; index < maxSteps; index++) {
+                if (!clusterFacade.renewLease(JOB, fencingToken)) {
+                    log.warn("Rollup istorii ostanovlen: lease zadachi {} poterjan", JOB);
+                    return;
+                }
+                HistoryRollupResult result = maintenanceFacade.rollupNextWindow();
+                if (result.fromTs() == null) {
+                    return;
+                }
+                log.debug(
+                        "Rollup istorii {}..{}: zapisano {} bucket'ov (sensor={}, plant={}, zigbee={})",
+                        result.fromTs(),
+                        result.toTs(),
+                        result.totalBuckets(),
+                        result.sensorBuckets(),
+                        result.plantBuckets(),
+                        result.zigbeeBuckets()
+                );
+                if (result.caughtUp()) {
+                    return;
+                }
+            }
+            log.info("Rollup istorii ostavil backlog posle limita za odin zapusk");
+        } catch (RuntimeException ex) {
+            log.warn("Rollup istorii zavershilsja oshibkoj: {}", ex.getMessage(), ex);
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.growerhub.backend.maintenance.engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Obshchij na zapusk limit udalenij: posle chunk'a potok zhdet, poka srednjaja skorost' ne opustitsja do maxRowsPerSecond.
+final class RowRateThrottle {
+    private final long maxRowsPerSecond;
+    private final long startedNs;
+    private final AtomicLong rows = new AtomicLong();
+
+    RowRateThrottle(long maxRowsPerSecond) {
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.startedNs = System.nanoTime();
+    }
+
+    void pace(long processedRows) throws InterruptedException {
+        long total = rows.addAndGet(Math.max(0L, processedRows));
+        if (maxRowsPerSecond <= 0 || total == 0) {
+            return;
+        }
+        long budgetNs = (long) (total * (1_000_000_000.0 / maxRowsPerSecond));
+        long aheadNs = budgetNs - (System.nanoTime() - startedNs);
+        if (aheadNs > 0) {
+            TimeUnit.NANOSECONDS.sleep(aheadNs);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.growerhub.backend.maintenance.jpa;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "history_compaction_checkpoints")
+public class HistoryCompactionCheckpointEntity {
+    @Id
+    @Column(name = "table_name", nullable = false, length = 64)
+    private String tableName;
+
+    @Column(name = "next_day")
+    private LocalDate nextDay;
+
+    @Column(name = "next_key")
+    private Integer nextKey;
+
+    @Column(name = "rows_deleted", nullable = false)
+    private Long rowsDeleted;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    protected HistoryCompactionCheckpointEntity() {
+    }
+
+    public static HistoryCompactionCheckpointEntity create(String tableName, LocalDateTime now) {
+        HistoryCompactionCheckpointEntity entity = new HistoryCompactionCheckpointEntity();
+        entity.tableName = tableName;
+        entity.rowsDeleted = 0L;
+        entity.updatedAt = now;
+        return entity;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public LocalDate getNextDay() {
+        return nextDay;
+    }
+
+    public void setNextDay(LocalDate nextDay) {
+        this.nextDay = nextDay;
+    }
+
+    public Integer getNextKey() {
+        return nextKey;
+    }
+
+    public void setNextKey(Integer nextKey) {
+        this.nextKey = nextKey;
+    }
+
+    public Long getRowsDeleted() {
+        return rowsDeleted;
+    }
+
+    public void setRowsDeleted(Long rowsDeleted) {
+        this.rowsDeleted = rowsDeleted;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
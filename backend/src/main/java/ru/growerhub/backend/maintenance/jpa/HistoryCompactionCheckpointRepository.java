@@ -0,0 +1,15 @@
+package ru.growerhub.backend.maintenance.jpa;
+
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface HistoryCompactionCheckpointRepository
+        extends JpaRepository<HistoryCompactionCheckpointEntity, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT checkpoint FROM HistoryCompactionCheckpointEntity checkpoint WHERE checkpoint.tableName = :tableName")
+    Optional<HistoryCompactionCheckpointEntity> findLockedByTableName(@Param("tableName") String tableName);
+}
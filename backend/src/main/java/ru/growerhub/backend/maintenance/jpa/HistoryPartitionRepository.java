@@ -0,0 +1,177 @@
+package ru.growerhub.backend.maintenance.jpa;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.growerhub.backend.common.util.HistoryPartitions;
+
+// DDL partitsij istorii (PostgreSQL). Imena tablic prohodjat HistoryPartitions.requireIdentifier,
+// granicy - tol'ko iz YearMonth, poetomu tekstovaja podstanovka bezopasna.
+@Repository
+public class HistoryPartitionRepository {
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Translitem: parametry autovacuum iz V14 zadajutsja na kazhdoj partitsii - roditel' ih ne hranit.
+    private static final String STORAGE_PARAMETERS =
+            "autovacuum_analyze_scale_factor = 0.02, autovacuum_vacuum_insert_scale_factor = 0.05";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public HistoryPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Translitem: H2 v testah i starye skhemy bez V17 ostajutsja na DELETE-prorezhivanii.
+    public boolean isPartitioned(String table) {
+        if (!isPostgres()) {
+            return false;
+        }
+        List<String> kinds = jdbcTemplate.queryForList(
+                """
+                        SELECT c.relkind::text
+                        FROM pg_class c
+                        JOIN pg_namespace n ON n.oid = c.relnamespace
+                        WHERE n.nspname = current_schema()
+                          AND c.relname = ?
+                        """,
+                String.class,
+                HistoryPartitions.requireIdentifier(table)
+        );
+        return kinds.contains("p");
+    }
+
+    public List<String> findPartitionNames(String table) {
+        return jdbcTemplate.queryForList(
+                """
+                        SELECT child.relname::text
+                        FROM pg_inherits inheritance
+                        JOIN pg_class parent ON parent.oid = inheritance.inhparent
+                        JOIN pg_class child ON child.oid = inheritance.inhrelid
+                        JOIN pg_namespace n ON n.oid = parent.relnamespace
+                        WHERE n.nspname = current_schema()
+                          AND parent.relname = ?
+                        ORDER BY child.relname
+                        """,
+                String.class,
+                HistoryPartitions.requireIdentifier(table)
+        );
+    }
+
+    // Translitem: esli stroki mesjaca uzhe popali v default-partitsiju (worker dolgo ne rabotal),
+    // oni perenosjatsja v novuju partitsiju - inache PostgreSQL ne dast ee sozdat'.
+    public void createPartition(String table, String partition, LocalDateTime fromTs, LocalDateTime toTs) {
+        String parent = HistoryPartitions.requireIdentifier(table);
+        String created = HistoryPartitions.requireIdentifier(partition);
+        String defaultPartition = HistoryPartitions.defaultName(table);
+        String range = "ts >= '%s' AND ts < '%s'".formatted(BOUND_FORMAT.format(fromTs), BOUND_FORMAT.format(toTs));
+        boolean hasDefault = findPartitionNames(table).contains(defaultPartition);
+        boolean misplaced = hasDefault && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM %s WHERE %s)".formatted(defaultPartition, range),
+                Boolean.class
+        ));
+        if (!misplaced) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s') WITH (%s)"
+                    .formatted(
+                            created,
+                            parent,
+                            BOUND_FORMAT.format(fromTs),
+                            BOUND_FORMAT.format(toTs),
+                            STORAGE_PARAMETERS
+                    ));
+            return;
+        }
+        createDetachedCopy(table, created, fromTs, toTs);
+        jdbcTemplate.execute("INSERT INTO %s SELECT * FROM %s WHERE %s".formatted(created, defaultPartition, range));
+        jdbcTemplate.execute("DELETE FROM %s WHERE %s".formatted(defaultPartition, range));
+        jdbcTemplate.execute("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')".formatted(
+                parent,
+                created,
+                BOUND_FORMAT.format(fromTs),
+                BOUND_FORMAT.format(toTs)
+        ));
+        jdbcTemplate.execute("ALTER TABLE %s DROP CONSTRAINT %s".formatted(created, rangeConstraintName(created)));
+    }
+
+    // Translitem: CHECK s granicami mesjaca pozvoljaet ATTACH bez polnogo skanirovanija novoj tablicy.
+    public void createDetachedCopy(String table, String target, LocalDateTime fromTs, LocalDateTime toTs) {
+        jdbcTemplate.execute("CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS) WITH (%s)".formatted(
+                HistoryPartitions.requireIdentifier(target),
+                HistoryPartitions.requireIdentifier(table),
+                STORAGE_PARAMETERS
+        ));
+        jdbcTemplate.execute("ALTER TABLE %s ADD CONSTRAINT %s CHECK (ts >= '%s' AND ts < '%s')".formatted(
+                target,
+                rangeConstraintName(target),
+                BOUND_FORMAT.format(fromTs),
+                BOUND_FORMAT.format(toTs)
+        ));
+    }
+
+    // Translitem: EXCLUSIVE propuskaet chtenie, no ne zapis' - do commit tranzakcii.
+    public void lockPartition(String partition) {
+        jdbcTemplate.execute("LOCK TABLE %s IN EXCLUSIVE MODE".formatted(HistoryPartitions.requireIdentifier(partition)));
+    }
+
+    // Translitem: dejstvuet do konca tekushchej tranzakcii.
+    public void setLockTimeout(long timeoutMs) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = %d".formatted(Math.max(0L, timeoutMs)));
+    }
+
+    public long countRows(String partition) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + HistoryPartitions.requireIdentifier(partition),
+                Long.class
+        );
+        return count != null ? count : 0L;
+    }
+
+    // Translitem: indeksy roditelja sozdajutsja na novoj tablice pri ATTACH, uzhe posle zagruzki dannyh.
+    public void swapPartition(
+            String table,
+            String oldPartition,
+            String newPartition,
+            LocalDateTime fromTs,
+            LocalDateTime toTs
+    ) {
+        String parent = HistoryPartitions.requireIdentifier(table);
+        String detached = HistoryPartitions.requireIdentifier(oldPartition);
+        String attached = HistoryPartitions.requireIdentifier(newPartition);
+        jdbcTemplate.execute("ALTER TABLE %s DETACH PARTITION %s".formatted(parent, detached));
+        jdbcTemplate.execute("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')".formatted(
+                parent,
+                attached,
+                BOUND_FORMAT.format(fromTs),
+                BOUND_FORMAT.format(toTs)
+        ));
+        jdbcTemplate.execute("DROP TABLE %s".formatted(detached));
+        jdbcTemplate.execute("ALTER TABLE %s DROP CONSTRAINT %s".formatted(attached, rangeConstraintName(attached)));
+    }
+
+    public void dropPartition(String table, String partition) {
+        String detached = HistoryPartitions.requireIdentifier(partition);
+        jdbcTemplate.execute("ALTER TABLE %s DETACH PARTITION %s".formatted(
+                HistoryPartitions.requireIdentifier(table),
+                detached
+        ));
+        jdbcTemplate.execute("DROP TABLE %s".formatted(detached));
+    }
+
+    private boolean isPostgres() {
+        Boolean resolved = postgres;
+        if (resolved == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+            );
+            resolved = "PostgreSQL".equalsIgnoreCase(product);
+            postgres = resolved;
+        }
+        return resolved;
+    }
+
+    private static String rangeConstraintName(String table) {
+        return table + "_range";
+    }
+}
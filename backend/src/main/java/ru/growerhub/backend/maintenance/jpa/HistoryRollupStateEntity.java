@@ -0,0 +1,73 @@
+package ru.growerhub.backend.maintenance.jpa;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "history_rollup_state")
+public class HistoryRollupStateEntity {
+    @Id
+    @Column(name = "id", nullable = false)
+    private Integer id;
+
+    @Column(name = "rolled_up_to")
+    private LocalDateTime rolledUpTo;
+
+    @Column(name = "reroll_from")
+    private LocalDateTime rerollFrom;
+
+    @Column(name = "rerolled_at")
+    private LocalDateTime rerolledAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    protected HistoryRollupStateEntity() {
+    }
+
+    public static HistoryRollupStateEntity create(Integer id, LocalDateTime now) {
+        HistoryRollupStateEntity entity = new HistoryRollupStateEntity();
+        entity.id = id;
+        entity.updatedAt = now;
+        return entity;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public LocalDateTime getRolledUpTo() {
+        return rolledUpTo;
+    }
+
+    public void setRolledUpTo(LocalDateTime rolledUpTo) {
+        this.rolledUpTo = rolledUpTo;
+    }
+
+    public LocalDateTime getRerollFrom() {
+        return rerollFrom;
+    }
+
+    public void setRerollFrom(LocalDateTime rerollFrom) {
+        this.rerollFrom = rerollFrom;
+    }
+
+    public LocalDateTime getRerolledAt() {
+        return rerolledAt;
+    }
+
+    public void setRerolledAt(LocalDateTime rerolledAt) {
+        this.rerolledAt = rerolledAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
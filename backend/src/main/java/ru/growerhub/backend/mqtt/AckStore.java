@@ -1,27 +1,95 @@
 ﻿package ru.growerhub.backend.mqtt;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import ru.growerhub.backend.common.config.AckSettings;
+import ru.growerhub.backend.common.contract.ChangeBus;
+import ru.growerhub.backend.common.contract.DomainException;
 import ru.growerhub.backend.device.contract.DeviceAckStore;
 import ru.growerhub.backend.mqtt.model.ManualWateringAck;
 
+// ACK po correlation_id v pamjati uzla; prishedshij ACK rassylaetsja po shine izmenenij, chtoby ozhidanie
+// na drugom uzle zavershilos' bez BD. Poterjannoe soobshchenie pokryvaet chtenie mqtt_ack v MqttPumpCommandGateway.
 @Component
 public class AckStore implements DeviceAckStore {
+    private static final Logger logger = LoggerFactory.getLogger(AckStore.class);
+    static final String CHANGE_TOPIC = "ack";
+
     private final Map<String, AckEntry> storage = new ConcurrentHashMap<>();
+    private final Map<String, Set<CompletableFuture<ManualWateringAck>>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger activeWaiters = new AtomicInteger();
     private final AckSettings ackSettings;
     private final Clock clock;
+    private final ObjectMapper objectMapper;
+    private final ChangeBus changeBus;
 
-    public AckStore(AckSettings ackSettings, Clock clock) {
+    public AckStore(AckSettings ackSettings, Clock clock, ObjectMapper objectMapper, ChangeBus changeBus) {
         this.ackSettings = ackSettings;
         this.clock = clock;
+        this.objectMapper = objectMapper;
+        this.changeBus = changeBus;
+        changeBus.subscribe(CHANGE_TOPIC, this::applyRemote);
     }
 
     public void put(String deviceId, ManualWateringAck ack) {
+        putLocal(deviceId, ack);
+        publish(deviceId, ack);
+    }
+
+    // Translitem: tol'ko etot uzel - ACK iz direct-podpiski, s shiny ili dochitannyj iz BD.
+    public void putLocal(String deviceId, ManualWateringAck ack) {
         storage.put(ack.correlationId(), new AckEntry(deviceId, ack, LocalDateTime.now(clock)));
+        Set<CompletableFuture<ManualWateringAck>> pending = waiters.remove(ack.correlationId());
+        if (pending != null) {
+            pending.forEach(waiter -> waiter.complete(ack));
+        }
+    }
+
+    // Translitem: future zavershaetsja v put() v moment prihoda ACK, po timeout - TimeoutException.
+    public CompletableFuture<ManualWateringAck> await(String correlationId, Duration timeout) {
+        ManualWateringAck existing = get(correlationId);
+        if (existing != null) {
+            return CompletableFuture.completedFuture(existing);
+        }
+        if (activeWaiters.incrementAndGet() > ackSettings.getMaxWaiters()) {
+            activeWaiters.decrementAndGet();
+            return CompletableFuture.failedFuture(new DomainException("unavailable", "Slishkom mnogo ozhidanij ACK"));
+        }
+        CompletableFuture<ManualWateringAck> waiter = new CompletableFuture<>();
+        waiters.compute(correlationId, (key, current) -> {
+            Set<CompletableFuture<ManualWateringAck>> next = current != null ? current : ConcurrentHashMap.newKeySet();
+            next.add(waiter);
+            return next;
+        });
+        waiter.whenComplete((ack, error) -> {
+            activeWaiters.decrementAndGet();
+            waiters.computeIfPresent(correlationId, (key, current) -> {
+                current.remove(waiter);
+                return current.isEmpty() ? null : current;
+            });
+        });
+        // Translitem: ACK mog prijti mezhdu pervoj proverkoj i registraciej ozhidanija.
+        ManualWateringAck raced = get(correlationId);
+        if (raced != null) {
+            waiter.complete(raced);
+        }
+        return waiter.orTimeout(Math.max(1L, timeout.toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    public int activeWaiters() {
+        return activeWaiters.get();
     }
 
     public ManualWateringAck get(String correlationId) {
@@ -60,6 +128,42 @@ public class AckStore implements DeviceAckStore {
         return removed;
     }
 
+    private void publish(String deviceId, ManualWateringAck ack) {
+        if (!changeBus.isClustered()) {
+            return;
+        }
+        try {
+            changeBus.publish(CHANGE_TOPIC, objectMapper.writeValueAsString(new AckChange(
+                    deviceId,
+                    ack.correlationId(),
+                    ack.result(),
+                    ack.reason(),
+                    ack.status()
+            )));
+        } catch (Exception ex) {
+            logger.warn("ACK {} ne otpravlen v shinu izmenenij: {}", ack.correlationId(), ex.getMessage());
+        }
+    }
+
+    private void applyRemote(String payload) {
+        AckChange change;
+        try {
+            change = objectMapper.readValue(payload, AckChange.class);
+        } catch (Exception ex) {
+            logger.warn("Ne udalos razobrat ACK iz shiny izmenenij: {}", ex.getMessage());
+            return;
+        }
+        if (change.correlationId() == null || change.result() == null) {
+            return;
+        }
+        putLocal(change.deviceId(), new ManualWateringAck(
+                change.correlationId(),
+                change.result(),
+                change.reason(),
+                change.status()
+        ));
+    }
+
     private boolean isExpired(AckEntry entry, LocalDateTime now) {
         int ttlSeconds = ackSettings.getTtlSeconds();
         if (ttlSeconds <= 0) {
@@ -71,4 +175,13 @@ public class AckStore implements DeviceAckStore {
 
     private record AckEntry(String deviceId, ManualWateringAck ack, LocalDateTime insertedAt) {
     }
+
+    private record AckChange(
+            @JsonProperty("device_id") String deviceId,
+            @JsonProperty("correlation_id") String correlationId,
+            @JsonProperty("result") String result,
+            @JsonProperty("reason") String reason,
+            @JsonProperty("status") String status
+    ) {
+    }
 }
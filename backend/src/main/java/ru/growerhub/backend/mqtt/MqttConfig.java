@@ -6,6 +6,8 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Conditional;
+import ru.growerhub.backend.common.config.mqtt.MqttPublishSettings;
+import ru.growerhub.backend.common.config.mqtt.MqttSharedSubscriptionSettings;
 import ru.growerhub.backend.common.config.mqtt.MqttTopicSettings;
 
 @Configuration
@@ -23,9 +25,18 @@ public class MqttConfig {
             MqttSettings settings,
             DebugSettings debugSettings,
             ObjectMapper objectMapper,
-            MqttMessageLog messageLog
+            MqttMessageLog messageLog,
+            MqttPublishSettings publishSettings,
+            MqttPublishMetrics publishMetrics
     ) {
-        return new PahoMqttPublisher(settings, debugSettings, objectMapper, messageLog);
+        return new PahoMqttPublisher(
+                settings,
+                debugSettings,
+                objectMapper,
+                messageLog,
+                publishSettings,
+                publishMetrics
+        );
     }
 
     @Bean
@@ -35,8 +46,17 @@ public class MqttConfig {
             MqttSettings settings,
             DebugSettings debugSettings,
             MqttTopicSettings topicSettings,
-            MqttMessageHandler handler
+            MqttSharedSubscriptionSettings sharedSettings,
+            MqttIngestionPipeline pipeline,
+            MqttMessageHandler messageHandler
     ) {
-        return new PahoMqttSubscriber(settings, debugSettings, topicSettings, handler);
+        return new PahoMqttSubscriber(
+                settings,
+                debugSettings,
+                topicSettings,
+                sharedSettings,
+                pipeline,
+                messageHandler::handleDirectMessage
+        );
     }
 }
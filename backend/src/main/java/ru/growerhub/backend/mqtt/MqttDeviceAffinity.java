@@ -0,0 +1,100 @@
+package ru.growerhub.backend.mqtt;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.cluster.ClusterFacade;
+import ru.growerhub.backend.common.config.mqtt.MqttSharedSubscriptionSettings;
+import ru.growerhub.backend.common.contract.ChangeBus;
+
+// Privjazka ustrojstva k uzlu pri shared subscriptions: broker (Mosquitto) razdaet soobshchenija gruppy po ocheredi,
+// poetomu soobshchenie gh/dev/{id}/... chuzhogo ustrojstva peresylaetsja ego HRW-vladel'cu po shine izmenenij.
+// Pri smene sostava uzlov ili ne vlezshem v shinu soobshchenii ono obrabatyvaetsja lokal'no - porjadok togda
+// derzhit proverka updated_at v shadow i device_state_last.
+@Component
+public class MqttDeviceAffinity {
+    private static final Logger logger = LoggerFactory.getLogger(MqttDeviceAffinity.class);
+    static final String CHANGE_TOPIC = "mqtt-forward";
+    private static final String DEVICE_PREFIX = "gh/dev/";
+    private static final String SHARD_PREFIX = "mqtt-device:";
+
+    private final MqttSharedSubscriptionSettings sharedSettings;
+    private final ClusterFacade clusterFacade;
+    private final ChangeBus changeBus;
+    private final ObjectMapper objectMapper;
+    private volatile BiConsumer<String, byte[]> localConsumer;
+
+    public MqttDeviceAffinity(
+            MqttSharedSubscriptionSettings sharedSettings,
+            ClusterFacade clusterFacade,
+            ChangeBus changeBus,
+            ObjectMapper objectMapper
+    ) {
+        this.sharedSettings = sharedSettings;
+        this.clusterFacade = clusterFacade;
+        this.changeBus = changeBus;
+        this.objectMapper = objectMapper;
+        // Translitem: bez privjazki state odnogo ustrojstva razbegajutsja po uzlam - takoj konfiguracii ne zapuskaemsja.
+        if (isActive() && (!clusterFacade.isEnabled() || !changeBus.isClustered())) {
+            throw new IllegalStateException(
+                    "mqtt.shared-subscription.deviceAffinity trebuet cluster.enabled=true i cluster.change-bus=postgres"
+            );
+        }
+        changeBus.subscribe(CHANGE_TOPIC, this::applyRemote);
+    }
+
+    // Translitem: kuda popadajut soobshchenija, peresylaemye etomu uzlu (ochered' ingestion).
+    public void onForwarded(BiConsumer<String, byte[]> consumer) {
+        this.localConsumer = consumer;
+    }
+
+    // Translitem: true - soobshchenie otpravleno vladel'cu, lokal'no ego obrabatyvat' ne nado.
+    public boolean forward(String topic, byte[] payload) {
+        if (!isActive() || topic == null || !topic.startsWith(DEVICE_PREFIX)) {
+            return false;
+        }
+        int end = topic.indexOf('/', DEVICE_PREFIX.length());
+        if (end <= DEVICE_PREFIX.length()) {
+            return false;
+        }
+        String owner = clusterFacade.ownerNode(SHARD_PREFIX + topic.substring(DEVICE_PREFIX.length(), end));
+        if (owner == null || owner.equals(clusterFacade.nodeId())) {
+            return false;
+        }
+        try {
+            return changeBus.publish(CHANGE_TOPIC, objectMapper.writeValueAsString(new Forwarded(owner, topic, payload)));
+        } catch (Exception ex) {
+            logger.warn("MQTT {} ne pereslan uzlu {}: {}", topic, owner, ex.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isActive() {
+        return sharedSettings.isEnabled() && sharedSettings.isDeviceAffinity();
+    }
+
+    private void applyRemote(String message) {
+        Forwarded forwarded;
+        try {
+            forwarded = objectMapper.readValue(message, Forwarded.class);
+        } catch (Exception ex) {
+            logger.warn("Ne udalos razobrat peresylaemoe MQTT soobshchenie: {}", ex.getMessage());
+            return;
+        }
+        BiConsumer<String, byte[]> consumer = localConsumer;
+        if (consumer == null || forwarded.topic() == null || !clusterFacade.nodeId().equals(forwarded.node())) {
+            return;
+        }
+        consumer.accept(forwarded.topic(), forwarded.payload() != null ? forwarded.payload() : new byte[0]);
+    }
+
+    private record Forwarded(
+            @JsonProperty("node") String node,
+            @JsonProperty("topic") String topic,
+            @JsonProperty("payload") byte[] payload
+    ) {
+    }
+}
@@ -0,0 +1,311 @@
+package ru.growerhub.backend.mqtt;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.common.config.mqtt.MqttIngestionSettings;
+import ru.growerhub.backend.common.config.mqtt.MqttTopicSettings;
+
+// Razvodit vhodjashchie MQTT soobshchenija po uporjadochennym lane, chtoby medlennaja zapis' v BD
+// odnogo ustrojstva ne blokirovala callback-potok Paho dlja vseh ostal'nyh.
+@Component
+public class MqttIngestionPipeline implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(MqttIngestionPipeline.class);
+    private static final String DEVICE_PREFIX = "gh/dev/";
+    private static final long POLL_TIMEOUT_MS = 200;
+
+    private final MqttIngestionSettings settings;
+    private final MqttTopicSettings topicSettings;
+    private final MqttMessageHandler handler;
+    private final MqttDeviceAffinity affinity;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Lane[] lanes = new Lane[0];
+
+    public MqttIngestionPipeline(
+            MqttIngestionSettings settings,
+            MqttTopicSettings topicSettings,
+            MqttMessageHandler handler,
+            MqttDeviceAffinity affinity
+    ) {
+        this.settings = settings;
+        this.topicSettings = topicSettings;
+        this.handler = handler;
+        this.affinity = affinity;
+        if (affinity != null) {
+            affinity.onForwarded(this::enqueue);
+        }
+    }
+
+    public void submit(String topic, byte[] payload) {
+        // Translitem: soobshchenie chuzhogo ustrojstva uhodit ego vladel'cu, lokal'no ostajutsja tol'ko svoi.
+        if (affinity != null && affinity.forward(topic, payload)) {
+            return;
+        }
+        enqueue(topic, payload);
+    }
+
+    private void enqueue(String topic, byte[] payload) {
+        Lane[] current = lanes;
+        if (!running.get() || current.length == 0) {
+            dispatch(topic, payload);
+            return;
+        }
+        Envelope envelope = new Envelope(topic, payload, isDroppable(topic), System.nanoTime());
+        Lane lane = current[Math.floorMod(laneHash(topic), current.length)];
+        try {
+            lane.offer(envelope);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            logger.warn("MQTT ingestion interrupted, soobshchenie {} obrabotano sinhronno", topic);
+            dispatch(topic, payload);
+        }
+    }
+
+    public List<LaneStats> stats() {
+        Lane[] current = lanes;
+        List<LaneStats> result = new ArrayList<>(current.length);
+        for (Lane lane : current) {
+            result.add(lane.snapshot());
+        }
+        return result;
+    }
+
+    @Override
+    public void start() {
+        if (!settings.isEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        int laneCount = Math.max(1, settings.getLanes());
+        int capacity = Math.max(1, settings.getQueueCapacity());
+        Lane[] created = new Lane[laneCount];
+        for (int index = 0; index < laneCount; index++) {
+            created[index] = new Lane(index, capacity);
+        }
+        lanes = created;
+        for (Lane lane : created) {
+            lane.start();
+        }
+        logger.info(
+                "MQTT ingestion started: lanes={} capacity={} stateBackpressure={}",
+                laneCount,
+                capacity,
+                settings.getStateBackpressure()
+        );
+    }
+
+    @Override
+    public void stop() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, settings.getShutdownTimeoutMs()));
+        for (Lane lane : lanes) {
+            lane.awaitDrained(deadline);
+        }
+        lanes = new Lane[0];
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        // Translitem: startuet ran'she i ostanavlivaetsja pozzhe PahoMqttSubscriber (phase 0).
+        return -1;
+    }
+
+    private void dispatch(String topic, byte[] payload) {
+        try {
+            handler.handleInboundMessage(topic, payload);
+        } catch (Exception ex) {
+            logger.warn("MQTT handler failure for topic {}: {}", topic, ex.getMessage());
+        }
+    }
+
+    // Translitem: tol'ko gh/dev/{id}/state mozhno otbrosit', ack/events/zigbee dostavljajutsja vsegda.
+    private boolean isDroppable(String topic) {
+        if (settings.getStateBackpressure() != MqttIngestionSettings.BackpressurePolicy.DROP_OLDEST || topic == null) {
+            return false;
+        }
+        String stateSuffix = topicSettings.getStateSuffix();
+        return stateSuffix != null && topic.startsWith(DEVICE_PREFIX) && topic.endsWith(stateSuffix);
+    }
+
+    // Translitem: hash po device id ili zigbee namespace bez vydelenija substring.
+    int laneHash(String topic) {
+        if (topic == null) {
+            return 0;
+        }
+        if (topic.startsWith(DEVICE_PREFIX)) {
+            return hashSegment(topic, DEVICE_PREFIX.length());
+        }
+        String userPrefix = topicSettings.getZigbeeUserPrefix();
+        if (userPrefix != null && !userPrefix.isBlank()
+                && topic.length() > userPrefix.length() + 1
+                && topic.startsWith(userPrefix)
+                && topic.charAt(userPrefix.length()) == '/') {
+            return hashSegment(topic, userPrefix.length() + 1);
+        }
+        String zigbeeBase = topicSettings.getZigbeeBase();
+        if (zigbeeBase != null && !zigbeeBase.isBlank() && topic.startsWith(zigbeeBase)) {
+            return zigbeeBase.hashCode();
+        }
+        return topic.hashCode();
+    }
+
+    private int hashSegment(String topic, int from) {
+        int hash = 0;
+        for (int index = from; index < topic.length(); index++) {
+            char ch = topic.charAt(index);
+            if (ch == '/') {
+                break;
+            }
+            hash = 31 * hash + ch;
+        }
+        return hash;
+    }
+
+    public record LaneStats(
+            int lane,
+            int queued,
+            int capacity,
+            long processed,
+            long dropped,
+            long failed,
+            long lastLagMs,
+            long maxLagMs
+    ) {
+    }
+
+    private record Envelope(String topic, byte[] payload, boolean droppable, long enqueuedAtNs) {
+    }
+
+    private final class Lane implements Runnable {
+        private final int index;
+        private final int capacity;
+        private final LinkedBlockingDeque<Envelope> queue;
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong maxLagNs = new AtomicLong();
+        private volatile long lastLagNs;
+        private Thread thread;
+
+        private Lane(int index, int capacity) {
+            this.index = index;
+            this.capacity = capacity;
+            this.queue = new LinkedBlockingDeque<>(capacity);
+        }
+
+        private void start() {
+            String name = "mqtt-ingest-" + index;
+            thread = settings.isVirtualThreads()
+                    ? Thread.ofVirtual().name(name).unstarted(this)
+                    : Thread.ofPlatform().name(name).daemon(true).unstarted(this);
+            thread.start();
+        }
+
+        private void offer(Envelope envelope) throws InterruptedException {
+            while (!queue.offerLast(envelope)) {
+                if (!envelope.droppable() || !dropOlderState(envelope.topic())) {
+                    queue.putLast(envelope);
+                    return;
+                }
+            }
+        }
+
+        // Translitem: otbrasyvaem tol'ko ustarevshij state togo zhe ustrojstva - edinstvennyj state drugogo
+        // ustrojstva v ocheredi terjat' nel'zja, togda rabotaet BLOCK.
+        private boolean dropOlderState(String topic) {
+            Iterator<Envelope> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Envelope queued = iterator.next();
+                if (queued.droppable() && queued.topic().equals(topic)) {
+                    iterator.remove();
+                    dropped.incrementAndGet();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void run() {
+            while (running.get() || !queue.isEmpty()) {
+                Envelope envelope;
+                try {
+                    envelope = queue.pollFirst(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (envelope == null) {
+                    continue;
+                }
+                long lagNs = System.nanoTime() - envelope.enqueuedAtNs();
+                lastLagNs = lagNs;
+                maxLagNs.accumulateAndGet(lagNs, Math::max);
+                try {
+                    handler.handleInboundMessage(envelope.topic(), envelope.payload());
+                } catch (Exception ex) {
+                    failed.incrementAndGet();
+                    logger.warn("MQTT handler failure for topic {}: {}", envelope.topic(), ex.getMessage());
+                } finally {
+                    processed.incrementAndGet();
+                }
+            }
+        }
+
+        private void awaitDrained(long deadlineNs) {
+            if (thread == null) {
+                return;
+            }
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNs - System.nanoTime());
+            try {
+                if (remainingMs > 0) {
+                    thread.join(remainingMs);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                logger.warn("MQTT ingestion lane {} ne uspela obrabotat' {} soobshchenij pri ostanovke", index, queue.size());
+                thread.interrupt();
+            }
+        }
+
+        private LaneStats snapshot() {
+            return new LaneStats(
+                    index,
+                    queue.size(),
+                    capacity,
+                    processed.get(),
+                    dropped.get(),
+                    failed.get(),
+                    TimeUnit.NANOSECONDS.toMillis(lastLagNs),
+                    TimeUnit.NANOSECONDS.toMillis(maxLagNs.get())
+            );
+        }
+    }
+}
@@ -9,7 +9,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import ru.growerhub.backend.common.config.AckSettings;
-import ru.growerhub.backend.common.config.mqtt.MqttTopicSettings;
 import ru.growerhub.backend.device.DeviceFacade;
 import ru.growerhub.backend.device.contract.DeviceServiceEventData;
 import ru.growerhub.backend.device.contract.DeviceShadowState;
@@ -17,7 +16,6 @@ import ru.growerhub.backend.mqtt.model.DeviceState;
 import ru.growerhub.backend.mqtt.model.DeviceServiceEventMessage;
 import ru.growerhub.backend.mqtt.model.ManualWateringAck;
 import ru.growerhub.backend.zigbee.ZigbeeFacade;
-import ru.growerhub.backend.zigbee.contract.ZigbeeMqttMessageType;
 import ru.growerhub.backend.zigbee.contract.ZigbeeMqttSnapshotMessage;
 
 @Component
@@ -30,7 +28,7 @@ public class MqttMessageHandler {
     private final AckSettings ackSettings;
     private final DebugSettings debugSettings;
     private final Clock clock;
-    private final MqttTopicSettings topicSettings;
+    private final MqttTopicRouter topicRouter;
     private final MqttMessageLog messageLog;
     private final ZigbeeFacade zigbeeFacade;
 
@@ -41,7 +39,7 @@ public class MqttMessageHandler {
             AckSettings ackSettings,
             DebugSettings debugSettings,
             Clock clock,
-            MqttTopicSettings topicSettings,
+            MqttTopicRouter topicRouter,
             MqttMessageLog messageLog,
             ZigbeeFacade zigbeeFacade
     ) {
@@ -51,32 +49,43 @@ public class MqttMessageHandler {
         this.ackSettings = ackSettings;
         this.debugSettings = debugSettings;
         this.clock = clock;
-        this.topicSettings = topicSettings;
+        this.topicRouter = topicRouter;
         this.messageLog = messageLog;
         this.zigbeeFacade = zigbeeFacade;
     }
 
     public void handleInboundMessage(String topic, byte[] payload) {
-        messageLog.recordInbound(topic, payload, resolveKind(topic));
-        if (handleZigbeeMessage(topic, payload)) {
-            return;
-        }
-        if (topic != null && topic.endsWith(topicSettings.getAckSuffix())) {
-            handleAckMessage(topic, payload);
-        } else if (topic != null && topic.endsWith(topicSettings.getEventsSuffix())) {
-            handleEventMessage(topic, payload);
-        } else if (topic != null && topic.endsWith(topicSettings.getStateSuffix())) {
-            handleStateMessage(topic, payload);
+        MqttRoute route = topicRouter.route(topic);
+        messageLog.recordInbound(route, payload);
+        switch (route.kind()) {
+            case ZIGBEE -> handleZigbee(route, payload);
+            case ACK -> handleAck(route, payload);
+            case EVENT -> handleEvent(route, payload);
+            case STATE -> handleState(route, payload);
+            case RAW -> {
+            }
         }
     }
 
     public void handleStateMessage(String topic, byte[] payload) {
+        handleState(topicRouter.route(topic), payload);
+    }
+
+    public void handleAckMessage(String topic, byte[] payload) {
+        handleAck(topicRouter.route(topic), payload);
+    }
+
+    public void handleEventMessage(String topic, byte[] payload) {
+        handleEvent(topicRouter.route(topic), payload);
+    }
+
+    private void handleState(MqttRoute route, byte[] payload) {
         if (debugSettings.isDebug()) {
-            logger.info("MQTT DEBUG state topic={} payload={}", topic, safePayload(payload));
+            logger.info("MQTT DEBUG state topic={} payload={}", route.topic(), safePayload(payload));
         }
-        String deviceId = extractDeviceId(topic, topicSettings.getStateSuffix(), 4);
+        String deviceId = route.kind() == MqttRoute.Kind.STATE ? route.deviceId() : null;
         if (deviceId == null) {
-            logger.warn("MQTT state topic mismatch: {}", topic);
+            logger.warn("MQTT state topic mismatch: {}", route.topic());
             return;
         }
         DeviceState state;
@@ -87,18 +96,56 @@ public class MqttMessageHandler {
             return;
         }
         LocalDateTime now = LocalDateTime.now(clock);
-        deviceFacade.handleState(deviceId, toShadowState(state), now);
+        DeviceShadowState shadowState = toShadowState(state);
+        if (!deviceFacade.enqueueState(deviceId, shadowState, now)) {
+            deviceFacade.handleState(deviceId, shadowState, now);
+        }
         logger.info("MQTT state updated for {}", deviceId);
     }
 
-    public void handleAckMessage(String topic, byte[] payload) {
+    // Translitem: kopija ack iz direct-podpiski (shared-subscription) - tol'ko budit ozhidajushchih na etom uzle,
+    // zapis' v BD i rassylku po shine izmenenij delaet uzel, poluchivshij soobshchenie iz gruppy.
+    public void handleDirectMessage(String topic, byte[] payload) {
+        MqttRoute route = topicRouter.route(topic);
+        if (route.kind() != MqttRoute.Kind.ACK) {
+            return;
+        }
+        ParsedAck parsed = parseAck(route, payload);
+        if (parsed != null) {
+            ackStore.putLocal(parsed.deviceId(), parsed.ack());
+        }
+    }
+
+    private void handleAck(MqttRoute route, byte[] payload) {
+        ParsedAck parsed = parseAck(route, payload);
+        if (parsed == null) {
+            return;
+        }
+        ManualWateringAck ack = parsed.ack();
+        ackStore.put(parsed.deviceId(), ack);
+
+        LocalDateTime receivedAt = LocalDateTime.now(clock);
+        LocalDateTime expiresAt = resolveExpiresAt(receivedAt);
+        deviceFacade.handleAck(
+                parsed.deviceId(),
+                ack.correlationId(),
+                ack.result(),
+                ack.status(),
+                parsed.payloadMap(),
+                receivedAt,
+                expiresAt
+        );
+        logger.info("MQTT ack stored for {} correlation_id={}", parsed.deviceId(), ack.correlationId());
+    }
+
+    private ParsedAck parseAck(MqttRoute route, byte[] payload) {
         if (debugSettings.isDebug()) {
-            logger.info("MQTT DEBUG ack topic={} payload={}", topic, safePayload(payload));
+            logger.info("MQTT DEBUG ack topic={} payload={}", route.topic(), safePayload(payload));
         }
-        String deviceId = extractDeviceId(topic, topicSettings.getAckSuffix(), 5);
+        String deviceId = route.kind() == MqttRoute.Kind.ACK ? route.deviceId() : null;
         if (deviceId == null) {
-            logger.warn("MQTT ack topic mismatch: {}", topic);
-            return;
+            logger.warn("MQTT ack topic mismatch: {}", route.topic());
+            return null;
         }
         Map<String, Object> payloadMap;
         try {
@@ -106,13 +153,13 @@ public class MqttMessageHandler {
             });
         } catch (Exception ex) {
             logger.warn("Ne udalos razobrat ACK ot {}: {}", deviceId, ex.getMessage());
-            return;
+            return null;
         }
         String correlationId = asString(payloadMap.get("correlation_id"));
         String result = asString(payloadMap.get("result"));
         if (correlationId == null || result == null) {
             logger.warn("ACK payload bez correlation_id/result: {}", payloadMap);
-            return;
+            return null;
         }
         ManualWateringAck ack = new ManualWateringAck(
                 correlationId,
@@ -120,21 +167,16 @@ public class MqttMessageHandler {
                 asString(payloadMap.get("reason")),
                 asString(payloadMap.get("status"))
         );
-        ackStore.put(deviceId, ack);
-
-        LocalDateTime receivedAt = LocalDateTime.now(clock);
-        LocalDateTime expiresAt = resolveExpiresAt(receivedAt);
-        deviceFacade.handleAck(deviceId, correlationId, result, ack.status(), payloadMap, receivedAt, expiresAt);
-        logger.info("MQTT ack stored for {} correlation_id={}", deviceId, correlationId);
+        return new ParsedAck(deviceId, payloadMap, ack);
     }
 
-    public void handleEventMessage(String topic, byte[] payload) {
+    private void handleEvent(MqttRoute route, byte[] payload) {
         if (debugSettings.isDebug()) {
-            logger.info("MQTT DEBUG event topic={} payload={}", topic, safePayload(payload));
+            logger.info("MQTT DEBUG event topic={} payload={}", route.topic(), safePayload(payload));
         }
-        String deviceId = extractDeviceId(topic, topicSettings.getEventsSuffix(), 4);
+        String deviceId = route.kind() == MqttRoute.Kind.EVENT ? route.deviceId() : null;
         if (deviceId == null) {
-            logger.warn("MQTT event topic mismatch: {}", topic);
+            logger.warn("MQTT event topic mismatch: {}", route.topic());
             return;
         }
         DeviceServiceEventMessage event;
@@ -170,123 +212,36 @@ public class MqttMessageHandler {
         return receivedAt.plusSeconds(ttl);
     }
 
-    private String resolveKind(String topic) {
-        if (topic == null) {
-            return "raw";
-        }
-        if (topic.endsWith(topicSettings.getAckSuffix())) {
-            return "ack";
-        }
-        if (topic.endsWith(topicSettings.getEventsSuffix())) {
-            return "event";
-        }
-        if (topic.endsWith(topicSettings.getStateSuffix())) {
-            return "state";
-        }
-        String zigbeeBase = topicSettings.getZigbeeBase();
-        if (zigbeeBase != null && !zigbeeBase.isBlank() && topic.startsWith(zigbeeBase + "/")) {
-            return "zigbee";
-        }
-        String userPrefix = topicSettings.getZigbeeUserPrefix();
-        if (userPrefix != null && !userPrefix.isBlank() && topic.startsWith(userPrefix + "/")) {
-            return "zigbee";
-        }
-        return "raw";
-    }
-
-    private boolean handleZigbeeMessage(String topic, byte[] payload) {
-        String zigbeeBase = topicSettings.getZigbeeBase();
-        if (topic == null) {
-            return false;
-        }
-
-        String mqttUsername = null;
-        String resolvedBaseTopic = null;
-        if (zigbeeBase != null && !zigbeeBase.isBlank() && topic.startsWith(zigbeeBase + "/")) {
-            resolvedBaseTopic = zigbeeBase;
-        } else {
-            String userPrefix = topicSettings.getZigbeeUserPrefix();
-            String prefix = userPrefix != null && !userPrefix.isBlank() ? userPrefix + "/" : null;
-            if (prefix == null || !topic.startsWith(prefix)) {
-                return false;
-            }
-            String afterPrefix = topic.substring(prefix.length());
-            int separator = afterPrefix.indexOf('/');
-            if (separator <= 0) {
-                return true;
-            }
-            mqttUsername = afterPrefix.substring(0, separator);
-            resolvedBaseTopic = userPrefix + "/" + mqttUsername;
-        }
-
-        String relativeTopic = topic.substring(resolvedBaseTopic.length() + 1);
-        ZigbeeMqttMessageType type = null;
-        String friendlyName = null;
-
-        if ("bridge/state".equals(relativeTopic)) {
-            type = ZigbeeMqttMessageType.BRIDGE_STATE;
-        } else if ("bridge/info".equals(relativeTopic)) {
-            type = ZigbeeMqttMessageType.BRIDGE_INFO;
-        } else if ("bridge/devices".equals(relativeTopic)) {
-            type = ZigbeeMqttMessageType.BRIDGE_DEVICES;
-        } else if (relativeTopic.startsWith("bridge/response/")) {
-            type = ZigbeeMqttMessageType.COMMAND_RESPONSE;
-        } else if (!relativeTopic.startsWith("bridge/")) {
-            if (relativeTopic.endsWith("/availability")) {
-                friendlyName = relativeTopic.substring(0, relativeTopic.length() - "/availability".length());
-                type = ZigbeeMqttMessageType.DEVICE_AVAILABILITY;
-            } else if (!relativeTopic.contains("/")) {
-                friendlyName = relativeTopic;
-                type = ZigbeeMqttMessageType.DEVICE_STATE;
-            }
-        }
-
-        if (type == null) {
-            return true;
+    private void handleZigbee(MqttRoute route, byte[] payload) {
+        if (route.zigbeeType() == null) {
+            return;
         }
-
         String rawPayload = safePayload(payload);
-        Object parsedPayload = parseJson(rawPayload);
         zigbeeFacade.handleMqttSnapshot(new ZigbeeMqttSnapshotMessage(
-                mqttUsername,
-                resolvedBaseTopic,
-                type,
-                topic,
-                relativeTopic,
-                friendlyName,
+                route.mqttUsername(),
+                route.baseTopic(),
+                route.zigbeeType(),
+                route.topic(),
+                route.relativeTopic(),
+                route.friendlyName(),
                 rawPayload,
-                parsedPayload,
+                parseJson(payload, rawPayload),
                 LocalDateTime.now(clock)
         ));
-        return true;
     }
 
-    private Object parseJson(String rawPayload) {
-        if (rawPayload == null || rawPayload.isBlank()) {
+    // Translitem: Jackson chitaet ishodnyj byte[] napryamuju; rawPayload nuzhen zigbee dlja hranenija snimka.
+    private Object parseJson(byte[] payload, String rawPayload) {
+        if (rawPayload.isBlank()) {
             return rawPayload;
         }
         try {
-            return objectMapper.readValue(rawPayload, Object.class);
+            return objectMapper.readValue(payload, Object.class);
         } catch (Exception ex) {
             return rawPayload;
         }
     }
 
-    private String extractDeviceId(String topic, String suffix, int expectedParts) {
-        if (topic == null || !topic.endsWith(suffix)) {
-            return null;
-        }
-        String[] parts = topic.split("/");
-        if (parts.length != expectedParts) {
-            return null;
-        }
-        if (!"gh".equals(parts[0]) || !"dev".equals(parts[1])) {
-            return null;
-        }
-        String deviceId = parts[2];
-        return deviceId == null || deviceId.isBlank() ? null : deviceId;
-    }
-
     private String asString(Object value) {
         if (value == null) {
             return null;
@@ -368,4 +323,7 @@ public class MqttMessageHandler {
                 scenarios
         );
     }
+
+    private record ParsedAck(String deviceId, Map<String, Object> payloadMap, ManualWateringAck ack) {
+    }
 }
@@ -2,113 +2,229 @@ package ru.growerhub.backend.mqtt;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import org.springframework.stereotype.Component;
+import ru.growerhub.backend.common.config.mqtt.MqttMessageLogSettings;
 
+// Zhurnal poslednih MQTT soobshchenij: kol'cevoj bufer bez blokirovok, v slote - syrye bajty payload i vremja v ms;
+// dekodirovanie v String i LocalDateTime tol'ko pri chtenii /api/admin/mqtt/messages.
 @Component
 public class MqttMessageLog {
-    private final Deque<MqttRecordedMessage> messages = new ArrayDeque<>();
-    private final AtomicLong sequence = new AtomicLong();
-    private final MqttSettings settings;
+    private static final String INBOUND = "in";
+    private static final String OUTBOUND = "out";
+
     private final Clock clock;
+    private final boolean enabled;
+    private final boolean outboundEnabled;
+    private final int capacity;
+    private final int maxPayloadChars;
+    private final int maxPayloadBytes;
+    private final int sampleEvery;
+    private final String[][] topicFilters;
+    private final List<String> kinds;
+    private final AtomicReferenceArray<Slot> slots;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong offered = new AtomicLong();
+    private volatile long clearedThrough;
 
-    public MqttMessageLog(MqttSettings settings, Clock clock) {
-        this.settings = settings;
+    public MqttMessageLog(MqttSettings settings, MqttMessageLogSettings logSettings, Clock clock) {
         this.clock = clock;
+        this.enabled = logSettings.isEnabled();
+        this.outboundEnabled = logSettings.isOutbound();
+        this.capacity = Math.max(1, settings.getRecentMessagesLimit());
+        this.maxPayloadChars = Math.max(1, settings.getRecentPayloadChars());
+        // Translitem: simvol BMP zanimaet v UTF-8 ne bol'she 3 bajt - pervye maxPayloadChars simvolov vsegda celikom.
+        this.maxPayloadBytes = (int) Math.min(Integer.MAX_VALUE, maxPayloadChars * 3L);
+        this.sampleEvery = Math.max(1, logSettings.getSampleEvery());
+        this.topicFilters = logSettings.getTopicFilters().stream()
+                .filter(filter -> filter != null && !filter.isBlank())
+                .map(filter -> filter.trim().split("/", -1))
+                .toArray(String[][]::new);
+        this.kinds = logSettings.getKinds().stream()
+                .filter(kind -> kind != null && !kind.isBlank())
+                .map(kind -> kind.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        this.slots = enabled ? new AtomicReferenceArray<>(capacity) : null;
     }
 
     public void recordInbound(String topic, byte[] payload, String kind) {
-        record("in", topic, resolveSender(topic, null), kind, payload);
+        if (!enabled) {
+            return;
+        }
+        record(INBOUND, topic, MqttTopicRouter.resolveSender(topic), kind, payload);
+    }
+
+    public void recordInbound(MqttRoute route, byte[] payload) {
+        if (!enabled) {
+            return;
+        }
+        record(INBOUND, route.topic(), route.sender(), route.logKind(), payload);
     }
 
     public void recordOutbound(String topic, byte[] payload) {
-        record("out", topic, "backend", "cmd", payload);
+        if (!enabled || !outboundEnabled) {
+            return;
+        }
+        record(OUTBOUND, topic, "backend", "cmd", payload);
     }
 
-    public synchronized List<MqttRecordedMessage> list(String topicFilter, String senderFilter, Integer limit) {
+    public List<MqttRecordedMessage> list(String topicFilter, String senderFilter, Integer limit) {
+        if (!enabled) {
+            return List.of();
+        }
         String normalizedTopic = normalizeFilter(topicFilter);
         String normalizedSender = normalizeFilter(senderFilter);
         int resolvedLimit = resolveLimit(limit);
+        long newest = sequence.get();
+        long oldest = Math.max(clearedThrough + 1, newest - capacity + 1);
         List<MqttRecordedMessage> result = new ArrayList<>();
-        for (MqttRecordedMessage message : messages) {
-            if (!matches(message.topic(), normalizedTopic)) {
+        for (long id = newest; id >= oldest && result.size() < resolvedLimit; id--) {
+            Slot slot = slots.get(slotIndex(id));
+            // Translitem: slot uzhe perezapisan bolee novym soobshcheniem ili zapis' eshche ne opublikovana.
+            if (slot == null || slot.id() != id) {
                 continue;
             }
-            if (!matches(message.sender(), normalizedSender)) {
+            if (!matches(slot.topic(), normalizedTopic) || !matches(slot.sender(), normalizedSender)) {
                 continue;
             }
-            result.add(message);
-            if (result.size() >= resolvedLimit) {
-                break;
-            }
+            result.add(toMessage(slot));
         }
         return result;
     }
 
-    public synchronized void clear() {
-        messages.clear();
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+        long through = sequence.get();
+        clearedThrough = through;
+        for (int index = 0; index < capacity; index++) {
+            Slot slot = slots.get(index);
+            if (slot != null && slot.id() <= through) {
+                slots.compareAndSet(index, slot, null);
+            }
+        }
     }
 
-    private synchronized void record(String direction, String topic, String sender, String kind, byte[] payload) {
-        int capacity = Math.max(1, settings.getRecentMessagesLimit());
-        messages.addFirst(new MqttRecordedMessage(
-                sequence.incrementAndGet(),
-                LocalDateTime.now(clock),
-                direction,
-                topic,
-                sender,
-                kind,
-                safePayload(payload)
-        ));
-        while (messages.size() > capacity) {
-            messages.removeLast();
+    private void record(String direction, String topic, String sender, String kind, byte[] payload) {
+        if (!accepts(topic, kind)) {
+            return;
         }
+        if (sampleEvery > 1 && offered.getAndIncrement() % sampleEvery != 0) {
+            return;
+        }
+        long id = sequence.incrementAndGet();
+        Slot slot = new Slot(id, clock.millis(), direction, topic, sender, kind, capture(payload));
+        int index = slotIndex(id);
+        // Translitem: otstavshij pisatel' ne zatiraet slot, uzhe zanjatyj soobshcheniem sledujushchego kruga.
+        Slot current;
+        do {
+            current = slots.get(index);
+            if (current != null && current.id() > id) {
+                return;
+            }
+        } while (!slots.compareAndSet(index, current, slot));
     }
 
-    private int resolveLimit(Integer limit) {
-        int capacity = Math.max(1, settings.getRecentMessagesLimit());
-        if (limit == null || limit <= 0) {
-            return capacity;
+    // Translitem: payload ne kopiruetsja - Paho i publisher otdajut novyj massiv na kazhdoe soobshchenie;
+    // kopija tol'ko dlja obrezki bol'shih payload (bridge/devices), chtoby bufer ne derzhal ih celikom.
+    private byte[] capture(byte[] payload) {
+        if (payload == null || payload.length <= maxPayloadBytes) {
+            return payload;
         }
-        return Math.min(limit, capacity);
+        return Arrays.copyOf(payload, maxPayloadBytes);
     }
 
-    private String safePayload(byte[] payload) {
+    private boolean accepts(String topic, String kind) {
+        if (!kinds.isEmpty() && (kind == null || !kinds.contains(kind))) {
+            return false;
+        }
+        if (topicFilters.length == 0) {
+            return true;
+        }
+        if (topic == null) {
+            return false;
+        }
+        for (String[] filter : topicFilters) {
+            if (matchesTopicFilter(filter, topic)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Translitem: MQTT-fil'tr po urovnjam ('+' - odin uroven', '#' - ostatok vkljuchaja roditelja) bez split topika.
+    static boolean matchesTopicFilter(String[] filterLevels, String topic) {
+        int position = 0;
+        for (String level : filterLevels) {
+            if ("#".equals(level)) {
+                return true;
+            }
+            if (position > topic.length()) {
+                return false;
+            }
+            int end = topic.indexOf('/', position);
+            if (end < 0) {
+                end = topic.length();
+            }
+            if (!"+".equals(level)
+                    && (level.length() != end - position || !topic.regionMatches(position, level, 0, level.length()))) {
+                return false;
+            }
+            position = end + 1;
+        }
+        return position == topic.length() + 1;
+    }
+
+    private MqttRecordedMessage toMessage(Slot slot) {
+        return new MqttRecordedMessage(
+                slot.id(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(slot.epochMillis()), clock.getZone()),
+                slot.direction(),
+                slot.topic(),
+                slot.sender(),
+                slot.kind(),
+                decodePayload(slot.payload())
+        );
+    }
+
+    private String decodePayload(byte[] payload) {
         if (payload == null || payload.length == 0) {
             return "";
         }
         String text = new String(payload, StandardCharsets.UTF_8);
-        int maxChars = Math.max(1, settings.getRecentPayloadChars());
-        if (text.length() <= maxChars) {
+        if (text.length() <= maxPayloadChars) {
             return text;
         }
-        return text.substring(0, maxChars);
+        return text.substring(0, maxPayloadChars);
     }
 
-    private String resolveSender(String topic, String fallback) {
-        if (topic == null) {
-            return fallback;
-        }
-        String[] parts = topic.split("/");
-        if (parts.length >= 3 && "gh".equals(parts[0]) && "dev".equals(parts[1]) && !parts[2].isBlank()) {
-            return parts[2];
+    private int slotIndex(long id) {
+        return (int) (id % capacity);
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return capacity;
         }
-        return fallback;
+        return Math.min(limit, capacity);
     }
 
     private String normalizeFilter(String value) {
         if (value == null || value.isBlank()) {
             return null;
         }
-        return value.trim().toLowerCase(Locale.ROOT);
+        return value.trim();
     }
 
+    // Translitem: regionMatches bez toLowerCase - poisk po zhurnalu ne sozdaet kopij topikov.
     private boolean matches(String value, String filter) {
         if (filter == null) {
             return true;
@@ -116,6 +232,23 @@ public class MqttMessageLog {
         if (value == null) {
             return false;
         }
-        return value.toLowerCase(Locale.ROOT).contains(filter);
+        int last = value.length() - filter.length();
+        for (int offset = 0; offset <= last; offset++) {
+            if (value.regionMatches(true, offset, filter, 0, filter.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Slot(
+            long id,
+            long epochMillis,
+            String direction,
+            String topic,
+            String sender,
+            String kind,
+            byte[] payload
+    ) {
     }
 }
@@ -0,0 +1,94 @@
+package ru.growerhub.backend.mqtt;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.common.config.mqtt.MqttPublishSettings;
+
+// Metriki ishodjashchih MQTT publikacij: okno in-flight i gistogramma vremeni ot publish do PUBACK.
+@Component
+public class MqttPublishMetrics {
+    private static final long[] BUCKETS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500};
+
+    private final MqttPublishSettings settings;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS_MS.length + 1);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    public MqttPublishMetrics(MqttPublishSettings settings) {
+        this.settings = settings;
+    }
+
+    void recordPublished() {
+        published.incrementAndGet();
+        inFlight.incrementAndGet();
+    }
+
+    void recordRetried() {
+        retried.incrementAndGet();
+    }
+
+    void recordRejected() {
+        rejected.incrementAndGet();
+    }
+
+    void recordCompleted(long durationMs, boolean success) {
+        inFlight.decrementAndGet();
+        if (!success) {
+            failed.incrementAndGet();
+            return;
+        }
+        int index = 0;
+        while (index < BUCKETS_MS.length && durationMs > BUCKETS_MS[index]) {
+            index++;
+        }
+        buckets.incrementAndGet(index);
+        delivered.incrementAndGet();
+        totalMs.addAndGet(durationMs);
+        maxMs.accumulateAndGet(durationMs, Math::max);
+    }
+
+    public Snapshot snapshot() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS_MS.length; i++) {
+            histogram.put("le_" + BUCKETS_MS[i] + "ms", buckets.get(i));
+        }
+        histogram.put("gt_" + BUCKETS_MS[BUCKETS_MS.length - 1] + "ms", buckets.get(BUCKETS_MS.length));
+        long deliveredCount = delivered.get();
+        return new Snapshot(
+                Math.max(1, settings.getMaxInFlight()),
+                inFlight.get(),
+                published.get(),
+                deliveredCount,
+                failed.get(),
+                retried.get(),
+                rejected.get(),
+                deliveredCount > 0 ? (double) totalMs.get() / deliveredCount : null,
+                deliveredCount > 0 ? maxMs.get() : null,
+                histogram
+        );
+    }
+
+    public record Snapshot(
+            int maxInFlight,
+            int inFlight,
+            long published,
+            long delivered,
+            long failed,
+            long retried,
+            long rejected,
+            Double avgMs,
+            Long maxMs,
+            Map<String, Long> histogram
+    ) {
+    }
+}
@@ -1,9 +1,22 @@
 ﻿package ru.growerhub.backend.mqtt;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface MqttPublisher {
     void publishCmd(String deviceId, Object cmd);
 
     default void publishJson(String topic, Object payload, int qos, boolean retained) {
         throw new UnsupportedOperationException("generic MQTT publish is unavailable");
     }
+
+    // Translitem: iskljuchenie - soobshchenie ne prinjato v okno; future zavershaetsja pri PUBACK ili oshibke dostavki.
+    default CompletableFuture<Void> publishCmdAsync(String deviceId, Object cmd) {
+        publishCmd(deviceId, cmd);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    default CompletableFuture<Void> publishJsonAsync(String topic, Object payload, int qos, boolean retained) {
+        publishJson(topic, payload, qos, retained);
+        return CompletableFuture.completedFuture(null);
+    }
 }
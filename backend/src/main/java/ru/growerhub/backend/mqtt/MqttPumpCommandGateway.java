@@ -1,9 +1,15 @@
 ﻿package ru.growerhub.backend.mqtt;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import ru.growerhub.backend.common.contract.DomainException;
+import ru.growerhub.backend.device.DeviceFacade;
+import ru.growerhub.backend.device.contract.DeviceAck;
 import ru.growerhub.backend.mqtt.model.CmdPumpStart;
 import ru.growerhub.backend.mqtt.model.CmdPumpStop;
 import ru.growerhub.backend.mqtt.model.CmdReboot;
@@ -13,48 +19,107 @@ import ru.growerhub.backend.pump.contract.PumpCommandGateway;
 
 @Component
 public class MqttPumpCommandGateway implements PumpCommandGateway {
+    private static final Logger logger = LoggerFactory.getLogger(MqttPumpCommandGateway.class);
+
     private final ObjectProvider<MqttPublisher> publisherProvider;
     private final AckStore ackStore;
+    private final ObjectProvider<DeviceFacade> deviceFacadeProvider;
 
-    public MqttPumpCommandGateway(ObjectProvider<MqttPublisher> publisherProvider, AckStore ackStore) {
+    public MqttPumpCommandGateway(
+            ObjectProvider<MqttPublisher> publisherProvider,
+            AckStore ackStore,
+            ObjectProvider<DeviceFacade> deviceFacadeProvider
+    ) {
         this.publisherProvider = publisherProvider;
         this.ackStore = ackStore;
+        this.deviceFacadeProvider = deviceFacadeProvider;
     }
 
     @Override
-    public void publishStart(String deviceId, String correlationId, LocalDateTime startedAt, Integer durationS) {
+    public CompletableFuture<Void> publishStart(
+            String deviceId,
+            String correlationId,
+            LocalDateTime startedAt,
+            Integer durationS
+    ) {
         CmdPumpStart cmd = new CmdPumpStart("pump.start", correlationId, startedAt, durationS);
-        publishCommand(deviceId, cmd);
+        return publishCommand(deviceId, correlationId, cmd);
     }
 
     @Override
-    public void publishStop(String deviceId, String correlationId, LocalDateTime issuedAt) {
+    public CompletableFuture<Void> publishStop(String deviceId, String correlationId, LocalDateTime issuedAt) {
         CmdPumpStop cmd = new CmdPumpStop("pump.stop", correlationId, issuedAt);
-        publishCommand(deviceId, cmd);
+        return publishCommand(deviceId, correlationId, cmd);
     }
 
     @Override
-    public void publishReboot(String deviceId, String correlationId, long issuedAt) {
+    public CompletableFuture<Void> publishReboot(String deviceId, String correlationId, long issuedAt) {
         CmdReboot cmd = new CmdReboot("reboot", correlationId, issuedAt);
-        publishCommand(deviceId, cmd);
+        return publishCommand(deviceId, correlationId, cmd);
     }
 
     @Override
     public PumpAck getAck(String correlationId) {
         ManualWateringAck ack = ackStore.get(correlationId);
+        if (ack == null) {
+            ack = loadStoredAck(correlationId);
+        }
         if (ack == null) {
             return null;
         }
+        return toPumpAck(ack);
+    }
+
+    @Override
+    public CompletableFuture<PumpAck> awaitAck(String correlationId, Duration timeout) {
+        // Translitem: ACK mog prijti na drugoj uzel do podpiski etogo na shinu izmenenij - snachala mqtt_ack.
+        if (ackStore.get(correlationId) == null) {
+            loadStoredAck(correlationId);
+        }
+        return ackStore.await(correlationId, timeout).thenApply(this::toPumpAck);
+    }
+
+    // Translitem: promah pamjati uzla - ACK mog prijti na drugoj uzel, a soobshchenie shiny poterjat'sja.
+    // Najdennyj ACK kladetsja v AckStore, sledujushchie tiki sessii ne hodjat v BD.
+    private ManualWateringAck loadStoredAck(String correlationId) {
+        DeviceFacade deviceFacade = deviceFacadeProvider.getIfAvailable();
+        if (deviceFacade == null || correlationId == null) {
+            return null;
+        }
+        DeviceAck stored = deviceFacade.findAck(correlationId);
+        if (stored == null) {
+            return null;
+        }
+        ManualWateringAck ack = new ManualWateringAck(
+                stored.correlationId(),
+                stored.result(),
+                stored.reason(),
+                stored.status()
+        );
+        ackStore.putLocal(stored.deviceId(), ack);
+        return ack;
+    }
+
+    private PumpAck toPumpAck(ManualWateringAck ack) {
         return new PumpAck(ack.correlationId(), ack.result(), ack.reason(), ack.status());
     }
 
-    private void publishCommand(String deviceId, Object cmd) {
+    private CompletableFuture<Void> publishCommand(String deviceId, String correlationId, Object cmd) {
         MqttPublisher publisher = publisherProvider.getIfAvailable();
         if (publisher == null) {
             throw new DomainException("unavailable", "MQTT publisher unavailable");
         }
         try {
-            publisher.publishCmd(deviceId, cmd);
+            return publisher.publishCmdAsync(deviceId, cmd).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    logger.warn(
+                            "Komanda {} dlja {} ne dostavlena brokeru: {}",
+                            correlationId,
+                            deviceId,
+                            error.getMessage()
+                    );
+                }
+            });
         } catch (DomainException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -0,0 +1,25 @@
+package ru.growerhub.backend.mqtt;
+
+import ru.growerhub.backend.zigbee.contract.ZigbeeMqttMessageType;
+
+// Rezul'tat odnogo razbora topika: vid soobshchenija i vse chasti, nuzhnye obrabotchiku i logu.
+public record MqttRoute(
+        Kind kind,
+        String topic,
+        String logKind,
+        String sender,
+        String deviceId,
+        String mqttUsername,
+        String baseTopic,
+        String relativeTopic,
+        ZigbeeMqttMessageType zigbeeType,
+        String friendlyName
+) {
+    public enum Kind {
+        STATE,
+        ACK,
+        EVENT,
+        ZIGBEE,
+        RAW
+    }
+}
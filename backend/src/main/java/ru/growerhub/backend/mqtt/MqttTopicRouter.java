@@ -0,0 +1,207 @@
+package ru.growerhub.backend.mqtt;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.common.config.mqtt.MqttTopicSettings;
+import ru.growerhub.backend.zigbee.contract.ZigbeeMqttMessageType;
+
+// Marshrutizacija vhodjashchih topikov: prefiksy/suffiksy iz MqttTopicSettings vychisljajutsja odin raz,
+// topik razbiraetsja za odin prohod, gotovyj MqttRoute kesiruetsja po topiku s clock-vytesneniem.
+@Component
+public class MqttTopicRouter {
+    static final String DEVICE_PREFIX = "gh/dev/";
+    // Translitem: topiki per-device - pri zapolnenii vytesnjajutsja marshruty bez obrashchenij s proshlogo prohoda.
+    static final int ROUTE_CACHE_LIMIT = 16384;
+
+    private static final String BRIDGE_PREFIX = "bridge/";
+    private static final String BRIDGE_RESPONSE_PREFIX = "bridge/response/";
+    private static final String AVAILABILITY_SUFFIX = "/availability";
+    private static final MqttRoute NULL_TOPIC_ROUTE = new MqttRoute(
+            MqttRoute.Kind.RAW, null, "raw", null, null, null, null, null, null, null
+    );
+
+    private final String stateSuffix;
+    private final String ackSuffix;
+    private final String eventsSuffix;
+    private final String zigbeeBase;
+    private final String zigbeeBasePrefix;
+    private final String zigbeeUserPrefixWithSlash;
+    private final ConcurrentMap<String, CachedRoute> routes = new ConcurrentHashMap<>();
+
+    public MqttTopicRouter(MqttTopicSettings settings) {
+        this.stateSuffix = settings.getStateSuffix();
+        this.ackSuffix = settings.getAckSuffix();
+        this.eventsSuffix = settings.getEventsSuffix();
+        String base = settings.getZigbeeBase();
+        this.zigbeeBase = base != null && !base.isBlank() ? base : null;
+        this.zigbeeBasePrefix = zigbeeBase != null ? zigbeeBase + "/" : null;
+        String userPrefix = settings.getZigbeeUserPrefix();
+        this.zigbeeUserPrefixWithSlash = userPrefix != null && !userPrefix.isBlank() ? userPrefix + "/" : null;
+    }
+
+    public MqttRoute route(String topic) {
+        if (topic == null) {
+            return NULL_TOPIC_ROUTE;
+        }
+        CachedRoute cached = routes.get(topic);
+        if (cached != null) {
+            cached.referenced = true;
+            return cached.route;
+        }
+        MqttRoute route = parse(topic);
+        if (routes.size() >= ROUTE_CACHE_LIMIT) {
+            sweep();
+        }
+        CachedRoute existing = routes.putIfAbsent(topic, new CachedRoute(route));
+        return existing != null ? existing.route : route;
+    }
+
+    // Translitem: clock (second chance) - udaljajutsja marshruty bez obrashchenija s proshlogo prohoda (musornye i
+    // ushedshie ustrojstva), u ostal'nyh flag sbrasyvaetsja; chistim do 90% limita, chtoby prohod ne shel na kazhdyj topik.
+    private synchronized void sweep() {
+        if (routes.size() < ROUTE_CACHE_LIMIT) {
+            return;
+        }
+        routes.values().removeIf(entry -> {
+            boolean referenced = entry.referenced;
+            entry.referenced = false;
+            return !referenced;
+        });
+        int target = ROUTE_CACHE_LIMIT - ROUTE_CACHE_LIMIT / 10;
+        Iterator<String> iterator = routes.keySet().iterator();
+        while (routes.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    // Translitem: gh/dev/{id}/... -> id (otpravitel' v zhurnale MQTT), bez split po vsemu topiku.
+    static String resolveSender(String topic) {
+        if (topic == null || !topic.startsWith(DEVICE_PREFIX)) {
+            return null;
+        }
+        int end = topic.indexOf('/', DEVICE_PREFIX.length());
+        String segment = topic.substring(DEVICE_PREFIX.length(), end >= 0 ? end : topic.length());
+        return segment.isBlank() ? null : segment;
+    }
+
+    int cachedRoutes() {
+        return routes.size();
+    }
+
+    MqttRoute parse(String topic) {
+        String sender = resolveSender(topic);
+        String logKind = resolveLogKind(topic);
+        // Translitem: zigbee proverjaetsja pervym - topiki koordinatora ne dolzhny popast' v obrabotku ustrojstv.
+        MqttRoute zigbee = parseZigbee(topic, logKind, sender);
+        if (zigbee != null) {
+            return zigbee;
+        }
+        if (topic.endsWith(ackSuffix)) {
+            return deviceRoute(MqttRoute.Kind.ACK, topic, logKind, sender, ackSuffix);
+        }
+        if (topic.endsWith(eventsSuffix)) {
+            return deviceRoute(MqttRoute.Kind.EVENT, topic, logKind, sender, eventsSuffix);
+        }
+        if (topic.endsWith(stateSuffix)) {
+            return deviceRoute(MqttRoute.Kind.STATE, topic, logKind, sender, stateSuffix);
+        }
+        return new MqttRoute(MqttRoute.Kind.RAW, topic, logKind, sender, null, null, null, null, null, null);
+    }
+
+    private String resolveLogKind(String topic) {
+        if (topic.endsWith(ackSuffix)) {
+            return "ack";
+        }
+        if (topic.endsWith(eventsSuffix)) {
+            return "event";
+        }
+        if (topic.endsWith(stateSuffix)) {
+            return "state";
+        }
+        if (matchesZigbeeBase(topic) || matchesZigbeeUserPrefix(topic)) {
+            return "zigbee";
+        }
+        return "raw";
+    }
+
+    // Translitem: deviceId tol'ko dlja tochnogo gh/dev/{id}{suffix}; inache null i obrabotchik pishet mismatch.
+    private MqttRoute deviceRoute(MqttRoute.Kind kind, String topic, String logKind, String sender, String suffix) {
+        String deviceId = null;
+        if (sender != null && topic.length() == DEVICE_PREFIX.length() + sender.length() + suffix.length()) {
+            deviceId = sender;
+        }
+        return new MqttRoute(kind, topic, logKind, sender, deviceId, null, null, null, null, null);
+    }
+
+    // Translitem: null - topik ne zigbee; type == null - topik zigbee, no obrabatyvat' nechego.
+    private MqttRoute parseZigbee(String topic, String logKind, String sender) {
+        String mqttUsername = null;
+        String baseTopic;
+        if (matchesZigbeeBase(topic)) {
+            baseTopic = zigbeeBase;
+        } else if (matchesZigbeeUserPrefix(topic)) {
+            int usernameStart = zigbeeUserPrefixWithSlash.length();
+            int separator = topic.indexOf('/', usernameStart);
+            if (separator <= usernameStart) {
+                return new MqttRoute(MqttRoute.Kind.ZIGBEE, topic, logKind, sender, null, null, null, null, null, null);
+            }
+            mqttUsername = topic.substring(usernameStart, separator);
+            baseTopic = topic.substring(0, separator);
+        } else {
+            return null;
+        }
+
+        String relativeTopic = topic.substring(baseTopic.length() + 1);
+        ZigbeeMqttMessageType type = null;
+        String friendlyName = null;
+        if ("bridge/state".equals(relativeTopic)) {
+            type = ZigbeeMqttMessageType.BRIDGE_STATE;
+        } else if ("bridge/info".equals(relativeTopic)) {
+            type = ZigbeeMqttMessageType.BRIDGE_INFO;
+        } else if ("bridge/devices".equals(relativeTopic)) {
+            type = ZigbeeMqttMessageType.BRIDGE_DEVICES;
+        } else if (relativeTopic.startsWith(BRIDGE_RESPONSE_PREFIX)) {
+            type = ZigbeeMqttMessageType.COMMAND_RESPONSE;
+        } else if (!relativeTopic.startsWith(BRIDGE_PREFIX)) {
+            if (relativeTopic.endsWith(AVAILABILITY_SUFFIX)) {
+                friendlyName = relativeTopic.substring(0, relativeTopic.length() - AVAILABILITY_SUFFIX.length());
+                type = ZigbeeMqttMessageType.DEVICE_AVAILABILITY;
+            } else if (relativeTopic.indexOf('/') < 0) {
+                friendlyName = relativeTopic;
+                type = ZigbeeMqttMessageType.DEVICE_STATE;
+            }
+        }
+        return new MqttRoute(
+                MqttRoute.Kind.ZIGBEE,
+                topic,
+                logKind,
+                sender,
+                null,
+                mqttUsername,
+                baseTopic,
+                relativeTopic,
+                type,
+                friendlyName
+        );
+    }
+
+    private boolean matchesZigbeeBase(String topic) {
+        return zigbeeBasePrefix != null && topic.startsWith(zigbeeBasePrefix);
+    }
+
+    private boolean matchesZigbeeUserPrefix(String topic) {
+        return zigbeeUserPrefixWithSlash != null && topic.startsWith(zigbeeUserPrefixWithSlash);
+    }
+
+    private static final class CachedRoute {
+        private final MqttRoute route;
+        private volatile boolean referenced;
+
+        private CachedRoute(MqttRoute route) {
+            this.route = route;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package ru.growerhub.backend.mqtt;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import ru.growerhub.backend.common.contract.DomainException;
@@ -8,37 +11,44 @@ import ru.growerhub.backend.zigbee.contract.ZigbeeCommandGateway;
 
 @Component
 public class MqttZigbeeCommandGateway implements ZigbeeCommandGateway {
+    private static final Logger logger = LoggerFactory.getLogger(MqttZigbeeCommandGateway.class);
+
     private final ObjectProvider<MqttPublisher> publisherProvider;
+
     public MqttZigbeeCommandGateway(ObjectProvider<MqttPublisher> publisherProvider) {
         this.publisherProvider = publisherProvider;
     }
 
     @Override
-    public void publishPermitJoin(String baseTopic, int seconds) {
-        publish(bridgeTopic(baseTopic, "request/permit_join"), Map.of("time", seconds));
+    public CompletableFuture<Void> publishPermitJoin(String baseTopic, int seconds) {
+        return publish(bridgeTopic(baseTopic, "request/permit_join"), Map.of("time", seconds));
     }
 
     @Override
-    public void publishSet(String baseTopic, String friendlyName, Map<String, Object> payload) {
-        publish(baseTopic + "/" + friendlyName + "/set", payload);
+    public CompletableFuture<Void> publishSet(String baseTopic, String friendlyName, Map<String, Object> payload) {
+        return publish(baseTopic + "/" + friendlyName + "/set", payload);
     }
 
     @Override
-    public void publishRename(String baseTopic, String fromFriendlyName, String toFriendlyName) {
-        publish(bridgeTopic(baseTopic, "request/device/rename"), Map.of(
+    public CompletableFuture<Void> publishRename(String baseTopic, String fromFriendlyName, String toFriendlyName) {
+        return publish(bridgeTopic(baseTopic, "request/device/rename"), Map.of(
                 "from", fromFriendlyName,
                 "to", toFriendlyName,
                 "homeassistant_rename", false
         ));
     }
 
-    private void publish(String topic, Object payload) {
+    private CompletableFuture<Void> publish(String topic, Object payload) {
         MqttPublisher publisher = publisherProvider.getIfAvailable();
         if (publisher == null) {
             throw new DomainException("unavailable", "MQTT publisher unavailable");
         }
         try {
-            publisher.publishJson(topic, payload, 1, false);
+            return publisher.publishJsonAsync(topic, payload, 1, false).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    logger.warn("Zigbee komanda {} ne dostavlena brokeru: {}", topic, error.getMessage());
+                }
+            });
         } catch (Exception ex) {
             throw new DomainException("bad_gateway", "Failed to publish Zigbee MQTT command");
         }
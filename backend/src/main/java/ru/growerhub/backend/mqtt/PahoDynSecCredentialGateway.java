@@ -2,17 +2,28 @@ package ru.growerhub.backend.mqtt;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.nio.charset.StandardCharsets;
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
-import org.eclipse.paho.client.mqttv3.MqttClient;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 import org.springframework.stereotype.Component;
@@ -29,6 +40,13 @@ public class PahoDynSecCredentialGateway implements ZigbeeBrokerCredentialGatewa
     private final MqttProvisioningSettings settings;
     private final MqttTopicSettings topicSettings;
     private final ObjectMapper objectMapper;
+    private final Queue<Operation> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    // Translitem: porjadok vstavki nuzhen dlja sopostavlenija otvetov bez correlationData (Mosquitto 2.0).
+    private final Map<String, Batch> pending = new LinkedHashMap<>();
+    private final Object sessionLock = new Object();
+    private MqttAsyncClient session;
+    private boolean sessionReady;
 
     public PahoDynSecCredentialGateway(
             MqttProvisioningSettings settings,
@@ -93,65 +111,278 @@ public class PahoDynSecCredentialGateway implements ZigbeeBrokerCredentialGatewa
         ));
     }
 
-    private synchronized void execute(List<Map<String, Object>> commands) {
+    // Translitem: operacija stavitsja v ochered' obshchej sessii; vyzyvajushchij zhdet tol'ko svoj srez otveta.
+    private void execute(List<Map<String, Object>> commands) {
         validateSettings();
+        Operation operation = new Operation(List.copyOf(commands), new CompletableFuture<>());
+        queue.add(operation);
+        flushQueue();
+        List<JsonNode> responses;
+        try {
+            responses = operation.result().get(responseTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new DomainException("bad_gateway", "Mosquitto Dynamic Security не ответил вовремя");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DomainException("bad_gateway", "Настройка MQTT прервана");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof DomainException domainException) {
+                throw domainException;
+            }
+            throw new DomainException("bad_gateway", "Настройка MQTT недоступна");
+        }
+        validateResponse(responses);
+    }
+
+    // Translitem: group commit - odin vyzov stanovitsja liderom i otpravljaet vse nakoplennye operacii,
+    // ostal'nye tol'ko zhdut svoi future; cikl podbiraet operacii, dobavlennye vo vremja otpravki.
+    private void flushQueue() {
+        while (!queue.isEmpty() && flushing.compareAndSet(false, true)) {
+            try {
+                lingerForNeighbours();
+                List<Operation> batch = drainBatch();
+                if (!batch.isEmpty()) {
+                    sendBatch(batch);
+                }
+            } finally {
+                flushing.set(false);
+            }
+        }
+    }
+
+    // Translitem: zhdem sosedej tol'ko kogda uzhe est' zaprosy v polete - posledovatel'nye vyzovy ne platjat zaderzhku.
+    private void lingerForNeighbours() {
+        long windowMs = settings.getBatchWindowMs();
+        boolean inFlight;
+        synchronized (pending) {
+            inFlight = !pending.isEmpty();
+        }
+        if (windowMs <= 0 || !inFlight) {
+            return;
+        }
+        try {
+            Thread.sleep(windowMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Operation> drainBatch() {
+        int maxCommands = Math.max(1, settings.getMaxBatchCommands());
+        List<Operation> batch = new ArrayList<>();
+        int commandCount = 0;
+        Operation next;
+        while ((next = queue.peek()) != null) {
+            if (!batch.isEmpty() && commandCount + next.commands().size() > maxCommands) {
+                break;
+            }
+            queue.poll();
+            batch.add(next);
+            commandCount += next.commands().size();
+        }
+        return batch;
+    }
+
+    private void sendBatch(List<Operation> operations) {
         String correlationData = UUID.randomUUID().toString();
-        Map<String, Object> request = Map.of(
-                "commands", commands,
-                "correlationData", correlationData
-        );
+        List<Map<String, Object>> commands = new ArrayList<>();
+        for (Operation operation : operations) {
+            commands.addAll(operation.commands());
+        }
+        Batch batch = new Batch(correlationData, operations, commands, new CompletableFuture<>());
+        batch.response()
+                .orTimeout(responseTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((response, error) -> {
+                    synchronized (pending) {
+                        pending.remove(correlationData);
+                    }
+                    completeOperations(batch, response, error);
+                });
         byte[] payload;
         try {
-            payload = objectMapper.writeValueAsBytes(request);
+            payload = objectMapper.writeValueAsBytes(Map.of(
+                    "commands", commands,
+                    "correlationData", correlationData
+            ));
         } catch (Exception ex) {
-            throw new DomainException("internal_error", "Не удалось подготовить команду настройки MQTT");
+            batch.response().completeExceptionally(
+                    new DomainException("internal_error", "Не удалось подготовить команду настройки MQTT")
+            );
+            return;
         }
+        synchronized (pending) {
+            pending.put(correlationData, batch);
+        }
+        try {
+            MqttMessage message = new MqttMessage(payload);
+            message.setQos(1);
+            message.setRetained(false);
+            awaitSession().publish(COMMAND_TOPIC, message);
+        } catch (DomainException ex) {
+            batch.response().completeExceptionally(ex);
+        } catch (Exception ex) {
+            batch.response().completeExceptionally(new DomainException("bad_gateway", "Настройка MQTT недоступна"));
+        }
+    }
 
-        AtomicReference<JsonNode> responseRef = new AtomicReference<>();
-        CountDownLatch responseLatch = new CountDownLatch(1);
-        String brokerUri = (settings.isTls() ? "ssl" : "tcp") + "://" + settings.getHost() + ":" + settings.getPort();
-        String operationClientId = "gh-provisioning-" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    private void completeOperations(Batch batch, JsonNode response, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            DomainException failure = cause instanceof DomainException domainException
+                    ? domainException
+                    : cause instanceof TimeoutException
+                    ? new DomainException("bad_gateway", "Mosquitto Dynamic Security не ответил вовремя")
+                    : new DomainException("bad_gateway", "Настройка MQTT недоступна");
+            batch.operations().forEach(operation -> operation.result().completeExceptionally(failure));
+            return;
+        }
+        List<Integer> sizes = batch.operations().stream().map(operation -> operation.commands().size()).toList();
+        List<List<JsonNode>> slices = splitResponses(response, sizes);
+        for (int index = 0; index < batch.operations().size(); index++) {
+            CompletableFuture<List<JsonNode>> result = batch.operations().get(index).result();
+            if (slices == null) {
+                result.completeExceptionally(
+                        new DomainException("bad_gateway", "Mosquitto Dynamic Security вернул некорректный ответ")
+                );
+            } else {
+                result.complete(slices.get(index));
+            }
+        }
+    }
+
+    // Translitem: Dynamic Security otvechaet po elementu na komandu v tom zhe porjadke - delim po razmeram operacij.
+    static List<List<JsonNode>> splitResponses(JsonNode response, List<Integer> sizes) {
+        JsonNode responses = response != null ? response.path("responses") : null;
+        int expected = sizes.stream().mapToInt(Integer::intValue).sum();
+        if (responses == null || !responses.isArray() || responses.size() != expected) {
+            return null;
+        }
+        List<List<JsonNode>> slices = new ArrayList<>(sizes.size());
+        int offset = 0;
+        for (int size : sizes) {
+            List<JsonNode> slice = new ArrayList<>(size);
+            for (int index = offset; index < offset + size; index++) {
+                slice.add(responses.get(index));
+            }
+            slices.add(slice);
+            offset += size;
+        }
+        return slices;
+    }
 
-        MqttClient client = null;
+    private void handleResponse(MqttMessage message) {
         try {
-            client = new MqttClient(brokerUri, operationClientId, new MemoryPersistence());
-            MqttConnectOptions options = new MqttConnectOptions();
-            options.setAutomaticReconnect(false);
-            options.setCleanSession(true);
-            options.setConnectionTimeout(Math.max(1, settings.getResponseTimeoutSeconds()));
-            options.setUserName(settings.getUsername());
-            options.setPassword(settings.getPassword().toCharArray());
-            client.connect(options);
-            client.subscribe(RESPONSE_TOPIC, 1, (topic, message) -> {
-                try {
-                    JsonNode candidate = objectMapper.readTree(message.getPayload());
-                    if (matchesResponse(candidate, correlationData, commands)) {
-                        responseRef.set(candidate);
-                        responseLatch.countDown();
+            JsonNode candidate = objectMapper.readTree(message.getPayload());
+            Batch matched = null;
+            synchronized (pending) {
+                for (Batch batch : pending.values()) {
+                    if (matchesResponse(candidate, batch.correlationData(), batch.commands())) {
+                        matched = batch;
+                        break;
                     }
-                } catch (Exception ignored) {
-                    // Nekorrektnyj otvet ne dolzhen raskryvat payload ili credentials v logah.
                 }
-            });
-            MqttMessage mqttMessage = new MqttMessage(payload);
-            mqttMessage.setQos(1);
-            mqttMessage.setRetained(false);
-            client.publish(COMMAND_TOPIC, mqttMessage);
+            }
+            if (matched != null) {
+                matched.response().complete(candidate);
+            }
+        } catch (Exception ignored) {
+            // Nekorrektnyj otvet ne dolzhen raskryvat payload ili credentials v logah.
+        }
+    }
 
-            Duration timeout = Duration.ofSeconds(Math.max(1, settings.getResponseTimeoutSeconds()));
-            if (!responseLatch.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
-                throw new DomainException("bad_gateway", "Mosquitto Dynamic Security не ответил вовремя");
+    // Translitem: sessija otkryvaetsja odin raz i perepodkljuchaetsja Paho; podpiska na otvety vosstanavlivaetsja
+    // v connectComplete, poetomu publikacija zhdet gotovnosti (connected + subscribed).
+    private MqttAsyncClient awaitSession() throws MqttException, InterruptedException {
+        long deadline = System.nanoTime() + responseTimeout().toNanos();
+        synchronized (sessionLock) {
+            if (session == null) {
+                openSession();
             }
-            validateResponse(responseRef.get(), commands.size());
-        } catch (DomainException ex) {
+            while (!sessionReady) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    throw new DomainException("bad_gateway", "Настройка MQTT недоступна");
+                }
+                sessionLock.wait(remainingMs);
+            }
+            return session;
+        }
+    }
+
+    private void openSession() throws MqttException {
+        String brokerUri = (settings.isTls() ? "ssl" : "tcp") + "://" + settings.getHost() + ":" + settings.getPort();
+        String sessionClientId = "gh-provisioning-" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        MqttAsyncClient created = new MqttAsyncClient(brokerUri, sessionClientId, new MemoryPersistence());
+        created.setCallback(new MqttCallbackExtended() {
+            @Override
+            public void connectComplete(boolean reconnect, String serverUri) {
+                subscribeResponses(created);
+            }
+
+            @Override
+            public void connectionLost(Throwable cause) {
+                markSessionReady(false);
+            }
+
+            @Override
+            public void messageArrived(String topic, MqttMessage message) {
+                handleResponse(message);
+            }
+
+            @Override
+            public void deliveryComplete(IMqttDeliveryToken token) {
+            }
+        });
+        MqttConnectOptions options = new MqttConnectOptions();
+        options.setAutomaticReconnect(true);
+        options.setCleanSession(true);
+        options.setConnectionTimeout(Math.max(1, settings.getResponseTimeoutSeconds()));
+        options.setUserName(settings.getUsername());
+        options.setPassword(settings.getPassword().toCharArray());
+        try {
+            created.connect(options).waitForCompletion(responseTimeout().toMillis());
+        } catch (MqttException ex) {
+            closeQuietly(created);
             throw ex;
-        } catch (InterruptedException ex) {
-            Thread.currentThread().interrupt();
-            throw new DomainException("bad_gateway", "Настройка MQTT прервана");
-        } catch (Exception ex) {
-            throw new DomainException("bad_gateway", "Настройка MQTT недоступна");
-        } finally {
-            closeQuietly(client);
+        }
+        session = created;
+    }
+
+    private void subscribeResponses(MqttAsyncClient client) {
+        try {
+            client.subscribe(RESPONSE_TOPIC, 1, null, new IMqttActionListener() {
+                @Override
+                public void onSuccess(IMqttToken token) {
+                    markSessionReady(true);
+                }
+
+                @Override
+                public void onFailure(IMqttToken token, Throwable error) {
+                    markSessionReady(false);
+                }
+            });
+        } catch (MqttException ex) {
+            markSessionReady(false);
+        }
+    }
+
+    private void markSessionReady(boolean ready) {
+        synchronized (sessionLock) {
+            sessionReady = ready;
+            sessionLock.notifyAll();
+        }
+    }
+
+    private Duration responseTimeout() {
+        return Duration.ofSeconds(Math.max(1, settings.getResponseTimeoutSeconds()));
+    }
+
+    @PreDestroy
+    void closeSession() {
+        synchronized (sessionLock) {
+            closeQuietly(session);
+            session = null;
+            sessionReady = false;
         }
     }
 
@@ -165,11 +396,7 @@ public class PahoDynSecCredentialGateway implements ZigbeeBrokerCredentialGatewa
         }
     }
 
-    private void validateResponse(JsonNode response, int expectedResponses) {
-        JsonNode responses = response != null ? response.path("responses") : null;
-        if (responses == null || !responses.isArray() || responses.size() != expectedResponses) {
-            throw new DomainException("bad_gateway", "Mosquitto Dynamic Security вернул некорректный ответ");
-        }
+    private void validateResponse(List<JsonNode> responses) {
         for (JsonNode item : responses) {
             String error = item.path("error").asText(null);
             if (error != null && !error.isBlank()) {
@@ -219,13 +446,13 @@ public class PahoDynSecCredentialGateway implements ZigbeeBrokerCredentialGatewa
         }
     }
 
-    private void closeQuietly(MqttClient client) {
+    private void closeQuietly(MqttAsyncClient client) {
         if (client == null) {
             return;
         }
         try {
             if (client.isConnected()) {
-                client.disconnectForcibly(1_000, 1_000, false);
+                client.disconnectForcibly(1_000, 1_000);
             }
         } catch (Exception ignored) {
             // Osvobozhdenie resursov ne menjaet rezultat provisioning operacii.
@@ -236,4 +463,15 @@ public class PahoDynSecCredentialGateway implements ZigbeeBrokerCredentialGatewa
             // Osvobozhdenie resursov ne menjaet rezultat provisioning operacii.
         }
     }
+
+    private record Operation(List<Map<String, Object>> commands, CompletableFuture<List<JsonNode>> result) {
+    }
+
+    private record Batch(
+            String correlationData,
+            List<Operation> operations,
+            List<Map<String, Object>> commands,
+            CompletableFuture<JsonNode> response
+    ) {
+    }
 }
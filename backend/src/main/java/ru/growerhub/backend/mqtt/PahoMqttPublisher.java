@@ -3,9 +3,15 @@ package ru.growerhub.backend.mqtt;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.net.ssl.SSLSocketFactory;
-import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.DisconnectedBufferOptions;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
@@ -13,7 +19,10 @@ import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.SmartLifecycle;
+import ru.growerhub.backend.common.config.mqtt.MqttPublishSettings;
 
+// Publikacija cherez MqttAsyncClient: vyzyvajushchij zhdet tol'ko mesto v okne in-flight, PUBACK prihodit v future.
+// Poka broker perepodkljuchaetsja, prinjatye soobshchenija lezhat v disconnected-bufere Paho (ne bol'she okna).
 public class PahoMqttPublisher implements MqttPublisher, SmartLifecycle {
     private static final Logger logger = LoggerFactory.getLogger(PahoMqttPublisher.class);
 
@@ -21,57 +30,142 @@ public class PahoMqttPublisher implements MqttPublisher, SmartLifecycle {
     private final DebugSettings debugSettings;
     private final ObjectMapper objectMapper;
     private final MqttMessageLog messageLog;
+    private final MqttPublishSettings publishSettings;
+    private final MqttPublishMetrics metrics;
+    private final int windowSize;
+    private final Semaphore window;
     private final AtomicBoolean running = new AtomicBoolean(false);
-    private MqttClient client;
+    private volatile MqttAsyncClient client;
 
     public PahoMqttPublisher(
             MqttSettings settings,
             DebugSettings debugSettings,
             ObjectMapper objectMapper,
-            MqttMessageLog messageLog
+            MqttMessageLog messageLog,
+            MqttPublishSettings publishSettings,
+            MqttPublishMetrics metrics
     ) {
         this.settings = settings;
         this.debugSettings = debugSettings;
         this.objectMapper = objectMapper;
         this.messageLog = messageLog;
+        this.publishSettings = publishSettings;
+        this.metrics = metrics;
+        this.windowSize = Math.max(1, publishSettings.getMaxInFlight());
+        this.window = new Semaphore(windowSize);
     }
 
     @Override
     public void publishCmd(String deviceId, Object cmd) {
-        if (!isRunning()) {
-            throw new IllegalStateException("MQTT client is not connected");
-        }
-        String topic = "gh/dev/" + deviceId + "/cmd";
-        publishSerialized(topic, cmd, 1, false);
+        publishCmdAsync(deviceId, cmd);
     }
 
     @Override
     public void publishJson(String topic, Object payload, int qos, boolean retained) {
-        if (!isRunning()) {
-            throw new IllegalStateException("MQTT client is not connected");
-        }
-        publishSerialized(topic, payload, qos, retained);
+        publishJsonAsync(topic, payload, qos, retained);
     }
 
-    private void publishSerialized(String topic, Object payloadObject, int qos, boolean retained) {
+    @Override
+    public CompletableFuture<Void> publishCmdAsync(String deviceId, Object cmd) {
+        return publishSerialized("gh/dev/" + deviceId + "/cmd", cmd, 1, false);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishJsonAsync(String topic, Object payload, int qos, boolean retained) {
+        return publishSerialized(topic, payload, qos, retained);
+    }
+
+    private CompletableFuture<Void> publishSerialized(String topic, Object payloadObject, int qos, boolean retained) {
+        MqttAsyncClient current = client;
+        if (!isRunning() || current == null) {
+            throw new IllegalStateException("MQTT client is not connected");
+        }
         byte[] payload;
         try {
             payload = objectMapper.writeValueAsBytes(payloadObject);
         } catch (Exception ex) {
             throw new IllegalStateException("Failed to serialize MQTT command", ex);
         }
-        MqttMessage message = new MqttMessage(payload);
-        message.setQos(qos);
-        message.setRetained(retained);
+        acquireWindow(topic);
+        Outbound outbound = new Outbound(topic, payload, qos, retained, new CompletableFuture<>(), System.nanoTime());
+        metrics.recordPublished();
         try {
-            client.publish(topic, message);
-        } catch (MqttException ex) {
-            throw new IllegalStateException("Failed to publish MQTT command", ex);
+            send(current, outbound, 1);
+        } catch (RuntimeException ex) {
+            complete(outbound, ex);
+            throw ex;
         }
         messageLog.recordOutbound(topic, payload);
         if (debugSettings.isDebug()) {
             logger.info("MQTT DEBUG publish topic={} payload={}", topic, new String(payload, StandardCharsets.UTF_8));
         }
+        long timeoutMs = publishSettings.getDeliveryTimeoutMs();
+        // Translitem: timeout tol'ko dlja vyzyvajushchego - mesto v okne osvobozhdaetsja po zaversheniju tokena Paho.
+        return timeoutMs > 0
+                ? outbound.delivery().copy().orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                : outbound.delivery().copy();
+    }
+
+    private void acquireWindow(String topic) {
+        boolean acquired;
+        try {
+            acquired = window.tryAcquire(Math.max(0, publishSettings.getEnqueueTimeoutMs()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            metrics.recordRejected();
+            throw new IllegalStateException("MQTT in-flight window is full, topic " + topic);
+        }
+    }
+
+    private void send(MqttAsyncClient current, Outbound outbound, int attempt) {
+        MqttMessage message = new MqttMessage(outbound.payload());
+        message.setQos(outbound.qos());
+        message.setRetained(outbound.retained());
+        try {
+            current.publish(outbound.topic(), message, null, new IMqttActionListener() {
+                @Override
+                public void onSuccess(IMqttToken token) {
+                    complete(outbound, null);
+                }
+
+                @Override
+                public void onFailure(IMqttToken token, Throwable error) {
+                    retryOrFail(current, outbound, attempt, error);
+                }
+            });
+        } catch (MqttException ex) {
+            throw new IllegalStateException("Failed to publish MQTT command", ex);
+        }
+    }
+
+    // Translitem: pri obryve s cleanSession Paho zavershaet in-flight QoS1 oshibkoj; povtor ujdet v disconnected-bufer
+    // i budet otpravlen posle perepodkljuchenija (komandy ustrojstv idempotentny po correlation_id).
+    private void retryOrFail(MqttAsyncClient current, Outbound outbound, int attempt, Throwable error) {
+        boolean connectionLost = error instanceof MqttException mqttError
+                && mqttError.getReasonCode() == MqttException.REASON_CODE_CONNECTION_LOST;
+        if (!connectionLost || attempt >= publishSettings.getMaxAttempts() || !isRunning()) {
+            complete(outbound, error);
+            return;
+        }
+        metrics.recordRetried();
+        try {
+            send(current, outbound, attempt + 1);
+        } catch (RuntimeException ex) {
+            complete(outbound, ex);
+        }
+    }
+
+    private void complete(Outbound outbound, Throwable error) {
+        window.release();
+        metrics.recordCompleted(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - outbound.startedNs()), error == null);
+        if (error == null) {
+            outbound.delivery().complete(null);
+        } else {
+            outbound.delivery().completeExceptionally(error);
+        }
     }
 
     @Override
@@ -81,9 +175,10 @@ public class PahoMqttPublisher implements MqttPublisher, SmartLifecycle {
         }
         String clientId = settings.getClientIdPrefix() + "-" + UUID.randomUUID().toString().replace("-", "");
         try {
-            client = new MqttClient(buildBrokerUrl(), clientId, new MemoryPersistence());
-            MqttConnectOptions options = buildConnectOptions();
-            client.connect(options);
+            MqttAsyncClient created = createClient(buildBrokerUrl(), clientId);
+            created.setBufferOpts(buildBufferOptions());
+            created.connect(buildConnectOptions()).waitForCompletion();
+            client = created;
             running.set(true);
             logger.info("MQTT publisher connected to {}:{} as {}", settings.getHost(), settings.getPort(), clientId);
         } catch (MqttException ex) {
@@ -98,7 +193,7 @@ public class PahoMqttPublisher implements MqttPublisher, SmartLifecycle {
             return;
         }
         try {
-            client.disconnect();
+            client.disconnect().waitForCompletion();
         } catch (MqttException ex) {
             logger.warn("MQTT publisher disconnect failed: {}", ex.getMessage());
         } finally {
@@ -127,10 +222,16 @@ public class PahoMqttPublisher implements MqttPublisher, SmartLifecycle {
         return 0;
     }
 
+    // Translitem: tochka podmeny klienta v testah okna in-flight.
+    MqttAsyncClient createClient(String brokerUrl, String clientId) throws MqttException {
+        return new MqttAsyncClient(brokerUrl, clientId, new MemoryPersistence());
+    }
+
     private MqttConnectOptions buildConnectOptions() {
         MqttConnectOptions options = new MqttConnectOptions();
         options.setAutomaticReconnect(true);
         options.setCleanSession(true);
+        options.setMaxInflight(windowSize);
         if (settings.getUsername() != null) {
             options.setUserName(settings.getUsername());
             if (settings.getPassword() != null) {
@@ -143,8 +244,27 @@ public class PahoMqttPublisher implements MqttPublisher, SmartLifecycle {
         return options;
     }
 
+    private DisconnectedBufferOptions buildBufferOptions() {
+        DisconnectedBufferOptions options = new DisconnectedBufferOptions();
+        options.setBufferEnabled(true);
+        options.setBufferSize(windowSize);
+        options.setPersistBuffer(false);
+        options.setDeleteOldestMessages(false);
+        return options;
+    }
+
     private String buildBrokerUrl() {
         String scheme = settings.isTls() ? "ssl" : "tcp";
         return scheme + "://" + settings.getHost() + ":" + settings.getPort();
     }
+
+    private record Outbound(
+            String topic,
+            byte[] payload,
+            int qos,
+            boolean retained,
+            CompletableFuture<Void> delivery,
+            long startedNs
+    ) {
+    }
 }
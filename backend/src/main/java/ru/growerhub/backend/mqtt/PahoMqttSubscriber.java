@@ -2,9 +2,12 @@ package ru.growerhub.backend.mqtt;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import javax.net.ssl.SSLSocketFactory;
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
@@ -16,28 +19,40 @@ import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.SmartLifecycle;
+import ru.growerhub.backend.common.config.mqtt.MqttSharedSubscriptionSettings;
 import ru.growerhub.backend.common.config.mqtt.MqttTopicSettings;
 
+// Podpischik listen topikov; pri mqtt.shared-subscription.enabled topiki berutsja cherez $share/<group>/,
+// a ack, snimki zigbee bridge i directTopics - otdel'nym klientom bez gruppy, chtoby ih poluchal kazhdyj uzel.
 public class PahoMqttSubscriber implements MqttSubscriber, SmartLifecycle {
     private static final Logger logger = LoggerFactory.getLogger(PahoMqttSubscriber.class);
+    private static final String SHARE_PREFIX = "$share/";
+    private static final List<String> BRIDGE_SNAPSHOTS = List.of("bridge/state", "bridge/info", "bridge/devices");
 
     private final MqttSettings settings;
     private final DebugSettings debugSettings;
     private final MqttTopicSettings topicSettings;
-    private final MqttMessageHandler handler;
+    private final MqttSharedSubscriptionSettings sharedSettings;
+    private final MqttIngestionPipeline pipeline;
+    private final BiConsumer<String, byte[]> directListener;
     private final AtomicBoolean running = new AtomicBoolean(false);
     private MqttClient client;
+    private MqttClient directClient;
 
     public PahoMqttSubscriber(
             MqttSettings settings,
             DebugSettings debugSettings,
             MqttTopicSettings topicSettings,
-            MqttMessageHandler handler
+            MqttSharedSubscriptionSettings sharedSettings,
+            MqttIngestionPipeline pipeline,
+            BiConsumer<String, byte[]> directListener
     ) {
         this.settings = settings;
         this.debugSettings = debugSettings;
         this.topicSettings = topicSettings;
-        this.handler = handler;
+        this.sharedSettings = sharedSettings;
+        this.pipeline = pipeline;
+        this.directListener = directListener;
     }
 
     @Override
@@ -45,17 +60,25 @@ public class PahoMqttSubscriber implements MqttSubscriber, SmartLifecycle {
         if (running.get()) {
             return;
         }
-        String clientId = settings.getClientIdPrefix() + "-sub-" + UUID.randomUUID().toString().replace("-", "");
+        String clientId = newClientId("-sub-");
         try {
+            List<String> filters = subscriptionFilters();
             client = new MqttClient(buildBrokerUrl(), clientId, new MemoryPersistence());
-            client.setCallback(new SubscriberCallback());
+            client.setCallback(new SubscriberCallback(
+                    client,
+                    filters,
+                    (topic, payload, retained) -> pipeline.submit(topic, payload)
+            ));
             MqttConnectOptions options = buildConnectOptions();
             client.connect(options);
-            subscribeAll();
+            subscribe(client, filters);
+            startDirectClient();
             running.set(true);
             logger.info("MQTT subscriber connected to {}:{} as {}", settings.getHost(), settings.getPort(), clientId);
         } catch (MqttException ex) {
             running.set(false);
+            disconnectQuietly(client);
+            disconnectQuietly(directClient);
             logger.warn("MQTT subscriber failed to start: {}", ex.getMessage());
         }
     }
@@ -66,6 +89,7 @@ public class PahoMqttSubscriber implements MqttSubscriber, SmartLifecycle {
             return;
         }
         try {
+            disconnectQuietly(directClient);
             client.disconnect();
         } catch (MqttException ex) {
             logger.warn("MQTT subscriber disconnect failed: {}", ex.getMessage());
@@ -95,7 +119,109 @@ public class PahoMqttSubscriber implements MqttSubscriber, SmartLifecycle {
         return 0;
     }
 
-    private void subscribeAll() throws MqttException {
+    private void startDirectClient() throws MqttException {
+        List<String> directFilters = directFilters();
+        if (directFilters.isEmpty() || directListener == null) {
+            return;
+        }
+        String clientId = newClientId("-direct-");
+        directClient = new MqttClient(buildBrokerUrl(), clientId, new MemoryPersistence());
+        directClient.setCallback(new SubscriberCallback(directClient, directFilters, this::dispatchDirect));
+        directClient.connect(buildConnectOptions());
+        subscribe(directClient, directFilters);
+    }
+
+    private void subscribe(MqttClient target, List<String> filters) throws MqttException {
+        String[] topicArray = filters.toArray(String[]::new);
+        int[] qos = filters.stream().mapToInt(ignored -> 1).toArray();
+        target.subscribe(topicArray, qos);
+        filters.forEach(topic -> logger.info("mqtt: subscribed to {} qos=1", topic));
+    }
+
+    private List<String> subscriptionFilters() throws MqttException {
+        List<String> topics = listenTopics();
+        if (topics.isEmpty()) {
+            throw new MqttException(new IllegalStateException("MQTT subscription topics are empty"));
+        }
+        if (!sharedSettings.isEnabled()) {
+            return topics;
+        }
+        String group = sharedSettings.getGroup();
+        if (!isValidGroup(group)) {
+            throw new MqttException(new IllegalStateException("MQTT shared subscription group is invalid: " + group));
+        }
+        return sharedFilters(topics, group);
+    }
+
+    // Translitem: ack beretsja iz mqtt.topics.ack, snimki bridge - iz zigbeeBase/zigbeeUserPrefix, esli ih pokryvajut
+    // listen topiki; directTopics - dopolnitel'nye filtry sverh etogo.
+    private List<String> directFilters() {
+        if (!sharedSettings.isEnabled()) {
+            return List.of();
+        }
+        Set<String> filters = new LinkedHashSet<>();
+        filters.add(topicSettings.getAck());
+        filters.addAll(bridgeSnapshotFilters(listenTopics()));
+        filters.addAll(sharedSettings.getDirectTopics());
+        return filters.stream()
+                .filter(topic -> topic != null && !topic.isBlank())
+                .toList();
+    }
+
+    // Translitem: broker ne otdaet retained soobshchenija shared-podpiske, poetomu retained snimki bridge posle restarta
+    // uzla prihodjat tol'ko v direct-podpisku i obrabatyvajutsja zdes' polnost'ju; zhivye (ne retained) kopii
+    // obrabatyvaet uzel, poluchivshij ih iz gruppy, a direct-slushatel' ih propuskaet.
+    private void dispatchDirect(String topic, byte[] payload, boolean retained) {
+        if (retained && isBridgeSnapshot(topic)) {
+            pipeline.submit(topic, payload);
+            return;
+        }
+        directListener.accept(topic, payload);
+    }
+
+    private List<String> bridgeSnapshotFilters(List<String> listenTopics) {
+        List<String> filters = new ArrayList<>();
+        String base = topicSettings.getZigbeeBase();
+        if (base != null && !base.isBlank()) {
+            addCoveredBridgeFilters(filters, base + "/", base + "/", listenTopics);
+        }
+        String userPrefix = topicSettings.getZigbeeUserPrefix();
+        if (userPrefix != null && !userPrefix.isBlank()) {
+            addCoveredBridgeFilters(filters, userPrefix + "/+/", userPrefix + "/user/", listenTopics);
+        }
+        return filters;
+    }
+
+    private void addCoveredBridgeFilters(
+            List<String> filters,
+            String filterPrefix,
+            String samplePrefix,
+            List<String> listenTopics
+    ) {
+        for (String snapshot : BRIDGE_SNAPSHOTS) {
+            String sample = samplePrefix + snapshot;
+            boolean covered = listenTopics.stream()
+                    .map(PahoMqttSubscriber::unshared)
+                    .anyMatch(filter -> MqttMessageLog.matchesTopicFilter(filter.split("/", -1), sample));
+            if (covered) {
+                filters.add(filterPrefix + snapshot);
+            }
+        }
+    }
+
+    static boolean isBridgeSnapshot(String topic) {
+        return topic != null && BRIDGE_SNAPSHOTS.stream().anyMatch(snapshot -> topic.endsWith("/" + snapshot));
+    }
+
+    private static String unshared(String filter) {
+        if (!filter.startsWith(SHARE_PREFIX)) {
+            return filter;
+        }
+        int groupEnd = filter.indexOf('/', SHARE_PREFIX.length());
+        return groupEnd >= 0 ? filter.substring(groupEnd + 1) : filter;
+    }
+
+    private List<String> listenTopics() {
         List<String> topics = new ArrayList<>();
         String listenTopic = topicSettings.getListen();
         if (listenTopic != null && !listenTopic.isBlank()) {
@@ -109,14 +235,34 @@ public class PahoMqttSubscriber implements MqttSubscriber, SmartLifecycle {
             topics.add(topicSettings.getAck());
             topics.add(topicSettings.getEvents());
         }
-        if (topics.isEmpty()) {
-            throw new MqttException(new IllegalStateException("MQTT subscription topics are empty"));
-        }
+        return topics;
+    }
+
+    static List<String> sharedFilters(List<String> topics, String group) {
+        return topics.stream()
+                .map(topic -> topic.startsWith(SHARE_PREFIX) ? topic : SHARE_PREFIX + group + "/" + topic)
+                .toList();
+    }
+
+    static boolean isValidGroup(String group) {
+        return group != null
+                && !group.isBlank()
+                && group.chars().noneMatch(ch -> ch == '/' || ch == '+' || ch == '#');
+    }
 
-        String[] topicArray = topics.toArray(String[]::new);
-        int[] qos = topics.stream().mapToInt(ignored -> 1).toArray();
-        client.subscribe(topicArray, qos);
-        topics.forEach(topic -> logger.info("mqtt: subscribed to {} qos=1", topic));
+    private String newClientId(String role) {
+        return settings.getClientIdPrefix() + role + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private void disconnectQuietly(MqttClient target) {
+        if (target == null || !target.isConnected()) {
+            return;
+        }
+        try {
+            target.disconnect();
+        } catch (MqttException ex) {
+            logger.warn("MQTT subscriber disconnect failed: {}", ex.getMessage());
+        }
     }
 
     private MqttConnectOptions buildConnectOptions() {
@@ -140,12 +286,26 @@ public class PahoMqttSubscriber implements MqttSubscriber, SmartLifecycle {
         return scheme + "://" + settings.getHost() + ":" + settings.getPort();
     }
 
+    private interface InboundConsumer {
+        void accept(String topic, byte[] payload, boolean retained);
+    }
+
     private class SubscriberCallback implements MqttCallbackExtended {
+        private final MqttClient target;
+        private final List<String> filters;
+        private final InboundConsumer consumer;
+
+        private SubscriberCallback(MqttClient target, List<String> filters, InboundConsumer consumer) {
+            this.target = target;
+            this.filters = filters;
+            this.consumer = consumer;
+        }
+
         @Override
         public void connectComplete(boolean reconnect, String serverURI) {
             if (reconnect) {
                 try {
-                    subscribeAll();
+                    subscribe(target, filters);
                 } catch (MqttException ex) {
                     logger.warn("mqtt: resubscribe failed: {}", ex.getMessage());
                 }
@@ -166,11 +326,7 @@ public class PahoMqttSubscriber implements MqttSubscriber, SmartLifecycle {
             if (debugSettings.isDebug()) {
                 logger.info("MQTT DEBUG message topic={} payload={}", topic, new String(payload, StandardCharsets.UTF_8));
             }
-            try {
-                handler.handleInboundMessage(topic, payload);
-            } catch (Exception ex) {
-                logger.warn("MQTT handler failure for topic {}: {}", topic, ex.getMessage());
-            }
+            consumer.accept(topic, payload, message != null && message.isRetained());
         }
 
         @Override
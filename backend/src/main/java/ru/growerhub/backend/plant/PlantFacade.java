@@ -4,11 +4,13 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,20 +18,26 @@ import ru.growerhub.backend.diagnostics.PlantTiming;
 import ru.growerhub.backend.common.config.plant.PlantHistorySettings;
 import ru.growerhub.backend.common.contract.AuthenticatedUser;
 import ru.growerhub.backend.common.contract.DomainException;
+import ru.growerhub.backend.common.util.HistoryRollup;
 import ru.growerhub.backend.journal.JournalFacade;
 import ru.growerhub.backend.plant.contract.AdminPlantInfo;
+import ru.growerhub.backend.plant.contract.PlantChangedEvent;
 import ru.growerhub.backend.plant.contract.PlantGroupInfo;
 import ru.growerhub.backend.plant.contract.PlantInfo;
 import ru.growerhub.backend.plant.contract.PlantMetricPoint;
 import ru.growerhub.backend.plant.contract.PlantMetricBucketPoint;
 import ru.growerhub.backend.plant.contract.PlantMetricType;
+import ru.growerhub.backend.plant.engine.PlantHistoryRollupService;
 import ru.growerhub.backend.plant.engine.PlantHistoryService;
 import ru.growerhub.backend.plant.jpa.PlantEntity;
 import ru.growerhub.backend.plant.jpa.PlantGroupEntity;
 import ru.growerhub.backend.plant.jpa.PlantGroupRepository;
+import ru.growerhub.backend.plant.jpa.PlantMetricRollupEntity;
 import ru.growerhub.backend.plant.jpa.PlantMetricSampleEntity;
+import ru.growerhub.backend.plant.jpa.PlantMetricSamplePartitionCompactor;
 import ru.growerhub.backend.plant.jpa.PlantMetricSampleRepository;
 import ru.growerhub.backend.plant.jpa.PlantRepository;
+import ru.growerhub.backend.sensor.SensorFacade;
 import ru.growerhub.backend.sensor.contract.SensorReadingSummary;
 import ru.growerhub.backend.sensor.contract.SensorView;
 import ru.growerhub.backend.user.UserFacade;
@@ -39,27 +47,39 @@ public class PlantFacade {
     private final PlantRepository plantRepository;
     private final PlantGroupRepository plantGroupRepository;
     private final PlantMetricSampleRepository plantMetricSampleRepository;
+    private final PlantMetricSamplePartitionCompactor partitionCompactor;
     private final PlantHistoryService plantHistoryService;
+    private final PlantHistoryRollupService plantHistoryRollupService;
     private final JournalFacade journalFacade;
     private final UserFacade userFacade;
+    private final SensorFacade sensorFacade;
     private final PlantHistorySettings historySettings;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PlantFacade(
             PlantRepository plantRepository,
             PlantGroupRepository plantGroupRepository,
             PlantMetricSampleRepository plantMetricSampleRepository,
+            PlantMetricSamplePartitionCompactor partitionCompactor,
             PlantHistoryService plantHistoryService,
+            PlantHistoryRollupService plantHistoryRollupService,
             JournalFacade journalFacade,
             @Lazy UserFacade userFacade,
-            PlantHistorySettings historySettings
+            @Lazy SensorFacade sensorFacade,
+            PlantHistorySettings historySettings,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.plantRepository = plantRepository;
         this.plantGroupRepository = plantGroupRepository;
         this.plantMetricSampleRepository = plantMetricSampleRepository;
+        this.partitionCompactor = partitionCompactor;
         this.plantHistoryService = plantHistoryService;
+        this.plantHistoryRollupService = plantHistoryRollupService;
         this.journalFacade = journalFacade;
         this.userFacade = userFacade;
+        this.sensorFacade = sensorFacade;
         this.historySettings = historySettings;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -89,6 +109,7 @@ public class PlantFacade {
         group.setName(name);
         group.setUpdatedAt(LocalDateTime.now(ZoneOffset.UTC));
         plantGroupRepository.save(group);
+        eventPublisher.publishEvent(new PlantChangedEvent(null));
         return toGroupInfo(group);
     }
 
@@ -104,6 +125,7 @@ public class PlantFacade {
         }
         plantRepository.saveAll(plants);
         plantGroupRepository.delete(group);
+        eventPublisher.publishEvent(new PlantChangedEvent(null));
     }
 
     @Transactional(readOnly = true)
@@ -136,6 +158,7 @@ public class PlantFacade {
         plant.setCreatedAt(now);
         plant.setUpdatedAt(now);
         plantRepository.save(plant);
+        eventPublisher.publishEvent(new PlantChangedEvent(plant.getId()));
         return toPlantInfo(plant);
     }
 
@@ -179,6 +202,7 @@ public class PlantFacade {
         if (changed) {
             plant.setUpdatedAt(LocalDateTime.now(ZoneOffset.UTC));
             plantRepository.save(plant);
+            eventPublisher.publishEvent(new PlantChangedEvent(plantId));
         }
 
         return toPlantInfo(plant);
@@ -187,7 +211,9 @@ public class PlantFacade {
     @Transactional
     public void deletePlant(Integer plantId, AuthenticatedUser user) {
         PlantEntity plant = requireUserPlant(plantId, user);
+        sensorFacade.deleteBindingsByPlantId(plant.getId());
         plantRepository.delete(plant);
+        eventPublisher.publishEvent(new PlantChangedEvent(plantId));
     }
 
     @Transactional
@@ -195,6 +221,7 @@ public class PlantFacade {
         PlantEntity plant = requireUserPlant(plantId, user);
         plant.setHarvestedAt(command.harvestedAt());
         plantRepository.save(plant);
+        eventPublisher.publishEvent(new PlantChangedEvent(plantId));
         journalFacade.createEntry(
                 plantId,
                 user,
@@ -236,23 +263,29 @@ public class PlantFacade {
         PlantEntity plant = requireUserPlant(plantId, user);
         List<PlantMetricType> metricTypes = parseMetricTypes(metrics);
         int defaultHours = historySettings.getDefaultHours();
-        LocalDateTime since = LocalDateTime.now(ZoneOffset.UTC).minusHours(hours != null ? hours : defaultHours);
-        List<PlantMetricSampleEntity> rows = plantMetricSampleRepository
-                .findBucketedHistory(
-                        plant.getId(),
-                        metricTypes.stream().map(Enum::name).toList(),
-                        since,
-                        Math.max(1, historySettings.getMaxPoints())
-                );
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime since = now.minusHours(hours != null ? hours : defaultHours);
+        int maxPoints = Math.max(1, historySettings.getMaxPoints());
+        List<String> metricNames = metricTypes.stream().map(Enum::name).toList();
+        HistoryRollup.Resolution resolution = plantHistoryRollupService.selectResolution(since, now, maxPoints);
         List<PlantMetricPoint> payload = new ArrayList<>();
-        for (PlantMetricSampleEntity row : downsample(rows, historySettings.getMaxPoints())) {
-            payload.add(new PlantMetricPoint(
-                    row.getMetricType() != null ? row.getMetricType().name() : null,
-                    row.getTs(),
-                    row.getValueNumeric()
-            ));
+        if (resolution == null) {
+            for (PlantMetricSampleEntity row : plantMetricSampleRepository
+                    .findBucketedHistory(plant.getId(), metricNames, since, maxPoints)) {
+                payload.add(new PlantMetricPoint(
+                        row.getMetricType() != null ? row.getMetricType().name() : null,
+                        row.getTs(),
+                        row.getValueNumeric()
+                ));
+            }
+        } else {
+            for (PlantMetricRollupEntity row : plantHistoryRollupService
+                    .findBucketedHistory(plant.getId(), metricNames, resolution, since, maxPoints)) {
+                payload.add(new PlantMetricPoint(row.getMetricType(), row.getLastTs(), row.getLastValue()));
+            }
+            applyLatestSamples(plant.getId(), metricTypes, payload);
         }
-        return payload;
+        return downsample(payload, historySettings.getMaxPoints());
     }
 
     /**
@@ -352,9 +385,29 @@ public class PlantFacade {
         return plantMetricSampleRepository.findOldestTimestamp();
     }
 
+    @Transactional(readOnly = true)
+    public List<Integer> findHistoryKeys(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, int maxKeys) {
+        return plantMetricSampleRepository.findHistoryKeys(fromTs, toTs, fromKey, maxKeys);
+    }
+
     @Transactional
-    public int compactHistoryDay(LocalDateTime fromTs, LocalDateTime toTs) {
-        return plantMetricSampleRepository.compactDay(fromTs, toTs);
+    public int compactHistoryChunk(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, Integer toKey) {
+        return plantMetricSampleRepository.compactRange(fromTs, toTs, fromKey, toKey);
+    }
+
+    @Transactional(readOnly = true)
+    public long countCompactableHistory(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, Integer toKey) {
+        return plantMetricSampleRepository.countCompactableRange(fromTs, toTs, fromKey, toKey);
+    }
+
+    @Transactional
+    public int copyCompactedHistoryPartition(String sourceTable, String targetTable) {
+        return partitionCompactor.copyCompacted(sourceTable, targetTable);
+    }
+
+    @Transactional
+    public int rollupHistory(LocalDateTime fromTs, LocalDateTime toTs) {
+        return plantHistoryRollupService.rollup(fromTs, toTs);
     }
 
     private PlantEntity requireUserPlant(Integer plantId, AuthenticatedUser user) {
@@ -422,12 +475,40 @@ public class PlantFacade {
         return result.stream().distinct().collect(Collectors.toList());
     }
 
-    private List<PlantMetricSampleEntity> downsample(List<PlantMetricSampleEntity> points, int maxPoints) {
+    // Translitem: hvost posle poslednego zakrytogo bucket - poslednee syroe znachenie metriki, kak v poslednem NTILE.
+    private void applyLatestSamples(Integer plantId, List<PlantMetricType> metricTypes, List<PlantMetricPoint> points) {
+        boolean replaced = false;
+        for (PlantMetricType metricType : metricTypes) {
+            int lastIndex = -1;
+            for (int i = points.size() - 1; i >= 0; i--) {
+                if (metricType.name().equals(points.get(i).metricType())) {
+                    lastIndex = i;
+                    break;
+                }
+            }
+            if (lastIndex < 0) {
+                continue;
+            }
+            PlantMetricSampleEntity latest = plantMetricSampleRepository
+                    .findTopByPlant_IdAndMetricTypeOrderByTsDesc(plantId, metricType)
+                    .orElse(null);
+            if (latest != null && latest.getValueNumeric() != null
+                    && latest.getTs().isAfter(points.get(lastIndex).ts())) {
+                points.set(lastIndex, new PlantMetricPoint(metricType.name(), latest.getTs(), latest.getValueNumeric()));
+                replaced = true;
+            }
+        }
+        if (replaced) {
+            points.sort(Comparator.comparing(PlantMetricPoint::ts));
+        }
+    }
+
+    private <T> List<T> downsample(List<T> points, int maxPoints) {
         if (points.size() <= maxPoints) {
             return points;
         }
         int step = (int) Math.ceil(points.size() / (double) maxPoints);
-        List<PlantMetricSampleEntity> sampled = new ArrayList<>();
+        List<T> sampled = new ArrayList<>();
         for (int i = 0; i < points.size(); i += step) {
             sampled.add(points.get(i));
         }
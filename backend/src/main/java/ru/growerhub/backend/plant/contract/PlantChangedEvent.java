@@ -0,0 +1,5 @@
+package ru.growerhub.backend.plant.contract;
+
+// Sobytie izmenenija rastenija ili gruppy (sozdanie, pereimenovanie, udalenie, sbor).
+public record PlantChangedEvent(Integer plantId) {
+}
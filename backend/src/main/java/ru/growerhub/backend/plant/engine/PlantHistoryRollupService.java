@@ -0,0 +1,148 @@
+package ru.growerhub.backend.plant.engine;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.common.config.maintenance.HistoryRollupSettings;
+import ru.growerhub.backend.common.util.HistoryRollup;
+import ru.growerhub.backend.plant.contract.PlantMetricType;
+import ru.growerhub.backend.plant.jpa.PlantMetricRollupEntity;
+import ru.growerhub.backend.plant.jpa.PlantMetricRollupRepository;
+import ru.growerhub.backend.plant.jpa.PlantMetricSampleRepository;
+
+// Rollup metrik rastenij po (plant, metric_type): 5m iz syryh strok, 1h iz 5m, 1d iz 1h.
+@Component
+public class PlantHistoryRollupService {
+    private final PlantMetricSampleRepository sampleRepository;
+    private final PlantMetricRollupRepository rollupRepository;
+    private final HistoryRollupSettings settings;
+    private final HistoryRollup.Coverage coverage;
+
+    public PlantHistoryRollupService(
+            PlantMetricSampleRepository sampleRepository,
+            PlantMetricRollupRepository rollupRepository,
+            HistoryRollupSettings settings
+    ) {
+        this.sampleRepository = sampleRepository;
+        this.rollupRepository = rollupRepository;
+        this.settings = settings;
+        this.coverage = new HistoryRollup.Coverage(() -> {
+            LocalDateTime latest = rollupRepository.findLatestBucketStart(HistoryRollup.Resolution.FIVE_MINUTES.code());
+            return latest != null ? latest.plusSeconds(HistoryRollup.Resolution.FIVE_MINUTES.seconds()) : null;
+        });
+    }
+
+    // Translitem: fromTs/toTs vyrovneny po 5m; vozvrashchaet chislo zapisannyh bucket'ov vseh razreshenij.
+    public int rollup(LocalDateTime fromTs, LocalDateTime toTs) {
+        Map<SeriesBucket, HistoryRollup.Bucket> buckets = new LinkedHashMap<>();
+        for (Object[] row : sampleRepository.findNumericRange(fromTs, toTs)) {
+            LocalDateTime ts = (LocalDateTime) row[2];
+            SeriesBucket key = new SeriesBucket(
+                    (Integer) row[0],
+                    ((PlantMetricType) row[1]).name(),
+                    HistoryRollup.Resolution.FIVE_MINUTES.bucketStart(ts)
+            );
+            buckets.computeIfAbsent(key, ignored -> new HistoryRollup.Bucket()).add(ts, (Double) row[3]);
+        }
+        int written = replace(HistoryRollup.Resolution.FIVE_MINUTES, fromTs, toTs, buckets);
+        for (HistoryRollup.Resolution resolution : List.of(HistoryRollup.Resolution.HOUR, HistoryRollup.Resolution.DAY)) {
+            LocalDateTime rangeStart = resolution.bucketStart(fromTs);
+            LocalDateTime rangeEnd = resolution.bucketCeil(toTs);
+            Map<SeriesBucket, HistoryRollup.Bucket> merged = new LinkedHashMap<>();
+            for (PlantMetricRollupEntity source : rollupRepository.findRange(
+                    resolution.source().code(),
+                    rangeStart,
+                    rangeEnd
+            )) {
+                SeriesBucket key = new SeriesBucket(
+                        source.getPlantId(),
+                        source.getMetricType(),
+                        resolution.bucketStart(source.getBucketStart())
+                );
+                merged.computeIfAbsent(key, ignored -> new HistoryRollup.Bucket()).merge(
+                        source.getMinValue(),
+                        source.getMaxValue(),
+                        source.getAvgValue(),
+                        source.getValueCount(),
+                        source.getLastTs(),
+                        source.getLastValue()
+                );
+            }
+            written += replace(resolution, rangeStart, rangeEnd, merged);
+        }
+        return written;
+    }
+
+    // Translitem: null - chitat' syrye stroki (korotkoe okno, rollup vykljuchen ili otstaet).
+    public HistoryRollup.Resolution selectResolution(LocalDateTime since, LocalDateTime now, int maxPoints) {
+        if (!settings.isEnabled()) {
+            return null;
+        }
+        HistoryRollup.Resolution resolution = HistoryRollup.select(
+                since,
+                now,
+                maxPoints,
+                Duration.ofHours(Math.max(0, settings.getRawWindowHours()))
+        );
+        if (resolution == null || !coverage.isFresh(
+                now,
+                Duration.ofMinutes(Math.max(1, settings.getMaxCoverageLagMinutes())),
+                settings.getCoverageRefreshMs()
+        )) {
+            return null;
+        }
+        return resolution;
+    }
+
+    public List<PlantMetricRollupEntity> findBucketedHistory(
+            Integer plantId,
+            List<String> metricTypes,
+            HistoryRollup.Resolution resolution,
+            LocalDateTime since,
+            int maxPoints
+    ) {
+        return rollupRepository.findBucketedHistory(
+                plantId,
+                metricTypes,
+                resolution.code(),
+                resolution.bucketStart(since),
+                since,
+                maxPoints
+        );
+    }
+
+    private int replace(
+            HistoryRollup.Resolution resolution,
+            LocalDateTime fromTs,
+            LocalDateTime toTs,
+            Map<SeriesBucket, HistoryRollup.Bucket> buckets
+    ) {
+        rollupRepository.deleteRange(resolution.code(), fromTs, toTs);
+        List<PlantMetricRollupEntity> rows = new ArrayList<>(buckets.size());
+        for (Map.Entry<SeriesBucket, HistoryRollup.Bucket> entry : buckets.entrySet()) {
+            HistoryRollup.Bucket bucket = entry.getValue();
+            PlantMetricRollupEntity row = PlantMetricRollupEntity.create();
+            row.setPlantId(entry.getKey().plantId());
+            row.setMetricType(entry.getKey().metricType());
+            row.setResolution(resolution.code());
+            row.setBucketStart(entry.getKey().bucketStart());
+            row.setMinValue(bucket.min());
+            row.setMaxValue(bucket.max());
+            row.setAvgValue(bucket.avg());
+            row.setValueCount(bucket.count());
+            row.setLastTs(bucket.lastTs());
+            row.setLastValue(bucket.lastValue());
+            rows.add(row);
+        }
+        rollupRepository.saveAll(rows);
+        rollupRepository.flush();
+        return rows.size();
+    }
+
+    private record SeriesBucket(Integer plantId, String metricType, LocalDateTime bucketStart) {
+    }
+}
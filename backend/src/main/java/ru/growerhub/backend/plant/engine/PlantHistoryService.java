@@ -1,15 +1,14 @@
 ﻿package ru.growerhub.backend.plant.engine;
 
-import jakarta.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 import ru.growerhub.backend.plant.contract.PlantMetricType;
 import ru.growerhub.backend.plant.jpa.PlantEntity;
+import ru.growerhub.backend.plant.jpa.PlantMetricSampleBatchWriter;
 import ru.growerhub.backend.plant.jpa.PlantMetricSampleEntity;
 import ru.growerhub.backend.plant.jpa.PlantMetricSampleRepository;
 import ru.growerhub.backend.sensor.SensorFacade;
@@ -19,16 +18,16 @@ import ru.growerhub.backend.sensor.contract.SensorType;
 @Service
 public class PlantHistoryService {
     private final PlantMetricSampleRepository plantMetricSampleRepository;
-    private final EntityManager entityManager;
+    private final PlantMetricSampleBatchWriter sampleBatchWriter;
     private final SensorFacade sensorFacade;
 
     public PlantHistoryService(
             PlantMetricSampleRepository plantMetricSampleRepository,
-            EntityManager entityManager,
+            PlantMetricSampleBatchWriter sampleBatchWriter,
             SensorFacade sensorFacade
     ) {
         this.plantMetricSampleRepository = plantMetricSampleRepository;
-        this.entityManager = entityManager;
+        this.sampleBatchWriter = sampleBatchWriter;
         this.sensorFacade = sensorFacade;
     }
 
@@ -47,7 +46,8 @@ public class PlantHistoryService {
         if (plantIdsBySensor.isEmpty()) {
             return;
         }
-        List<PlantMetricSampleEntity> samples = new ArrayList<>();
+        List<PlantMetricSampleBatchWriter.Row> rows = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
         for (SensorReadingSummary summary : summaries) {
             if (summary == null || summary.value() == null) {
                 continue;
@@ -60,23 +60,12 @@ public class PlantHistoryService {
             if (plantIds == null || plantIds.isEmpty()) {
                 continue;
             }
+            // Translitem: privjazki udaljajutsja kaskadom vmeste s rasteniem, otdel'naja proverka plants ne nuzhna.
             for (Integer plantId : plantIds) {
-                PlantEntity plant = entityManager.find(PlantEntity.class, plantId);
-                if (plant == null) {
-                    continue;
-                }
-                PlantMetricSampleEntity sample = PlantMetricSampleEntity.create();
-                sample.setPlant(plant);
-                sample.setMetricType(metricType);
-                sample.setTs(summary.ts());
-                sample.setValueNumeric(summary.value());
-                sample.setCreatedAt(LocalDateTime.now());
-                samples.add(sample);
+                rows.add(new PlantMetricSampleBatchWriter.Row(plantId, metricType, summary.ts(), summary.value(), now));
             }
         }
-        if (!samples.isEmpty()) {
-            plantMetricSampleRepository.saveAll(samples);
-        }
+        sampleBatchWriter.insertAll(rows);
     }
 
     public void recordWateringEvent(PlantEntity plant, Double volumeL, LocalDateTime eventAt) {
@@ -0,0 +1,153 @@
+package ru.growerhub.backend.plant.jpa;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+    name = "plant_metric_rollups",
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "ux_plant_metric_rollups_series_bucket",
+            columnNames = {"plant_id", "metric_type", "resolution", "bucket_start"}
+        )
+    },
+    indexes = {
+        @Index(name = "ix_plant_metric_rollups_resolution_bucket", columnList = "resolution, bucket_start")
+    }
+)
+public class PlantMetricRollupEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "plant_id", nullable = false)
+    private Integer plantId;
+
+    @Column(name = "metric_type", nullable = false)
+    private String metricType;
+
+    @Column(name = "resolution", nullable = false, length = 8)
+    private String resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "min_value", nullable = false)
+    private Double minValue;
+
+    @Column(name = "max_value", nullable = false)
+    private Double maxValue;
+
+    @Column(name = "avg_value", nullable = false)
+    private Double avgValue;
+
+    @Column(name = "value_count", nullable = false)
+    private Long valueCount;
+
+    @Column(name = "last_ts", nullable = false)
+    private LocalDateTime lastTs;
+
+    @Column(name = "last_value", nullable = false)
+    private Double lastValue;
+
+    protected PlantMetricRollupEntity() {
+    }
+
+    public static PlantMetricRollupEntity create() {
+        return new PlantMetricRollupEntity();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getPlantId() {
+        return plantId;
+    }
+
+    public void setPlantId(Integer plantId) {
+        this.plantId = plantId;
+    }
+
+    public String getMetricType() {
+        return metricType;
+    }
+
+    public void setMetricType(String metricType) {
+        this.metricType = metricType;
+    }
+
+    public String getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(String resolution) {
+        this.resolution = resolution;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Double getMinValue() {
+        return minValue;
+    }
+
+    public void setMinValue(Double minValue) {
+        this.minValue = minValue;
+    }
+
+    public Double getMaxValue() {
+        return maxValue;
+    }
+
+    public void setMaxValue(Double maxValue) {
+        this.maxValue = maxValue;
+    }
+
+    public Double getAvgValue() {
+        return avgValue;
+    }
+
+    public void setAvgValue(Double avgValue) {
+        this.avgValue = avgValue;
+    }
+
+    public Long getValueCount() {
+        return valueCount;
+    }
+
+    public void setValueCount(Long valueCount) {
+        this.valueCount = valueCount;
+    }
+
+    public LocalDateTime getLastTs() {
+        return lastTs;
+    }
+
+    public void setLastTs(LocalDateTime lastTs) {
+        this.lastTs = lastTs;
+    }
+
+    public Double getLastValue() {
+        return lastValue;
+    }
+
+    public void setLastValue(Double lastValue) {
+        this.lastValue = lastValue;
+    }
+}
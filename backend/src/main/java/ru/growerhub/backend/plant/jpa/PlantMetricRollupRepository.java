@@ -0,0 +1,78 @@
+package ru.growerhub.backend.plant.jpa;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface PlantMetricRollupRepository extends JpaRepository<PlantMetricRollupEntity, Long> {
+    @Query(
+            value = """
+                    SELECT id, plant_id, metric_type, resolution, bucket_start, min_value, max_value, avg_value,
+                           value_count, last_ts, last_value
+                    FROM (
+                        SELECT bucketed.*,
+                               ROW_NUMBER() OVER (
+                                   PARTITION BY metric_type, bucket_no
+                                   ORDER BY bucket_start DESC
+                               ) AS pick_no
+                        FROM (
+                            SELECT agg.*,
+                                   NTILE(CAST(:maxPoints AS INTEGER)) OVER (
+                                       PARTITION BY agg.metric_type
+                                       ORDER BY agg.bucket_start
+                                   ) AS bucket_no
+                            FROM plant_metric_rollups agg
+                            WHERE agg.plant_id = :plantId
+                              AND agg.metric_type IN (:metricTypes)
+                              AND agg.resolution = :resolution
+                              AND agg.bucket_start >= :sinceBucket
+                              AND agg.last_ts >= :since
+                        ) bucketed
+                    ) ranked
+                    WHERE pick_no = 1
+                    ORDER BY last_ts
+                    """,
+            nativeQuery = true
+    )
+    List<PlantMetricRollupEntity> findBucketedHistory(
+            @Param("plantId") Integer plantId,
+            @Param("metricTypes") List<String> metricTypes,
+            @Param("resolution") String resolution,
+            @Param("sinceBucket") LocalDateTime sinceBucket,
+            @Param("since") LocalDateTime since,
+            @Param("maxPoints") int maxPoints
+    );
+
+    @Query("""
+            SELECT agg
+            FROM PlantMetricRollupEntity agg
+            WHERE agg.resolution = :resolution
+              AND agg.bucketStart >= :fromTs
+              AND agg.bucketStart < :toTs
+            ORDER BY agg.plantId, agg.metricType, agg.bucketStart
+            """)
+    List<PlantMetricRollupEntity> findRange(
+            @Param("resolution") String resolution,
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs
+    );
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            DELETE FROM PlantMetricRollupEntity agg
+            WHERE agg.resolution = :resolution
+              AND agg.bucketStart >= :fromTs
+              AND agg.bucketStart < :toTs
+            """)
+    int deleteRange(
+            @Param("resolution") String resolution,
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs
+    );
+
+    @Query("SELECT MAX(agg.bucketStart) FROM PlantMetricRollupEntity agg WHERE agg.resolution = :resolution")
+    LocalDateTime findLatestBucketStart(@Param("resolution") String resolution);
+}
@@ -0,0 +1,37 @@
+package ru.growerhub.backend.plant.jpa;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.growerhub.backend.plant.contract.PlantMetricType;
+
+// JDBC batch insert dlja plant_metric_samples: IDENTITY id otklyuchaet batching v Hibernate.
+@Repository
+public class PlantMetricSampleBatchWriter {
+    private static final String INSERT_SQL =
+            "INSERT INTO plant_metric_samples (plant_id, metric_type, ts, value_numeric, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PlantMetricSampleBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<Row> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (statement, row) -> {
+            statement.setInt(1, row.plantId());
+            statement.setString(2, row.metricType().name());
+            statement.setTimestamp(3, Timestamp.valueOf(row.ts()));
+            statement.setObject(4, row.valueNumeric());
+            statement.setTimestamp(5, row.createdAt() != null ? Timestamp.valueOf(row.createdAt()) : null);
+        });
+    }
+
+    public record Row(Integer plantId, PlantMetricType metricType, LocalDateTime ts, Double valueNumeric, LocalDateTime createdAt) {
+    }
+}
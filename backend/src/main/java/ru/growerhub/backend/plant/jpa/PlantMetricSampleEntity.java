@@ -21,7 +21,8 @@ import ru.growerhub.backend.plant.contract.PlantMetricType;
     name = "plant_metric_samples",
     indexes = {
         @Index(name = "ix_plant_metric_samples_id", columnList = "id"),
-        @Index(name = "ix_plant_metric_samples_plant_metric_ts", columnList = "plant_id, metric_type, ts")
+        @Index(name = "ix_plant_metric_samples_plant_metric_ts", columnList = "plant_id, metric_type, ts"),
+        @Index(name = "ix_plant_metric_samples_ts", columnList = "ts")
     }
 )
 public class PlantMetricSampleEntity {
@@ -0,0 +1,40 @@
+package ru.growerhub.backend.plant.jpa;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.growerhub.backend.common.util.HistoryPartitions;
+
+// Prorezhivanie zakrytoj partitsii plant_metric_samples kopirovaniem: poslednee znachenie chasa,
+// sobytija WATERING_VOLUME_L kopirujutsja vse (kak v PlantMetricSampleRepository.compactRange).
+@Repository
+public class PlantMetricSamplePartitionCompactor {
+    private static final String COPY_SQL = """
+            INSERT INTO %2$s
+            SELECT sample.*
+            FROM %1$s sample
+            LEFT JOIN (
+                SELECT id,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY plant_id, metric_type, DATE_TRUNC('hour', ts)
+                           ORDER BY ts DESC, id DESC
+                       ) AS row_no
+                FROM %1$s
+                WHERE metric_type <> 'WATERING_VOLUME_L'
+            ) ranked ON ranked.id = sample.id
+            WHERE sample.metric_type = 'WATERING_VOLUME_L'
+               OR ranked.row_no = 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PlantMetricSamplePartitionCompactor(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int copyCompacted(String sourceTable, String targetTable) {
+        return jdbcTemplate.update(COPY_SQL.formatted(
+                HistoryPartitions.requireIdentifier(sourceTable),
+                HistoryPartitions.requireIdentifier(targetTable)
+        ));
+    }
+}
@@ -2,10 +2,12 @@
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.growerhub.backend.plant.contract.PlantMetricType;
 
 public interface PlantMetricSampleRepository extends JpaRepository<PlantMetricSampleEntity, Integer> {
     @Query(
@@ -74,9 +76,46 @@ public interface PlantMetricSampleRepository extends JpaRepository<PlantMetricSa
             @Param("bucketSeconds") long bucketSeconds
     );
 
+    @Query("""
+            SELECT sample.plant.id, sample.metricType, sample.ts, sample.valueNumeric
+            FROM PlantMetricSampleEntity sample
+            WHERE sample.ts >= :fromTs
+              AND sample.ts < :toTs
+              AND sample.valueNumeric IS NOT NULL
+            ORDER BY sample.plant.id, sample.metricType, sample.ts, sample.id
+            """)
+    List<Object[]> findNumericRange(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs
+    );
+
+    Optional<PlantMetricSampleEntity> findTopByPlant_IdAndMetricTypeOrderByTsDesc(
+            Integer plantId,
+            PlantMetricType metricType
+    );
+
     @Query("SELECT MIN(sample.ts) FROM PlantMetricSampleEntity sample")
     LocalDateTime findOldestTimestamp();
 
+    @Query(
+            value = """
+                    SELECT DISTINCT plant_id
+                    FROM plant_metric_samples
+                    WHERE ts >= :fromTs
+                      AND ts < :toTs
+                      AND plant_id >= :fromKey
+                    ORDER BY plant_id
+                    LIMIT :maxKeys
+                    """,
+            nativeQuery = true
+    )
+    List<Integer> findHistoryKeys(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("maxKeys") int maxKeys
+    );
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(
             value = """
@@ -92,6 +131,7 @@ public interface PlantMetricSampleRepository extends JpaRepository<PlantMetricSa
                             FROM plant_metric_samples
                             WHERE ts >= :fromTs
                               AND ts < :toTs
+                              AND plant_id BETWEEN :fromKey AND :toKey
                               AND metric_type <> 'WATERING_VOLUME_L'
                         ) ranked
                         WHERE row_no > 1
@@ -99,8 +139,36 @@ public interface PlantMetricSampleRepository extends JpaRepository<PlantMetricSa
                     """,
             nativeQuery = true
     )
-    int compactDay(
+    int compactRange(
             @Param("fromTs") LocalDateTime fromTs,
-            @Param("toTs") LocalDateTime toTs
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey
+    );
+
+    // Translitem: skol'ko strok udalil by compactRange (dry-run prorezhivanija).
+    @Query(
+            value = """
+                    SELECT COUNT(*)
+                    FROM (
+                        SELECT ROW_NUMBER() OVER (
+                                   PARTITION BY plant_id, metric_type, DATE_TRUNC('hour', ts)
+                                   ORDER BY ts DESC, id DESC
+                               ) AS row_no
+                        FROM plant_metric_samples
+                        WHERE ts >= :fromTs
+                          AND ts < :toTs
+                          AND plant_id BETWEEN :fromKey AND :toKey
+                          AND metric_type <> 'WATERING_VOLUME_L'
+                    ) ranked
+                    WHERE row_no > 1
+                    """,
+            nativeQuery = true
+    )
+    long countCompactableRange(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey
     );
 }
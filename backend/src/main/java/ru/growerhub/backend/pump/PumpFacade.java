@@ -1,7 +1,12 @@
 ﻿package ru.growerhub.backend.pump;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Propagation;
@@ -10,6 +15,7 @@ import ru.growerhub.backend.device.contract.DeviceShadowState;
 import ru.growerhub.backend.pump.contract.PumpAck;
 import ru.growerhub.backend.pump.contract.PumpHistoryPoint;
 import ru.growerhub.backend.pump.contract.PumpRebootResult;
+import ru.growerhub.backend.pump.contract.PumpSessionChangedEvent;
 import ru.growerhub.backend.pump.contract.PumpStartResult;
 import ru.growerhub.backend.pump.contract.PumpStatusResult;
 import ru.growerhub.backend.pump.contract.PumpStopResult;
@@ -30,6 +36,7 @@ public class PumpFacade {
     private final PumpService pumpService;
     private final PumpStateHistoryService stateHistoryService;
     private final PumpSessionService sessionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PumpFacade(
             PumpBindingService bindingService,
@@ -37,7 +44,8 @@ public class PumpFacade {
             PumpQueryService queryService,
             PumpService pumpService,
             PumpStateHistoryService stateHistoryService,
-            PumpSessionService sessionService
+            PumpSessionService sessionService,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.bindingService = bindingService;
         this.wateringService = wateringService;
@@ -45,6 +53,7 @@ public class PumpFacade {
         this.pumpService = pumpService;
         this.stateHistoryService = stateHistoryService;
         this.sessionService = sessionService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -54,12 +63,16 @@ public class PumpFacade {
 
     @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = RuntimeException.class)
     public PumpSessionData.View startSession(PumpSessionData.Start request, AuthenticatedUser user) {
-        return sessionService.start(request, user);
+        PumpSessionData.View view = sessionService.start(request, user);
+        publishSessionChanged(view != null ? view.pumpId() : null);
+        return view;
     }
 
     @Transactional
     public PumpSessionData.View stopSession(Integer pumpId, AuthenticatedUser user) {
-        return sessionService.stop(pumpId, user);
+        PumpSessionData.View view = sessionService.stop(pumpId, user);
+        publishSessionChanged(pumpId);
+        return view;
     }
 
     @Transactional(readOnly = true)
@@ -93,7 +106,24 @@ public class PumpFacade {
             PumpSessionData.LeakProbe probe,
             LocalDateTime now
     ) {
-        return sessionService.advance(sessionId, probe, now);
+        PumpSessionData.View view = sessionService.advance(sessionId, probe, now);
+        publishSessionChanged(view != null ? view.pumpId() : null);
+        return view;
+    }
+
+    @Transactional(readOnly = true)
+    public List<PumpSessionData.LiveState> getLiveStates(Collection<Integer> pumpIds) {
+        List<PumpSessionData.LiveState> result = new ArrayList<>();
+        if (pumpIds == null) {
+            return result;
+        }
+        for (Integer pumpId : pumpIds) {
+            PumpSessionData.LiveState state = sessionService.liveState(pumpId);
+            if (state != null) {
+                result.add(state);
+            }
+        }
+        return result;
     }
 
     @Transactional
@@ -116,7 +146,7 @@ public class PumpFacade {
 
     @Transactional(noRollbackFor = RuntimeException.class)
     public PumpStartResult start(Integer pumpId, PumpWateringRequest request, AuthenticatedUser user) {
-        return wateringService.start(
+        PumpStartResult result = wateringService.start(
                 pumpId,
                 new PumpWateringService.PumpWateringRequest(
                         request.durationS(),
@@ -126,11 +156,15 @@ public class PumpFacade {
                 ),
                 user
         );
+        publishSessionChanged(pumpId);
+        return result;
     }
 
     @Transactional
     public PumpStopResult stop(Integer pumpId, AuthenticatedUser user) {
-        return wateringService.stop(pumpId, user);
+        PumpStopResult result = wateringService.stop(pumpId, user);
+        publishSessionChanged(pumpId);
+        return result;
     }
 
     @Transactional
@@ -148,6 +182,11 @@ public class PumpFacade {
         return wateringService.getAck(correlationId);
     }
 
+    // Translitem: bez tranzakcii - future zhivet dol'she vyzova i zavershaetsja na potoke MQTT.
+    public CompletableFuture<PumpAck> awaitAck(String correlationId, Duration timeout) {
+        return wateringService.awaitAck(correlationId, timeout);
+    }
+
     @Transactional
     public void finalizeWateringByDeviceId(String deviceId, LocalDateTime now) {
         wateringService.finalizeWateringByDeviceId(deviceId, now);
@@ -168,9 +207,24 @@ public class PumpFacade {
         return stateHistoryService.getOldestTimestamp();
     }
 
+    @Transactional(readOnly = true)
+    public List<Integer> findHistoryKeys(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, int maxKeys) {
+        return stateHistoryService.findHistoryKeys(fromTs, toTs, fromKey, maxKeys);
+    }
+
     @Transactional
-    public int compactHistoryDay(LocalDateTime fromTs, LocalDateTime toTs) {
-        return stateHistoryService.compactDay(fromTs, toTs);
+    public int compactHistoryChunk(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, Integer toKey) {
+        return stateHistoryService.compactRange(fromTs, toTs, fromKey, toKey);
+    }
+
+    @Transactional(readOnly = true)
+    public long countCompactableHistory(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, Integer toKey) {
+        return stateHistoryService.countCompactableRange(fromTs, toTs, fromKey, toKey);
+    }
+
+    @Transactional
+    public int copyCompactedHistoryPartition(String sourceTable, String targetTable) {
+        return stateHistoryService.copyCompactedPartition(sourceTable, targetTable);
     }
 
     @Transactional(readOnly = true)
@@ -198,6 +252,13 @@ public class PumpFacade {
         pumpService.deleteAllByDeviceId(deviceId);
     }
 
+    // Translitem: podpischiki (potok zhivyh izmenenij) poluchajut sobytie posle commit.
+    private void publishSessionChanged(Integer pumpId) {
+        if (pumpId != null) {
+            eventPublisher.publishEvent(new PumpSessionChangedEvent(pumpId));
+        }
+    }
+
     public record PumpBindingItem(Integer plantId, Integer rateMlPerHour) {
     }
 
@@ -1,15 +1,26 @@
 ﻿package ru.growerhub.backend.pump.contract;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 import ru.growerhub.backend.pump.contract.PumpAck;
 
+// Translitem: publish* brosajut DomainException, esli komanda ne prinjata k otpravke;
+// future zavershaetsja pri podtverzhdenii brokerom (PUBACK), ne ustrojstvom - dlja etogo getAck/awaitAck.
 public interface PumpCommandGateway {
-    void publishStart(String deviceId, String correlationId, LocalDateTime startedAt, Integer durationS);
+    CompletableFuture<Void> publishStart(
+            String deviceId,
+            String correlationId,
+            LocalDateTime startedAt,
+            Integer durationS
+    );
 
-    void publishStop(String deviceId, String correlationId, LocalDateTime issuedAt);
+    CompletableFuture<Void> publishStop(String deviceId, String correlationId, LocalDateTime issuedAt);
 
-    void publishReboot(String deviceId, String correlationId, long issuedAt);
+    CompletableFuture<Void> publishReboot(String deviceId, String correlationId, long issuedAt);
 
     PumpAck getAck(String correlationId);
+
+    CompletableFuture<PumpAck> awaitAck(String correlationId, Duration timeout);
 }
 
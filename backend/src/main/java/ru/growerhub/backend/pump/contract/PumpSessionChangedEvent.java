@@ -0,0 +1,5 @@
+package ru.growerhub.backend.pump.contract;
+
+// Sobytie izmenenija sessii poliva nasosa (start, stop, shag avtomata); publikuetsja PumpFacade.
+public record PumpSessionChangedEvent(Integer pumpId) {
+}
@@ -198,6 +198,14 @@ public final class PumpSessionData {
     ) {
     }
 
+    // Translitem: aktivnaja (ili poslednjaja) sessija nasosa i vladelec ego ustrojstva - dlja potoka zhivyh izmenenij.
+    public record LiveState(
+            Integer pumpId,
+            Integer ownerUserId,
+            View session
+    ) {
+    }
+
     public record Page(
             @JsonProperty("items") List<View> items,
             @JsonProperty("next_before_id") Long nextBeforeId
@@ -255,6 +255,20 @@ public class PumpSessionService {
         return session != null ? toView(session, nowUtc()) : null;
     }
 
+    public PumpSessionData.LiveState liveState(Integer pumpId) {
+        PumpEntity pump = pumpId != null ? pumpRepository.findById(pumpId).orElse(null) : null;
+        if (pump == null) {
+            return null;
+        }
+        DeviceSummary device = deviceFacade.getDeviceSummary(pump.getDeviceId());
+        PumpSessionData.View session = current(pumpId);
+        return new PumpSessionData.LiveState(
+                pump.getId(),
+                device != null ? device.userId() : null,
+                session != null ? session : lastSession(pumpId)
+        );
+    }
+
     public PumpSessionData.Page listSessions(Integer pumpId, int limit, Long beforeId) {
         int pageSize = pageSize(limit);
         List<PumpWateringSessionEntity> sessions = sessionRepository.findPageByPumpId(
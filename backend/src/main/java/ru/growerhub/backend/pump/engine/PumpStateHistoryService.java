@@ -18,6 +18,7 @@ import ru.growerhub.backend.pump.contract.PumpHistoryPoint;
 import ru.growerhub.backend.pump.jpa.PumpEntity;
 import ru.growerhub.backend.pump.jpa.PumpRepository;
 import ru.growerhub.backend.pump.jpa.PumpStateReadingEntity;
+import ru.growerhub.backend.pump.jpa.PumpStateReadingPartitionCompactor;
 import ru.growerhub.backend.pump.jpa.PumpStateReadingRepository;
 
 @Service
@@ -25,6 +26,7 @@ public class PumpStateHistoryService {
     private final PumpService pumpService;
     private final PumpRepository pumpRepository;
     private final PumpStateReadingRepository readingRepository;
+    private final PumpStateReadingPartitionCompactor partitionCompactor;
     private final PumpHistorySettings historySettings;
     private final ObjectMapper objectMapper;
     private final DeviceFacade deviceFacade;
@@ -33,6 +35,7 @@ public class PumpStateHistoryService {
             PumpService pumpService,
             PumpRepository pumpRepository,
             PumpStateReadingRepository readingRepository,
+            PumpStateReadingPartitionCompactor partitionCompactor,
             PumpHistorySettings historySettings,
             ObjectMapper objectMapper,
             @Lazy DeviceFacade deviceFacade
@@ -40,6 +43,7 @@ public class PumpStateHistoryService {
         this.pumpService = pumpService;
         this.pumpRepository = pumpRepository;
         this.readingRepository = readingRepository;
+        this.partitionCompactor = partitionCompactor;
         this.historySettings = historySettings;
         this.objectMapper = objectMapper;
         this.deviceFacade = deviceFacade;
@@ -102,8 +106,20 @@ public class PumpStateHistoryService {
         return readingRepository.findOldestTimestamp();
     }
 
-    public int compactDay(LocalDateTime fromTs, LocalDateTime toTs) {
-        return readingRepository.compactDay(fromTs, toTs);
+    public List<Integer> findHistoryKeys(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, int maxKeys) {
+        return readingRepository.findHistoryKeys(fromTs, toTs, fromKey, maxKeys);
+    }
+
+    public int compactRange(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, Integer toKey) {
+        return readingRepository.compactRange(fromTs, toTs, fromKey, toKey);
+    }
+
+    public long countCompactableRange(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, Integer toKey) {
+        return readingRepository.countCompactableRange(fromTs, toTs, fromKey, toKey);
+    }
+
+    public int copyCompactedPartition(String sourceTable, String targetTable) {
+        return partitionCompactor.copyCompacted(sourceTable, targetTable);
     }
 
     private PumpEntity requirePumpAccess(Integer pumpId, AuthenticatedUser user) {
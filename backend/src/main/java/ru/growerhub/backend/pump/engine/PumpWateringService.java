@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import ru.growerhub.backend.common.config.pump.PumpWateringSettings;
@@ -164,6 +165,10 @@ public class PumpWateringService {
         return commandGateway.getAck(correlationId);
     }
 
+    public CompletableFuture<PumpAck> awaitAck(String correlationId, Duration timeout) {
+        return commandGateway.awaitAck(correlationId, timeout);
+    }
+
     public void finalizeWateringByDeviceId(String deviceId, LocalDateTime now) {
         if (deviceId == null || deviceId.isBlank()) {
             return;
@@ -0,0 +1,50 @@
+package ru.growerhub.backend.pump.jpa;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.growerhub.backend.common.util.HistoryPartitions;
+
+// Prorezhivanie zakrytoj partitsii pump_state_readings kopirovaniem: ostajutsja pervaja zapis' sutok i perehody
+// is_running/raw_status (kak v PumpStateReadingRepository.compactRange).
+@Repository
+public class PumpStateReadingPartitionCompactor {
+    private static final String COPY_SQL = """
+            INSERT INTO %2$s
+            SELECT reading.*
+            FROM %1$s reading
+            JOIN (
+                SELECT id,
+                       is_running,
+                       raw_status,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY pump_id, DATE_TRUNC('day', ts)
+                           ORDER BY ts, id
+                       ) AS row_no,
+                       LAG(is_running) OVER (
+                           PARTITION BY pump_id, DATE_TRUNC('day', ts)
+                           ORDER BY ts, id
+                       ) AS previous_running,
+                       LAG(raw_status) OVER (
+                           PARTITION BY pump_id, DATE_TRUNC('day', ts)
+                           ORDER BY ts, id
+                       ) AS previous_status
+                FROM %1$s
+            ) transitions ON transitions.id = reading.id
+            WHERE transitions.row_no = 1
+               OR transitions.is_running IS DISTINCT FROM transitions.previous_running
+               OR transitions.raw_status IS DISTINCT FROM transitions.previous_status
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PumpStateReadingPartitionCompactor(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int copyCompacted(String sourceTable, String targetTable) {
+        return jdbcTemplate.update(COPY_SQL.formatted(
+                HistoryPartitions.requireIdentifier(sourceTable),
+                HistoryPartitions.requireIdentifier(targetTable)
+        ));
+    }
+}
@@ -52,6 +52,25 @@ public interface PumpStateReadingRepository extends JpaRepository<PumpStateReadi
     @Query("SELECT MIN(reading.ts) FROM PumpStateReadingEntity reading")
     LocalDateTime findOldestTimestamp();
 
+    @Query(
+            value = """
+                    SELECT DISTINCT pump_id
+                    FROM pump_state_readings
+                    WHERE ts >= :fromTs
+                      AND ts < :toTs
+                      AND pump_id >= :fromKey
+                    ORDER BY pump_id
+                    LIMIT :maxKeys
+                    """,
+            nativeQuery = true
+    )
+    List<Integer> findHistoryKeys(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("maxKeys") int maxKeys
+    );
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(
             value = """
@@ -77,6 +96,7 @@ public interface PumpStateReadingRepository extends JpaRepository<PumpStateReadi
                             FROM pump_state_readings
                             WHERE ts >= :fromTs
                               AND ts < :toTs
+                              AND pump_id BETWEEN :fromKey AND :toKey
                         ) transitions
                         WHERE row_no > 1
                           AND is_running IS NOT DISTINCT FROM previous_running
@@ -85,8 +105,47 @@ public interface PumpStateReadingRepository extends JpaRepository<PumpStateReadi
                     """,
             nativeQuery = true
     )
-    int compactDay(
+    int compactRange(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey
+    );
+
+    // Translitem: skol'ko strok udalil by compactRange (dry-run prorezhivanija).
+    @Query(
+            value = """
+                    SELECT COUNT(*)
+                    FROM (
+                        SELECT is_running,
+                               raw_status,
+                               ROW_NUMBER() OVER (
+                                   PARTITION BY pump_id
+                                   ORDER BY ts, id
+                               ) AS row_no,
+                               LAG(is_running) OVER (
+                                   PARTITION BY pump_id
+                                   ORDER BY ts, id
+                               ) AS previous_running,
+                               LAG(raw_status) OVER (
+                                   PARTITION BY pump_id
+                                   ORDER BY ts, id
+                               ) AS previous_status
+                        FROM pump_state_readings
+                        WHERE ts >= :fromTs
+                          AND ts < :toTs
+                          AND pump_id BETWEEN :fromKey AND :toKey
+                    ) transitions
+                    WHERE row_no > 1
+                      AND is_running IS NOT DISTINCT FROM previous_running
+                      AND raw_status IS NOT DISTINCT FROM previous_status
+                    """,
+            nativeQuery = true
+    )
+    long countCompactableRange(
             @Param("fromTs") LocalDateTime fromTs,
-            @Param("toTs") LocalDateTime toTs
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey
     );
 }
@@ -3,6 +3,7 @@
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import org.springframework.context.annotation.Lazy;
@@ -11,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.growerhub.backend.common.config.sensor.SensorHistorySettings;
 import ru.growerhub.backend.common.contract.AuthenticatedUser;
 import ru.growerhub.backend.common.contract.DomainException;
+import ru.growerhub.backend.common.util.HistoryRollup;
 import ru.growerhub.backend.device.DeviceFacade;
 import ru.growerhub.backend.device.contract.DeviceSummary;
 import ru.growerhub.backend.sensor.contract.SensorHistoryPoint;
@@ -18,37 +20,50 @@ import ru.growerhub.backend.sensor.contract.SensorMeasurement;
 import ru.growerhub.backend.sensor.contract.SensorReadingSummary;
 import ru.growerhub.backend.sensor.contract.SensorView;
 import ru.growerhub.backend.sensor.engine.SensorBindingService;
+import ru.growerhub.backend.sensor.engine.SensorHistoryRollupService;
 import ru.growerhub.backend.sensor.engine.SensorHistoryService;
 import ru.growerhub.backend.sensor.engine.SensorQueryService;
+import ru.growerhub.backend.sensor.engine.SensorResolutionCache;
 import ru.growerhub.backend.sensor.jpa.SensorEntity;
 import ru.growerhub.backend.sensor.jpa.SensorReadingEntity;
+import ru.growerhub.backend.sensor.jpa.SensorReadingPartitionCompactor;
 import ru.growerhub.backend.sensor.jpa.SensorReadingRepository;
+import ru.growerhub.backend.sensor.jpa.SensorReadingRollupEntity;
 import ru.growerhub.backend.sensor.jpa.SensorRepository;
 
 @Service
 public class SensorFacade {
     private final SensorBindingService bindingService;
     private final SensorHistoryService historyService;
+    private final SensorHistoryRollupService rollupService;
     private final SensorQueryService queryService;
+    private final SensorResolutionCache resolutionCache;
     private final SensorRepository sensorRepository;
     private final SensorReadingRepository sensorReadingRepository;
+    private final SensorReadingPartitionCompactor partitionCompactor;
     private final DeviceFacade deviceFacade;
     private final SensorHistorySettings historySettings;
 
     public SensorFacade(
             SensorBindingService bindingService,
             SensorHistoryService historyService,
+            SensorHistoryRollupService rollupService,
             SensorQueryService queryService,
+            SensorResolutionCache resolutionCache,
             SensorRepository sensorRepository,
             SensorReadingRepository sensorReadingRepository,
+            SensorReadingPartitionCompactor partitionCompactor,
             @Lazy DeviceFacade deviceFacade,
             SensorHistorySettings historySettings
     ) {
         this.bindingService = bindingService;
         this.historyService = historyService;
+        this.rollupService = rollupService;
         this.queryService = queryService;
+        this.resolutionCache = resolutionCache;
         this.sensorRepository = sensorRepository;
         this.sensorReadingRepository = sensorReadingRepository;
+        this.partitionCompactor = partitionCompactor;
         this.deviceFacade = deviceFacade;
         this.historySettings = historySettings;
     }
@@ -62,12 +77,29 @@ public class SensorFacade {
     public List<SensorHistoryPoint> getHistory(Integer sensorId, Integer hours, AuthenticatedUser user) {
         SensorEntity sensor = requireSensorAccess(sensorId, user);
         int defaultHours = historySettings.getDefaultHours();
-        LocalDateTime since = LocalDateTime.now(ZoneOffset.UTC).minusHours(hours != null ? hours : defaultHours);
-        List<SensorReadingEntity> rows = sensorReadingRepository
-                .findBucketedHistory(sensor.getId(), since, Math.max(1, historySettings.getMaxPoints()));
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime since = now.minusHours(hours != null ? hours : defaultHours);
+        int maxPoints = Math.max(1, historySettings.getMaxPoints());
+        HistoryRollup.Resolution resolution = rollupService.selectResolution(since, now, maxPoints);
         List<SensorHistoryPoint> payload = new ArrayList<>();
-        for (SensorReadingEntity row : rows) {
-            payload.add(new SensorHistoryPoint(row.getTs(), row.getValueNumeric()));
+        if (resolution == null) {
+            for (SensorReadingEntity row : sensorReadingRepository
+                    .findBucketedHistory(sensor.getId(), since, maxPoints)) {
+                payload.add(new SensorHistoryPoint(row.getTs(), row.getValueNumeric()));
+            }
+            return payload;
+        }
+        for (SensorReadingRollupEntity row : rollupService
+                .findBucketedHistory(sensor.getId(), resolution, since, maxPoints)) {
+            payload.add(new SensorHistoryPoint(row.getLastTs(), row.getLastValue()));
+        }
+        // Translitem: hvost posle poslednego zakrytogo bucket - poslednee syroe znachenie, kak v poslednem NTILE.
+        SensorReadingEntity latest = sensorReadingRepository
+                .findTopBySensor_IdOrderByTsDesc(sensor.getId())
+                .orElse(null);
+        if (!payload.isEmpty() && latest != null && latest.getValueNumeric() != null
+                && latest.getTs().isAfter(payload.get(payload.size() - 1).ts())) {
+            payload.set(payload.size() - 1, new SensorHistoryPoint(latest.getTs(), latest.getValueNumeric()));
         }
         return payload;
     }
@@ -87,12 +119,29 @@ public class SensorFacade {
         return queryService.listByPlantIdLight(plantId);
     }
 
+    @Transactional(readOnly = true)
+    public Map<Integer, List<SensorView>> listByPlantIdsLight(Collection<Integer> plantIds) {
+        return queryService.listByPlantIdsLight(plantIds);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Integer, SensorReadingSummary> getLastReadings(Collection<Integer> sensorIds) {
+        return queryService.getLastReadings(sensorIds);
+    }
+
     @Transactional
     public void deleteByDeviceId(Integer deviceId) {
         if (deviceId == null) {
             return;
         }
         sensorRepository.deleteAllByDeviceId(deviceId);
+        resolutionCache.evictDevice(deviceId);
+    }
+
+    // Translitem: javnoe udalenie privjazok rastenija (ne polagaemsja na kaskad BD) i sbros kesha sensorId -> plantIds.
+    @Transactional
+    public void deleteBindingsByPlantId(Integer plantId) {
+        bindingService.deleteByPlantId(plantId);
     }
 
     @Transactional
@@ -104,6 +153,11 @@ public class SensorFacade {
         return historyService.record(deviceId, measurements, ts);
     }
 
+    @Transactional
+    public List<SensorReadingSummary> recordMeasurementsBatch(Map<Integer, List<SensorMeasurement>> measurementsByDevicePk) {
+        return historyService.recordBatch(measurementsByDevicePk);
+    }
+
     @Transactional(readOnly = true)
     public Map<Integer, List<Integer>> getPlantIdsBySensorIds(List<Integer> sensorIds) {
         return bindingService.getPlantIdsBySensorIds(sensorIds);
@@ -114,9 +168,31 @@ public class SensorFacade {
         return sensorReadingRepository.findOldestTimestamp();
     }
 
+    // Translitem: sensor_id za period s fromKey po vozrastaniju - granicy chunk'ov prorezhivanija.
+    @Transactional(readOnly = true)
+    public List<Integer> findHistoryKeys(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, int maxKeys) {
+        return sensorReadingRepository.findHistoryKeys(fromTs, toTs, fromKey, maxKeys);
+    }
+
+    @Transactional
+    public int compactHistoryChunk(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, Integer toKey) {
+        return sensorReadingRepository.compactRange(fromTs, toTs, fromKey, toKey);
+    }
+
+    @Transactional(readOnly = true)
+    public long countCompactableHistory(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, Integer toKey) {
+        return sensorReadingRepository.countCompactableRange(fromTs, toTs, fromKey, toKey);
+    }
+
+    // Translitem: kopiruet ostavljaemye stroki zakrytoj partitsii v novuju tablicu; vozvrashchaet ih chislo.
+    @Transactional
+    public int copyCompactedHistoryPartition(String sourceTable, String targetTable) {
+        return partitionCompactor.copyCompacted(sourceTable, targetTable);
+    }
+
     @Transactional
-    public int compactHistoryDay(LocalDateTime fromTs, LocalDateTime toTs) {
-        return sensorReadingRepository.compactDay(fromTs, toTs);
+    public int rollupHistory(LocalDateTime fromTs, LocalDateTime toTs) {
+        return rollupService.rollup(fromTs, toTs);
     }
 
     private SensorEntity requireSensorAccess(Integer sensorId, AuthenticatedUser user) {
@@ -22,17 +22,20 @@ import ru.growerhub.backend.sensor.jpa.SensorRepository;
 public class SensorBindingService {
     private final SensorRepository sensorRepository;
     private final SensorPlantBindingRepository bindingRepository;
+    private final SensorResolutionCache resolutionCache;
     private final PlantFacade plantFacade;
     private final DeviceFacade deviceFacade;
 
     public SensorBindingService(
             SensorRepository sensorRepository,
             SensorPlantBindingRepository bindingRepository,
+            SensorResolutionCache resolutionCache,
             @Lazy PlantFacade plantFacade,
             @Lazy DeviceFacade deviceFacade
     ) {
         this.sensorRepository = sensorRepository;
         this.bindingRepository = bindingRepository;
+        this.resolutionCache = resolutionCache;
         this.plantFacade = plantFacade;
         this.deviceFacade = deviceFacade;
     }
@@ -80,18 +83,39 @@ public class SensorBindingService {
             binding.setPlantId(plantId);
             bindingRepository.save(binding);
         }
+        resolutionCache.evictBindings(sensorId);
+    }
+
+    public void deleteByPlantId(Integer plantId) {
+        if (plantId == null) {
+            return;
+        }
+        bindingRepository.deleteAllByPlantId(plantId);
+        resolutionCache.evictPlant(plantId);
     }
 
     public Map<Integer, List<Integer>> getPlantIdsBySensorIds(List<Integer> sensorIds) {
         if (sensorIds == null || sensorIds.isEmpty()) {
             return Map.of();
         }
-        List<SensorPlantBindingEntity> bindings = bindingRepository.findAllBySensor_IdIn(sensorIds);
-        if (bindings.isEmpty()) {
-            return Map.of();
-        }
         Map<Integer, List<Integer>> result = new HashMap<>();
-        for (SensorPlantBindingEntity binding : bindings) {
+        List<Integer> missing = new ArrayList<>();
+        for (Integer sensorId : sensorIds) {
+            List<Integer> cached = resolutionCache.getPlantIds(sensorId);
+            if (cached == null) {
+                missing.add(sensorId);
+            } else if (!cached.isEmpty()) {
+                result.put(sensorId, cached);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<Integer, List<Integer>> loaded = new HashMap<>();
+        for (Integer sensorId : missing) {
+            loaded.put(sensorId, new ArrayList<>());
+        }
+        for (SensorPlantBindingEntity binding : bindingRepository.findAllBySensor_IdIn(missing)) {
             if (binding.getSensor() == null || binding.getPlantId() == null) {
                 continue;
             }
@@ -99,7 +123,14 @@ public class SensorBindingService {
             if (sensorId == null) {
                 continue;
             }
-            result.computeIfAbsent(sensorId, key -> new ArrayList<>()).add(binding.getPlantId());
+            loaded.computeIfAbsent(sensorId, key -> new ArrayList<>()).add(binding.getPlantId());
+        }
+        // Translitem: pustye spiski tozhe keshirujutsja, inache nepriviazannyj sensor hodil by v BD na kazhdyj state.
+        resolutionCache.rememberPlantIds(loaded);
+        for (Map.Entry<Integer, List<Integer>> entry : loaded.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                result.put(entry.getKey(), entry.getValue());
+            }
         }
         return result;
     }
@@ -0,0 +1,136 @@
+package ru.growerhub.backend.sensor.engine;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import ru.growerhub.backend.common.config.maintenance.HistoryRollupSettings;
+import ru.growerhub.backend.common.util.HistoryRollup;
+import ru.growerhub.backend.sensor.jpa.SensorReadingRepository;
+import ru.growerhub.backend.sensor.jpa.SensorReadingRollupEntity;
+import ru.growerhub.backend.sensor.jpa.SensorReadingRollupRepository;
+
+// Rollup istorii sensorov: 5m iz syryh strok, 1h iz 5m, 1d iz 1h; grafiki dlinnyh okon chitajut agregaty.
+@Component
+public class SensorHistoryRollupService {
+    private final SensorReadingRepository readingRepository;
+    private final SensorReadingRollupRepository rollupRepository;
+    private final HistoryRollupSettings settings;
+    private final HistoryRollup.Coverage coverage;
+
+    public SensorHistoryRollupService(
+            SensorReadingRepository readingRepository,
+            SensorReadingRollupRepository rollupRepository,
+            HistoryRollupSettings settings
+    ) {
+        this.readingRepository = readingRepository;
+        this.rollupRepository = rollupRepository;
+        this.settings = settings;
+        this.coverage = new HistoryRollup.Coverage(() -> {
+            LocalDateTime latest = rollupRepository.findLatestBucketStart(HistoryRollup.Resolution.FIVE_MINUTES.code());
+            return latest != null ? latest.plusSeconds(HistoryRollup.Resolution.FIVE_MINUTES.seconds()) : null;
+        });
+    }
+
+    // Translitem: fromTs/toTs vyrovneny po 5m; vozvrashchaet chislo zapisannyh bucket'ov vseh razreshenij.
+    public int rollup(LocalDateTime fromTs, LocalDateTime toTs) {
+        Map<SeriesBucket, HistoryRollup.Bucket> buckets = new LinkedHashMap<>();
+        for (Object[] row : readingRepository.findNumericRange(fromTs, toTs)) {
+            LocalDateTime ts = (LocalDateTime) row[1];
+            SeriesBucket key = new SeriesBucket((Integer) row[0], HistoryRollup.Resolution.FIVE_MINUTES.bucketStart(ts));
+            buckets.computeIfAbsent(key, ignored -> new HistoryRollup.Bucket()).add(ts, (Double) row[2]);
+        }
+        int written = replace(HistoryRollup.Resolution.FIVE_MINUTES, fromTs, toTs, buckets);
+        for (HistoryRollup.Resolution resolution : List.of(HistoryRollup.Resolution.HOUR, HistoryRollup.Resolution.DAY)) {
+            LocalDateTime rangeStart = resolution.bucketStart(fromTs);
+            LocalDateTime rangeEnd = resolution.bucketCeil(toTs);
+            Map<SeriesBucket, HistoryRollup.Bucket> merged = new LinkedHashMap<>();
+            for (SensorReadingRollupEntity source : rollupRepository.findRange(
+                    resolution.source().code(),
+                    rangeStart,
+                    rangeEnd
+            )) {
+                SeriesBucket key = new SeriesBucket(source.getSensorId(), resolution.bucketStart(source.getBucketStart()));
+                merged.computeIfAbsent(key, ignored -> new HistoryRollup.Bucket()).merge(
+                        source.getMinValue(),
+                        source.getMaxValue(),
+                        source.getAvgValue(),
+                        source.getValueCount(),
+                        source.getLastTs(),
+                        source.getLastValue()
+                );
+            }
+            written += replace(resolution, rangeStart, rangeEnd, merged);
+        }
+        return written;
+    }
+
+    // Translitem: null - chitat' syrye stroki (korotkoe okno, rollup vykljuchen ili otstaet).
+    public HistoryRollup.Resolution selectResolution(LocalDateTime since, LocalDateTime now, int maxPoints) {
+        if (!settings.isEnabled()) {
+            return null;
+        }
+        HistoryRollup.Resolution resolution = HistoryRollup.select(
+                since,
+                now,
+                maxPoints,
+                Duration.ofHours(Math.max(0, settings.getRawWindowHours()))
+        );
+        if (resolution == null || !coverage.isFresh(
+                now,
+                Duration.ofMinutes(Math.max(1, settings.getMaxCoverageLagMinutes())),
+                settings.getCoverageRefreshMs()
+        )) {
+            return null;
+        }
+        return resolution;
+    }
+
+    public List<SensorReadingRollupEntity> findBucketedHistory(
+            Integer sensorId,
+            HistoryRollup.Resolution resolution,
+            LocalDateTime since,
+            int maxPoints
+    ) {
+        return rollupRepository.findBucketedHistory(
+                sensorId,
+                resolution.code(),
+                resolution.bucketStart(since),
+                since,
+                maxPoints
+        );
+    }
+
+    private int replace(
+            HistoryRollup.Resolution resolution,
+            LocalDateTime fromTs,
+            LocalDateTime toTs,
+            Map<SeriesBucket, HistoryRollup.Bucket> buckets
+    ) {
+        rollupRepository.deleteRange(resolution.code(), fromTs, toTs);
+        List<SensorReadingRollupEntity> rows = new ArrayList<>(buckets.size());
+        for (Map.Entry<SeriesBucket, HistoryRollup.Bucket> entry : buckets.entrySet()) {
+            HistoryRollup.Bucket bucket = entry.getValue();
+            SensorReadingRollupEntity row = SensorReadingRollupEntity.create();
+            row.setSensorId(entry.getKey().sensorId());
+            row.setResolution(resolution.code());
+            row.setBucketStart(entry.getKey().bucketStart());
+            row.setMinValue(bucket.min());
+            row.setMaxValue(bucket.max());
+            row.setAvgValue(bucket.avg());
+            row.setValueCount(bucket.count());
+            row.setLastTs(bucket.lastTs());
+            row.setLastValue(bucket.lastValue());
+            rows.add(row);
+        }
+        rollupRepository.saveAll(rows);
+        rollupRepository.flush();
+        return rows.size();
+    }
+
+    private record SeriesBucket(Integer sensorId, LocalDateTime bucketStart) {
+    }
+}
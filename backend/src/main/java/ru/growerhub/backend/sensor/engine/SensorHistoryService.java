@@ -3,34 +3,49 @@
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import ru.growerhub.backend.device.DeviceFacade;
 import ru.growerhub.backend.sensor.contract.SensorMeasurement;
 import ru.growerhub.backend.sensor.contract.SensorReadingSummary;
 import ru.growerhub.backend.sensor.contract.SensorStatus;
+import ru.growerhub.backend.sensor.engine.SensorResolutionCache.SensorKey;
+import ru.growerhub.backend.sensor.engine.SensorResolutionCache.SensorRef;
 import ru.growerhub.backend.sensor.jpa.SensorEntity;
-import ru.growerhub.backend.sensor.jpa.SensorReadingEntity;
-import ru.growerhub.backend.sensor.jpa.SensorReadingRepository;
+import ru.growerhub.backend.sensor.jpa.SensorLastValueWriter;
+import ru.growerhub.backend.sensor.jpa.SensorReadingBatchWriter;
 import ru.growerhub.backend.sensor.jpa.SensorRepository;
 
 @Service
 public class SensorHistoryService {
     private final SensorRepository sensorRepository;
-    private final SensorReadingRepository sensorReadingRepository;
+    private final SensorReadingBatchWriter readingBatchWriter;
+    private final SensorLastValueWriter lastValueWriter;
+    private final SensorResolutionCache resolutionCache;
     private final DeviceFacade deviceFacade;
 
     public SensorHistoryService(
             SensorRepository sensorRepository,
-            SensorReadingRepository sensorReadingRepository,
+            SensorReadingBatchWriter readingBatchWriter,
+            SensorLastValueWriter lastValueWriter,
+            SensorResolutionCache resolutionCache,
             @Lazy DeviceFacade deviceFacade
     ) {
         this.sensorRepository = sensorRepository;
-        this.sensorReadingRepository = sensorReadingRepository;
+        this.readingBatchWriter = readingBatchWriter;
+        this.lastValueWriter = lastValueWriter;
+        this.resolutionCache = resolutionCache;
         this.deviceFacade = deviceFacade;
     }
 
+    // Translitem: pri vkljuchennom keshe sensor chitaetsja i pishetsja tol'ko pri promahe ili smene detected/status,
+    // poslednee znachenie pishetsja v sensors.last_value guarded UPDATE v toj zhe tranzakcii, chto i readings.
     public List<SensorReadingSummary> record(String deviceId, List<SensorMeasurement> measurements, LocalDateTime ts) {
         if (measurements == null || measurements.isEmpty()) {
             return List.of();
@@ -40,53 +55,192 @@ public class SensorHistoryService {
             return List.of();
         }
         List<SensorReadingSummary> summaries = new ArrayList<>();
+        List<SensorReadingBatchWriter.Row> rows = new ArrayList<>();
+        Map<Integer, SensorLastValueWriter.Row> lastValues = new LinkedHashMap<>();
         LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
         for (SensorMeasurement measurement : measurements) {
             if (measurement == null) {
                 continue;
             }
-            SensorEntity sensor = sensorRepository.findByDeviceIdAndTypeAndChannel(
-                    devicePk,
-                    measurement.type(),
-                    measurement.channel()
-            ).orElse(null);
-            if (sensor == null) {
-                sensor = SensorEntity.create();
-                sensor.setDeviceId(devicePk);
-                sensor.setType(measurement.type());
-                sensor.setChannel(measurement.channel());
-                sensor.setDetected(measurement.detected());
-                sensor.setStatus(measurement.status());
-                sensor.setStatusChangedAt(measurement.statusObservedAt() != null ? measurement.statusObservedAt() : ts);
-                if (measurement.status() == SensorStatus.ERROR) {
-                    sensor.setLastErrorAt(measurement.statusObservedAt() != null ? measurement.statusObservedAt() : ts);
+            SensorKey key = new SensorKey(devicePk, measurement.type(), measurement.channel());
+            Integer sensorId;
+            SensorRef ref = resolutionCache.getSensor(key);
+            if (ref != null && ref.matches(measurement)) {
+                sensorId = ref.id();
+                rememberLastValue(lastValues, sensorId, ts, measurement.value());
+            } else {
+                SensorEntity sensor = sensorRepository.findByDeviceIdAndTypeAndChannel(
+                        devicePk,
+                        measurement.type(),
+                        measurement.channel()
+                ).orElse(null);
+                sensor = applyMeasurement(sensor, devicePk, measurement, ts, now);
+                if (measurement.value() != null) {
+                    applyLastValue(sensor, ts, measurement.value());
                 }
-                sensor.setCreatedAt(now);
+                sensor = sensorRepository.save(sensor);
+                sensorId = sensor.getId();
+                resolutionCache.rememberSensor(key, toRef(sensor));
             }
-            if (measurement.detected() != sensor.isDetected()) {
-                sensor.setDetected(measurement.detected());
+
+            if (measurement.value() != null) {
+                rows.add(new SensorReadingBatchWriter.Row(sensorId, ts, measurement.value(), now));
+                summaries.add(new SensorReadingSummary(sensorId, measurement.type(), ts, measurement.value()));
             }
-            SensorStatus nextStatus = measurement.status();
-            if (nextStatus != sensor.getStatus()) {
-                sensor.setStatus(nextStatus);
-                sensor.setStatusChangedAt(measurement.statusObservedAt() != null ? measurement.statusObservedAt() : ts);
+        }
+        readingBatchWriter.insertAll(rows);
+        lastValueWriter.updateAll(List.copyOf(lastValues.values()));
+        return summaries;
+    }
+
+    // Paketnaja zapis' dlja write-behind: odin select sensorov na ves' batch i JDBC batch insert readings.
+    // Vremja izmerenija beretsja iz statusObservedAt (vremja priema konkretnogo state).
+    // Sensory ustrojstv, polnost'ju razreshennyh keshem, iz BD ne chitajutsja.
+    public List<SensorReadingSummary> recordBatch(Map<Integer, List<SensorMeasurement>> measurementsByDevicePk) {
+        if (measurementsByDevicePk == null || measurementsByDevicePk.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        Set<Integer> loadedDevices = new HashSet<>();
+        for (Map.Entry<Integer, List<SensorMeasurement>> entry : measurementsByDevicePk.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null && !isResolved(entry.getKey(), entry.getValue())) {
+                loadedDevices.add(entry.getKey());
             }
-            if (nextStatus == SensorStatus.ERROR) {
-                sensor.setLastErrorAt(measurement.statusObservedAt() != null ? measurement.statusObservedAt() : ts);
+        }
+        Map<SensorKey, SensorEntity> sensors = new HashMap<>();
+        if (!loadedDevices.isEmpty()) {
+            for (SensorEntity sensor : sensorRepository.findAllByDeviceIdIn(loadedDevices)) {
+                sensors.put(new SensorKey(sensor.getDeviceId(), sensor.getType(), sensor.getChannel()), sensor);
             }
-            sensor.setUpdatedAt(now);
-            sensorRepository.save(sensor);
-
-            if (measurement.value() != null) {
-                SensorReadingEntity reading = SensorReadingEntity.create();
-                reading.setSensor(sensor);
-                reading.setTs(ts);
-                reading.setValueNumeric(measurement.value());
-                reading.setCreatedAt(now);
-                sensorReadingRepository.save(reading);
-                summaries.add(new SensorReadingSummary(sensor.getId(), sensor.getType(), ts, measurement.value()));
+        }
+        Map<SensorKey, SensorEntity> touched = new LinkedHashMap<>();
+        Map<Integer, SensorLastValueWriter.Row> lastValues = new LinkedHashMap<>();
+        List<SensorReadingBatchWriter.Row> rows = new ArrayList<>();
+        List<SensorReadingSummary> summaries = new ArrayList<>();
+        for (Map.Entry<Integer, List<SensorMeasurement>> entry : measurementsByDevicePk.entrySet()) {
+            Integer devicePk = entry.getKey();
+            if (devicePk == null || entry.getValue() == null) {
+                continue;
+            }
+            for (SensorMeasurement measurement : entry.getValue()) {
+                if (measurement == null) {
+                    continue;
+                }
+                LocalDateTime ts = measurement.statusObservedAt() != null ? measurement.statusObservedAt() : now;
+                SensorKey key = new SensorKey(devicePk, measurement.type(), measurement.channel());
+                Integer sensorId;
+                SensorRef ref = sensors.containsKey(key) ? null : resolutionCache.getSensor(key);
+                if (ref != null && ref.matches(measurement)) {
+                    sensorId = ref.id();
+                    rememberLastValue(lastValues, sensorId, ts, measurement.value());
+                } else {
+                    // Translitem: kesh mog byt' sbroshen posle predvaritel'noj proverki - dochityvaem ustrojstvo.
+                    if (loadedDevices.add(devicePk)) {
+                        for (SensorEntity sensor : sensorRepository.findAllByDeviceId(devicePk)) {
+                            sensors.put(new SensorKey(sensor.getDeviceId(), sensor.getType(), sensor.getChannel()), sensor);
+                        }
+                    }
+                    SensorEntity sensor = applyMeasurement(sensors.get(key), devicePk, measurement, ts, now);
+                    if (measurement.value() != null) {
+                        applyLastValue(sensor, ts, measurement.value());
+                    }
+                    if (sensor.getId() == null) {
+                        sensor = sensorRepository.save(sensor);
+                    }
+                    sensors.put(key, sensor);
+                    touched.put(key, sensor);
+                    sensorId = sensor.getId();
+                }
+                if (measurement.value() != null) {
+                    rows.add(new SensorReadingBatchWriter.Row(sensorId, ts, measurement.value(), now));
+                    summaries.add(new SensorReadingSummary(sensorId, measurement.type(), ts, measurement.value()));
+                }
             }
         }
+        sensorRepository.saveAll(touched.values());
+        for (Map.Entry<SensorKey, SensorEntity> entry : touched.entrySet()) {
+            resolutionCache.rememberSensor(entry.getKey(), toRef(entry.getValue()));
+        }
+        readingBatchWriter.insertAll(rows);
+        lastValueWriter.updateAll(List.copyOf(lastValues.values()));
         return summaries;
     }
+
+    private boolean isResolved(Integer devicePk, List<SensorMeasurement> measurements) {
+        for (SensorMeasurement measurement : measurements) {
+            if (measurement == null) {
+                continue;
+            }
+            SensorRef ref = resolutionCache.getSensor(new SensorKey(devicePk, measurement.type(), measurement.channel()));
+            if (ref == null || !ref.matches(measurement)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Translitem: sensor iz kesha ne zagruzhen v sessiju - poslednee znachenie pishet JDBC batch, po odnomu na sensor.
+    private void rememberLastValue(
+            Map<Integer, SensorLastValueWriter.Row> lastValues,
+            Integer sensorId,
+            LocalDateTime ts,
+            Double value
+    ) {
+        if (value == null || ts == null) {
+            return;
+        }
+        lastValues.merge(
+                sensorId,
+                new SensorLastValueWriter.Row(sensorId, ts, value),
+                (current, next) -> next.ts().isBefore(current.ts()) ? current : next
+        );
+    }
+
+    private SensorRef toRef(SensorEntity sensor) {
+        return new SensorRef(sensor.getId(), sensor.isDetected(), sensor.getStatus());
+    }
+
+    private SensorEntity applyMeasurement(
+            SensorEntity sensor,
+            Integer devicePk,
+            SensorMeasurement measurement,
+            LocalDateTime ts,
+            LocalDateTime now
+    ) {
+        if (sensor == null) {
+            sensor = SensorEntity.create();
+            sensor.setDeviceId(devicePk);
+            sensor.setType(measurement.type());
+            sensor.setChannel(measurement.channel());
+            sensor.setDetected(measurement.detected());
+            sensor.setStatus(measurement.status());
+            sensor.setStatusChangedAt(measurement.statusObservedAt() != null ? measurement.statusObservedAt() : ts);
+            if (measurement.status() == SensorStatus.ERROR) {
+                sensor.setLastErrorAt(measurement.statusObservedAt() != null ? measurement.statusObservedAt() : ts);
+            }
+            sensor.setCreatedAt(now);
+        }
+        if (measurement.detected() != sensor.isDetected()) {
+            sensor.setDetected(measurement.detected());
+        }
+        SensorStatus nextStatus = measurement.status();
+        if (nextStatus != sensor.getStatus()) {
+            sensor.setStatus(nextStatus);
+            sensor.setStatusChangedAt(measurement.statusObservedAt() != null ? measurement.statusObservedAt() : ts);
+        }
+        if (nextStatus == SensorStatus.ERROR) {
+            sensor.setLastErrorAt(measurement.statusObservedAt() != null ? measurement.statusObservedAt() : ts);
+        }
+        sensor.setUpdatedAt(now);
+        return sensor;
+    }
+
+    // Translitem: poslednee znachenie hranitsja na sensore, chtoby spiski ne iskali top-1 reading po kazhdomu sensoru.
+    private void applyLastValue(SensorEntity sensor, LocalDateTime ts, Double value) {
+        if (sensor.getLastValueAt() != null && ts != null && ts.isBefore(sensor.getLastValueAt())) {
+            return;
+        }
+        sensor.setLastValue(value);
+        sensor.setLastValueAt(ts);
+    }
 }
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,12 +15,11 @@ import org.springframework.stereotype.Service;
 import ru.growerhub.backend.plant.PlantFacade;
 import ru.growerhub.backend.plant.contract.PlantInfo;
 import ru.growerhub.backend.sensor.contract.SensorBoundPlantView;
+import ru.growerhub.backend.sensor.contract.SensorReadingSummary;
 import ru.growerhub.backend.sensor.contract.SensorStatus;
 import ru.growerhub.backend.sensor.jpa.SensorEntity;
 import ru.growerhub.backend.sensor.jpa.SensorPlantBindingEntity;
 import ru.growerhub.backend.sensor.jpa.SensorPlantBindingRepository;
-import ru.growerhub.backend.sensor.jpa.SensorReadingEntity;
-import ru.growerhub.backend.sensor.jpa.SensorReadingRepository;
 import ru.growerhub.backend.sensor.jpa.SensorRepository;
 import ru.growerhub.backend.sensor.contract.SensorView;
 import ru.growerhub.backend.diagnostics.PlantTiming;
@@ -27,18 +27,15 @@ import ru.growerhub.backend.diagnostics.PlantTiming;
 @Service
 public class SensorQueryService {
     private final SensorRepository sensorRepository;
-    private final SensorReadingRepository sensorReadingRepository;
     private final SensorPlantBindingRepository bindingRepository;
     private final PlantFacade plantFacade;
 
     public SensorQueryService(
             SensorRepository sensorRepository,
-            SensorReadingRepository sensorReadingRepository,
             SensorPlantBindingRepository bindingRepository,
             @Lazy PlantFacade plantFacade
     ) {
         this.sensorRepository = sensorRepository;
-        this.sensorReadingRepository = sensorReadingRepository;
         this.bindingRepository = bindingRepository;
         this.plantFacade = plantFacade;
     }
@@ -54,22 +51,7 @@ public class SensorQueryService {
         Map<Integer, List<SensorBoundPlantView>> boundPlantsBySensor = loadBindings(sensors);
         List<SensorView> result = new ArrayList<>();
         for (SensorEntity sensor : sensors) {
-            SensorReadingEntity last = sensorReadingRepository
-                    .findTopBySensor_IdOrderByTsDesc(sensor.getId())
-                    .orElse(null);
-            List<SensorBoundPlantView> boundPlants = boundPlantsBySensor.getOrDefault(sensor.getId(), List.of());
-            result.add(new SensorView(
-                    sensor.getId(),
-                    sensor.getDeviceId(),
-                    sensor.getType(),
-                    sensor.getChannel(),
-                    sensor.getLabel(),
-                    sensor.isDetected(),
-                    resolveStatus(sensor),
-                    last != null ? last.getValueNumeric() : null,
-                    last != null ? last.getTs() : null,
-                    boundPlants
-            ));
+            result.add(toView(sensor, boundPlantsBySensor.getOrDefault(sensor.getId(), List.of())));
         }
         return result;
     }
@@ -98,21 +80,7 @@ public class SensorQueryService {
             List<SensorView> result = new ArrayList<>();
             SensorBoundPlantView plantView = toPlantView(plant);
             for (SensorEntity sensor : sensors.values()) {
-                SensorReadingEntity last = sensorReadingRepository
-                        .findTopBySensor_IdOrderByTsDesc(sensor.getId())
-                        .orElse(null);
-                result.add(new SensorView(
-                        sensor.getId(),
-                        sensor.getDeviceId(),
-                        sensor.getType(),
-                        sensor.getChannel(),
-                        sensor.getLabel(),
-                        sensor.isDetected(),
-                        resolveStatus(sensor),
-                        last != null ? last.getValueNumeric() : null,
-                        last != null ? last.getTs() : null,
-                        List.of(plantView)
-                ));
+                result.add(toView(sensor, List.of(plantView)));
             }
             return result;
         } finally {
@@ -139,21 +107,7 @@ public class SensorQueryService {
             }
             List<SensorView> result = new ArrayList<>();
             for (SensorEntity sensor : sensors.values()) {
-                SensorReadingEntity last = sensorReadingRepository
-                        .findTopBySensor_IdOrderByTsDesc(sensor.getId())
-                        .orElse(null);
-                result.add(new SensorView(
-                        sensor.getId(),
-                        sensor.getDeviceId(),
-                        sensor.getType(),
-                        sensor.getChannel(),
-                        sensor.getLabel(),
-                        sensor.isDetected(),
-                        resolveStatus(sensor),
-                        last != null ? last.getValueNumeric() : null,
-                        last != null ? last.getTs() : null,
-                        List.of()
-                ));
+                result.add(toView(sensor, List.of()));
             }
             return result;
         } finally {
@@ -161,6 +115,73 @@ public class SensorQueryService {
         }
     }
 
+    // Translitem: light-spisok dlja mnogih rastenij odnim zaprosom privjazok (sensor podtjagivaetsja join'om).
+    public Map<Integer, List<SensorView>> listByPlantIdsLight(Collection<Integer> plantIds) {
+        Map<Integer, List<SensorView>> result = new HashMap<>();
+        if (plantIds == null || plantIds.isEmpty()) {
+            return result;
+        }
+        long start = PlantTiming.startTimer();
+        try {
+            Map<Integer, Map<Integer, SensorEntity>> sensorsByPlant = new HashMap<>();
+            for (SensorPlantBindingEntity binding : bindingRepository.findAllByPlantIdIn(plantIds)) {
+                SensorEntity sensor = binding.getSensor();
+                if (sensor != null) {
+                    sensorsByPlant.computeIfAbsent(binding.getPlantId(), key -> new HashMap<>())
+                            .putIfAbsent(sensor.getId(), sensor);
+                }
+            }
+            for (Integer plantId : plantIds) {
+                Map<Integer, SensorEntity> sensors = sensorsByPlant.getOrDefault(plantId, Map.of());
+                List<SensorView> views = new ArrayList<>();
+                for (SensorEntity sensor : sensors.values()) {
+                    views.add(toView(sensor, List.of()));
+                }
+                result.put(plantId, views);
+            }
+            return result;
+        } finally {
+            PlantTiming.recordSensors(null, start);
+        }
+    }
+
+    public Map<Integer, SensorReadingSummary> getLastReadings(Collection<Integer> sensorIds) {
+        Map<Integer, SensorReadingSummary> result = new HashMap<>();
+        if (sensorIds == null || sensorIds.isEmpty()) {
+            return result;
+        }
+        for (SensorEntity sensor : sensorRepository.findAllById(sensorIds)) {
+            SensorReadingSummary last = resolveLastValue(sensor);
+            if (last != null) {
+                result.put(sensor.getId(), last);
+            }
+        }
+        return result;
+    }
+
+    private SensorView toView(SensorEntity sensor, List<SensorBoundPlantView> boundPlants) {
+        SensorReadingSummary last = resolveLastValue(sensor);
+        return new SensorView(
+                sensor.getId(),
+                sensor.getDeviceId(),
+                sensor.getType(),
+                sensor.getChannel(),
+                sensor.getLabel(),
+                sensor.isDetected(),
+                resolveStatus(sensor),
+                last != null ? last.value() : null,
+                last != null ? last.ts() : null,
+                boundPlants
+        );
+    }
+
+    private SensorReadingSummary resolveLastValue(SensorEntity sensor) {
+        if (sensor.getLastValueAt() == null) {
+            return null;
+        }
+        return new SensorReadingSummary(sensor.getId(), sensor.getType(), sensor.getLastValueAt(), sensor.getLastValue());
+    }
+
     private Map<Integer, List<SensorBoundPlantView>> loadBindings(List<SensorEntity> sensors) {
         List<Integer> sensorIds = sensors.stream()
                 .map(SensorEntity::getId)
@@ -0,0 +1,221 @@
+package ru.growerhub.backend.sensor.engine;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.growerhub.backend.common.config.IngestCacheSettings;
+import ru.growerhub.backend.common.contract.ChangeBus;
+import ru.growerhub.backend.sensor.contract.SensorMeasurement;
+import ru.growerhub.backend.sensor.contract.SensorStatus;
+import ru.growerhub.backend.sensor.contract.SensorType;
+
+// Kesh razreshenija (devicePk, type, channel) -> sensor i sensorId -> plantIds dlja priema state.
+// Zapolnjaetsja posle commit; invalidiruetsja pri smene privjazok, udalenii ustrojstva ili rastenija -
+// na svoem uzle srazu i posle commit, na drugih uzlah po shine izmenenij.
+@Component
+public class SensorResolutionCache {
+    private static final Logger log = LoggerFactory.getLogger(SensorResolutionCache.class);
+    static final String CHANGE_TOPIC = "sensor-cache";
+
+    private final IngestCacheSettings settings;
+    private final ObjectMapper objectMapper;
+    private final ChangeBus changeBus;
+    private final Map<SensorKey, SensorRef> sensors = new ConcurrentHashMap<>();
+    private final Map<Integer, CachedBindings> bindings = new ConcurrentHashMap<>();
+
+    public SensorResolutionCache(IngestCacheSettings settings, ObjectMapper objectMapper, ChangeBus changeBus) {
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+        this.changeBus = changeBus;
+        changeBus.subscribe(CHANGE_TOPIC, this::applyRemote);
+        changeBus.onResync(this::clear);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    public SensorRef getSensor(SensorKey key) {
+        return settings.isEnabled() ? sensors.get(key) : null;
+    }
+
+    public void rememberSensor(SensorKey key, SensorRef ref) {
+        if (!settings.isEnabled() || ref == null || ref.id() == null) {
+            return;
+        }
+        afterCommit(() -> sensors.put(key, ref));
+    }
+
+    // Translitem: null oznachaet promah; pustoj spisok - sensor izvesten i ni k chemu ne privjazan.
+    public List<Integer> getPlantIds(Integer sensorId) {
+        if (!settings.isEnabled() || sensorId == null) {
+            return null;
+        }
+        CachedBindings cached = bindings.get(sensorId);
+        if (cached == null) {
+            return null;
+        }
+        long ttlNs = TimeUnit.SECONDS.toNanos(settings.getBindingTtlSeconds());
+        if (ttlNs > 0 && System.nanoTime() - cached.loadedAtNs() > ttlNs) {
+            bindings.remove(sensorId, cached);
+            return null;
+        }
+        return cached.plantIds();
+    }
+
+    public void rememberPlantIds(Map<Integer, List<Integer>> plantIdsBySensor) {
+        if (!settings.isEnabled() || plantIdsBySensor.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<Integer>> snapshot = new HashMap<>(plantIdsBySensor);
+        afterCommit(() -> {
+            long now = System.nanoTime();
+            snapshot.forEach((sensorId, plantIds) ->
+                    bindings.put(sensorId, new CachedBindings(List.copyOf(plantIds), now)));
+        });
+    }
+
+    public void evictBindings(Integer sensorId) {
+        if (sensorId == null) {
+            return;
+        }
+        bindings.remove(sensorId);
+        afterCommit(() -> {
+            bindings.remove(sensorId);
+            publishEviction(new SensorEviction(sensorId, null, null));
+        });
+    }
+
+    public void evictPlant(Integer plantId) {
+        if (plantId == null) {
+            return;
+        }
+        removePlant(plantId);
+        afterCommit(() -> {
+            removePlant(plantId);
+            publishEviction(new SensorEviction(null, plantId, null));
+        });
+    }
+
+    // Translitem: id vytesnennyh sensorov nuzhny, chtoby ubrat' ih privjazki k rastenijam.
+    public void evictDevice(Integer devicePk) {
+        if (devicePk == null) {
+            return;
+        }
+        List<Integer> sensorIds = new ArrayList<>();
+        sensors.entrySet().removeIf(entry -> {
+            if (!devicePk.equals(entry.getKey().devicePk())) {
+                return false;
+            }
+            sensorIds.add(entry.getValue().id());
+            return true;
+        });
+        evictBindings(sensorIds);
+        afterCommit(() -> {
+            sensors.keySet().removeIf(key -> devicePk.equals(key.devicePk()));
+            publishEviction(new SensorEviction(null, null, devicePk));
+        });
+    }
+
+    public void clear() {
+        sensors.clear();
+        bindings.clear();
+    }
+
+    private void evictBindings(Collection<Integer> sensorIds) {
+        for (Integer sensorId : sensorIds) {
+            bindings.remove(sensorId);
+        }
+    }
+
+    private void removePlant(Integer plantId) {
+        bindings.values().removeIf(cached -> cached.plantIds().contains(plantId));
+    }
+
+    private void removeDevice(Integer devicePk) {
+        sensors.entrySet().removeIf(entry -> {
+            if (!devicePk.equals(entry.getKey().devicePk())) {
+                return false;
+            }
+            bindings.remove(entry.getValue().id());
+            return true;
+        });
+    }
+
+    private void publishEviction(SensorEviction eviction) {
+        if (!changeBus.isClustered()) {
+            return;
+        }
+        try {
+            changeBus.publish(CHANGE_TOPIC, objectMapper.writeValueAsString(eviction));
+        } catch (Exception ex) {
+            log.warn("Sbros kesha sensorov ne otpravlen v shinu izmenenij: {}", ex.getMessage());
+        }
+    }
+
+    private void applyRemote(String payload) {
+        SensorEviction eviction;
+        try {
+            eviction = objectMapper.readValue(payload, SensorEviction.class);
+        } catch (Exception ex) {
+            log.warn("Ne udalos razobrat sbros kesha sensorov iz shiny izmenenij: {}", ex.getMessage());
+            return;
+        }
+        if (eviction.sensorId() != null) {
+            bindings.remove(eviction.sensorId());
+        }
+        if (eviction.plantId() != null) {
+            removePlant(eviction.plantId());
+        }
+        if (eviction.devicePk() != null) {
+            removeDevice(eviction.devicePk());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    public record SensorKey(Integer devicePk, SensorType type, Integer channel) {
+    }
+
+    public record SensorRef(Integer id, boolean detected, SensorStatus status) {
+
+        // Translitem: ERROR vsegda pishetsja, potomu chto obnovljaet last_error_at.
+        public boolean matches(SensorMeasurement measurement) {
+            return measurement.detected() == detected
+                    && measurement.status() == status
+                    && status != SensorStatus.ERROR;
+        }
+    }
+
+    private record CachedBindings(List<Integer> plantIds, long loadedAtNs) {
+    }
+
+    private record SensorEviction(
+            @JsonProperty("sensor_id") Integer sensorId,
+            @JsonProperty("plant_id") Integer plantId,
+            @JsonProperty("device_pk") Integer devicePk
+    ) {
+    }
+}
@@ -57,6 +57,12 @@ public class SensorEntity {
     @Column(name = "last_error_at", nullable = true)
     private LocalDateTime lastErrorAt;
 
+    @Column(name = "last_value", nullable = true)
+    private Double lastValue;
+
+    @Column(name = "last_value_at", nullable = true)
+    private LocalDateTime lastValueAt;
+
     @Column(name = "created_at", nullable = true)
     private LocalDateTime createdAt;
 
@@ -138,6 +144,22 @@ public class SensorEntity {
         this.lastErrorAt = lastErrorAt;
     }
 
+    public Double getLastValue() {
+        return lastValue;
+    }
+
+    public void setLastValue(Double lastValue) {
+        this.lastValue = lastValue;
+    }
+
+    public LocalDateTime getLastValueAt() {
+        return lastValueAt;
+    }
+
+    public void setLastValueAt(LocalDateTime lastValueAt) {
+        this.lastValueAt = lastValueAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,36 @@
+package ru.growerhub.backend.sensor.jpa;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// JDBC batch update sensors.last_value: bolee staroe znachenie ne perezapisyvaet bolee svezhee.
+@Repository
+public class SensorLastValueWriter {
+    private static final String UPDATE_SQL = "UPDATE sensors SET last_value = ?, last_value_at = ? "
+            + "WHERE id = ? AND (last_value_at IS NULL OR last_value_at <= ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SensorLastValueWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void updateAll(List<Row> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows, rows.size(), (statement, row) -> {
+            Timestamp ts = Timestamp.valueOf(row.ts());
+            statement.setObject(1, row.value());
+            statement.setTimestamp(2, ts);
+            statement.setInt(3, row.sensorId());
+            statement.setTimestamp(4, ts);
+        });
+    }
+
+    public record Row(Integer sensorId, LocalDateTime ts, Double value) {
+    }
+}
@@ -1,6 +1,8 @@
 ﻿package ru.growerhub.backend.sensor.jpa;
 
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface SensorPlantBindingRepository extends JpaRepository<SensorPlantBindingEntity, Integer> {
@@ -10,7 +12,12 @@ public interface SensorPlantBindingRepository extends JpaRepository<SensorPlantB
 
     List<SensorPlantBindingEntity> findAllByPlantId(Integer plantId);
 
+    @EntityGraph(attributePaths = "sensor")
+    List<SensorPlantBindingEntity> findAllByPlantIdIn(Collection<Integer> plantIds);
+
     void deleteAllBySensor_Id(Integer sensorId);
+
+    void deleteAllByPlantId(Integer plantId);
 }
 
 
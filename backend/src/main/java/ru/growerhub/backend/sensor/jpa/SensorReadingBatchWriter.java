@@ -0,0 +1,35 @@
+package ru.growerhub.backend.sensor.jpa;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// JDBC batch insert dlja sensor_readings: IDENTITY id otklyuchaet batching v Hibernate.
+@Repository
+public class SensorReadingBatchWriter {
+    private static final String INSERT_SQL =
+            "INSERT INTO sensor_readings (sensor_id, ts, value_numeric, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SensorReadingBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<Row> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (statement, row) -> {
+            statement.setInt(1, row.sensorId());
+            statement.setTimestamp(2, Timestamp.valueOf(row.ts()));
+            statement.setObject(3, row.valueNumeric());
+            statement.setTimestamp(4, row.createdAt() != null ? Timestamp.valueOf(row.createdAt()) : null);
+        });
+    }
+
+    public record Row(Integer sensorId, LocalDateTime ts, Double valueNumeric, LocalDateTime createdAt) {
+    }
+}
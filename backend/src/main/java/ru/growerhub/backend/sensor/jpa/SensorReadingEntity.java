@@ -18,7 +18,8 @@ import org.hibernate.annotations.OnDeleteAction;
     name = "sensor_readings",
     indexes = {
         @Index(name = "ix_sensor_readings_id", columnList = "id"),
-        @Index(name = "ix_sensor_readings_sensor_ts", columnList = "sensor_id, ts")
+        @Index(name = "ix_sensor_readings_sensor_ts", columnList = "sensor_id, ts"),
+        @Index(name = "ix_sensor_readings_ts", columnList = "ts")
     }
 )
 public class SensorReadingEntity {
@@ -0,0 +1,38 @@
+package ru.growerhub.backend.sensor.jpa;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.growerhub.backend.common.util.HistoryPartitions;
+
+// Prorezhivanie zakrytoj partitsii sensor_readings kopirovaniem: v novuju tablicu popadaet poslednee znachenie chasa,
+// ta zhe vyborka, chto ostavljaet SensorReadingRepository.compactRange.
+@Repository
+public class SensorReadingPartitionCompactor {
+    private static final String COPY_SQL = """
+            INSERT INTO %2$s
+            SELECT reading.*
+            FROM %1$s reading
+            JOIN (
+                SELECT id,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY sensor_id, DATE_TRUNC('hour', ts)
+                           ORDER BY ts DESC, id DESC
+                       ) AS row_no
+                FROM %1$s
+            ) ranked ON ranked.id = reading.id
+            WHERE ranked.row_no = 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SensorReadingPartitionCompactor(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int copyCompacted(String sourceTable, String targetTable) {
+        return jdbcTemplate.update(COPY_SQL.formatted(
+                HistoryPartitions.requireIdentifier(sourceTable),
+                HistoryPartitions.requireIdentifier(targetTable)
+        ));
+    }
+}
@@ -41,9 +41,41 @@ public interface SensorReadingRepository extends JpaRepository<SensorReadingEnti
             @Param("maxPoints") int maxPoints
     );
 
+    @Query("""
+            SELECT reading.sensor.id, reading.ts, reading.valueNumeric
+            FROM SensorReadingEntity reading
+            WHERE reading.ts >= :fromTs
+              AND reading.ts < :toTs
+              AND reading.valueNumeric IS NOT NULL
+            ORDER BY reading.sensor.id, reading.ts, reading.id
+            """)
+    List<Object[]> findNumericRange(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs
+    );
+
     @Query("SELECT MIN(reading.ts) FROM SensorReadingEntity reading")
     LocalDateTime findOldestTimestamp();
 
+    @Query(
+            value = """
+                    SELECT DISTINCT sensor_id
+                    FROM sensor_readings
+                    WHERE ts >= :fromTs
+                      AND ts < :toTs
+                      AND sensor_id >= :fromKey
+                    ORDER BY sensor_id
+                    LIMIT :maxKeys
+                    """,
+            nativeQuery = true
+    )
+    List<Integer> findHistoryKeys(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("maxKeys") int maxKeys
+    );
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(
             value = """
@@ -59,14 +91,42 @@ public interface SensorReadingRepository extends JpaRepository<SensorReadingEnti
                             FROM sensor_readings
                             WHERE ts >= :fromTs
                               AND ts < :toTs
+                              AND sensor_id BETWEEN :fromKey AND :toKey
                         ) ranked
                         WHERE row_no > 1
                     )
                     """,
             nativeQuery = true
     )
-    int compactDay(
+    int compactRange(
             @Param("fromTs") LocalDateTime fromTs,
-            @Param("toTs") LocalDateTime toTs
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey
+    );
+
+    // Translitem: skol'ko strok udalil by compactRange (dry-run prorezhivanija).
+    @Query(
+            value = """
+                    SELECT COUNT(*)
+                    FROM (
+                        SELECT ROW_NUMBER() OVER (
+                                   PARTITION BY sensor_id, DATE_TRUNC('hour', ts)
+                                   ORDER BY ts DESC, id DESC
+                               ) AS row_no
+                        FROM sensor_readings
+                        WHERE ts >= :fromTs
+                          AND ts < :toTs
+                          AND sensor_id BETWEEN :fromKey AND :toKey
+                    ) ranked
+                    WHERE row_no > 1
+                    """,
+            nativeQuery = true
+    )
+    long countCompactableRange(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey
     );
 }
@@ -0,0 +1,142 @@
+package ru.growerhub.backend.sensor.jpa;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+    name = "sensor_reading_rollups",
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "ux_sensor_reading_rollups_series_bucket",
+            columnNames = {"sensor_id", "resolution", "bucket_start"}
+        )
+    },
+    indexes = {
+        @Index(name = "ix_sensor_reading_rollups_resolution_bucket", columnList = "resolution, bucket_start")
+    }
+)
+public class SensorReadingRollupEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "sensor_id", nullable = false)
+    private Integer sensorId;
+
+    @Column(name = "resolution", nullable = false, length = 8)
+    private String resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "min_value", nullable = false)
+    private Double minValue;
+
+    @Column(name = "max_value", nullable = false)
+    private Double maxValue;
+
+    @Column(name = "avg_value", nullable = false)
+    private Double avgValue;
+
+    @Column(name = "value_count", nullable = false)
+    private Long valueCount;
+
+    @Column(name = "last_ts", nullable = false)
+    private LocalDateTime lastTs;
+
+    @Column(name = "last_value", nullable = false)
+    private Double lastValue;
+
+    protected SensorReadingRollupEntity() {
+    }
+
+    public static SensorReadingRollupEntity create() {
+        return new SensorReadingRollupEntity();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getSensorId() {
+        return sensorId;
+    }
+
+    public void setSensorId(Integer sensorId) {
+        this.sensorId = sensorId;
+    }
+
+    public String getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(String resolution) {
+        this.resolution = resolution;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Double getMinValue() {
+        return minValue;
+    }
+
+    public void setMinValue(Double minValue) {
+        this.minValue = minValue;
+    }
+
+    public Double getMaxValue() {
+        return maxValue;
+    }
+
+    public void setMaxValue(Double maxValue) {
+        this.maxValue = maxValue;
+    }
+
+    public Double getAvgValue() {
+        return avgValue;
+    }
+
+    public void setAvgValue(Double avgValue) {
+        this.avgValue = avgValue;
+    }
+
+    public Long getValueCount() {
+        return valueCount;
+    }
+
+    public void setValueCount(Long valueCount) {
+        this.valueCount = valueCount;
+    }
+
+    public LocalDateTime getLastTs() {
+        return lastTs;
+    }
+
+    public void setLastTs(LocalDateTime lastTs) {
+        this.lastTs = lastTs;
+    }
+
+    public Double getLastValue() {
+        return lastValue;
+    }
+
+    public void setLastValue(Double lastValue) {
+        this.lastValue = lastValue;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.growerhub.backend.sensor.jpa;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface SensorReadingRollupRepository extends JpaRepository<SensorReadingRollupEntity, Long> {
+    @Query(
+            value = """
+                    SELECT id, sensor_id, resolution, bucket_start, min_value, max_value, avg_value,
+                           value_count, last_ts, last_value
+                    FROM (
+                        SELECT bucketed.*,
+                               ROW_NUMBER() OVER (
+                                   PARTITION BY bucket_no
+                                   ORDER BY bucket_start DESC
+                               ) AS pick_no
+                        FROM (
+                            SELECT agg.*,
+                                   NTILE(CAST(:maxPoints AS INTEGER)) OVER (
+                                       ORDER BY agg.bucket_start
+                                   ) AS bucket_no
+                            FROM sensor_reading_rollups agg
+                            WHERE agg.sensor_id = :sensorId
+                              AND agg.resolution = :resolution
+                              AND agg.bucket_start >= :sinceBucket
+                              AND agg.last_ts >= :since
+                        ) bucketed
+                    ) ranked
+                    WHERE pick_no = 1
+                    ORDER BY last_ts
+                    """,
+            nativeQuery = true
+    )
+    List<SensorReadingRollupEntity> findBucketedHistory(
+            @Param("sensorId") Integer sensorId,
+            @Param("resolution") String resolution,
+            @Param("sinceBucket") LocalDateTime sinceBucket,
+            @Param("since") LocalDateTime since,
+            @Param("maxPoints") int maxPoints
+    );
+
+    @Query("""
+            SELECT agg
+            FROM SensorReadingRollupEntity agg
+            WHERE agg.resolution = :resolution
+              AND agg.bucketStart >= :fromTs
+              AND agg.bucketStart < :toTs
+            ORDER BY agg.sensorId, agg.bucketStart
+            """)
+    List<SensorReadingRollupEntity> findRange(
+            @Param("resolution") String resolution,
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs
+    );
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            DELETE FROM SensorReadingRollupEntity agg
+            WHERE agg.resolution = :resolution
+              AND agg.bucketStart >= :fromTs
+              AND agg.bucketStart < :toTs
+            """)
+    int deleteRange(
+            @Param("resolution") String resolution,
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs
+    );
+
+    @Query("SELECT MAX(agg.bucketStart) FROM SensorReadingRollupEntity agg WHERE agg.resolution = :resolution")
+    LocalDateTime findLatestBucketStart(@Param("resolution") String resolution);
+}
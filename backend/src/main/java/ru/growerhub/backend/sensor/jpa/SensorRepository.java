@@ -1,5 +1,6 @@
 ﻿package ru.growerhub.backend.sensor.jpa;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,6 +11,8 @@ public interface SensorRepository extends JpaRepository<SensorEntity, Integer> {
 
     List<SensorEntity> findAllByDeviceId(Integer deviceId);
 
+    List<SensorEntity> findAllByDeviceIdIn(Collection<Integer> deviceIds);
+
     void deleteAllByDeviceId(Integer deviceId);
 }
 
@@ -5,6 +5,7 @@ import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,6 +13,7 @@ import ru.growerhub.backend.auth.AuthFacade;
 import ru.growerhub.backend.common.contract.DomainException;
 import ru.growerhub.backend.common.component.PasswordHasher;
 import ru.growerhub.backend.device.DeviceFacade;
+import ru.growerhub.backend.user.contract.UserAuthChangedEvent;
 import ru.growerhub.backend.user.jpa.UserEntity;
 import ru.growerhub.backend.user.jpa.UserRepository;
 
@@ -21,17 +23,20 @@ public class UserFacade {
     private final PasswordHasher passwordHasher;
     private final AuthFacade authFacade;
     private final DeviceFacade deviceFacade;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserFacade(
             UserRepository userRepository,
             PasswordHasher passwordHasher,
             @Lazy AuthFacade authFacade,
-            @Lazy DeviceFacade deviceFacade
+            @Lazy DeviceFacade deviceFacade,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.userRepository = userRepository;
         this.passwordHasher = passwordHasher;
         this.authFacade = authFacade;
         this.deviceFacade = deviceFacade;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -134,11 +139,14 @@ public class UserFacade {
             target.setUsername(username);
             changed = true;
         }
+        boolean authChanged = false;
         if (role != null) {
+            authChanged = !role.equals(target.getRole());
             target.setRole(role);
             changed = true;
         }
         if (active != null) {
+            authChanged = authChanged || active != target.isActive();
             target.setActive(active);
             changed = true;
         }
@@ -146,6 +154,9 @@ public class UserFacade {
             target.setUpdatedAt(LocalDateTime.now(ZoneOffset.UTC));
         }
         userRepository.save(target);
+        if (authChanged) {
+            eventPublisher.publishEvent(new UserAuthChangedEvent(target.getId()));
+        }
         return toProfile(target);
     }
 
@@ -184,6 +195,7 @@ public class UserFacade {
         deviceFacade.unassignDevicesForUser(userId);
         authFacade.deleteIdentities(userId);
         userRepository.delete(target);
+        eventPublisher.publishEvent(new UserAuthChangedEvent(userId));
         return true;
     }
 
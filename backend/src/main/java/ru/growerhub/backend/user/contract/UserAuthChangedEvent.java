@@ -0,0 +1,5 @@
+package ru.growerhub.backend.user.contract;
+
+// Sobytie izmenenija roli, aktivnosti ili udalenija pol'zovatelja; kesh principal'ov sbrasyvaet ego posle commit.
+public record UserAuthChangedEvent(Integer userId) {
+}
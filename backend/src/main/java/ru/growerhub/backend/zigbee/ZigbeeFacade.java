@@ -18,6 +18,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.growerhub.backend.common.config.ZigbeeSettings;
@@ -26,6 +27,7 @@ import ru.growerhub.backend.common.config.zigbee.ZigbeeHistorySettings;
 import ru.growerhub.backend.common.config.zigbee.ZigbeeSelfServiceSettings;
 import ru.growerhub.backend.common.contract.AuthenticatedUser;
 import ru.growerhub.backend.common.contract.DomainException;
+import ru.growerhub.backend.common.util.HistoryRollup;
 import ru.growerhub.backend.zigbee.contract.ZigbeeBridgeData;
 import ru.growerhub.backend.zigbee.contract.ZigbeeBrokerCredentialGateway;
 import ru.growerhub.backend.zigbee.contract.ZigbeeCommandGateway;
@@ -36,8 +38,10 @@ import ru.growerhub.backend.zigbee.contract.ZigbeeCoordinatorCreated;
 import ru.growerhub.backend.zigbee.contract.ZigbeeCoordinatorSetup;
 import ru.growerhub.backend.zigbee.contract.ZigbeeCoordinatorStatus;
 import ru.growerhub.backend.zigbee.contract.ZigbeeCoordinatorSummary;
+import ru.growerhub.backend.zigbee.contract.ZigbeeDeviceChangedEvent;
 import ru.growerhub.backend.zigbee.contract.ZigbeeDeviceData;
 import ru.growerhub.backend.zigbee.contract.ZigbeeFeatureData;
+import ru.growerhub.backend.zigbee.contract.ZigbeeLiveDeviceData;
 import ru.growerhub.backend.zigbee.contract.ZigbeeHistoryPoint;
 import ru.growerhub.backend.zigbee.contract.ZigbeeMqttSnapshotMessage;
 import ru.growerhub.backend.zigbee.contract.ZigbeeOverviewData;
@@ -50,11 +54,14 @@ import ru.growerhub.backend.zigbee.jpa.ZigbeeCommandResponseSnapshotRepository;
 import ru.growerhub.backend.zigbee.jpa.ZigbeeCoordinatorEntity;
 import ru.growerhub.backend.zigbee.jpa.ZigbeeCoordinatorRepository;
 import ru.growerhub.backend.zigbee.jpa.ZigbeeDevicePropertyReadingEntity;
+import ru.growerhub.backend.zigbee.engine.ZigbeeHistoryRollupService;
 import ru.growerhub.backend.zigbee.jpa.ZigbeeDevicePropertyReadingRepository;
 import ru.growerhub.backend.zigbee.jpa.ZigbeeDeviceSnapshotEntity;
 import ru.growerhub.backend.zigbee.jpa.ZigbeeDeviceSnapshotRepository;
 import ru.growerhub.backend.zigbee.jpa.ZigbeeDeviceStateEventEntity;
 import ru.growerhub.backend.zigbee.jpa.ZigbeeDeviceStateEventRepository;
+import ru.growerhub.backend.zigbee.jpa.ZigbeeHistoryPartitionCompactor;
+import ru.growerhub.backend.zigbee.jpa.ZigbeePropertyRollupEntity;
 
 @Service
 public class ZigbeeFacade {
@@ -71,6 +78,8 @@ public class ZigbeeFacade {
     private final ZigbeeCommandResponseSnapshotRepository commandResponseRepository;
     private final ZigbeeDeviceStateEventRepository stateEventRepository;
     private final ZigbeeDevicePropertyReadingRepository propertyReadingRepository;
+    private final ZigbeeHistoryPartitionCompactor partitionCompactor;
+    private final ZigbeeHistoryRollupService historyRollupService;
     private final ZigbeeCoordinatorRepository coordinatorRepository;
     private final ZigbeeCommandGateway commandGateway;
     private final ZigbeeBrokerCredentialGateway brokerCredentialGateway;
@@ -80,6 +89,7 @@ public class ZigbeeFacade {
     private final MqttTopicSettings topicSettings;
     private final ObjectMapper objectMapper;
     private final Clock clock;
+    private final ApplicationEventPublisher eventPublisher;
     private final SecureRandom secureRandom = new SecureRandom();
 
     public ZigbeeFacade(
@@ -88,6 +98,8 @@ public class ZigbeeFacade {
             ZigbeeCommandResponseSnapshotRepository commandResponseRepository,
             ZigbeeDeviceStateEventRepository stateEventRepository,
             ZigbeeDevicePropertyReadingRepository propertyReadingRepository,
+            ZigbeeHistoryPartitionCompactor partitionCompactor,
+            ZigbeeHistoryRollupService historyRollupService,
             ZigbeeCoordinatorRepository coordinatorRepository,
             ZigbeeCommandGateway commandGateway,
             ZigbeeBrokerCredentialGateway brokerCredentialGateway,
@@ -96,13 +108,16 @@ public class ZigbeeFacade {
             ZigbeeSelfServiceSettings selfServiceSettings,
             MqttTopicSettings topicSettings,
             ObjectMapper objectMapper,
-            Clock clock
+            Clock clock,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.bridgeRepository = bridgeRepository;
         this.deviceRepository = deviceRepository;
         this.commandResponseRepository = commandResponseRepository;
         this.stateEventRepository = stateEventRepository;
         this.propertyReadingRepository = propertyReadingRepository;
+        this.partitionCompactor = partitionCompactor;
+        this.historyRollupService = historyRollupService;
         this.coordinatorRepository = coordinatorRepository;
         this.commandGateway = commandGateway;
         this.brokerCredentialGateway = brokerCredentialGateway;
@@ -112,6 +127,7 @@ public class ZigbeeFacade {
         this.topicSettings = topicSettings;
         this.objectMapper = objectMapper;
         this.clock = clock;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -245,6 +261,62 @@ public class ZigbeeFacade {
         return List.copyOf(result);
     }
 
+    // Translitem: tochechnoe chtenie dlja inkremental'nogo kataloga avtomatizacii (bez razbora vsego parka).
+    @Transactional(readOnly = true)
+    public List<ZigbeeOwnedDeviceData> getCoordinatorDevicesForAutomation(Integer coordinatorInternalId) {
+        CoordinatorRef coordinator = automationCoordinator(coordinatorInternalId);
+        if (coordinator == null) {
+            return List.of();
+        }
+        List<ZigbeeOwnedDeviceData> result = new ArrayList<>();
+        for (ZigbeeDeviceSnapshotEntity device : deviceRepository
+                .findAllByCoordinatorIdOrderByCoordinatorDescFriendlyNameAsc(coordinatorInternalId)) {
+            result.add(new ZigbeeOwnedDeviceData(
+                    coordinatorInternalId,
+                    coordinator.publicId(),
+                    coordinator.name(),
+                    toDeviceData(device)
+            ));
+        }
+        return List.copyOf(result);
+    }
+
+    @Transactional(readOnly = true)
+    public ZigbeeOwnedDeviceData getDeviceForAutomation(Integer coordinatorInternalId, String friendlyName) {
+        CoordinatorRef coordinator = automationCoordinator(coordinatorInternalId);
+        if (coordinator == null || friendlyName == null) {
+            return null;
+        }
+        return deviceRepository.findByCoordinatorIdAndFriendlyName(coordinatorInternalId, friendlyName)
+                .map(device -> new ZigbeeOwnedDeviceData(
+                        coordinatorInternalId,
+                        coordinator.publicId(),
+                        coordinator.name(),
+                        toDeviceData(device)
+                ))
+                .orElse(null);
+    }
+
+    // Translitem: sostojanie dlja potoka zhivyh izmenenij; friendlyName == null - tol'ko koordinator (device == null).
+    @Transactional(readOnly = true)
+    public ZigbeeLiveDeviceData getLiveDevice(Integer coordinatorInternalId, String friendlyName) {
+        CoordinatorRef coordinator = automationCoordinator(coordinatorInternalId);
+        if (coordinator == null) {
+            return null;
+        }
+        if (friendlyName == null) {
+            return new ZigbeeLiveDeviceData(coordinator.userId(), coordinatorInternalId, coordinator.publicId(), null);
+        }
+        return deviceRepository.findByCoordinatorIdAndFriendlyName(coordinatorInternalId, friendlyName)
+                .map(device -> new ZigbeeLiveDeviceData(
+                        coordinator.userId(),
+                        coordinatorInternalId,
+                        coordinator.publicId(),
+                        toDeviceData(device)
+                ))
+                .orElse(null);
+    }
+
     @Transactional
     public ZigbeeCoordinatorSetup rotateCoordinatorCredentials(
             AuthenticatedUser user,
@@ -273,6 +345,7 @@ public class ZigbeeFacade {
         coordinator.setStatus(ZigbeeCoordinatorStatus.ARCHIVED);
         coordinator.setUpdatedAt(now);
         coordinatorRepository.save(coordinator);
+        eventPublisher.publishEvent(new ZigbeeDeviceChangedEvent(coordinator.getId(), null));
     }
 
     @Transactional(readOnly = true)
@@ -426,7 +499,8 @@ public class ZigbeeFacade {
             throw new DomainException("not_found", "Устройство Zigbee не найдено");
         }
         int resolvedHours = hours != null ? hours : historySettings.getDefaultHours();
-        LocalDateTime since = LocalDateTime.now(java.time.ZoneOffset.UTC).minusHours(resolvedHours);
+        LocalDateTime now = LocalDateTime.now(java.time.ZoneOffset.UTC);
+        LocalDateTime since = now.minusHours(resolvedHours);
         int maxPoints = Math.max(1, historySettings.getMaxPoints());
         int maxDiscretePoints = Math.max(maxPoints, historySettings.getMaxDiscretePoints());
         ZigbeeDevicePropertyReadingEntity latest = propertyReadingRepository.findLatestHistoryPoint(
@@ -449,6 +523,10 @@ public class ZigbeeFacade {
                     maxPoints
             );
         } else if (latest.getValueNumeric() != null) {
+            HistoryRollup.Resolution resolution = historyRollupService.selectResolution(since, now, maxPoints);
+            if (resolution != null) {
+                return rollupHistory(coordinatorId, device.getIeeeAddress(), normalizedProperty, resolution, since, latest);
+            }
             rows = propertyReadingRepository.findBucketedNumericHistory(
                     coordinatorId,
                     device.getIeeeAddress(),
@@ -469,18 +547,49 @@ public class ZigbeeFacade {
         }
         List<ZigbeeHistoryPoint> payload = new ArrayList<>();
         for (ZigbeeDevicePropertyReadingEntity row : rows) {
-            payload.add(new ZigbeeHistoryPoint(
-                    row.getTs(),
-                    row.getProperty(),
-                    normalizedHistoryValue(row),
-                    rawHistoryValue(row),
-                    row.getValueText(),
-                    row.getValueBoolean()
-            ));
+            payload.add(toHistoryPoint(row));
+        }
+        return payload;
+    }
+
+    private List<ZigbeeHistoryPoint> rollupHistory(
+            Integer coordinatorId,
+            String ieeeAddress,
+            String property,
+            HistoryRollup.Resolution resolution,
+            LocalDateTime since,
+            ZigbeeDevicePropertyReadingEntity latest
+    ) {
+        List<ZigbeeHistoryPoint> payload = new ArrayList<>();
+        for (ZigbeePropertyRollupEntity row : historyRollupService.findBucketedHistory(
+                coordinatorId,
+                ieeeAddress,
+                property,
+                resolution,
+                since,
+                Math.max(1, historySettings.getMaxPoints())
+        )) {
+            String text = row.getLastValue().toString();
+            payload.add(new ZigbeeHistoryPoint(row.getLastTs(), row.getProperty(), row.getLastValue(), text, text, null));
+        }
+        // Translitem: hvost posle poslednego zakrytogo bucket - poslednee syroe znachenie, kak v poslednem NTILE.
+        if (!payload.isEmpty() && latest.getTs().isAfter(payload.get(payload.size() - 1).ts())) {
+            payload.set(payload.size() - 1, toHistoryPoint(latest));
         }
         return payload;
     }
 
+    private ZigbeeHistoryPoint toHistoryPoint(ZigbeeDevicePropertyReadingEntity row) {
+        return new ZigbeeHistoryPoint(
+                row.getTs(),
+                row.getProperty(),
+                normalizedHistoryValue(row),
+                rawHistoryValue(row),
+                row.getValueText(),
+                row.getValueBoolean()
+        );
+    }
+
     @Transactional(readOnly = true)
     public LocalDateTime getOldestHistoryTimestamp() {
         LocalDateTime eventTs = stateEventRepository.findOldestTimestamp();
@@ -495,24 +604,85 @@ public class ZigbeeFacade {
     }
 
     @Transactional
-    public int compactHistoryDay(LocalDateTime fromTs, LocalDateTime toTs) {
+    public int rollupHistory(LocalDateTime fromTs, LocalDateTime toTs) {
+        return historyRollupService.rollup(fromTs, toTs);
+    }
+
+    // Translitem: kljuch chunk'a prorezhivanija zigbee istorii - coordinator_id.
+    @Transactional(readOnly = true)
+    public List<Integer> findHistoryKeys(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, int maxKeys) {
+        return propertyReadingRepository.findHistoryKeys(fromTs, toTs, fromKey, maxKeys);
+    }
+
+    @Transactional
+    public int compactHistoryChunk(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, Integer toKey) {
         int deleted = 0;
         if (!historySettings.getIgnoredProperties().isEmpty()) {
-            deleted += propertyReadingRepository.deleteIgnoredDay(
+            deleted += propertyReadingRepository.deleteIgnoredRange(
                     fromTs,
                     toTs,
+                    fromKey,
+                    toKey,
                     historySettings.getIgnoredProperties()
             );
         }
-        deleted += propertyReadingRepository.compactNumericDay(fromTs, toTs);
+        deleted += propertyReadingRepository.compactNumericRange(fromTs, toTs, fromKey, toKey);
         Set<String> eventProperties = historySettings.getEventProperties().isEmpty()
                 ? Set.of("__growerhub_no_event_property__")
                 : historySettings.getEventProperties();
-        deleted += propertyReadingRepository.compactDiscreteDay(fromTs, toTs, eventProperties);
-        deleted += stateEventRepository.deleteOrphanedDay(fromTs, toTs);
+        deleted += propertyReadingRepository.compactDiscreteRange(fromTs, toTs, fromKey, toKey, eventProperties);
+        deleted += stateEventRepository.deleteOrphanedRange(fromTs, toTs, fromKey, toKey);
         return deleted;
     }
 
+    // Translitem: dry-run compactHistoryChunk - te zhe vyborki, tol'ko COUNT.
+    @Transactional(readOnly = true)
+    public long countCompactableHistory(LocalDateTime fromTs, LocalDateTime toTs, Integer fromKey, Integer toKey) {
+        Set<String> ignoredProperties = historySettings.getIgnoredProperties().isEmpty()
+                ? Set.of("__growerhub_no_ignored_property__")
+                : historySettings.getIgnoredProperties();
+        Set<String> eventProperties = historySettings.getEventProperties().isEmpty()
+                ? Set.of("__growerhub_no_event_property__")
+                : historySettings.getEventProperties();
+        return propertyReadingRepository.countCompactableRange(
+                fromTs,
+                toTs,
+                fromKey,
+                toKey,
+                ignoredProperties,
+                eventProperties
+        ) + stateEventRepository.countOrphanedAfterCompaction(
+                fromTs,
+                toTs,
+                fromKey,
+                toKey,
+                ignoredProperties,
+                eventProperties
+        );
+    }
+
+    @Transactional
+    public int copyCompactedPropertyHistoryPartition(String sourceTable, String targetTable) {
+        Set<String> ignoredProperties = historySettings.getIgnoredProperties().isEmpty()
+                ? Set.of("__growerhub_no_ignored_property__")
+                : historySettings.getIgnoredProperties();
+        Set<String> eventProperties = historySettings.getEventProperties().isEmpty()
+                ? Set.of("__growerhub_no_event_property__")
+                : historySettings.getEventProperties();
+        return partitionCompactor.copyCompactedPropertyReadings(
+                sourceTable,
+                targetTable,
+                ignoredProperties,
+                eventProperties
+        );
+    }
+
+    // Translitem: vyzyvat' posle zameny partitsii pokazanij za tot zhe mesjac.
+    @Transactional
+    public int copyCompactedStateEventPartition(String sourceTable, String targetTable) {
+        return partitionCompactor.copyReferencedStateEvents(sourceTable, targetTable);
+    }
+
     @Transactional
     public void handleMqttSnapshot(ZigbeeMqttSnapshotMessage message) {
         if (message == null || message.type() == null) {
@@ -523,16 +693,18 @@ public class ZigbeeFacade {
             return;
         }
         touchCoordinator(context, message);
+        ZigbeeDeviceSnapshotEntity touched = null;
         switch (message.type()) {
             case BRIDGE_STATE -> handleBridgeState(context, message);
             case BRIDGE_INFO -> handleBridgeInfo(context, message);
             case BRIDGE_DEVICES -> handleBridgeDevices(context, message);
-            case DEVICE_STATE -> handleDeviceState(context, message);
-            case DEVICE_AVAILABILITY -> handleDeviceAvailability(context, message);
+            case DEVICE_STATE -> touched = handleDeviceState(context, message);
+            case DEVICE_AVAILABILITY -> touched = handleDeviceAvailability(context, message);
             case COMMAND_RESPONSE -> handleCommandResponse(context, message);
             default -> {
             }
         }
+        publishDeviceChanged(context, message, touched);
     }
 
     @Transactional
@@ -687,9 +859,12 @@ public class ZigbeeFacade {
         bridgeRepository.save(bridge);
     }
 
-    private void handleDeviceState(CoordinatorContext context, ZigbeeMqttSnapshotMessage message) {
+    private ZigbeeDeviceSnapshotEntity handleDeviceState(
+            CoordinatorContext context,
+            ZigbeeMqttSnapshotMessage message
+    ) {
         if (message.rawPayload() == null || message.rawPayload().isBlank()) {
-            return;
+            return null;
         }
         ZigbeeDeviceSnapshotEntity device = upsertDevice(
                 context.coordinatorId(),
@@ -704,9 +879,13 @@ public class ZigbeeFacade {
         deviceRepository.save(device);
         recordDeviceStateHistory(device, message, previousStateJson);
         markFirstDeviceSeen(context, message.receivedAt());
+        return device;
     }
 
-    private void handleDeviceAvailability(CoordinatorContext context, ZigbeeMqttSnapshotMessage message) {
+    private ZigbeeDeviceSnapshotEntity handleDeviceAvailability(
+            CoordinatorContext context,
+            ZigbeeMqttSnapshotMessage message
+    ) {
         ZigbeeDeviceSnapshotEntity device = upsertDevice(
                 context.coordinatorId(),
                 null,
@@ -716,6 +895,7 @@ public class ZigbeeFacade {
         device.setAvailability(asString(valueFromMap(message.payload(), "state")));
         device.setUpdatedAt(message.receivedAt());
         deviceRepository.save(device);
+        return device;
     }
 
     private void handleCommandResponse(CoordinatorContext context, ZigbeeMqttSnapshotMessage message) {
@@ -1528,6 +1708,51 @@ public class ZigbeeFacade {
         return baseTopic + "/bridge/" + relative;
     }
 
+    private void publishDeviceChanged(
+            CoordinatorContext context,
+            ZigbeeMqttSnapshotMessage message,
+            ZigbeeDeviceSnapshotEntity device
+    ) {
+        switch (message.type()) {
+            case DEVICE_STATE, DEVICE_AVAILABILITY -> {
+                CoordinatorRef coordinator = device != null ? automationCoordinator(context.coordinatorId()) : null;
+                eventPublisher.publishEvent(new ZigbeeDeviceChangedEvent(
+                        context.coordinatorId(),
+                        message.friendlyName(),
+                        coordinator != null ? coordinator.publicId() : null,
+                        device != null ? device.getIeeeAddress() : null,
+                        message.receivedAt()
+                ));
+            }
+            case BRIDGE_DEVICES -> eventPublisher.publishEvent(
+                    new ZigbeeDeviceChangedEvent(context.coordinatorId(), null)
+            );
+            default -> {
+            }
+        }
+    }
+
+    // Translitem: te zhe pravila, chto i v getDevicesForAutomation: arhivnye koordinatory ne uchastvujut,
+    // legacy koordinator bez zapisi v tablice koordinatorov imeet fiksirovannyj public id.
+    private CoordinatorRef automationCoordinator(Integer coordinatorInternalId) {
+        if (coordinatorInternalId == null) {
+            return null;
+        }
+        ZigbeeCoordinatorEntity coordinator = coordinatorRepository.findById(coordinatorInternalId).orElse(null);
+        if (coordinator != null) {
+            return coordinator.getArchivedAt() == null
+                    ? new CoordinatorRef(coordinator.getPublicId(), coordinator.getName(), coordinator.getUserId())
+                    : null;
+        }
+        if (coordinatorInternalId.equals(LEGACY_COORDINATOR_ID)) {
+            return new CoordinatorRef(LEGACY_COORDINATOR_PUBLIC_ID, "Legacy coordinator", null);
+        }
+        return null;
+    }
+
+    private record CoordinatorRef(UUID publicId, String name, Integer userId) {
+    }
+
     private record CoordinatorContext(
             Integer coordinatorId,
             String baseTopic,
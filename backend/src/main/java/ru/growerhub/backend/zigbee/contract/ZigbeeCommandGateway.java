@@ -1,11 +1,13 @@
 package ru.growerhub.backend.zigbee.contract;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+// Translitem: future zavershaetsja pri podtverzhdenii brokerom (PUBACK); vyzyvajushchij ne zhdet round-trip.
 public interface ZigbeeCommandGateway {
-    void publishPermitJoin(String baseTopic, int seconds);
+    CompletableFuture<Void> publishPermitJoin(String baseTopic, int seconds);
 
-    void publishSet(String baseTopic, String friendlyName, Map<String, Object> payload);
+    CompletableFuture<Void> publishSet(String baseTopic, String friendlyName, Map<String, Object> payload);
 
-    void publishRename(String baseTopic, String fromFriendlyName, String toFriendlyName);
+    CompletableFuture<Void> publishRename(String baseTopic, String fromFriendlyName, String toFriendlyName);
 }
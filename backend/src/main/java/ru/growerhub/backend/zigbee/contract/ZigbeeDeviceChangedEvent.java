@@ -0,0 +1,18 @@
+package ru.growerhub.backend.zigbee.contract;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Sobytie izmenenija zigbee ustrojstva; friendlyName == null oznachaet ves' koordinator (spisok ustrojstv, arhiv).
+// Dlja state/availability zapolneny coordinatorId (public id), ieeeAddress i receivedAt soobshchenija MQTT.
+public record ZigbeeDeviceChangedEvent(
+        Integer coordinatorInternalId,
+        String friendlyName,
+        UUID coordinatorId,
+        String ieeeAddress,
+        LocalDateTime receivedAt
+) {
+    public ZigbeeDeviceChangedEvent(Integer coordinatorInternalId, String friendlyName) {
+        this(coordinatorInternalId, friendlyName, null, null, null);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.growerhub.backend.zigbee.contract;
+
+import java.util.UUID;
+
+// Sostojanie zigbee ustrojstva dlja potoka zhivyh izmenenij; ownerUserId == null - legacy koordinator (tol'ko admin).
+public record ZigbeeLiveDeviceData(
+        Integer ownerUserId,
+        Integer coordinatorInternalId,
+        UUID coordinatorId,
+        ZigbeeDeviceData device
+) {
+}
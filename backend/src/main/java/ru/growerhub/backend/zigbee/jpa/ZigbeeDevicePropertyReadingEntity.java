@@ -18,7 +18,8 @@ import org.hibernate.annotations.OnDeleteAction;
     name = "zigbee_device_property_readings",
     indexes = {
         @Index(name = "ix_zigbee_property_readings_coordinator_ieee_property_ts", columnList = "coordinator_id,ieee_address,property,ts"),
-        @Index(name = "ix_zigbee_property_readings_coordinator_friendly_property_ts", columnList = "coordinator_id,friendly_name,property,ts")
+        @Index(name = "ix_zigbee_property_readings_coordinator_friendly_property_ts", columnList = "coordinator_id,friendly_name,property,ts"),
+        @Index(name = "ix_zigbee_property_readings_ts", columnList = "ts")
     }
 )
 public class ZigbeeDevicePropertyReadingEntity {
@@ -9,6 +9,73 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface ZigbeeDevicePropertyReadingRepository extends JpaRepository<ZigbeeDevicePropertyReadingEntity, Integer> {
+    // Translitem: id strok, kotorye udaljaet prorezhivanie chunk'a - obshchie dlja DELETE i dry-run podscheta
+    // (sobytija bez ostavshihsja pokazanij schitajutsja po nim zhe, sm. ZigbeeDeviceStateEventRepository).
+    String IGNORED_RANGE_IDS = """
+            SELECT id
+            FROM zigbee_device_property_readings
+            WHERE ts >= :fromTs
+              AND ts < :toTs
+              AND coordinator_id BETWEEN :fromKey AND :toKey
+              AND property IN (:ignoredProperties)
+            """;
+    String NUMERIC_REDUNDANT_IDS = """
+            SELECT id
+            FROM (
+                SELECT id,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY coordinator_id,
+                                        COALESCE(ieee_address, friendly_name),
+                                        property,
+                                        DATE_TRUNC('hour', ts)
+                           ORDER BY ts DESC, id DESC
+                       ) AS row_no
+                FROM zigbee_device_property_readings
+                WHERE ts >= :fromTs
+                  AND ts < :toTs
+                  AND coordinator_id BETWEEN :fromKey AND :toKey
+                  AND value_numeric IS NOT NULL
+            ) ranked
+            WHERE row_no > 1
+            """;
+    String DISCRETE_REDUNDANT_IDS = """
+            SELECT id
+            FROM (
+                SELECT id,
+                       value_text,
+                       value_boolean,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY coordinator_id,
+                                        COALESCE(ieee_address, friendly_name),
+                                        property
+                           ORDER BY ts, id
+                       ) AS row_no,
+                       LAG(value_text) OVER (
+                           PARTITION BY coordinator_id,
+                                        COALESCE(ieee_address, friendly_name),
+                                        property
+                           ORDER BY ts, id
+                       ) AS previous_text,
+                       LAG(value_boolean) OVER (
+                           PARTITION BY coordinator_id,
+                                        COALESCE(ieee_address, friendly_name),
+                                        property
+                           ORDER BY ts, id
+                       ) AS previous_boolean
+                FROM zigbee_device_property_readings
+                WHERE ts >= :fromTs
+                  AND ts < :toTs
+                  AND coordinator_id BETWEEN :fromKey AND :toKey
+                  AND value_numeric IS NULL
+                  AND property NOT IN (:eventProperties)
+            ) transitions
+            WHERE row_no > 1
+              AND value_text IS NOT DISTINCT FROM previous_text
+              AND value_boolean IS NOT DISTINCT FROM previous_boolean
+            """;
+    String COMPACTED_RANGE_IDS =
+            IGNORED_RANGE_IDS + " UNION " + NUMERIC_REDUNDANT_IDS + " UNION " + DISCRETE_REDUNDANT_IDS;
+
     @Query(
             value = """
                     SELECT id, state_event_id, device_snapshot_id, coordinator_id, ieee_address,
@@ -128,99 +195,107 @@ public interface ZigbeeDevicePropertyReadingRepository extends JpaRepository<Zig
             @Param("maxPoints") int maxPoints
     );
 
+    @Query("""
+            SELECT reading.coordinatorId, reading.ieeeAddress, reading.property, reading.ts, reading.valueNumeric
+            FROM ZigbeeDevicePropertyReadingEntity reading
+            WHERE reading.ts >= :fromTs
+              AND reading.ts < :toTs
+              AND reading.ieeeAddress IS NOT NULL
+              AND reading.valueNumeric IS NOT NULL
+            ORDER BY reading.coordinatorId, reading.ieeeAddress, reading.property, reading.ts, reading.id
+            """)
+    List<Object[]> findNumericRange(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs
+    );
+
     @Query("SELECT MIN(reading.ts) FROM ZigbeeDevicePropertyReadingEntity reading")
     LocalDateTime findOldestTimestamp();
 
+    // Translitem: koordinatory s pokazanijami ili sobytijami za den' (sobytija bez pokazanij tozhe prorezhivajutsja).
+    @Query(
+            value = """
+                    SELECT coordinator_id
+                    FROM (
+                        SELECT coordinator_id
+                        FROM zigbee_device_property_readings
+                        WHERE ts >= :fromTs
+                          AND ts < :toTs
+                          AND coordinator_id >= :fromKey
+                        UNION
+                        SELECT coordinator_id
+                        FROM zigbee_device_state_events
+                        WHERE ts >= :fromTs
+                          AND ts < :toTs
+                          AND coordinator_id >= :fromKey
+                    ) keyed
+                    ORDER BY coordinator_id
+                    LIMIT :maxKeys
+                    """,
+            nativeQuery = true
+    )
+    List<Integer> findHistoryKeys(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("maxKeys") int maxKeys
+    );
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(
             value = """
                     DELETE FROM zigbee_device_property_readings
                     WHERE ts >= :fromTs
                       AND ts < :toTs
+                      AND coordinator_id BETWEEN :fromKey AND :toKey
                       AND property IN (:ignoredProperties)
                     """,
             nativeQuery = true
     )
-    int deleteIgnoredDay(
+    int deleteIgnoredRange(
             @Param("fromTs") LocalDateTime fromTs,
             @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey,
             @Param("ignoredProperties") Collection<String> ignoredProperties
     );
 
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(
-            value = """
-                    DELETE FROM zigbee_device_property_readings
-                    WHERE id IN (
-                        SELECT id
-                        FROM (
-                            SELECT id,
-                                   ROW_NUMBER() OVER (
-                                       PARTITION BY coordinator_id,
-                                                    COALESCE(ieee_address, friendly_name),
-                                                    property,
-                                                    DATE_TRUNC('hour', ts)
-                                       ORDER BY ts DESC, id DESC
-                                   ) AS row_no
-                            FROM zigbee_device_property_readings
-                            WHERE ts >= :fromTs
-                              AND ts < :toTs
-                              AND value_numeric IS NOT NULL
-                        ) ranked
-                        WHERE row_no > 1
-                    )
-                    """,
+            value = "DELETE FROM zigbee_device_property_readings WHERE id IN (" + NUMERIC_REDUNDANT_IDS + ")",
             nativeQuery = true
     )
-    int compactNumericDay(
+    int compactNumericRange(
             @Param("fromTs") LocalDateTime fromTs,
-            @Param("toTs") LocalDateTime toTs
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey
     );
 
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(
-            value = """
-                    DELETE FROM zigbee_device_property_readings
-                    WHERE id IN (
-                        SELECT id
-                        FROM (
-                            SELECT id,
-                                   value_text,
-                                   value_boolean,
-                                   ROW_NUMBER() OVER (
-                                       PARTITION BY coordinator_id,
-                                                    COALESCE(ieee_address, friendly_name),
-                                                    property
-                                       ORDER BY ts, id
-                                   ) AS row_no,
-                                   LAG(value_text) OVER (
-                                       PARTITION BY coordinator_id,
-                                                    COALESCE(ieee_address, friendly_name),
-                                                    property
-                                       ORDER BY ts, id
-                                   ) AS previous_text,
-                                   LAG(value_boolean) OVER (
-                                       PARTITION BY coordinator_id,
-                                                    COALESCE(ieee_address, friendly_name),
-                                                    property
-                                       ORDER BY ts, id
-                                   ) AS previous_boolean
-                            FROM zigbee_device_property_readings
-                            WHERE ts >= :fromTs
-                              AND ts < :toTs
-                              AND value_numeric IS NULL
-                              AND property NOT IN (:eventProperties)
-                        ) transitions
-                        WHERE row_no > 1
-                          AND value_text IS NOT DISTINCT FROM previous_text
-                          AND value_boolean IS NOT DISTINCT FROM previous_boolean
-                    )
-                    """,
+            value = "DELETE FROM zigbee_device_property_readings WHERE id IN (" + DISCRETE_REDUNDANT_IDS + ")",
+            nativeQuery = true
+    )
+    int compactDiscreteRange(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey,
+            @Param("eventProperties") Collection<String> eventProperties
+    );
+
+    // Translitem: skol'ko pokazanij udalilo by prorezhivanie chunk'a (dry-run); ignoredProperties ne pustoj.
+    @Query(
+            value = "SELECT COUNT(*) FROM (" + COMPACTED_RANGE_IDS + ") compacted",
             nativeQuery = true
     )
-    int compactDiscreteDay(
+    long countCompactableRange(
             @Param("fromTs") LocalDateTime fromTs,
             @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey,
+            @Param("ignoredProperties") Collection<String> ignoredProperties,
             @Param("eventProperties") Collection<String> eventProperties
     );
 }
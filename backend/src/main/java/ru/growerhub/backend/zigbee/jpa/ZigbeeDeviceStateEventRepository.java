@@ -1,6 +1,7 @@
 package ru.growerhub.backend.zigbee.jpa;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -16,6 +17,7 @@ public interface ZigbeeDeviceStateEventRepository extends JpaRepository<ZigbeeDe
                     DELETE FROM zigbee_device_state_events
                     WHERE ts >= :fromTs
                       AND ts < :toTs
+                      AND coordinator_id BETWEEN :fromKey AND :toKey
                       AND NOT EXISTS (
                           SELECT 1
                           FROM zigbee_device_property_readings reading
@@ -24,8 +26,38 @@ public interface ZigbeeDeviceStateEventRepository extends JpaRepository<ZigbeeDe
                     """,
             nativeQuery = true
     )
-    int deleteOrphanedDay(
+    int deleteOrphanedRange(
             @Param("fromTs") LocalDateTime fromTs,
-            @Param("toTs") LocalDateTime toTs
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey
+    );
+
+    // Translitem: skol'ko sobytij ostalos' by bez pokazanij posle prorezhivanija chunk'a (dry-run).
+    @Query(
+            value = """
+                    SELECT COUNT(*)
+                    FROM zigbee_device_state_events event
+                    WHERE event.ts >= :fromTs
+                      AND event.ts < :toTs
+                      AND event.coordinator_id BETWEEN :fromKey AND :toKey
+                      AND NOT EXISTS (
+                          SELECT 1
+                          FROM zigbee_device_property_readings reading
+                          WHERE reading.state_event_id = event.id
+                            AND reading.id NOT IN (
+                    """ + ZigbeeDevicePropertyReadingRepository.COMPACTED_RANGE_IDS + """
+                            )
+                      )
+                    """,
+            nativeQuery = true
+    )
+    long countOrphanedAfterCompaction(
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs,
+            @Param("fromKey") Integer fromKey,
+            @Param("toKey") Integer toKey,
+            @Param("ignoredProperties") Collection<String> ignoredProperties,
+            @Param("eventProperties") Collection<String> eventProperties
     );
 }
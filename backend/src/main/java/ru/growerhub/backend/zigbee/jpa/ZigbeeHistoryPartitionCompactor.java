@@ -0,0 +1,114 @@
+package ru.growerhub.backend.zigbee.jpa;
+
+import java.util.Collection;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.growerhub.backend.common.util.HistoryPartitions;
+
+// Prorezhivanie zakrytyh partitsij zigbee istorii kopirovaniem; vyborki - obratnye k delete-zaprosam
+// ZigbeeDevicePropertyReadingRepository/ZigbeeDeviceStateEventRepository.
+@Repository
+public class ZigbeeHistoryPartitionCompactor {
+    private static final String COPY_PROPERTY_READINGS_SQL = """
+            INSERT INTO %2$s
+            SELECT reading.*
+            FROM %1$s reading
+            LEFT JOIN (
+                SELECT id,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY coordinator_id,
+                                        COALESCE(ieee_address, friendly_name),
+                                        property,
+                                        DATE_TRUNC('hour', ts)
+                           ORDER BY ts DESC, id DESC
+                       ) AS row_no
+                FROM %1$s
+                WHERE value_numeric IS NOT NULL
+                  AND property NOT IN (:ignoredProperties)
+            ) numeric_ranked ON numeric_ranked.id = reading.id
+            LEFT JOIN (
+                SELECT id,
+                       value_text,
+                       value_boolean,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY coordinator_id,
+                                        COALESCE(ieee_address, friendly_name),
+                                        property,
+                                        DATE_TRUNC('day', ts)
+                           ORDER BY ts, id
+                       ) AS row_no,
+                       LAG(value_text) OVER (
+                           PARTITION BY coordinator_id,
+                                        COALESCE(ieee_address, friendly_name),
+                                        property,
+                                        DATE_TRUNC('day', ts)
+                           ORDER BY ts, id
+                       ) AS previous_text,
+                       LAG(value_boolean) OVER (
+                           PARTITION BY coordinator_id,
+                                        COALESCE(ieee_address, friendly_name),
+                                        property,
+                                        DATE_TRUNC('day', ts)
+                           ORDER BY ts, id
+                       ) AS previous_boolean
+                FROM %1$s
+                WHERE value_numeric IS NULL
+                  AND property NOT IN (:ignoredProperties)
+                  AND property NOT IN (:eventProperties)
+            ) transitions ON transitions.id = reading.id
+            WHERE reading.property NOT IN (:ignoredProperties)
+              AND (
+                  numeric_ranked.row_no = 1
+                  OR (reading.value_numeric IS NULL AND reading.property IN (:eventProperties))
+                  OR transitions.row_no = 1
+                  OR transitions.value_text IS DISTINCT FROM transitions.previous_text
+                  OR transitions.value_boolean IS DISTINCT FROM transitions.previous_boolean
+              )
+            """;
+
+    private static final String COPY_STATE_EVENTS_SQL = """
+            INSERT INTO %2$s
+            SELECT event.*
+            FROM %1$s event
+            WHERE EXISTS (
+                SELECT 1
+                FROM zigbee_device_property_readings reading
+                WHERE reading.state_event_id = event.id
+            )
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ZigbeeHistoryPartitionCompactor(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    // Translitem: pustye nabory zamenjaet vyzyvajushchij (NOT IN () nedopustim v SQL).
+    public int copyCompactedPropertyReadings(
+            String sourceTable,
+            String targetTable,
+            Collection<String> ignoredProperties,
+            Collection<String> eventProperties
+    ) {
+        return jdbcTemplate.update(
+                COPY_PROPERTY_READINGS_SQL.formatted(
+                        HistoryPartitions.requireIdentifier(sourceTable),
+                        HistoryPartitions.requireIdentifier(targetTable)
+                ),
+                Map.of("ignoredProperties", ignoredProperties, "eventProperties", eventProperties)
+        );
+    }
+
+    // Translitem: vyzyvaetsja posle zameny partitsii pokazanij - sobytija bez ostavshihsja pokazanij ne kopirujutsja.
+    public int copyReferencedStateEvents(String sourceTable, String targetTable) {
+        return jdbcTemplate.update(
+                COPY_STATE_EVENTS_SQL.formatted(
+                        HistoryPartitions.requireIdentifier(sourceTable),
+                        HistoryPartitions.requireIdentifier(targetTable)
+                ),
+                Map.of()
+        );
+    }
+}
@@ -0,0 +1,164 @@
+package ru.growerhub.backend.zigbee.jpa;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+    name = "zigbee_property_rollups",
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "ux_zigbee_property_rollups_series_bucket",
+            columnNames = {"coordinator_id", "ieee_address", "property", "resolution", "bucket_start"}
+        )
+    },
+    indexes = {
+        @Index(name = "ix_zigbee_property_rollups_resolution_bucket", columnList = "resolution, bucket_start")
+    }
+)
+public class ZigbeePropertyRollupEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "coordinator_id", nullable = false)
+    private Integer coordinatorId;
+
+    @Column(name = "ieee_address", nullable = false)
+    private String ieeeAddress;
+
+    @Column(name = "property", nullable = false)
+    private String property;
+
+    @Column(name = "resolution", nullable = false, length = 8)
+    private String resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "min_value", nullable = false)
+    private Double minValue;
+
+    @Column(name = "max_value", nullable = false)
+    private Double maxValue;
+
+    @Column(name = "avg_value", nullable = false)
+    private Double avgValue;
+
+    @Column(name = "value_count", nullable = false)
+    private Long valueCount;
+
+    @Column(name = "last_ts", nullable = false)
+    private LocalDateTime lastTs;
+
+    @Column(name = "last_value", nullable = false)
+    private Double lastValue;
+
+    protected ZigbeePropertyRollupEntity() {
+    }
+
+    public static ZigbeePropertyRollupEntity create() {
+        return new ZigbeePropertyRollupEntity();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getCoordinatorId() {
+        return coordinatorId;
+    }
+
+    public void setCoordinatorId(Integer coordinatorId) {
+        this.coordinatorId = coordinatorId;
+    }
+
+    public String getIeeeAddress() {
+        return ieeeAddress;
+    }
+
+    public void setIeeeAddress(String ieeeAddress) {
+        this.ieeeAddress = ieeeAddress;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public void setProperty(String property) {
+        this.property = property;
+    }
+
+    public String getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(String resolution) {
+        this.resolution = resolution;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Double getMinValue() {
+        return minValue;
+    }
+
+    public void setMinValue(Double minValue) {
+        this.minValue = minValue;
+    }
+
+    public Double getMaxValue() {
+        return maxValue;
+    }
+
+    public void setMaxValue(Double maxValue) {
+        this.maxValue = maxValue;
+    }
+
+    public Double getAvgValue() {
+        return avgValue;
+    }
+
+    public void setAvgValue(Double avgValue) {
+        this.avgValue = avgValue;
+    }
+
+    public Long getValueCount() {
+        return valueCount;
+    }
+
+    public void setValueCount(Long valueCount) {
+        this.valueCount = valueCount;
+    }
+
+    public LocalDateTime getLastTs() {
+        return lastTs;
+    }
+
+    public void setLastTs(LocalDateTime lastTs) {
+        this.lastTs = lastTs;
+    }
+
+    public Double getLastValue() {
+        return lastValue;
+    }
+
+    public void setLastValue(Double lastValue) {
+        this.lastValue = lastValue;
+    }
+}
@@ -0,0 +1,79 @@
+package ru.growerhub.backend.zigbee.jpa;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ZigbeePropertyRollupRepository extends JpaRepository<ZigbeePropertyRollupEntity, Long> {
+    @Query(
+            value = """
+                    SELECT id, coordinator_id, ieee_address, property, resolution, bucket_start, min_value, max_value, avg_value,
+                           value_count, last_ts, last_value
+                    FROM (
+                        SELECT bucketed.*,
+                               ROW_NUMBER() OVER (
+                                   PARTITION BY bucket_no
+                                   ORDER BY bucket_start DESC
+                               ) AS pick_no
+                        FROM (
+                            SELECT agg.*,
+                                   NTILE(CAST(:maxPoints AS INTEGER)) OVER (
+                                       ORDER BY agg.bucket_start
+                                   ) AS bucket_no
+                            FROM zigbee_property_rollups agg
+                            WHERE agg.coordinator_id = :coordinatorId
+                              AND agg.ieee_address = :ieeeAddress
+                              AND agg.property = :property
+                              AND agg.resolution = :resolution
+                              AND agg.bucket_start >= :sinceBucket
+                              AND agg.last_ts >= :since
+                        ) bucketed
+                    ) ranked
+                    WHERE pick_no = 1
+                    ORDER BY last_ts
+                    """,
+            nativeQuery = true
+    )
+    List<ZigbeePropertyRollupEntity> findBucketedHistory(
+            @Param("coordinatorId") Integer coordinatorId,
+            @Param("ieeeAddress") String ieeeAddress,
+            @Param("property") String property,
+            @Param("resolution") String resolution,
+            @Param("sinceBucket") LocalDateTime sinceBucket,
+            @Param("since") LocalDateTime since,
+            @Param("maxPoints") int maxPoints
+    );
+
+    @Query("""
+            SELECT agg
+            FROM ZigbeePropertyRollupEntity agg
+            WHERE agg.resolution = :resolution
+              AND agg.bucketStart >= :fromTs
+              AND agg.bucketStart < :toTs
+            ORDER BY agg.coordinatorId, agg.ieeeAddress, agg.property, agg.bucketStart
+            """)
+    List<ZigbeePropertyRollupEntity> findRange(
+            @Param("resolution") String resolution,
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs
+    );
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            DELETE FROM ZigbeePropertyRollupEntity agg
+            WHERE agg.resolution = :resolution
+              AND agg.bucketStart >= :fromTs
+              AND agg.bucketStart < :toTs
+            """)
+    int deleteRange(
+            @Param("resolution") String resolution,
+            @Param("fromTs") LocalDateTime fromTs,
+            @Param("toTs") LocalDateTime toTs
+    );
+
+    @Query("SELECT MAX(agg.bucketStart) FROM ZigbeePropertyRollupEntity agg WHERE agg.resolution = :resolution")
+    LocalDateTime findLatestBucketStart(@Param("resolution") String resolution);
+}
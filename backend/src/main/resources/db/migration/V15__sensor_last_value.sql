@@ -0,0 +1,17 @@
+BEGIN;
+
+ALTER TABLE sensors
+    ADD COLUMN last_value DOUBLE PRECISION NULL,
+    ADD COLUMN last_value_at TIMESTAMP NULL;
+
+UPDATE sensors
+SET last_value = latest.value_numeric,
+    last_value_at = latest.ts
+FROM (
+    SELECT DISTINCT ON (sensor_id) sensor_id, value_numeric, ts
+    FROM sensor_readings
+    ORDER BY sensor_id, ts DESC, id DESC
+) latest
+WHERE latest.sensor_id = sensors.id;
+
+COMMIT;
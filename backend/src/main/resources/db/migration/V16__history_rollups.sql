@@ -0,0 +1,72 @@
+BEGIN;
+
+CREATE TABLE sensor_reading_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    sensor_id INTEGER NOT NULL REFERENCES sensors(id) ON DELETE CASCADE,
+    resolution VARCHAR(8) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    min_value DOUBLE PRECISION NOT NULL,
+    max_value DOUBLE PRECISION NOT NULL,
+    avg_value DOUBLE PRECISION NOT NULL,
+    value_count BIGINT NOT NULL,
+    last_ts TIMESTAMP NOT NULL,
+    last_value DOUBLE PRECISION NOT NULL,
+    CONSTRAINT ux_sensor_reading_rollups_series_bucket UNIQUE (sensor_id, resolution, bucket_start)
+);
+
+CREATE INDEX ix_sensor_reading_rollups_resolution_bucket
+    ON sensor_reading_rollups(resolution, bucket_start);
+
+CREATE TABLE plant_metric_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    plant_id INTEGER NOT NULL REFERENCES plants(id) ON DELETE CASCADE,
+    metric_type VARCHAR(64) NOT NULL,
+    resolution VARCHAR(8) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    min_value DOUBLE PRECISION NOT NULL,
+    max_value DOUBLE PRECISION NOT NULL,
+    avg_value DOUBLE PRECISION NOT NULL,
+    value_count BIGINT NOT NULL,
+    last_ts TIMESTAMP NOT NULL,
+    last_value DOUBLE PRECISION NOT NULL,
+    CONSTRAINT ux_plant_metric_rollups_series_bucket UNIQUE (plant_id, metric_type, resolution, bucket_start)
+);
+
+CREATE INDEX ix_plant_metric_rollups_resolution_bucket
+    ON plant_metric_rollups(resolution, bucket_start);
+
+CREATE TABLE zigbee_property_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    coordinator_id INTEGER NOT NULL,
+    ieee_address VARCHAR(32) NOT NULL,
+    property VARCHAR(128) NOT NULL,
+    resolution VARCHAR(8) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    min_value DOUBLE PRECISION NOT NULL,
+    max_value DOUBLE PRECISION NOT NULL,
+    avg_value DOUBLE PRECISION NOT NULL,
+    value_count BIGINT NOT NULL,
+    last_ts TIMESTAMP NOT NULL,
+    last_value DOUBLE PRECISION NOT NULL,
+    CONSTRAINT ux_zigbee_property_rollups_series_bucket
+        UNIQUE (coordinator_id, ieee_address, property, resolution, bucket_start)
+);
+
+CREATE INDEX ix_zigbee_property_rollups_resolution_bucket
+    ON zigbee_property_rollups(resolution, bucket_start);
+
+-- Catch-up rollup chitaet syrye stroki po diapazonu ts bez privjazki k serijam.
+CREATE INDEX IF NOT EXISTS ix_sensor_readings_ts ON sensor_readings(ts);
+CREATE INDEX IF NOT EXISTS ix_plant_metric_samples_ts ON plant_metric_samples(ts);
+CREATE INDEX IF NOT EXISTS ix_zigbee_property_readings_ts ON zigbee_device_property_readings(ts);
+
+CREATE TABLE history_rollup_state (
+    id INTEGER PRIMARY KEY,
+    rolled_up_to TIMESTAMP NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO history_rollup_state (id, rolled_up_to, updated_at)
+VALUES (1, NULL, CURRENT_TIMESTAMP);
+
+COMMIT;
@@ -0,0 +1,91 @@
+BEGIN;
+
+-- Istoricheskie tablicy perevodjatsja na mesjachnye range-partitsii po ts: prorezhivanie zakrytogo mesjaca
+-- zamenjaet partitsiju celikom, a hranenie za gorizontom - DROP partitsii vmesto massovyh DELETE.
+
+-- PK partitsionirovannoj tablicy objazan soderzhat' ts, poetomu ssylka po odnomu id na sobytija nevozmozhna;
+-- svjaz' pokazanie -> sobytie podderzhivaet prilozhenie (sobytija bez pokazanij udaljajutsja pri prorezhivanii).
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN
+        SELECT conname, conrelid::regclass AS table_name
+        FROM pg_constraint
+        WHERE contype = 'f'
+          AND confrelid = 'zigbee_device_state_events'::regclass
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END $$;
+
+CREATE FUNCTION pg_temp.growerhub_partition_history(p_table TEXT) RETURNS VOID AS $$
+DECLARE
+    staging TEXT := p_table || '_partitioned';
+    seq_name TEXT := pg_get_serial_sequence(p_table, 'id');
+    first_month DATE;
+    last_month DATE := (DATE_TRUNC('month', CURRENT_DATE) + INTERVAL '2 months')::DATE;
+    month_start DATE;
+    foreign_keys TEXT[];
+    indexes TEXT[];
+    definition TEXT;
+BEGIN
+    SELECT ARRAY_AGG(format('ALTER TABLE %I ADD CONSTRAINT %I %s', p_table, conname, pg_get_constraintdef(oid)))
+    INTO foreign_keys
+    FROM pg_constraint
+    WHERE conrelid = p_table::regclass
+      AND contype = 'f';
+
+    SELECT ARRAY_AGG(pg_get_indexdef(indexrelid))
+    INTO indexes
+    FROM pg_index
+    WHERE indrelid = p_table::regclass
+      AND NOT indisprimary;
+
+    EXECUTE format('SELECT DATE_TRUNC(''month'', MIN(ts))::DATE FROM %I', p_table) INTO first_month;
+    IF first_month IS NULL OR first_month > last_month THEN
+        first_month := DATE_TRUNC('month', CURRENT_DATE)::DATE;
+    END IF;
+
+    EXECUTE format('ALTER SEQUENCE %s OWNED BY NONE', seq_name);
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS) PARTITION BY RANGE (ts)', staging, p_table);
+
+    month_start := first_month;
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            p_table || '_p' || TO_CHAR(month_start, 'YYYYMM'),
+            staging,
+            month_start::TIMESTAMP,
+            (month_start + INTERVAL '1 month')::TIMESTAMP
+        );
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+    -- Stroki s ts vne setki (sbitye chasy ustrojstva) ne dolzhny lomat' vstavku.
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', p_table || '_default', staging);
+
+    EXECUTE format('INSERT INTO %I SELECT * FROM %I', staging, p_table);
+    EXECUTE format('DROP TABLE %I', p_table);
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', staging, p_table);
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I PRIMARY KEY (id, ts)', p_table, p_table || '_pkey');
+    EXECUTE format('ALTER SEQUENCE %s OWNED BY %I.id', seq_name, p_table);
+
+    -- Indeksy stroim posle zagruzki dannyh: opredelenija ssylajutsja na imja tablicy, kotoroe teper' u roditelja.
+    FOREACH definition IN ARRAY COALESCE(indexes, ARRAY[]::TEXT[]) LOOP
+        EXECUTE definition;
+    END LOOP;
+    FOREACH definition IN ARRAY COALESCE(foreign_keys, ARRAY[]::TEXT[]) LOOP
+        EXECUTE definition;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT pg_temp.growerhub_partition_history('sensor_readings');
+SELECT pg_temp.growerhub_partition_history('plant_metric_samples');
+SELECT pg_temp.growerhub_partition_history('pump_state_readings');
+SELECT pg_temp.growerhub_partition_history('zigbee_device_property_readings');
+SELECT pg_temp.growerhub_partition_history('zigbee_device_state_events');
+
+DROP FUNCTION pg_temp.growerhub_partition_history(TEXT);
+
+COMMIT;
@@ -0,0 +1,22 @@
+BEGIN;
+
+-- Progress chunk-prorezhivanija po tablicam: den' i sledujushchij kljuch serii (sensor/plant/pump/coordinator id).
+CREATE TABLE history_compaction_checkpoints (
+    table_name VARCHAR(64) PRIMARY KEY,
+    next_day DATE NULL,
+    next_key INTEGER NULL,
+    rows_deleted BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO history_compaction_checkpoints (table_name, next_day, next_key, rows_deleted, updated_at)
+SELECT tables.table_name, state.next_day, NULL, 0, CURRENT_TIMESTAMP
+FROM (
+    VALUES ('sensor_readings'),
+           ('plant_metric_samples'),
+           ('pump_state_readings'),
+           ('zigbee_device_property_readings')
+) AS tables(table_name)
+LEFT JOIN history_retention_state state ON state.id = 1;
+
+COMMIT;
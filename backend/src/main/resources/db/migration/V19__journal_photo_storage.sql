@@ -0,0 +1,13 @@
+BEGIN;
+
+-- Foto zhurnala v fajlovom hranilishche: kljuch sha256 soderzhimogo, miniatjura i razmer.
+-- data ostaetsja tol'ko u eshche ne perenesennyh foto (JournalPhotoMigrationWorker ochishchaet ee pachkami).
+ALTER TABLE plant_journal_photos ADD COLUMN storage_key VARCHAR(64) NULL;
+ALTER TABLE plant_journal_photos ADD COLUMN thumbnail_key VARCHAR(64) NULL;
+ALTER TABLE plant_journal_photos ADD COLUMN size_bytes BIGINT NULL;
+
+CREATE INDEX ix_plant_journal_photos_legacy_data
+    ON plant_journal_photos (id)
+    WHERE storage_key IS NULL AND data IS NOT NULL;
+
+COMMIT;
@@ -0,0 +1,22 @@
+BEGIN;
+
+-- Koordinacija ekzempljarov backend: zhivye uzly (heartbeat) i lease na scheduled-zadachi.
+-- Lease prodlevaetsja heartbeat'om vladel'ca; prosrochennyj lease zabiraet ljuboj zhivoj uzel.
+CREATE TABLE cluster_nodes (
+    node_id VARCHAR(128) PRIMARY KEY,
+    host VARCHAR(255) NULL,
+    started_at TIMESTAMP NOT NULL,
+    heartbeat_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE cluster_leases (
+    job_name VARCHAR(64) PRIMARY KEY,
+    owner_node VARCHAR(128) NOT NULL,
+    acquired_at TIMESTAMP NOT NULL,
+    lease_until TIMESTAMP NOT NULL,
+    fencing_token BIGINT NOT NULL
+);
+
+CREATE INDEX ix_cluster_leases_owner_node ON cluster_leases (owner_node);
+
+COMMIT;
@@ -0,0 +1,7 @@
+BEGIN;
+
+-- Povtornyj rollup hvosta istorii: pozdnie stroki (bufer offline ustrojstv, write-behind) s ts nizhe rolled_up_to.
+ALTER TABLE history_rollup_state ADD COLUMN reroll_from TIMESTAMP NULL;
+ALTER TABLE history_rollup_state ADD COLUMN rerolled_at TIMESTAMP NULL;
+
+COMMIT;
@@ -0,0 +1,31 @@
+BEGIN;
+
+-- V17 peresozdal istoricheskie tablicy kak partitsionirovannye, i parametry autovacuum iz V14 poterjalis':
+-- u roditelja ih net, zadajutsja na kazhdoj partitsii (novye partitsii poluchajut ih pri sozdanii).
+DO $$
+DECLARE
+    partition RECORD;
+BEGIN
+    FOR partition IN
+        SELECT child.relname::text AS name
+        FROM pg_inherits inheritance
+        JOIN pg_class parent ON parent.oid = inheritance.inhparent
+        JOIN pg_class child ON child.oid = inheritance.inhrelid
+        JOIN pg_namespace n ON n.oid = parent.relnamespace
+        WHERE n.nspname = current_schema()
+          AND parent.relname IN (
+              'sensor_readings',
+              'plant_metric_samples',
+              'pump_state_readings',
+              'zigbee_device_state_events',
+              'zigbee_device_property_readings'
+          )
+    LOOP
+        EXECUTE format(
+            'ALTER TABLE %I SET (autovacuum_analyze_scale_factor = 0.02, autovacuum_vacuum_insert_scale_factor = 0.05)',
+            partition.name
+        );
+    END LOOP;
+END $$;
+
+COMMIT;
@@ -0,0 +1,12 @@
+BEGIN;
+
+-- Chistka sirot hranilishcha foto proverjaet kljuchi pachkami: nuzhen poisk po storage_key i thumbnail_key.
+CREATE INDEX ix_plant_journal_photos_storage_key
+    ON plant_journal_photos (storage_key)
+    WHERE storage_key IS NOT NULL;
+
+CREATE INDEX ix_plant_journal_photos_thumbnail_key
+    ON plant_journal_photos (thumbnail_key)
+    WHERE thumbnail_key IS NOT NULL;
+
+COMMIT;
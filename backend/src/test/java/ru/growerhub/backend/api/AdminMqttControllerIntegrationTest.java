@@ -122,6 +122,23 @@ class AdminMqttControllerIntegrationTest extends IntegrationTestBase {
                 .body("[1].topic", equalTo("unknown/topic"));
     }
 
+    @Test
+    void publisherStatsExposeWindowAndLatencyHistogram() {
+        UserEntity admin = createUser("mqtt-admin-publisher@example.com", "admin");
+        String token = buildToken(admin.getId());
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/admin/mqtt/publisher")
+                .then()
+                .statusCode(200)
+                .body("max_in_flight", equalTo(64))
+                .body("in_flight", equalTo(0))
+                .body("histogram.size()", equalTo(10))
+                .body("histogram.le_5ms", equalTo(0));
+    }
+
     private UserEntity createUser(String email, String role) {
         LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
         return userRepository.save(UserEntity.create(email, null, role, true, now, now));
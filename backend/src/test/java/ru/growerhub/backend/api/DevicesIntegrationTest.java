@@ -241,6 +241,38 @@ class DevicesIntegrationTest extends IntegrationTestBase {
                 .statusCode(422);
     }
 
+    @Test
+    void rotatedDeviceTokenStopsWorkingDespitePrincipalCache() {
+        DeviceEntity device = createDevice("dev-rotate", null);
+        String oldToken = createDeviceCredential(device);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            given()
+                    .header("Authorization", "Device " + oldToken)
+                    .when()
+                    .get("/api/device/dev-rotate/settings")
+                    .then()
+                    .statusCode(200);
+        }
+
+        DeviceEntity stored = deviceRepository.findById(device.getId()).orElseThrow();
+        stored.setDeviceTokenIssuedAt(LocalDateTime.now(ZoneOffset.UTC).minusMinutes(5));
+        deviceRepository.save(stored);
+        String newToken = createDeviceCredential(device);
+
+        given()
+                .header("Authorization", "Device " + oldToken)
+                .when()
+                .get("/api/device/dev-rotate/settings")
+                .then()
+                .statusCode(401);
+        given()
+                .header("Authorization", "Device " + newToken)
+                .when()
+                .get("/api/device/dev-rotate/settings")
+                .then()
+                .statusCode(200);
+    }
+
     @Test
     void getDeviceSettingsCreatesDefaults() {
         DeviceEntity device = createDevice("dev-3", null);
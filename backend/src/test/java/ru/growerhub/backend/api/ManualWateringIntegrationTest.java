@@ -721,6 +721,39 @@ class ManualWateringIntegrationTest extends IntegrationTestBase {
                 .body("status", equalTo("done"));
     }
 
+    @Test
+    void ackFallsBackToStoredAckWhenMissingInMemory() {
+        UserEntity user = createUser("owner-ack-stored@example.com", "user");
+        String token = buildToken(user.getId());
+        DeviceEntity device = createDevice("dev-ack-stored", user);
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        // Translitem: ACK prinjal i zapisal drugoj uzel - v AckStore etogo uzla ego net.
+        deviceFacade.handleAck(
+                device.getDeviceId(),
+                "ack-stored",
+                "accepted",
+                "running",
+                Map.of("correlation_id", "ack-stored", "result", "accepted", "reason", "started", "status", "running"),
+                now,
+                now.plusMinutes(5)
+        );
+        Assertions.assertNull(ackStore.get("ack-stored"));
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .queryParam("correlation_id", "ack-stored")
+                .queryParam("timeout_s", 1)
+                .when()
+                .get("/api/pumps/watering/wait-ack")
+                .then()
+                .statusCode(200)
+                .body("correlation_id", equalTo("ack-stored"))
+                .body("result", equalTo("accepted"))
+                .body("reason", equalTo("started"))
+                .body("status", equalTo("running"));
+        Assertions.assertNotNull(ackStore.get("ack-stored"));
+    }
+
     @Test
     void waitAckReturnsTimeout() {
         UserEntity user = createUser("owner-wait-timeout@example.com", "user");
@@ -791,6 +824,7 @@ class ManualWateringIntegrationTest extends IntegrationTestBase {
         jdbcTemplate.update("DELETE FROM plant_journal_photos");
         jdbcTemplate.update("DELETE FROM plants");
         jdbcTemplate.update("DELETE FROM device_state_last");
+        jdbcTemplate.update("DELETE FROM mqtt_ack");
         jdbcTemplate.update("DELETE FROM sensors");
         jdbcTemplate.update("DELETE FROM devices");
         jdbcTemplate.update("DELETE FROM user_auth_identities");
@@ -12,13 +12,19 @@ import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.imageio.ImageIO;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,6 +38,8 @@ import ru.growerhub.backend.device.contract.DeviceShadowState;
 import ru.growerhub.backend.device.engine.DeviceShadowStore;
 import ru.growerhub.backend.device.jpa.DeviceEntity;
 import ru.growerhub.backend.device.jpa.DeviceRepository;
+import ru.growerhub.backend.journal.JournalFacade;
+import ru.growerhub.backend.journal.engine.JournalPhotoStore;
 import ru.growerhub.backend.journal.jpa.PlantJournalEntryEntity;
 import ru.growerhub.backend.journal.jpa.PlantJournalEntryRepository;
 import ru.growerhub.backend.journal.jpa.PlantJournalPhotoEntity;
@@ -101,6 +109,12 @@ class PlantsIntegrationTest extends IntegrationTestBase {
     @Autowired
     private PlantJournalWateringDetailsRepository plantJournalWateringDetailsRepository;
 
+    @Autowired
+    private JournalFacade journalFacade;
+
+    @Autowired
+    private JournalPhotoStore journalPhotoStore;
+
     @BeforeEach
     void setUp() {
         RestAssured.baseURI = "http://localhost";
@@ -643,6 +657,54 @@ class PlantsIntegrationTest extends IntegrationTestBase {
                 .body("[0].watering_details.fertilizers_per_liter", equalTo("G8M12B16 kapel"));
     }
 
+    @Test
+    void journalListPagesByEventAtAndReturnsPhotoMetadata() {
+        UserEntity owner = createUser("journal-pages@example.com", "user");
+        String token = buildToken(owner.getId());
+        PlantEntity plant = createPlant(owner, "JournalPages");
+        LocalDateTime base = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+        PlantJournalEntryEntity oldest = saveJournalEntry(plant, owner, "note", base.minusDays(1));
+        PlantJournalEntryEntity tieFirst = saveJournalEntry(plant, owner, "photo", base);
+        PlantJournalEntryEntity tieSecond = saveJournalEntry(plant, owner, "note", base);
+
+        PlantJournalPhotoEntity photo = PlantJournalPhotoEntity.create();
+        photo.setJournalEntry(tieFirst);
+        photo.setData("hello-world".getBytes(StandardCharsets.UTF_8));
+        photo.setContentType("image/jpeg");
+        plantJournalPhotoRepository.save(photo);
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/plants/" + plant.getId() + "/journal?limit=2")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(2))
+                .body("[0].id", equalTo(tieSecond.getId()))
+                .body("[1].id", equalTo(tieFirst.getId()))
+                .body("[1].photos[0].has_data", equalTo(true))
+                .body("[1].photos[0].content_type", equalTo("image/jpeg"))
+                .body("[1].photos[0].size_bytes", equalTo(11));
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/plants/" + plant.getId() + "/journal?limit=2&before_event_at=" + base
+                        + "&before_id=" + tieFirst.getId())
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].id", equalTo(oldest.getId()));
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/plants/" + plant.getId() + "/journal?before_id=" + tieFirst.getId())
+                .then()
+                .statusCode(400);
+    }
+
     @Test
     void journalExportMarkdown() {
         UserEntity owner = createUser("export-owner@example.com", "user");
@@ -707,7 +769,87 @@ class PlantsIntegrationTest extends IntegrationTestBase {
                 .get("/api/plants/" + plant.getId() + "/journal/export?format=txt")
                 .then()
                 .statusCode(400)
-                .body("detail", equalTo("podderzhivaetsya tolko format=md"));
+                .body("detail", equalTo("podderzhivayutsya formaty md, csv, jsonl"));
+    }
+
+    @Test
+    void journalExportStreamsCsvAndJsonLinesAcrossGroup() {
+        UserEntity owner = createUser("export-grow-owner@example.com", "user");
+        UserEntity stranger = createUser("export-grow-stranger@example.com", "user");
+        String token = buildToken(owner.getId());
+        PlantGroupEntity group = createGroup(owner, "Tent");
+        PlantEntity first = createPlant(owner, "Alpha, \"big\"");
+        first.setPlantGroup(group);
+        plantRepository.save(first);
+        PlantEntity second = createPlant(owner, "Beta");
+        second.setPlantGroup(group);
+        plantRepository.save(second);
+        PlantEntity outside = createPlant(owner, "Outside");
+        PlantEntity foreign = createPlant(stranger, "Foreign");
+
+        PlantJournalEntryEntity watering = saveJournalEntry(first, owner, "watering", LocalDateTime.of(2025, 2, 1, 9, 0));
+        PlantJournalWateringDetailsEntity details = PlantJournalWateringDetailsEntity.create();
+        details.setJournalEntry(watering);
+        details.setWaterVolumeL(2.0);
+        details.setDurationS(90);
+        details.setFertilizersPerLiter("G8");
+        plantJournalWateringDetailsRepository.save(details);
+        saveJournalEntry(first, owner, "note", LocalDateTime.of(2025, 2, 2, 9, 0));
+        saveJournalEntry(second, owner, "feeding", LocalDateTime.of(2025, 1, 15, 9, 0));
+        saveJournalEntry(outside, owner, "note", LocalDateTime.of(2025, 1, 10, 9, 0));
+
+        Response csv = given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/journal/export?format=csv&group_id=" + group.getId())
+                .then()
+                .statusCode(200)
+                .header("Content-Disposition", equalTo("attachment; filename=\"grow_journal.csv\""))
+                .extract()
+                .response();
+        String[] csvLines = csv.asString().split("\r\n");
+        Assertions.assertEquals(4, csvLines.length);
+        Assertions.assertTrue(csvLines[0].startsWith("plant_id,plant_name,entry_id,event_at,type"));
+        Assertions.assertEquals(
+                first.getId() + ",\"Alpha, \"\"big\"\"\"," + watering.getId() + ",2025-02-01T09:00,watering,,2.0,90,,G8,,",
+                csvLines[1]
+        );
+        Assertions.assertTrue(csvLines[2].contains(",note,"));
+        Assertions.assertTrue(csvLines[3].startsWith(second.getId() + ",Beta,"));
+
+        Response jsonl = given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/journal/export?format=jsonl&plant_ids=" + second.getId() + "," + outside.getId())
+                .then()
+                .statusCode(200)
+                .extract()
+                .response();
+        Assertions.assertTrue(jsonl.getHeader("Content-Type").startsWith("application/x-ndjson"));
+        String[] jsonLines = jsonl.asString().split("\n");
+        Assertions.assertEquals(2, jsonLines.length);
+        Assertions.assertTrue(jsonLines[0].contains("\"plant_name\":\"Beta\""));
+        Assertions.assertTrue(jsonLines[0].contains("\"event_at\":\"2025-01-15T09:00\""));
+        Assertions.assertTrue(jsonLines[1].contains("\"plant_name\":\"Outside\""));
+
+        String markdown = given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/journal/export")
+                .then()
+                .statusCode(200)
+                .extract()
+                .asString();
+        Assertions.assertTrue(markdown.contains("Nazvanie: Beta"));
+        Assertions.assertTrue(markdown.contains("Nazvanie: Outside"));
+        Assertions.assertFalse(markdown.contains("Foreign"));
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/journal/export?format=csv&plant_ids=" + foreign.getId())
+                .then()
+                .statusCode(404);
     }
 
     @Test
@@ -807,6 +949,196 @@ class PlantsIntegrationTest extends IntegrationTestBase {
                 .body("detail", equalTo("foto ne naideno ili nedostupno"));
     }
 
+    @Test
+    void journalPhotoUploadStreamsFromStoreWithThumbnailEtagAndRange() throws IOException {
+        UserEntity owner = createUser("photo-upload@example.com", "user");
+        String token = buildToken(owner.getId());
+        PlantEntity plant = createPlant(owner, "PhotoUpload");
+        PlantJournalEntryEntity entry = saveJournalEntry(plant, owner, "photo", LocalDateTime.now(ZoneOffset.UTC));
+        byte[] png = pngBytes(800, 400);
+
+        Response uploaded = given()
+                .header("Authorization", "Bearer " + token)
+                .multiPart("file", "leaf.png", png, "image/png")
+                .multiPart("caption", "leaf")
+                .when()
+                .post("/api/plants/" + plant.getId() + "/journal/" + entry.getId() + "/photos")
+                .then()
+                .statusCode(200)
+                .body("caption", equalTo("leaf"))
+                .body("has_data", equalTo(true))
+                .body("has_thumbnail", equalTo(true))
+                .body("size_bytes", equalTo(png.length))
+                .extract()
+                .response();
+        int photoId = uploaded.jsonPath().getInt("id");
+
+        String etag = given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/journal/photos/" + photoId)
+                .then()
+                .statusCode(200)
+                .header("Content-Type", containsString("image/png"))
+                .header("ETag", notNullValue())
+                .extract()
+                .header("ETag");
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .header("If-None-Match", etag)
+                .when()
+                .get("/api/journal/photos/" + photoId)
+                .then()
+                .statusCode(304);
+
+        byte[] head = given()
+                .header("Authorization", "Bearer " + token)
+                .header("Range", "bytes=0-7")
+                .when()
+                .get("/api/journal/photos/" + photoId)
+                .then()
+                .statusCode(206)
+                .header("Content-Range", equalTo("bytes 0-7/" + png.length))
+                .extract()
+                .asByteArray();
+        Assertions.assertArrayEquals(Arrays.copyOf(png, 8), head);
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/journal/photos/" + photoId + "/thumbnail")
+                .then()
+                .statusCode(200)
+                .header("Content-Type", containsString("image/jpeg"));
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .multiPart("file", "notes.txt", "text".getBytes(StandardCharsets.UTF_8), "text/plain")
+                .when()
+                .post("/api/plants/" + plant.getId() + "/journal/" + entry.getId() + "/photos")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void legacyBlobPhotosMigrateToStoreAndStayDownloadable() throws IOException {
+        UserEntity owner = createUser("photo-migrate@example.com", "user");
+        String token = buildToken(owner.getId());
+        PlantEntity plant = createPlant(owner, "PhotoMigrate");
+        PlantJournalEntryEntity entry = saveJournalEntry(plant, owner, "photo", LocalDateTime.now(ZoneOffset.UTC));
+        byte[] png = pngBytes(64, 64);
+
+        PlantJournalPhotoEntity photo = PlantJournalPhotoEntity.create();
+        photo.setJournalEntry(entry);
+        photo.setData(png);
+        photo.setContentType("image/png");
+        plantJournalPhotoRepository.save(photo);
+
+        Assertions.assertEquals(1, journalFacade.migrateLegacyPhotos(10));
+        Assertions.assertEquals(0, journalFacade.migrateLegacyPhotos(10));
+
+        PlantJournalPhotoEntity migrated = plantJournalPhotoRepository.findById(photo.getId()).orElseThrow();
+        Assertions.assertNull(migrated.getData());
+        Assertions.assertNotNull(migrated.getStorageKey());
+        Assertions.assertNotNull(migrated.getThumbnailKey());
+        Assertions.assertEquals(Long.valueOf(png.length), migrated.getSizeBytes());
+
+        byte[] downloaded = given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/journal/photos/" + photo.getId())
+                .then()
+                .statusCode(200)
+                .extract()
+                .asByteArray();
+        Assertions.assertArrayEquals(png, downloaded);
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/plants/" + plant.getId() + "/journal")
+                .then()
+                .statusCode(200)
+                .body("[0].photos[0].has_data", equalTo(true))
+                .body("[0].photos[0].has_thumbnail", equalTo(true));
+    }
+
+    @Test
+    void sweepRemovesFilesOfDeletedEntriesButKeepsSharedOnes() throws IOException {
+        UserEntity owner = createUser("photo-sweep@example.com", "user");
+        String token = buildToken(owner.getId());
+        PlantEntity plant = createPlant(owner, "PhotoSweep");
+        PlantJournalEntryEntity doomed = saveJournalEntry(plant, owner, "photo", LocalDateTime.now(ZoneOffset.UTC));
+        PlantJournalEntryEntity kept = saveJournalEntry(plant, owner, "photo", LocalDateTime.now(ZoneOffset.UTC));
+        byte[] shared = pngBytes(48, 48);
+        byte[] single = pngBytes(96, 32);
+
+        for (PlantJournalEntryEntity entry : List.of(doomed, kept)) {
+            uploadPhoto(token, plant, entry, shared);
+        }
+        uploadPhoto(token, plant, doomed, single);
+        List<PlantJournalPhotoEntity> photos = plantJournalPhotoRepository.findAll().stream()
+                .filter(photo -> doomed.getId().equals(photo.getJournalEntry().getId()))
+                .toList();
+        String sharedKey = photos.stream()
+                .filter(photo -> photo.getSizeBytes() == shared.length)
+                .findFirst()
+                .orElseThrow()
+                .getStorageKey();
+        PlantJournalPhotoEntity singlePhoto = photos.stream()
+                .filter(photo -> photo.getSizeBytes() == single.length)
+                .findFirst()
+                .orElseThrow();
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .delete("/api/plants/" + plant.getId() + "/journal/" + doomed.getId())
+                .then()
+                .statusCode(204);
+
+        journalFacade.sweepOrphanedPhotoFiles(Duration.ofHours(1), 10, () -> true);
+        Assertions.assertNotNull(journalPhotoStore.open(singlePhoto.getStorageKey()));
+
+        Assertions.assertTrue(journalFacade.sweepOrphanedPhotoFiles(Duration.ZERO, 1, () -> true) >= 2);
+        Assertions.assertNull(journalPhotoStore.open(singlePhoto.getStorageKey()));
+        Assertions.assertNull(journalPhotoStore.open(singlePhoto.getThumbnailKey()));
+        Assertions.assertNotNull(journalPhotoStore.open(sharedKey));
+    }
+
+    private void uploadPhoto(String token, PlantEntity plant, PlantJournalEntryEntity entry, byte[] png) {
+        given()
+                .header("Authorization", "Bearer " + token)
+                .multiPart("file", "leaf.png", png, "image/png")
+                .when()
+                .post("/api/plants/" + plant.getId() + "/journal/" + entry.getId() + "/photos")
+                .then()
+                .statusCode(200);
+    }
+
+    private byte[] pngBytes(int width, int height) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", output);
+        return output.toByteArray();
+    }
+
+    private PlantJournalEntryEntity saveJournalEntry(
+            PlantEntity plant,
+            UserEntity owner,
+            String type,
+            LocalDateTime eventAt
+    ) {
+        PlantJournalEntryEntity entry = PlantJournalEntryEntity.create();
+        entry.setPlantId(plant.getId());
+        entry.setUserId(owner.getId());
+        entry.setType(type);
+        entry.setEventAt(eventAt);
+        entry.setCreatedAt(LocalDateTime.now(ZoneOffset.UTC));
+        entry.setUpdatedAt(LocalDateTime.now(ZoneOffset.UTC));
+        return plantJournalEntryRepository.save(entry);
+    }
+
     private UserEntity createUser(String email, String role) {
         LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
         UserEntity user = UserEntity.create(email, null, role, true, now, now);
@@ -168,6 +168,53 @@ class UsersAdminIntegrationTest extends IntegrationTestBase {
                 .body("is_active", equalTo(false));
     }
 
+    @Test
+    void deactivationAppliesImmediatelyDespitePrincipalCache() {
+        UserEntity admin = createUser("admin-cache@example.com", "admin", true);
+        UserEntity target = createUser("cached@example.com", "user", true);
+        String adminToken = buildToken(admin.getId());
+        String targetToken = buildToken(target.getId());
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            given()
+                    .header("Authorization", "Bearer " + targetToken)
+                    .when()
+                    .get("/api/auth/me")
+                    .then()
+                    .statusCode(200);
+        }
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("is_active", false);
+        given()
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType("application/json")
+                .body(payload)
+                .when()
+                .patch("/api/users/" + target.getId())
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("Authorization", "Bearer " + targetToken)
+                .when()
+                .get("/api/auth/me")
+                .then()
+                .statusCode(403)
+                .body("detail", equalTo("Polzovatel' otkljuchen"));
+
+        Integer userHits = given()
+                .header("Authorization", "Bearer " + adminToken)
+                .when()
+                .get("/api/admin/auth/principal-cache")
+                .then()
+                .statusCode(200)
+                .body("enabled", equalTo(true))
+                .extract()
+                .path("users.hit_count");
+        Assertions.assertTrue(userHits >= 1);
+    }
+
     @Test
     void deleteUserUnassignsDevices() {
         UserEntity admin = createUser("admin5@example.com", "admin", true);
@@ -29,9 +29,11 @@ class ArchitectureRulesTest {
             "advisor",
             "auth",
             "automation",
+            "cluster",
             "device",
             "firmware",
             "journal",
+            "live",
             "maintenance",
             "plant",
             "pump",
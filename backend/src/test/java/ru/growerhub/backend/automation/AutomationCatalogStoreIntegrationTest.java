@@ -0,0 +1,65 @@
+package ru.growerhub.backend.automation;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.growerhub.backend.IntegrationTestBase;
+import ru.growerhub.backend.automation.contract.AutomationData;
+import ru.growerhub.backend.automation.engine.AutomationCatalog;
+import ru.growerhub.backend.automation.engine.AutomationCatalogStore;
+import ru.growerhub.backend.device.DeviceFacade;
+import ru.growerhub.backend.device.contract.DeviceShadowState;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "automation.catalog.incremental=true"
+)
+class AutomationCatalogStoreIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private AutomationCatalogStore catalogStore;
+
+    @Autowired
+    private DeviceFacade deviceFacade;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM plant_metric_samples");
+        jdbcTemplate.update("DELETE FROM sensor_plant_bindings");
+        jdbcTemplate.update("DELETE FROM sensor_readings");
+        jdbcTemplate.update("DELETE FROM sensors");
+        jdbcTemplate.update("DELETE FROM device_service_events");
+        jdbcTemplate.update("DELETE FROM device_state_last");
+        jdbcTemplate.update("DELETE FROM pump_state_readings");
+        jdbcTemplate.update("DELETE FROM pumps");
+        jdbcTemplate.update("DELETE FROM devices");
+    }
+
+    @Test
+    void currentReusesSnapshotUntilDeviceChanges() {
+        AutomationCatalog first = catalogStore.current();
+        Assertions.assertSame(first, catalogStore.current());
+
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        DeviceShadowState state = new DeviceShadowState(null, null, 42.0, null, null, null, null, null, null, null);
+        deviceFacade.handleState("catalog-device", state, now);
+
+        AutomationCatalog updated = catalogStore.current();
+        Assertions.assertNotSame(first, updated);
+        Assertions.assertTrue(updated.version() > first.version());
+        AutomationData.NativeDevice device = updated.nativeDevicesByKey().get("catalog-device");
+        Assertions.assertNotNull(device);
+        Assertions.assertEquals(Boolean.TRUE, device.isOnline());
+        Assertions.assertEquals(1, device.sensors().size());
+        Assertions.assertEquals(42.0, device.sensors().get(0).lastValue());
+        Assertions.assertSame(updated, catalogStore.current());
+    }
+}
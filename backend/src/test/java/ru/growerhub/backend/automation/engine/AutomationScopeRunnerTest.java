@@ -0,0 +1,106 @@
+package ru.growerhub.backend.automation.engine;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import ru.growerhub.backend.automation.AutomationFacade;
+import ru.growerhub.backend.automation.contract.AutomationData;
+import ru.growerhub.backend.cluster.ClusterFacade;
+import ru.growerhub.backend.common.config.AutomationEvaluationSettings;
+
+class AutomationScopeRunnerTest {
+    private final AutomationFacade automationFacade = Mockito.mock(AutomationFacade.class);
+    private final ClusterFacade clusterFacade = Mockito.mock(ClusterFacade.class);
+    private AutomationScopeRunner runner;
+
+    @AfterEach
+    void tearDown() {
+        if (runner != null) {
+            runner.shutdown();
+        }
+    }
+
+    @Test
+    void failingScopeDoesNotStopOthersAndRoomsRunAfterBoxes() {
+        AutomationEvaluationSettings settings = new AutomationEvaluationSettings();
+        settings.setConcurrency(3);
+        runner = new AutomationScopeRunner(settings, automationFacade, clusterFacade);
+        Mockito.when(clusterFacade.ownsShard(ArgumentMatchers.anyString())).thenReturn(true);
+        AutomationEvaluationPlan plan = new AutomationEvaluationPlan(
+                null,
+                LocalDateTime.of(2026, 10, 17, 12, 0),
+                List.of(
+                        new AutomationEvaluationPlan.BoxShard("pump:7", List.of(1, 2)),
+                        new AutomationEvaluationPlan.BoxShard("box:3", List.of(3))
+                ),
+                List.of(10)
+        );
+        List<String> calls = new CopyOnWriteArrayList<>();
+        Mockito.when(automationFacade.planEvaluation()).thenReturn(plan);
+        Mockito.doAnswer(invocation -> {
+            Integer boxId = invocation.getArgument(0);
+            calls.add("box:" + boxId);
+            if (boxId == 1) {
+                throw new IllegalStateException("zigbee publish failed");
+            }
+            return null;
+        }).when(automationFacade).evaluateBoxScope(ArgumentMatchers.anyInt(), ArgumentMatchers.eq(plan));
+        Mockito.doAnswer(invocation -> {
+            calls.add("room:" + invocation.getArgument(0));
+            return null;
+        }).when(automationFacade).evaluateRoomScope(ArgumentMatchers.anyInt(), ArgumentMatchers.eq(plan));
+
+        runner.evaluateAll();
+
+        Assertions.assertEquals(4, calls.size());
+        Assertions.assertEquals("room:10", calls.get(3));
+        Assertions.assertTrue(calls.indexOf("box:1") < calls.indexOf("box:2"));
+        AutomationData.EvaluationStats stats = runner.stats();
+        Assertions.assertEquals(1, stats.ticks());
+        AutomationData.ScopeTiming boxes = stats.scopes().get(0);
+        Assertions.assertEquals(AutomationData.SCOPE_BOX, boxes.scopeType());
+        Assertions.assertEquals(3, boxes.count());
+        Assertions.assertEquals(1, boxes.failures());
+        Assertions.assertEquals(3, boxes.histogram().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void evaluatesOnlyShardsOwnedByThisNode() {
+        AutomationEvaluationSettings settings = new AutomationEvaluationSettings();
+        settings.setConcurrency(1);
+        runner = new AutomationScopeRunner(settings, automationFacade, clusterFacade);
+        AutomationEvaluationPlan plan = new AutomationEvaluationPlan(
+                null,
+                LocalDateTime.of(2026, 10, 17, 12, 0),
+                List.of(
+                        new AutomationEvaluationPlan.BoxShard("pump:7", List.of(1, 2)),
+                        new AutomationEvaluationPlan.BoxShard("box:3", List.of(3))
+                ),
+                List.of(10, 11)
+        );
+        Mockito.when(automationFacade.planEvaluation()).thenReturn(plan);
+        Mockito.when(clusterFacade.ownsShard("pump:7")).thenReturn(true);
+        Mockito.when(clusterFacade.ownsShard("box:3")).thenReturn(false);
+        Mockito.when(clusterFacade.ownsShard("room:10")).thenReturn(false);
+        Mockito.when(clusterFacade.ownsShard("room:11")).thenReturn(true);
+        List<String> calls = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            calls.add("box:" + invocation.getArgument(0));
+            return null;
+        }).when(automationFacade).evaluateBoxScope(ArgumentMatchers.anyInt(), ArgumentMatchers.eq(plan));
+        Mockito.doAnswer(invocation -> {
+            calls.add("room:" + invocation.getArgument(0));
+            return null;
+        }).when(automationFacade).evaluateRoomScope(ArgumentMatchers.anyInt(), ArgumentMatchers.eq(plan));
+
+        runner.evaluateAll();
+
+        Assertions.assertEquals(List.of("box:1", "box:2", "room:11"), calls);
+        Assertions.assertEquals(2, runner.stats().skippedNotOwned());
+    }
+}
@@ -0,0 +1,33 @@
+package ru.growerhub.backend.automation.engine;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import ru.growerhub.backend.automation.AutomationFacade;
+import ru.growerhub.backend.cluster.ClusterFacade;
+
+class AutomationWorkerTest {
+    private final AutomationFacade automationFacade = Mockito.mock(AutomationFacade.class);
+    private final ClusterFacade clusterFacade = Mockito.mock(ClusterFacade.class);
+    private final AutomationWorker worker = new AutomationWorker(automationFacade, clusterFacade);
+
+    @Test
+    void leaderAdvancesWateringSessions() {
+        Mockito.when(clusterFacade.isLeader(ArgumentMatchers.anyString())).thenReturn(true);
+
+        worker.wateringTick();
+
+        Mockito.verify(automationFacade).evaluateActiveWateringSessions();
+        Mockito.verify(automationFacade, Mockito.never()).refreshLeakIndex();
+    }
+
+    @Test
+    void followerOnlyRefreshesLeakIndex() {
+        Mockito.when(clusterFacade.isLeader(ArgumentMatchers.anyString())).thenReturn(false);
+
+        worker.wateringTick();
+
+        Mockito.verify(automationFacade).refreshLeakIndex();
+        Mockito.verify(automationFacade, Mockito.never()).evaluateActiveWateringSessions();
+    }
+}
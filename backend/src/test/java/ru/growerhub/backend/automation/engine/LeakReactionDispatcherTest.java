@@ -0,0 +1,104 @@
+package ru.growerhub.backend.automation.engine;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.growerhub.backend.automation.AutomationFacade;
+import ru.growerhub.backend.automation.contract.AutomationData;
+import ru.growerhub.backend.common.config.LeakReactionSettings;
+import ru.growerhub.backend.pump.contract.PumpSessionData;
+import ru.growerhub.backend.zigbee.contract.ZigbeeDeviceChangedEvent;
+
+class LeakReactionDispatcherTest {
+    private static final UUID COORDINATOR_ID = UUID.fromString("00000000-0000-0000-0000-000000000042");
+    private static final String IEEE = "0x00124b0000000001";
+
+    private final AutomationFacade automationFacade = Mockito.mock(AutomationFacade.class);
+    private LeakReactionDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void advancesOnlySessionWatchingTheSensor() {
+        dispatcher = new LeakReactionDispatcher(new LeakReactionSettings(), automationFacade, Clock.systemUTC());
+        Mockito.when(automationFacade.advanceLeakSession(7L)).thenReturn(true);
+        dispatcher.track(List.of(probe(7L, AutomationCatalog.zigbeeKey(COORDINATOR_ID, IEEE)), probe(8L, "other")));
+
+        dispatcher.onZigbeeDeviceChanged(new ZigbeeDeviceChangedEvent(
+                1,
+                "leak_sensor",
+                COORDINATOR_ID,
+                IEEE,
+                LocalDateTime.now(Clock.systemUTC())
+        ));
+
+        Mockito.verify(automationFacade, Mockito.timeout(2000)).advanceLeakSession(7L);
+        Mockito.verify(automationFacade, Mockito.never()).advanceLeakSession(8L);
+        AutomationData.LeakReactionStats stats = awaitStops(1);
+        Assertions.assertEquals(1, stats.triggered());
+        Assertions.assertEquals(2, stats.trackedSensors());
+        Assertions.assertNotNull(stats.maxStopLatencyMs());
+    }
+
+    @Test
+    void ignoresEventsWithoutStateOrWhenDisabled() {
+        LeakReactionSettings settings = new LeakReactionSettings();
+        settings.setEnabled(false);
+        dispatcher = new LeakReactionDispatcher(settings, automationFacade, Clock.systemUTC());
+        dispatcher.track(List.of(probe(7L, AutomationCatalog.zigbeeKey(COORDINATOR_ID, IEEE))));
+
+        dispatcher.onZigbeeDeviceChanged(new ZigbeeDeviceChangedEvent(
+                1,
+                "leak_sensor",
+                COORDINATOR_ID,
+                IEEE,
+                LocalDateTime.now(Clock.systemUTC())
+        ));
+        settings.setEnabled(true);
+        dispatcher.onZigbeeDeviceChanged(new ZigbeeDeviceChangedEvent(1, null));
+
+        Mockito.verifyNoInteractions(automationFacade);
+        Assertions.assertEquals(0, dispatcher.stats().triggered());
+    }
+
+    private AutomationData.LeakReactionStats awaitStops(long expected) {
+        long deadline = System.currentTimeMillis() + 2000;
+        AutomationData.LeakReactionStats stats = dispatcher.stats();
+        while (stats.stops() < expected && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+            stats = dispatcher.stats();
+        }
+        Assertions.assertEquals(expected, stats.stops());
+        return stats;
+    }
+
+    private PumpSessionData.Probe probe(Long sessionId, String externalId) {
+        return new PumpSessionData.Probe(
+                sessionId,
+                1,
+                "device-1",
+                PumpSessionData.MODE_UNTIL_LEAK,
+                PumpSessionData.PHASE_RUNNING,
+                List.of(new PumpSessionData.LeakTarget(
+                        "leak:" + sessionId,
+                        null,
+                        AutomationData.SOURCE_ZIGBEE_DEVICE,
+                        externalId,
+                        "water_leak",
+                        "leak_sensor",
+                        true,
+                        false
+                ))
+        );
+    }
+}
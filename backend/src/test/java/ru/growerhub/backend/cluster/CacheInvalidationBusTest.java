@@ -0,0 +1,84 @@
+package ru.growerhub.backend.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.growerhub.backend.common.component.LocalChangeBus;
+import ru.growerhub.backend.common.config.IngestCacheSettings;
+import ru.growerhub.backend.common.config.security.AuthPrincipalCache;
+import ru.growerhub.backend.common.config.security.AuthPrincipalCacheSettings;
+import ru.growerhub.backend.device.contract.DeviceCredentialChangedEvent;
+import ru.growerhub.backend.device.engine.DeviceResolutionCache;
+import ru.growerhub.backend.sensor.contract.SensorStatus;
+import ru.growerhub.backend.sensor.contract.SensorType;
+import ru.growerhub.backend.sensor.engine.SensorResolutionCache;
+import ru.growerhub.backend.user.UserFacade;
+import ru.growerhub.backend.user.contract.UserAuthChangedEvent;
+
+// Dva "uzla" na LocalChangeBus: sbros keshej na odnom uzle dolzhen ubrat' te zhe zapisi na drugom.
+class CacheInvalidationBusTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void authInvalidationReachesOtherNode() {
+        LocalChangeBus firstBus = new LocalChangeBus();
+        AuthPrincipalCache first = authCache(firstBus);
+        AuthPrincipalCache second = authCache(firstBus.connectPeer());
+        AtomicInteger userLoads = new AtomicInteger();
+        AtomicInteger deviceChecks = new AtomicInteger();
+        AuthPrincipalCache.DeviceAuthenticator authenticator = (deviceId, token) -> {
+            deviceChecks.incrementAndGet();
+            return true;
+        };
+        second.resolveUser(7, id -> {
+            userLoads.incrementAndGet();
+            return new UserFacade.AuthUser(id, "user", true);
+        });
+        second.authenticateDevice("device-1", "token", authenticator);
+
+        first.onUserAuthChanged(new UserAuthChangedEvent(7));
+        first.onDeviceCredentialChanged(new DeviceCredentialChangedEvent("device-1"));
+
+        UserFacade.AuthUser reloaded = second.resolveUser(7, id -> {
+            userLoads.incrementAndGet();
+            return new UserFacade.AuthUser(id, "user", false);
+        });
+        second.authenticateDevice("device-1", "token", authenticator);
+        Assertions.assertFalse(reloaded.active());
+        Assertions.assertEquals(2, userLoads.get());
+        Assertions.assertEquals(2, deviceChecks.get());
+    }
+
+    @Test
+    void resolutionCacheEvictionsReachOtherNode() {
+        LocalChangeBus firstBus = new LocalChangeBus();
+        LocalChangeBus secondBus = firstBus.connectPeer();
+        IngestCacheSettings settings = new IngestCacheSettings();
+        DeviceResolutionCache firstDevices = new DeviceResolutionCache(settings, mapper, firstBus);
+        DeviceResolutionCache secondDevices = new DeviceResolutionCache(settings, mapper, secondBus);
+        SensorResolutionCache firstSensors = new SensorResolutionCache(settings, mapper, firstBus);
+        SensorResolutionCache secondSensors = new SensorResolutionCache(settings, mapper, secondBus);
+        SensorResolutionCache.SensorKey key = new SensorResolutionCache.SensorKey(11, SensorType.SOIL_MOISTURE, 0);
+        secondDevices.remember("device-1", 11, LocalDateTime.of(2026, 10, 17, 10, 0));
+        secondSensors.rememberSensor(key, new SensorResolutionCache.SensorRef(5, true, SensorStatus.OK));
+        secondSensors.rememberPlantIds(Map.of(5, List.of(3), 6, List.of(4)));
+
+        firstDevices.evict("device-1");
+        firstSensors.evictPlant(4);
+        firstSensors.evictDevice(11);
+
+        Assertions.assertNull(secondDevices.getDevicePk("device-1"));
+        Assertions.assertNull(secondSensors.getSensor(key));
+        Assertions.assertNull(secondSensors.getPlantIds(5));
+        Assertions.assertNull(secondSensors.getPlantIds(6));
+    }
+
+    private static AuthPrincipalCache authCache(LocalChangeBus changeBus) {
+        return new AuthPrincipalCache(new AuthPrincipalCacheSettings(), Clock.systemUTC(), new ObjectMapper(), changeBus);
+    }
+}
@@ -0,0 +1,188 @@
+package ru.growerhub.backend.cluster;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.growerhub.backend.IntegrationTestBase;
+import ru.growerhub.backend.cluster.contract.ClusterData;
+import ru.growerhub.backend.cluster.engine.ClusterCoordinator;
+import ru.growerhub.backend.common.config.cluster.ClusterSettings;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"MQTT_HOST="}
+)
+class ClusterCoordinationIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private ClusterFacade clusterFacade;
+
+    @Test
+    void leaseHasSingleOwnerAndMovesAfterExpiry() {
+        // Translitem: svoi chasy na sutki vpered - zapisi drugih testov v obshchej H2 dlja etih uzlov mertvye.
+        MutableClock clock = new MutableClock(Instant.now().plus(Duration.ofDays(1)));
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String job = "test-job-" + suffix;
+        ClusterCoordinator first = coordinator("a-" + suffix, clock);
+        ClusterCoordinator second = coordinator("b-" + suffix, clock);
+
+        first.heartbeat();
+        second.heartbeat();
+
+        Assertions.assertEquals(List.of(first.nodeId(), second.nodeId()), second.liveNodes());
+        Assertions.assertTrue(first.isLeader(job));
+        Assertions.assertFalse(second.isLeader(job));
+        Assertions.assertTrue(first.isLeader(job));
+
+        clock.advance(Duration.ofSeconds(20));
+        first.heartbeat();
+        Assertions.assertFalse(second.isLeader(job));
+
+        // Translitem: pervyj uzel zavis - bez heartbeat lease istek (20 + 30 < 60), vtoroj zabiraet zadachu.
+        clock.advance(Duration.ofSeconds(40));
+        Assertions.assertTrue(second.isLeader(job));
+        Assertions.assertFalse(first.isLeader(job));
+        Assertions.assertFalse(first.ownsShard("box:1"));
+        ClusterData.Lease lease = findLease(job);
+        Assertions.assertEquals(second.nodeId(), lease.ownerNode());
+        Assertions.assertEquals(2, lease.fencingToken());
+
+        second.heartbeat();
+        Assertions.assertEquals(List.of(second.nodeId()), second.liveNodes());
+        Assertions.assertTrue(second.ownsShard("box:1"));
+
+        // Translitem: ostanovka uzla otdaet lease srazu, bez ozhidanija leaseTtlMs.
+        second.leave();
+        ClusterCoordinator third = coordinator("c-" + suffix, clock);
+        Assertions.assertTrue(third.isLeader(job));
+        Assertions.assertEquals(3, findLease(job).fencingToken());
+        third.leave();
+        first.leave();
+    }
+
+    @Test
+    void renewLeaseFailsOnceAnotherNodeTookTheLease() {
+        MutableClock clock = new MutableClock(Instant.now().plus(Duration.ofDays(3)));
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String job = "test-renew-" + suffix;
+        ClusterCoordinator first = coordinator("a-" + suffix, clock);
+        ClusterCoordinator second = coordinator("b-" + suffix, clock);
+
+        Long firstToken = first.leaderToken(job);
+        Assertions.assertEquals(1L, firstToken);
+        Assertions.assertNull(second.leaderToken(job));
+
+        // Translitem: dolgaja zadacha prodlevaet lease sama, bez heartbeat.
+        clock.advance(Duration.ofSeconds(20));
+        Assertions.assertTrue(first.renewLease(job, firstToken));
+        clock.advance(Duration.ofSeconds(20));
+        Assertions.assertTrue(first.renewLease(job, firstToken));
+        Assertions.assertNull(second.leaderToken(job));
+
+        // Translitem: pervyj uzel zavis dol'she leaseTtlMs - lease i novyj token u vtorogo, staryj token ne prodlevaetsja.
+        clock.advance(Duration.ofSeconds(40));
+        Assertions.assertEquals(2L, second.leaderToken(job));
+        Assertions.assertFalse(first.renewLease(job, firstToken));
+        Assertions.assertTrue(second.renewLease(job, 2L));
+        Assertions.assertEquals(second.nodeId(), findLease(job).ownerNode());
+        first.leave();
+        second.leave();
+    }
+
+    @Test
+    void shardsSplitAcrossLiveNodesAndOnlyLeavingNodeShardsMove() {
+        MutableClock clock = new MutableClock(Instant.now().plus(Duration.ofDays(2)));
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        List<ClusterCoordinator> nodes = List.of(
+                coordinator("a-" + suffix, clock),
+                coordinator("b-" + suffix, clock),
+                coordinator("c-" + suffix, clock)
+        );
+        nodes.forEach(ClusterCoordinator::heartbeat);
+
+        List<String> keys = new ArrayList<>();
+        for (int index = 1; index <= 60; index++) {
+            keys.add("box:" + index);
+        }
+        List<String> ownersBefore = new ArrayList<>();
+        for (String key : keys) {
+            List<String> owners = nodes.stream()
+                    .filter(node -> node.ownsShard(key))
+                    .map(ClusterCoordinator::nodeId)
+                    .toList();
+            Assertions.assertEquals(1, owners.size(), key);
+            ownersBefore.add(owners.get(0));
+        }
+        for (ClusterCoordinator node : nodes) {
+            Assertions.assertTrue(ownersBefore.contains(node.nodeId()), node.nodeId());
+        }
+
+        ClusterCoordinator leaving = nodes.get(2);
+        leaving.leave();
+        List<ClusterCoordinator> remaining = nodes.subList(0, 2);
+        remaining.forEach(ClusterCoordinator::heartbeat);
+        for (int index = 0; index < keys.size(); index++) {
+            String key = keys.get(index);
+            List<String> owners = remaining.stream()
+                    .filter(node -> node.ownsShard(key))
+                    .map(ClusterCoordinator::nodeId)
+                    .toList();
+            Assertions.assertEquals(1, owners.size(), key);
+            if (!ownersBefore.get(index).equals(leaving.nodeId())) {
+                Assertions.assertEquals(ownersBefore.get(index), owners.get(0), key);
+            }
+        }
+        remaining.forEach(ClusterCoordinator::leave);
+    }
+
+    private ClusterCoordinator coordinator(String nodeId, Clock clock) {
+        ClusterSettings settings = new ClusterSettings();
+        settings.setNodeId(nodeId);
+        settings.setLeaseTtlMs(30000);
+        settings.setNodeTtlMs(30000);
+        return new ClusterCoordinator(settings, clock, clusterFacade);
+    }
+
+    private ClusterData.Lease findLease(String job) {
+        return clusterFacade.getOverview().leases().stream()
+                .filter(lease -> lease.jobName().equals(job))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.jdbc.core.JdbcTemplate;
 import ru.growerhub.backend.IntegrationTestBase;
+import ru.growerhub.backend.cluster.ClusterFacade;
 import ru.growerhub.backend.device.engine.AckCleanupWorker;
 import ru.growerhub.backend.device.jpa.MqttAckEntity;
 import ru.growerhub.backend.device.jpa.MqttAckRepository;
@@ -32,6 +33,9 @@ class AckCleanupWorkerIntegrationTest extends IntegrationTestBase {
     @Autowired
     private DeviceFacade deviceFacade;
 
+    @Autowired
+    private ClusterFacade clusterFacade;
+
     @Autowired
     private Clock clock;
 
@@ -48,7 +52,7 @@ class AckCleanupWorkerIntegrationTest extends IntegrationTestBase {
 
         Assertions.assertEquals(2, mqttAckRepository.count());
 
-        new AckCleanupWorker(deviceFacade).cleanupExpired();
+        new AckCleanupWorker(deviceFacade, clusterFacade).cleanupExpired();
 
         Assertions.assertEquals(1, mqttAckRepository.count());
         Assertions.assertTrue(mqttAckRepository.findByCorrelationId("corr-active").isPresent());
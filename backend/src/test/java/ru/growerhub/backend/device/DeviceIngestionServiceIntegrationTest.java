@@ -10,7 +10,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import ru.growerhub.backend.IntegrationTestBase;
 import ru.growerhub.backend.device.contract.DeviceShadowState;
+import ru.growerhub.backend.device.contract.DeviceStateMessage;
 import ru.growerhub.backend.device.engine.DeviceIngestionService;
+import ru.growerhub.backend.device.jpa.DeviceStateLastEntity;
+import ru.growerhub.backend.device.jpa.DeviceStateLastRepository;
 import ru.growerhub.backend.sensor.jpa.SensorEntity;
 import ru.growerhub.backend.sensor.SensorFacade;
 import ru.growerhub.backend.sensor.jpa.SensorReadingRepository;
@@ -27,6 +30,12 @@ class DeviceIngestionServiceIntegrationTest extends IntegrationTestBase {
     @Autowired
     private SensorFacade sensorFacade;
 
+    @Autowired
+    private DeviceFacade deviceFacade;
+
+    @Autowired
+    private DeviceStateLastRepository deviceStateLastRepository;
+
     @Autowired
     private SensorRepository sensorRepository;
 
@@ -42,6 +51,8 @@ class DeviceIngestionServiceIntegrationTest extends IntegrationTestBase {
         jdbcTemplate.update("DELETE FROM sensors");
         jdbcTemplate.update("DELETE FROM device_service_events");
         jdbcTemplate.update("DELETE FROM device_state_last");
+        jdbcTemplate.update("DELETE FROM pump_state_readings");
+        jdbcTemplate.update("DELETE FROM pumps");
         jdbcTemplate.update("DELETE FROM devices");
     }
 
@@ -108,4 +119,44 @@ class DeviceIngestionServiceIntegrationTest extends IntegrationTestBase {
                 && sensor.getChannel() == 0
                 && sensor.getStatus() == SensorStatus.DISCONNECTED));
     }
+
+    @Test
+    void handleStateBatchKeepsLatestStatePerDeviceAndAllReadings() {
+        LocalDateTime first = LocalDateTime.of(2025, 2, 1, 12, 0);
+        LocalDateTime second = first.plusSeconds(5);
+        DeviceShadowState older = new DeviceShadowState(null, "1.0.0", 10.0, null, null, null, null, null, null, null);
+        DeviceShadowState newer = new DeviceShadowState(null, "1.0.1", 11.0, null, null, null, null, null, null, null);
+        DeviceShadowState other = new DeviceShadowState(null, null, null, 22.0, 40.0, null, null, null, null, null);
+
+        deviceFacade.handleStateBatch(List.of(
+                new DeviceStateMessage("device-5", older, first),
+                new DeviceStateMessage("device-6", other, first),
+                new DeviceStateMessage("device-5", newer, second)
+        ));
+
+        Assertions.assertEquals(3, sensorRepository.count());
+        Assertions.assertEquals(4, sensorReadingRepository.count());
+        DeviceStateLastEntity state = deviceStateLastRepository.findByDeviceId("device-5").orElse(null);
+        Assertions.assertNotNull(state);
+        Assertions.assertEquals(second, state.getUpdatedAt());
+        Assertions.assertTrue(state.getStateJson().contains("1.0.1"));
+        Assertions.assertTrue(deviceStateLastRepository.findByDeviceId("device-6").isPresent());
+    }
+
+    @Test
+    void handleStateKeepsLatestSensorValueOnSensor() {
+        LocalDateTime newer = LocalDateTime.of(2025, 3, 1, 12, 0);
+        LocalDateTime older = newer.minusMinutes(1);
+        DeviceShadowState first = new DeviceShadowState(null, null, 30.0, null, null, null, null, null, null, null);
+        DeviceShadowState late = new DeviceShadowState(null, null, 25.0, null, null, null, null, null, null, null);
+
+        sensorFacade.recordMeasurements("device-7", deviceIngestionService.handleState("device-7", first, newer), newer);
+        sensorFacade.recordMeasurements("device-7", deviceIngestionService.handleState("device-7", late, older), older);
+
+        SensorEntity sensor = sensorRepository.findAll().get(0);
+        Assertions.assertEquals(2, sensorReadingRepository.count());
+        Assertions.assertEquals(30.0, sensor.getLastValue());
+        Assertions.assertEquals(newer, sensor.getLastValueAt());
+        Assertions.assertEquals(30.0, sensorFacade.getLastReadings(List.of(sensor.getId())).get(sensor.getId()).value());
+    }
 }
@@ -0,0 +1,115 @@
+package ru.growerhub.backend.device;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.growerhub.backend.IntegrationTestBase;
+import ru.growerhub.backend.device.contract.DeviceShadowState;
+import ru.growerhub.backend.device.engine.DeviceIngestionService;
+import ru.growerhub.backend.device.engine.DeviceResolutionCache;
+import ru.growerhub.backend.sensor.SensorFacade;
+import ru.growerhub.backend.sensor.contract.SensorReadingSummary;
+import ru.growerhub.backend.sensor.contract.SensorStatus;
+import ru.growerhub.backend.sensor.engine.SensorResolutionCache;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "ingest.resolution-cache.enabled=true"
+)
+class IngestResolutionCacheIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private DeviceIngestionService deviceIngestionService;
+
+    @Autowired
+    private SensorFacade sensorFacade;
+
+    @Autowired
+    private DeviceResolutionCache deviceResolutionCache;
+
+    @Autowired
+    private SensorResolutionCache sensorResolutionCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM plant_metric_samples");
+        jdbcTemplate.update("DELETE FROM sensor_plant_bindings");
+        jdbcTemplate.update("DELETE FROM sensor_readings");
+        jdbcTemplate.update("DELETE FROM sensors");
+        jdbcTemplate.update("DELETE FROM device_service_events");
+        jdbcTemplate.update("DELETE FROM device_state_last");
+        jdbcTemplate.update("DELETE FROM pump_state_readings");
+        jdbcTemplate.update("DELETE FROM pumps");
+        jdbcTemplate.update("DELETE FROM devices");
+        deviceResolutionCache.clear();
+        sensorResolutionCache.clear();
+    }
+
+    @Test
+    void steadyStateDoesNotRewriteSensorOrDevice() {
+        LocalDateTime first = LocalDateTime.of(2025, 4, 1, 12, 0);
+        LocalDateTime second = first.plusSeconds(5);
+
+        ingest("device-cache-1", 30.0, first);
+        LocalDateTime sensorUpdatedAt = jdbcTemplate.queryForObject(
+                "SELECT updated_at FROM sensors", LocalDateTime.class);
+        ingest("device-cache-1", 31.0, second);
+
+        Assertions.assertEquals(2, count("SELECT COUNT(*) FROM sensor_readings"));
+        Assertions.assertEquals(sensorUpdatedAt, jdbcTemplate.queryForObject(
+                "SELECT updated_at FROM sensors", LocalDateTime.class));
+        Assertions.assertEquals(first, jdbcTemplate.queryForObject(
+                "SELECT last_seen FROM devices WHERE device_id = ?", LocalDateTime.class, "device-cache-1"));
+        // Translitem: last_value pishetsja vmeste s readings, bez otlozhennogo flush.
+        Assertions.assertEquals(31.0, jdbcTemplate.queryForObject("SELECT last_value FROM sensors", Double.class));
+        Assertions.assertEquals(second, jdbcTemplate.queryForObject("SELECT last_value_at FROM sensors", LocalDateTime.class));
+
+        Integer sensorId = jdbcTemplate.queryForObject("SELECT id FROM sensors", Integer.class);
+        SensorReadingSummary last = sensorFacade.getLastReadings(List.of(sensorId)).get(sensorId);
+        Assertions.assertEquals(31.0, last.value());
+        Assertions.assertEquals(second, last.ts());
+
+        ingest("device-cache-1", 29.0, first.plusSeconds(2));
+        Assertions.assertEquals(31.0, jdbcTemplate.queryForObject("SELECT last_value FROM sensors", Double.class));
+    }
+
+    @Test
+    void statusChangeIsWrittenToSensor() {
+        LocalDateTime first = LocalDateTime.of(2025, 4, 1, 13, 0);
+        LocalDateTime second = first.plusSeconds(5);
+        DeviceShadowState.SoilPort connected = new DeviceShadowState.SoilPort(0, true, 40, SensorStatus.OK);
+        DeviceShadowState.SoilPort lost = new DeviceShadowState.SoilPort(0, false, null, SensorStatus.DISCONNECTED);
+
+        ingest("device-cache-2", soilState(connected), first);
+        ingest("device-cache-2", soilState(lost), second);
+
+        Assertions.assertEquals("DISCONNECTED", jdbcTemplate.queryForObject("SELECT status FROM sensors", String.class));
+        Assertions.assertEquals(1, count("SELECT COUNT(*) FROM sensor_readings"));
+    }
+
+    private void ingest(String deviceId, Double soilMoisture, LocalDateTime ts) {
+        ingest(deviceId, new DeviceShadowState(null, null, soilMoisture, null, null, null, null, null, null, null), ts);
+    }
+
+    private void ingest(String deviceId, DeviceShadowState state, LocalDateTime ts) {
+        sensorFacade.recordMeasurements(deviceId, deviceIngestionService.handleState(deviceId, state, ts), ts);
+    }
+
+    private DeviceShadowState soilState(DeviceShadowState.SoilPort port) {
+        return new DeviceShadowState(
+                null, null, null, null, null, null, new DeviceShadowState.SoilState(List.of(port)), null, null, null);
+    }
+
+    private int count(String sql) {
+        Integer value = jdbcTemplate.queryForObject(sql, Integer.class);
+        return value != null ? value : 0;
+    }
+}
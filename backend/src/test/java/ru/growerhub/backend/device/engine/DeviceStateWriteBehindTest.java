@@ -0,0 +1,133 @@
+package ru.growerhub.backend.device.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import ru.growerhub.backend.common.component.LocalChangeBus;
+import ru.growerhub.backend.common.config.DeviceSettings;
+import ru.growerhub.backend.common.config.device.DeviceShadowCacheSettings;
+import ru.growerhub.backend.common.config.device.DeviceStateWriteBehindSettings;
+import ru.growerhub.backend.device.DeviceFacade;
+import ru.growerhub.backend.device.contract.DeviceShadowState;
+import ru.growerhub.backend.device.contract.DeviceStateMessage;
+import ru.growerhub.backend.device.jpa.DeviceRepository;
+import ru.growerhub.backend.device.jpa.DeviceStateLastRepository;
+
+class DeviceStateWriteBehindTest {
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 17, 10, 0);
+
+    private final DeviceFacade deviceFacade = Mockito.mock(DeviceFacade.class);
+    private final DeviceStateWriteBehindSettings settings = new DeviceStateWriteBehindSettings();
+    private final DeviceShadowStore shadowStore = new DeviceShadowStore(
+            new DeviceSettings(),
+            new DeviceShadowCacheSettings(),
+            new ObjectMapper().registerModule(new JavaTimeModule()),
+            Clock.systemUTC(),
+            Mockito.mock(DeviceRepository.class),
+            Mockito.mock(DeviceStateLastRepository.class),
+            new LocalChangeBus()
+    );
+    private DeviceStateWriteBehind writeBehind;
+
+    @AfterEach
+    void tearDown() {
+        if (writeBehind != null) {
+            writeBehind.stop();
+        }
+    }
+
+    @Test
+    void flushesAfterWindow() {
+        start(50, 100, 1000);
+
+        Assertions.assertTrue(writeBehind.offer("dev-1", state("1.0.0"), T0));
+
+        Mockito.verify(deviceFacade, Mockito.timeout(5000))
+                .handleStateBatch(List.of(new DeviceStateMessage("dev-1", state("1.0.0"), T0)));
+        Assertions.assertEquals("1.0.0", shadowStore.getLastState("dev-1").fwVer());
+    }
+
+    @Test
+    void flushesOnMaxBatchSizeBeforeWindow() {
+        start(60_000, 2, 1000);
+
+        writeBehind.offer("dev-1", state("1.0.0"), T0);
+        writeBehind.offer("dev-2", state("1.0.0"), T0);
+
+        Mockito.verify(deviceFacade, Mockito.timeout(5000)).handleStateBatch(List.of(
+                new DeviceStateMessage("dev-1", state("1.0.0"), T0),
+                new DeviceStateMessage("dev-2", state("1.0.0"), T0)
+        ));
+    }
+
+    @Test
+    void offerBlocksWhileBufferIsFull() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(deviceFacade).handleStateBatch(ArgumentMatchers.anyList());
+        start(60_000, 100, 1);
+
+        writeBehind.offer("dev-1", state("1.0.0"), T0);
+        // Translitem: vtoroj offer zapuskaet flush pervogo state (zavisaet v BD) i zanimaet osvobodivsheesja mesto.
+        CompletableFuture.runAsync(() -> writeBehind.offer("dev-2", state("1.0.0"), T0)).get(5, TimeUnit.SECONDS);
+        Assertions.assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> third = CompletableFuture.runAsync(() -> writeBehind.offer("dev-3", state("1.0.0"), T0));
+
+        Thread.sleep(200);
+        Assertions.assertFalse(third.isDone());
+        Assertions.assertEquals(1, writeBehind.pendingCount());
+
+        release.countDown();
+        third.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void failedBatchIsRetriedPerMessageWithoutMovingShadowBack() {
+        Mockito.doThrow(new IllegalStateException("batch failed"))
+                .when(deviceFacade)
+                .handleStateBatch(ArgumentMatchers.argThat(messages -> messages != null && messages.size() > 1));
+        start(60_000, 2, 1000);
+        DeviceStateMessage older = new DeviceStateMessage("dev-1", state("1.0.0"), T0);
+        DeviceStateMessage newer = new DeviceStateMessage("dev-1", state("2.0.0"), T0.plusSeconds(5));
+
+        writeBehind.offer(older.deviceId(), older.state(), older.receivedAt());
+        writeBehind.offer(newer.deviceId(), newer.state(), newer.receivedAt());
+
+        Mockito.verify(deviceFacade, Mockito.timeout(5000)).handleStateBatch(List.of(older));
+        Mockito.verify(deviceFacade, Mockito.timeout(5000)).handleStateBatch(List.of(newer));
+        Mockito.verify(deviceFacade, Mockito.never())
+                .handleState(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Assertions.assertEquals("2.0.0", shadowStore.getLastState("dev-1").fwVer());
+
+        // Translitem: zapozdavshij state ne otkatyvaet shadow.
+        Assertions.assertFalse(shadowStore.updateFromState("dev-1", state("1.0.0"), T0));
+        Assertions.assertEquals(T0.plusSeconds(5), shadowStore.getMemorySnapshot("dev-1").updatedAt());
+    }
+
+    private void start(long windowMs, int maxBatchSize, int queueCapacity) {
+        settings.setEnabled(true);
+        settings.setWindowMs(windowMs);
+        settings.setMaxBatchSize(maxBatchSize);
+        settings.setQueueCapacity(queueCapacity);
+        writeBehind = new DeviceStateWriteBehind(settings, shadowStore, deviceFacade);
+        writeBehind.start();
+    }
+
+    private static DeviceShadowState state(String fwVer) {
+        return new DeviceShadowState(null, fwVer, null, null, null, null, null, null, null, null);
+    }
+}
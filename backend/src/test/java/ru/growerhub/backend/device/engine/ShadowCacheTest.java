@@ -0,0 +1,59 @@
+package ru.growerhub.backend.device.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ShadowCacheTest {
+
+    @Test
+    void scanDoesNotEvictHotEntries() {
+        ShadowCache<String, Integer> cache = new ShadowCache<>(10, 0, System::nanoTime);
+        cache.put("hot-1", 1);
+        cache.put("hot-2", 2);
+        cache.get("hot-1");
+        cache.get("hot-2");
+
+        for (int index = 0; index < 50; index++) {
+            cache.put("scan-" + index, index);
+        }
+
+        Assertions.assertEquals(10, cache.size());
+        Assertions.assertEquals(1, cache.get("hot-1"));
+        Assertions.assertEquals(2, cache.get("hot-2"));
+        Assertions.assertNull(cache.get("scan-0"));
+        Assertions.assertEquals(42, cache.sizeEvictionCount());
+    }
+
+    @Test
+    void evictsIdleEntries() {
+        AtomicLong now = new AtomicLong();
+        ShadowCache<String, Integer> cache = new ShadowCache<>(10, 1_000, now::get);
+        cache.put("device-1", 1);
+        cache.put("device-2", 2);
+
+        now.set(600);
+        cache.get("device-2");
+        now.set(1_500);
+
+        Assertions.assertNull(cache.get("device-1"));
+        Assertions.assertEquals(0, cache.evictIdle());
+        Assertions.assertEquals(2, cache.get("device-2"));
+
+        now.set(5_000);
+        Assertions.assertEquals(1, cache.evictIdle());
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertEquals(2, cache.idleEvictionCount());
+    }
+
+    @Test
+    void putIfAbsentKeepsExistingValue() {
+        ShadowCache<String, Integer> cache = new ShadowCache<>(10, 0, System::nanoTime);
+        cache.put("device-1", 1);
+        cache.putIfAbsent("device-1", 2);
+        cache.putIfAbsent("device-2", 3);
+
+        Assertions.assertEquals(1, cache.get("device-1"));
+        Assertions.assertEquals(3, cache.get("device-2"));
+    }
+}
@@ -0,0 +1,127 @@
+package ru.growerhub.backend.journal.engine;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import ru.growerhub.backend.common.config.journal.JournalPhotoSettings;
+
+class FileSystemJournalPhotoStoreTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void storesContentAddressedAndDeduplicates() throws Exception {
+        FileSystemJournalPhotoStore store = new FileSystemJournalPhotoStore(settings());
+        byte[] data = "hello-world".getBytes(StandardCharsets.UTF_8);
+
+        JournalPhotoStore.StoredPhoto first = store.store(new ByteArrayInputStream(data), 0);
+        JournalPhotoStore.StoredPhoto second = store.store(new ByteArrayInputStream(data), 0);
+
+        Assertions.assertEquals("afa27b44d43b02a9fea41d13cedc2e4016cfcf87c5dbf990e593669aa8ce286d", first.key());
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(11, first.sizeBytes());
+        Resource resource = store.open(first.key());
+        Assertions.assertNotNull(resource);
+        Assertions.assertArrayEquals(data, resource.getContentAsByteArray());
+        Assertions.assertTrue(Files.isRegularFile(root.resolve("af").resolve(first.key())));
+        try (Stream<Path> files = Files.list(root)) {
+            Assertions.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void rejectsOversizedUploadWithoutLeavingFiles() throws Exception {
+        FileSystemJournalPhotoStore store = new FileSystemJournalPhotoStore(settings());
+
+        Assertions.assertThrows(
+                JournalPhotoStore.TooLargeException.class,
+                () -> store.store(new ByteArrayInputStream(new byte[128]), 64)
+        );
+        try (Stream<Path> files = Files.list(root)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void ignoresUnknownAndMalformedKeys() {
+        FileSystemJournalPhotoStore store = new FileSystemJournalPhotoStore(settings());
+
+        Assertions.assertNull(store.open(null));
+        Assertions.assertNull(store.open("../etc/passwd"));
+        Assertions.assertNull(store.open("0".repeat(64)));
+    }
+
+    @Test
+    void listsAndDeletesOnlyFilesOlderThanCutoff() throws Exception {
+        FileSystemJournalPhotoStore store = new FileSystemJournalPhotoStore(settings());
+        String stale = store.store(new ByteArrayInputStream("stale".getBytes(StandardCharsets.UTF_8)), 0).key();
+        String fresh = store.store(new ByteArrayInputStream("fresh".getBytes(StandardCharsets.UTF_8)), 0).key();
+        Instant cutoff = Instant.now().minus(Duration.ofHours(1));
+        age(stale, Duration.ofHours(2));
+
+        try (Stream<String> keys = store.keysModifiedBefore(cutoff)) {
+            Assertions.assertEquals(List.of(stale), keys.toList());
+        }
+        Assertions.assertFalse(store.deleteIfModifiedBefore(fresh, cutoff));
+        Assertions.assertTrue(store.deleteIfModifiedBefore(stale, cutoff));
+        Assertions.assertNull(store.open(stale));
+        Assertions.assertNotNull(store.open(fresh));
+    }
+
+    @Test
+    void deduplicatedUploadRefreshesFileTime() throws Exception {
+        FileSystemJournalPhotoStore store = new FileSystemJournalPhotoStore(settings());
+        byte[] data = "again".getBytes(StandardCharsets.UTF_8);
+        String key = store.store(new ByteArrayInputStream(data), 0).key();
+        Instant cutoff = Instant.now().minus(Duration.ofHours(1));
+        age(key, Duration.ofHours(2));
+
+        store.store(new ByteArrayInputStream(data), 0);
+
+        Assertions.assertFalse(store.deleteIfModifiedBefore(key, cutoff));
+        Assertions.assertNotNull(store.open(key));
+    }
+
+    @Test
+    void thumbnailFitsWithinBoundAndKeepsAspectRatio() throws Exception {
+        BufferedImage image = new BufferedImage(1200, 600, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+
+        byte[] thumbnail = new JournalPhotoThumbnailer().thumbnail(new ByteArrayInputStream(png.toByteArray()), 320);
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumbnail));
+        Assertions.assertEquals(320, decoded.getWidth());
+        Assertions.assertEquals(160, decoded.getHeight());
+        Assertions.assertNull(new JournalPhotoThumbnailer().thumbnail(
+                new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8)),
+                320
+        ));
+    }
+
+    private void age(String key, Duration age) throws Exception {
+        Files.setLastModifiedTime(
+                root.resolve(key.substring(0, 2)).resolve(key),
+                FileTime.from(Instant.now().minus(age))
+        );
+    }
+
+    private JournalPhotoSettings settings() {
+        JournalPhotoSettings settings = new JournalPhotoSettings();
+        settings.setStorageDir(root.toString());
+        return settings;
+    }
+}
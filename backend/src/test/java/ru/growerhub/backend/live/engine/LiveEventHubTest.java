@@ -0,0 +1,259 @@
+package ru.growerhub.backend.live.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import ru.growerhub.backend.common.component.LocalChangeBus;
+import ru.growerhub.backend.common.config.LiveEventSettings;
+import ru.growerhub.backend.common.contract.AuthenticatedUser;
+import ru.growerhub.backend.common.contract.ChangeBus;
+import ru.growerhub.backend.common.contract.DomainException;
+import ru.growerhub.backend.device.DeviceFacade;
+import ru.growerhub.backend.device.contract.DeviceChangedEvent;
+import ru.growerhub.backend.device.contract.DeviceLiveState;
+import ru.growerhub.backend.live.contract.LiveData;
+import ru.growerhub.backend.live.contract.LiveSink;
+import ru.growerhub.backend.pump.PumpFacade;
+import ru.growerhub.backend.zigbee.ZigbeeFacade;
+
+class LiveEventHubTest {
+    private static final AuthenticatedUser OWNER = new AuthenticatedUser(7, "user");
+    private static final AuthenticatedUser STRANGER = new AuthenticatedUser(8, "user");
+    private static final AuthenticatedUser ADMIN = new AuthenticatedUser(1, "admin");
+
+    private final DeviceFacade deviceFacade = Mockito.mock(DeviceFacade.class);
+    private final PumpFacade pumpFacade = Mockito.mock(PumpFacade.class);
+    private final ZigbeeFacade zigbeeFacade = Mockito.mock(ZigbeeFacade.class);
+    private LiveEventSettings settings;
+
+    @BeforeEach
+    void setUp() {
+        settings = new LiveEventSettings();
+        Mockito.when(deviceFacade.getLiveStates(ArgumentMatchers.anyCollection()))
+                .thenReturn(List.of(new DeviceLiveState("dev-1", 7, true, LocalDateTime.now(), null, null)));
+    }
+
+    @Test
+    void coalescesBurstAndDeliversOnlyToOwnerAndAdmins() {
+        LiveEventHub hub = hub(new LocalChangeBus());
+        RecordingSink owner = subscribe(hub, OWNER, null);
+        RecordingSink stranger = subscribe(hub, STRANGER, null);
+        RecordingSink admin = subscribe(hub, ADMIN, null);
+
+        for (int i = 0; i < 5; i++) {
+            hub.onDeviceChanged(new DeviceChangedEvent("dev-1"));
+        }
+        hub.flush();
+
+        Mockito.verify(deviceFacade, Mockito.times(1)).getLiveStates(List.of("dev-1"));
+        Assertions.assertEquals(List.of(LiveData.TYPE_DEVICE), owner.awaitTypes(1));
+        Assertions.assertEquals(List.of(LiveData.TYPE_DEVICE), admin.awaitTypes(1));
+        Assertions.assertEquals(List.of(), stranger.types());
+        LiveData.Device payload = (LiveData.Device) owner.event(0).data();
+        Assertions.assertEquals("dev-1", payload.deviceId());
+        Assertions.assertTrue(payload.isOnline());
+    }
+
+    @Test
+    void resumesFromLastEventIdOrSendsReset() {
+        LiveEventHub hub = hub(new LocalChangeBus());
+        RecordingSink first = subscribe(hub, OWNER, null);
+        hub.onDeviceChanged(new DeviceChangedEvent("dev-1"));
+        hub.flush();
+        first.awaitTypes(1);
+        String seenId = first.event(0).id();
+        hub.unsubscribe(first);
+
+        hub.onDeviceChanged(new DeviceChangedEvent("dev-1"));
+        hub.flush();
+
+        RecordingSink resumed = subscribe(hub, OWNER, seenId);
+        Assertions.assertEquals(List.of(LiveData.TYPE_DEVICE), resumed.types());
+        Assertions.assertNotEquals(seenId, resumed.event(0).id());
+        Assertions.assertTrue(((LiveData.Ready) resumed.ready().data()).resumed());
+
+        RecordingSink foreign = subscribe(hub, OWNER, "other-1");
+        Assertions.assertEquals(List.of(LiveData.TYPE_RESET), foreign.types());
+        Assertions.assertFalse(((LiveData.Ready) foreign.ready().data()).resumed());
+    }
+
+    @Test
+    void limitsConnectionsPerUser() {
+        settings.setMaxConnectionsPerUser(2);
+        LiveEventHub hub = hub(new LocalChangeBus());
+        RecordingSink first = subscribe(hub, OWNER, null);
+        subscribe(hub, OWNER, null);
+
+        DomainException error = Assertions.assertThrows(
+                DomainException.class,
+                () -> hub.subscribe(OWNER, null, new RecordingSink())
+        );
+        Assertions.assertEquals("too_many_requests", error.getCode());
+        subscribe(hub, STRANGER, null);
+
+        hub.unsubscribe(first);
+        subscribe(hub, OWNER, null);
+        Assertions.assertEquals(3, hub.connectionCount());
+    }
+
+    @Test
+    void deliversChangesFromOtherNodeThroughChangeBus() {
+        LocalChangeBus busA = new LocalChangeBus();
+        LiveEventHub nodeA = hub(busA);
+        LiveEventHub nodeB = hub(busA.connectPeer());
+        RecordingSink owner = subscribe(nodeB, OWNER, null);
+
+        nodeA.onDeviceChanged(new DeviceChangedEvent("dev-1"));
+        nodeA.flush();
+        nodeB.flush();
+
+        Assertions.assertEquals(List.of(LiveData.TYPE_DEVICE), owner.awaitTypes(1));
+    }
+
+    @Test
+    void slowConsumerIsDroppedWithoutHoldingBackFlushOrOthers() throws InterruptedException {
+        settings.setSinkQueueEvents(2);
+        LiveEventHub hub = hub(new LocalChangeBus());
+        BlockingSink slow = new BlockingSink();
+        hub.subscribe(OWNER, null, slow);
+        RecordingSink fast = subscribe(hub, OWNER, null);
+
+        hub.onDeviceChanged(new DeviceChangedEvent("dev-1"));
+        hub.flush();
+        Assertions.assertTrue(slow.entered.await(5, TimeUnit.SECONDS));
+        // Translitem: pervaja pachka visit v send, eshche dve zanimajut ochered', chetvertaja ne vlezaet.
+        for (int i = 0; i < 3; i++) {
+            hub.onDeviceChanged(new DeviceChangedEvent("dev-1"));
+            hub.flush();
+        }
+
+        Assertions.assertEquals(1, hub.connectionCount());
+        Assertions.assertEquals(4, fast.awaitTypes(4).size());
+        slow.release.countDown();
+        Assertions.assertTrue(slow.closed.await(5, TimeUnit.SECONDS));
+    }
+
+    private LiveEventHub hub(ChangeBus changeBus) {
+        return new LiveEventHub(
+                settings,
+                deviceFacade,
+                pumpFacade,
+                zigbeeFacade,
+                changeBus,
+                new ObjectMapper(),
+                Clock.systemUTC()
+        );
+    }
+
+    private static RecordingSink subscribe(LiveEventHub hub, AuthenticatedUser user, String lastEventId) {
+        RecordingSink sink = new RecordingSink();
+        hub.subscribe(user, lastEventId, sink);
+        Assertions.assertNotNull(sink.awaitReady());
+        return sink;
+    }
+
+    // Translitem: sobytie ready zapominaetsja otdel'no, v events - tol'ko dannye i reset.
+    // Otpravka idet s potoka soedinenija, poetomu proverki zhdut dostavki.
+    private static final class RecordingSink implements LiveSink {
+        private final List<LiveData.Event> events = new ArrayList<>();
+        private LiveData.Event ready;
+
+        @Override
+        public synchronized boolean send(List<LiveData.Event> batch) {
+            for (LiveData.Event event : batch) {
+                if (LiveData.TYPE_READY.equals(event.type())) {
+                    ready = event;
+                } else {
+                    events.add(event);
+                }
+            }
+            notifyAll();
+            return true;
+        }
+
+        @Override
+        public boolean heartbeat() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private synchronized LiveData.Event ready() {
+            return ready;
+        }
+
+        private synchronized LiveData.Event event(int index) {
+            return events.get(index);
+        }
+
+        private synchronized List<String> types() {
+            return events.stream().map(LiveData.Event::type).toList();
+        }
+
+        private synchronized LiveData.Event awaitReady() {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (ready == null && System.currentTimeMillis() < deadline) {
+                waitQuietly(deadline);
+            }
+            return ready;
+        }
+
+        private synchronized List<String> awaitTypes(int count) {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                waitQuietly(deadline);
+            }
+            return types();
+        }
+
+        private void waitQuietly(long deadline) {
+            try {
+                wait(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Translitem: klient, kotoryj ne chitaet potok: send s dannymi visit do release.
+    private static final class BlockingSink implements LiveSink {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public boolean send(List<LiveData.Event> batch) {
+            if (batch.stream().allMatch(event -> LiveData.TYPE_READY.equals(event.type()))) {
+                return true;
+            }
+            entered.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean heartbeat() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
@@ -10,7 +10,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import ru.growerhub.backend.IntegrationTestBase;
-import ru.growerhub.backend.maintenance.contract.HistoryRetentionResult;
+import ru.growerhub.backend.maintenance.engine.HistoryCompactionRunner;
+import ru.growerhub.backend.maintenance.contract.HistoryCompactionChunk;
+import ru.growerhub.backend.maintenance.contract.HistoryCompactionReport;
+import ru.growerhub.backend.maintenance.contract.HistoryCompactionTable;
+import ru.growerhub.backend.maintenance.contract.HistoryPartitionResult;
 import ru.growerhub.backend.plant.contract.PlantMetricType;
 import ru.growerhub.backend.plant.jpa.PlantEntity;
 import ru.growerhub.backend.plant.jpa.PlantMetricSampleEntity;
@@ -35,12 +39,17 @@ import ru.growerhub.backend.zigbee.jpa.ZigbeeDeviceStateEventRepository;
 @SpringBootTest(properties = {
         "history.retention.enabled=true",
         "history.retention.rawDays=30",
-        "history.retention.startupDelayMs=999999999"
+        "history.retention.startupDelayMs=999999999",
+        "history.partitions.enabled=true",
+        "history.retention.chunkKeys=1",
+        "history.retention.maxRowsPerSecond=0"
 })
 class HistoryCompactionIntegrationTest extends IntegrationTestBase {
     @Autowired
     private MaintenanceFacade maintenanceFacade;
     @Autowired
+    private HistoryCompactionRunner compactionRunner;
+    @Autowired
     private SensorRepository sensorRepository;
     @Autowired
     private SensorReadingRepository sensorReadingRepository;
@@ -64,6 +73,7 @@ class HistoryCompactionIntegrationTest extends IntegrationTestBase {
     @BeforeEach
     void setUp() {
         jdbcTemplate.update("DELETE FROM history_retention_state");
+        jdbcTemplate.update("DELETE FROM history_compaction_checkpoints");
         jdbcTemplate.update("DELETE FROM zigbee_device_property_readings");
         jdbcTemplate.update("DELETE FROM zigbee_device_state_events");
         jdbcTemplate.update("DELETE FROM zigbee_device_snapshots");
@@ -89,10 +99,19 @@ class HistoryCompactionIntegrationTest extends IntegrationTestBase {
         seedPump(hour);
         seedZigbee(hour);
 
-        HistoryRetentionResult result = maintenanceFacade.compactNextDay();
+        long eventsBefore = zigbeeEventRepository.count();
+        HistoryCompactionReport dryRun = compactionRunner.run(true, () -> true);
+
+        Assertions.assertEquals(16, dryRun.totalRowsDeleted());
+        Assertions.assertEquals(eventsBefore, zigbeeEventRepository.count());
+
+        HistoryCompactionReport report = compactionRunner.run(false, () -> true);
 
-        Assertions.assertEquals(fromTs.toLocalDate(), result.day());
-        Assertions.assertEquals(16, result.totalRowsDeleted());
+        Assertions.assertTrue(report.caughtUp());
+        Assertions.assertTrue(report.tables().stream()
+                .filter(table -> table.chunks() > 0)
+                .allMatch(table -> fromTs.toLocalDate().equals(table.firstDay())));
+        Assertions.assertEquals(16, report.totalRowsDeleted());
         Assertions.assertEquals(1, sensorReadingRepository.count());
         Assertions.assertEquals(3, plantMetricSampleRepository.count());
         Assertions.assertEquals(3, pumpStateReadingRepository.count());
@@ -102,11 +121,109 @@ class HistoryCompactionIntegrationTest extends IntegrationTestBase {
         Assertions.assertEquals(0, countZigbeeProperty("countdown"));
     }
 
+    @Test
+    void chunkedRunnerDryRunReportsAndRealRunAdvancesCheckpoints() {
+        LocalDateTime hour = LocalDateTime.now(ZoneOffset.UTC)
+                .minusDays(40)
+                .withHour(3)
+                .withMinute(0)
+                .withSecond(0)
+                .withNano(0);
+        seedSensor(hour, 0);
+        seedSensor(hour, 1);
+        seedPlant(hour);
+        seedPump(hour);
+        seedZigbee(hour);
+
+        HistoryCompactionReport dryRun = compactionRunner.run(true, () -> true);
+
+        Assertions.assertTrue(dryRun.dryRun());
+        Assertions.assertEquals(18, dryRun.totalRowsDeleted());
+        Assertions.assertEquals(6, sensorReadingRepository.count());
+        Assertions.assertEquals(0, countCheckpoints());
+
+        HistoryCompactionReport report = compactionRunner.run(false, () -> true);
+
+        Assertions.assertEquals(18, report.totalRowsDeleted());
+        Assertions.assertTrue(report.caughtUp());
+        HistoryCompactionReport.TableProgress sensors = report.tables().stream()
+                .filter(table -> table.table() == HistoryCompactionTable.SENSOR_READINGS)
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertEquals(hour.toLocalDate(), sensors.firstDay());
+        Assertions.assertTrue(sensors.chunks() >= 2);
+        Assertions.assertEquals(2, sensorReadingRepository.count());
+        Assertions.assertEquals(3, plantMetricSampleRepository.count());
+        Assertions.assertEquals(3, pumpStateReadingRepository.count());
+        Assertions.assertEquals(5, zigbeePropertyRepository.count());
+        Assertions.assertEquals(5, zigbeeEventRepository.count());
+        Assertions.assertEquals(HistoryCompactionTable.values().length, countCheckpoints());
+        Assertions.assertEquals(4L, jdbcTemplate.queryForObject(
+                "SELECT rows_deleted FROM history_compaction_checkpoints WHERE table_name = 'sensor_readings'",
+                Long.class
+        ));
+
+        Assertions.assertEquals(0, compactionRunner.run(false, () -> true).totalRowsDeleted());
+    }
+
+    @Test
+    void runnerStopsWhenLeaseIsLost() {
+        LocalDateTime hour = LocalDateTime.now(ZoneOffset.UTC)
+                .minusDays(40)
+                .withHour(3)
+                .withMinute(0)
+                .withSecond(0)
+                .withNano(0);
+        seedSensor(hour, 0);
+        long sensorsBefore = sensorReadingRepository.count();
+
+        HistoryCompactionReport report = compactionRunner.run(false, () -> false);
+
+        Assertions.assertEquals(0, report.totalRowsDeleted());
+        Assertions.assertFalse(report.caughtUp());
+        Assertions.assertEquals(sensorsBefore, sensorReadingRepository.count());
+        Assertions.assertEquals(0, countCheckpoints());
+    }
+
+    @Test
+    void unpartitionedTablesKeepDailyCompaction() {
+        LocalDateTime hour = LocalDateTime.now(ZoneOffset.UTC)
+                .minusDays(40)
+                .withHour(3)
+                .withMinute(0)
+                .withSecond(0)
+                .withNano(0);
+        seedSensor(hour);
+
+        Assertions.assertFalse(maintenanceFacade.isHistoryPartitioned());
+        HistoryPartitionResult partitionResult = maintenanceFacade.maintainNextPartition();
+        Assertions.assertTrue(partitionResult.noWork());
+        Assertions.assertTrue(partitionResult.caughtUp());
+        Assertions.assertEquals(3, sensorReadingRepository.count());
+
+        HistoryCompactionChunk chunk = maintenanceFacade.compactNextChunk(
+                HistoryCompactionTable.SENSOR_READINGS,
+                null,
+                false
+        );
+        Assertions.assertEquals(hour.toLocalDate(), chunk.day());
+        Assertions.assertEquals(2L, chunk.rowsDeleted());
+        Assertions.assertEquals(1, sensorReadingRepository.count());
+    }
+
+    private int countCheckpoints() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM history_compaction_checkpoints", Integer.class);
+    }
+
     private void seedSensor(LocalDateTime hour) {
+        seedSensor(hour, 0);
+    }
+
+    private void seedSensor(LocalDateTime hour, int channel) {
         SensorEntity sensor = SensorEntity.create();
         sensor.setDeviceId(1);
         sensor.setType(SensorType.AIR_TEMPERATURE);
-        sensor.setChannel(0);
+        sensor.setChannel(channel);
         sensor.setDetected(true);
         sensor = sensorRepository.save(sensor);
         for (int minute : List.of(5, 15, 55)) {
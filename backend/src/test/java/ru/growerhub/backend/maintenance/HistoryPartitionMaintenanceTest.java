@@ -0,0 +1,148 @@
+package ru.growerhub.backend.maintenance;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import ru.growerhub.backend.common.config.maintenance.HistoryPartitionSettings;
+import ru.growerhub.backend.common.config.maintenance.HistoryRetentionSettings;
+import ru.growerhub.backend.common.config.maintenance.HistoryRollupSettings;
+import ru.growerhub.backend.common.util.HistoryPartitions;
+import ru.growerhub.backend.maintenance.contract.HistoryPartitionResult;
+import ru.growerhub.backend.maintenance.jpa.HistoryCompactionCheckpointRepository;
+import ru.growerhub.backend.maintenance.jpa.HistoryPartitionRepository;
+import ru.growerhub.backend.maintenance.jpa.HistoryRetentionStateEntity;
+import ru.growerhub.backend.maintenance.jpa.HistoryRetentionStateRepository;
+import ru.growerhub.backend.maintenance.jpa.HistoryRollupStateRepository;
+import ru.growerhub.backend.plant.PlantFacade;
+import ru.growerhub.backend.pump.PumpFacade;
+import ru.growerhub.backend.sensor.SensorFacade;
+import ru.growerhub.backend.zigbee.ZigbeeFacade;
+
+// Zamena mesjaca na PostgreSQL: DDL-repozitorij zamokan, proverjaetsja porjadok shagov i granicy tranzakcij.
+class HistoryPartitionMaintenanceTest {
+    private static final YearMonth CLOSED = YearMonth.of(2026, 8);
+    private static final String SENSORS = "sensor_readings";
+    private static final String PLANTS = "plant_metric_samples";
+
+    private final HistoryRetentionStateRepository stateRepository = Mockito.mock(HistoryRetentionStateRepository.class);
+    private final HistoryPartitionRepository partitionRepository = Mockito.mock(HistoryPartitionRepository.class);
+    private final SensorFacade sensorFacade = Mockito.mock(SensorFacade.class);
+    private final PlantFacade plantFacade = Mockito.mock(PlantFacade.class);
+    private final PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+    private MaintenanceFacade maintenanceFacade;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-10-17T10:00:00Z"), ZoneOffset.UTC);
+        HistoryPartitionSettings partitionSettings = new HistoryPartitionSettings();
+        partitionSettings.setDetachLockTimeoutMs(250);
+        maintenanceFacade = new MaintenanceFacade(
+                stateRepository,
+                Mockito.mock(HistoryRollupStateRepository.class),
+                Mockito.mock(HistoryCompactionCheckpointRepository.class),
+                partitionRepository,
+                sensorFacade,
+                plantFacade,
+                Mockito.mock(PumpFacade.class),
+                Mockito.mock(ZigbeeFacade.class),
+                new HistoryRetentionSettings(),
+                new HistoryRollupSettings(),
+                partitionSettings,
+                clock,
+                transactionManager
+        );
+        Mockito.when(transactionManager.getTransaction(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> Mockito.mock(TransactionStatus.class));
+        Mockito.when(stateRepository.findLockedById(1))
+                .thenReturn(Optional.of(HistoryRetentionStateEntity.create(1, LocalDateTime.now(clock))));
+        for (String table : List.of(SENSORS, PLANTS)) {
+            Mockito.when(partitionRepository.isPartitioned(table)).thenReturn(true);
+            Mockito.when(partitionRepository.findPartitionNames(table)).thenReturn(List.of(
+                    HistoryPartitions.partitionName(table, CLOSED),
+                    HistoryPartitions.partitionName(table, YearMonth.of(2026, 10)),
+                    HistoryPartitions.partitionName(table, YearMonth.of(2026, 11)),
+                    HistoryPartitions.partitionName(table, YearMonth.of(2026, 12))
+            ));
+            Mockito.when(partitionRepository.countRows(HistoryPartitions.partitionName(table, CLOSED))).thenReturn(10L);
+        }
+        Mockito.when(sensorFacade.copyCompactedHistoryPartition(ArgumentMatchers.anyString(), ArgumentMatchers.anyString()))
+                .thenReturn(3);
+        Mockito.when(plantFacade.copyCompactedHistoryPartition(ArgumentMatchers.anyString(), ArgumentMatchers.anyString()))
+                .thenReturn(2);
+    }
+
+    @Test
+    void swapsEachTableInItsOwnTransactionWithSourceLockedBeforeCopy() {
+        HistoryPartitionResult result = maintenanceFacade.maintainNextPartition();
+
+        Assertions.assertEquals(CLOSED, result.compactedMonth());
+        Assertions.assertEquals(5L, result.rowsKept());
+        Assertions.assertEquals(15L, result.rowsRemoved());
+        Assertions.assertEquals(0, result.partitionsCreated());
+        Assertions.assertTrue(result.caughtUp());
+
+        InOrder order = Mockito.inOrder(transactionManager, partitionRepository, sensorFacade, plantFacade);
+        String sensorSource = HistoryPartitions.partitionName(SENSORS, CLOSED);
+        String sensorTarget = HistoryPartitions.compactedName(SENSORS, CLOSED);
+        order.verify(transactionManager).getTransaction(ArgumentMatchers.any());
+        order.verify(partitionRepository).lockPartition(sensorSource);
+        order.verify(sensorFacade).copyCompactedHistoryPartition(sensorSource, sensorTarget);
+        order.verify(partitionRepository).setLockTimeout(250L);
+        order.verify(partitionRepository).swapPartition(
+                SENSORS,
+                sensorSource,
+                sensorTarget,
+                HistoryPartitions.rangeStart(CLOSED),
+                HistoryPartitions.rangeEnd(CLOSED)
+        );
+        order.verify(transactionManager).commit(ArgumentMatchers.any());
+        String plantSource = HistoryPartitions.partitionName(PLANTS, CLOSED);
+        order.verify(transactionManager).getTransaction(ArgumentMatchers.any());
+        order.verify(partitionRepository).lockPartition(plantSource);
+        order.verify(plantFacade).copyCompactedHistoryPartition(
+                plantSource,
+                HistoryPartitions.compactedName(PLANTS, CLOSED)
+        );
+        order.verify(partitionRepository).swapPartition(
+                ArgumentMatchers.eq(PLANTS),
+                ArgumentMatchers.eq(plantSource),
+                ArgumentMatchers.anyString(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()
+        );
+        order.verify(transactionManager).commit(ArgumentMatchers.any());
+        // Translitem: dve tranzakcii plana + po odnoj na zamenu kazhdoj tablicy.
+        Mockito.verify(transactionManager, Mockito.times(4)).getTransaction(ArgumentMatchers.any());
+        Mockito.verify(transactionManager, Mockito.times(4)).commit(ArgumentMatchers.any());
+    }
+
+    @Test
+    void failedSwapRollsBackOnlyItsTable() {
+        Mockito.doThrow(new IllegalStateException("lock timeout"))
+                .when(partitionRepository)
+                .swapPartition(
+                        ArgumentMatchers.eq(PLANTS),
+                        ArgumentMatchers.anyString(),
+                        ArgumentMatchers.anyString(),
+                        ArgumentMatchers.any(),
+                        ArgumentMatchers.any()
+                );
+
+        Assertions.assertThrows(IllegalStateException.class, () -> maintenanceFacade.maintainNextPartition());
+
+        Mockito.verify(transactionManager, Mockito.times(3)).commit(ArgumentMatchers.any());
+        Mockito.verify(transactionManager).rollback(ArgumentMatchers.any());
+    }
+}
@@ -0,0 +1,183 @@
+package ru.growerhub.backend.maintenance;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.growerhub.backend.IntegrationTestBase;
+import ru.growerhub.backend.common.contract.AuthenticatedUser;
+import ru.growerhub.backend.common.util.HistoryRollup;
+import ru.growerhub.backend.maintenance.contract.HistoryRollupResult;
+import ru.growerhub.backend.sensor.SensorFacade;
+import ru.growerhub.backend.sensor.contract.SensorHistoryPoint;
+import ru.growerhub.backend.sensor.contract.SensorType;
+import ru.growerhub.backend.sensor.jpa.SensorEntity;
+import ru.growerhub.backend.sensor.jpa.SensorReadingEntity;
+import ru.growerhub.backend.sensor.jpa.SensorReadingRepository;
+import ru.growerhub.backend.sensor.jpa.SensorReadingRollupEntity;
+import ru.growerhub.backend.sensor.jpa.SensorReadingRollupRepository;
+import ru.growerhub.backend.sensor.jpa.SensorRepository;
+
+@SpringBootTest(properties = {
+        "history.rollup.enabled=true",
+        "history.rollup.lagSeconds=0",
+        "history.rollup.coverageRefreshMs=0",
+        "history.rollup.lateRerollPeriodMinutes=0",
+        "history.rollup.startupDelayMs=999999999"
+})
+class HistoryRollupIntegrationTest extends IntegrationTestBase {
+    private static final AuthenticatedUser ADMIN = new AuthenticatedUser(1, "admin");
+
+    @Autowired
+    private MaintenanceFacade maintenanceFacade;
+    @Autowired
+    private SensorFacade sensorFacade;
+    @Autowired
+    private SensorRepository sensorRepository;
+    @Autowired
+    private SensorReadingRepository sensorReadingRepository;
+    @Autowired
+    private SensorReadingRollupRepository rollupRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SensorEntity sensor;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM history_rollup_state");
+        jdbcTemplate.update("DELETE FROM sensor_reading_rollups");
+        jdbcTemplate.update("DELETE FROM plant_metric_rollups");
+        jdbcTemplate.update("DELETE FROM zigbee_property_rollups");
+        jdbcTemplate.update("DELETE FROM zigbee_device_property_readings");
+        jdbcTemplate.update("DELETE FROM zigbee_device_state_events");
+        jdbcTemplate.update("DELETE FROM plant_metric_samples");
+        jdbcTemplate.update("DELETE FROM sensor_readings");
+        jdbcTemplate.update("DELETE FROM sensors");
+        now = LocalDateTime.now(ZoneOffset.UTC);
+        sensor = SensorEntity.create();
+        sensor.setDeviceId(1);
+        sensor.setType(SensorType.AIR_TEMPERATURE);
+        sensor.setChannel(0);
+        sensor.setDetected(true);
+        sensor = sensorRepository.save(sensor);
+        List<SensorReadingEntity> readings = new ArrayList<>();
+        for (int index = 1440; index >= 1; index--) {
+            SensorReadingEntity reading = SensorReadingEntity.create();
+            reading.setSensor(sensor);
+            reading.setTs(now.minusMinutes(index * 10L));
+            reading.setValueNumeric((double) (index % 97));
+            readings.add(reading);
+        }
+        sensorReadingRepository.saveAll(readings);
+    }
+
+    @Test
+    void catchUpBuildsConsistentResolutions() {
+        rollUpAll();
+
+        List<SensorReadingRollupEntity> fiveMinutes = rollupRepository.findRange(
+                HistoryRollup.Resolution.FIVE_MINUTES.code(),
+                now.minusDays(11),
+                now.plusDays(1)
+        );
+        List<SensorReadingRollupEntity> hours = rollupRepository.findRange(
+                HistoryRollup.Resolution.HOUR.code(),
+                now.minusDays(11),
+                now.plusDays(1)
+        );
+        List<SensorReadingRollupEntity> days = rollupRepository.findRange(
+                HistoryRollup.Resolution.DAY.code(),
+                now.minusDays(11),
+                now.plusDays(1)
+        );
+        Assertions.assertEquals(1440, fiveMinutes.stream().mapToLong(SensorReadingRollupEntity::getValueCount).sum());
+        Assertions.assertEquals(1440, hours.stream().mapToLong(SensorReadingRollupEntity::getValueCount).sum());
+        Assertions.assertEquals(1440, days.stream().mapToLong(SensorReadingRollupEntity::getValueCount).sum());
+
+        SensorReadingRollupEntity hour = hours.get(hours.size() / 2);
+        List<SensorReadingEntity> raw = sensorReadingRepository.findAll().stream()
+                .filter(reading -> !reading.getTs().isBefore(hour.getBucketStart())
+                        && reading.getTs().isBefore(hour.getBucketStart().plusHours(1)))
+                .sorted((left, right) -> left.getTs().compareTo(right.getTs()))
+                .toList();
+        Assertions.assertEquals(raw.size(), hour.getValueCount());
+        Assertions.assertEquals(raw.stream().mapToDouble(SensorReadingEntity::getValueNumeric).min().orElseThrow(),
+                hour.getMinValue());
+        Assertions.assertEquals(raw.stream().mapToDouble(SensorReadingEntity::getValueNumeric).max().orElseThrow(),
+                hour.getMaxValue());
+        Assertions.assertEquals(raw.stream().mapToDouble(SensorReadingEntity::getValueNumeric).average().orElseThrow(),
+                hour.getAvgValue(), 1e-9);
+        Assertions.assertEquals(raw.get(raw.size() - 1).getTs(), hour.getLastTs());
+        Assertions.assertEquals(raw.get(raw.size() - 1).getValueNumeric(), hour.getLastValue());
+    }
+
+    @Test
+    void longWindowsReadRollupsAndShortWindowsStayRaw() {
+        List<SensorHistoryPoint> beforeRollup = sensorFacade.getHistory(sensor.getId(), 24, ADMIN);
+        rollUpAll();
+
+        Assertions.assertEquals(beforeRollup, sensorFacade.getHistory(sensor.getId(), 24, ADMIN));
+
+        List<SensorHistoryPoint> longWindow = sensorFacade.getHistory(sensor.getId(), 240, ADMIN);
+        Assertions.assertEquals(200, longWindow.size());
+        Set<LocalDateTime> rawTimestamps = sensorReadingRepository.findAll().stream()
+                .map(SensorReadingEntity::getTs)
+                .collect(Collectors.toSet());
+        Assertions.assertTrue(rawTimestamps.containsAll(longWindow.stream().map(SensorHistoryPoint::ts).toList()));
+        SensorReadingEntity latest = sensorReadingRepository.findTopBySensor_IdOrderByTsDesc(sensor.getId()).orElseThrow();
+        Assertions.assertEquals(latest.getTs(), longWindow.get(longWindow.size() - 1).ts());
+        Assertions.assertEquals(latest.getValueNumeric(), longWindow.get(longWindow.size() - 1).value());
+    }
+
+    @Test
+    void lateReadingBelowWatermarkIsRolledUpOnNextPass() {
+        rollUpAll();
+        LocalDateTime lateTs = now.minusMinutes(125);
+        SensorReadingEntity late = SensorReadingEntity.create();
+        late.setSensor(sensor);
+        late.setTs(lateTs);
+        late.setValueNumeric(500.0);
+        sensorReadingRepository.save(late);
+
+        rollUpAll();
+
+        List<SensorReadingRollupEntity> fiveMinutes = rollupRepository.findRange(
+                HistoryRollup.Resolution.FIVE_MINUTES.code(),
+                now.minusDays(11),
+                now.plusDays(1)
+        );
+        List<SensorReadingRollupEntity> hours = rollupRepository.findRange(
+                HistoryRollup.Resolution.HOUR.code(),
+                now.minusDays(11),
+                now.plusDays(1)
+        );
+        Assertions.assertEquals(1441, fiveMinutes.stream().mapToLong(SensorReadingRollupEntity::getValueCount).sum());
+        Assertions.assertEquals(1441, hours.stream().mapToLong(SensorReadingRollupEntity::getValueCount).sum());
+        LocalDateTime hourStart = HistoryRollup.Resolution.HOUR.bucketStart(lateTs);
+        SensorReadingRollupEntity hour = hours.stream()
+                .filter(bucket -> bucket.getBucketStart().equals(hourStart))
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertEquals(500.0, hour.getMaxValue());
+    }
+
+    private void rollUpAll() {
+        for (int step = 0; step < 500; step++) {
+            HistoryRollupResult result = maintenanceFacade.rollupNextWindow();
+            if (result.caughtUp()) {
+                return;
+            }
+        }
+        Assertions.fail("rollup ne dognal istoriju");
+    }
+}
@@ -1,11 +1,17 @@
 ﻿﻿package ru.growerhub.backend.mqtt;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import ru.growerhub.backend.common.component.LocalChangeBus;
 import ru.growerhub.backend.common.config.AckSettings;
 import ru.growerhub.backend.mqtt.model.ManualWateringAck;
 
@@ -16,7 +22,7 @@ class AckStoreTest {
         MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
         AckSettings settings = new AckSettings();
         settings.setTtlSeconds(10);
-        AckStore store = new AckStore(settings, clock);
+        AckStore store = new AckStore(settings, clock, new ObjectMapper(), new LocalChangeBus());
 
         ManualWateringAck ack = new ManualWateringAck("corr-1", "accepted", null, "ok");
         store.put("device-1", ack);
@@ -33,7 +39,7 @@ class AckStoreTest {
         MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
         AckSettings settings = new AckSettings();
         settings.setTtlSeconds(0);
-        AckStore store = new AckStore(settings, clock);
+        AckStore store = new AckStore(settings, clock, new ObjectMapper(), new LocalChangeBus());
 
         ManualWateringAck ack = new ManualWateringAck("corr-2", "accepted", null, "ok");
         store.put("device-1", ack);
@@ -42,6 +48,61 @@ class AckStoreTest {
         Assertions.assertNotNull(store.get("corr-2"));
     }
 
+    @Test
+    void awaitCompletesWhenAckArrivesAndCapsWaiters() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        AckSettings settings = new AckSettings();
+        settings.setMaxWaiters(1);
+        AckStore store = new AckStore(settings, clock, new ObjectMapper(), new LocalChangeBus());
+
+        CompletableFuture<ManualWateringAck> waiter = store.await("corr-3", Duration.ofSeconds(5));
+        CompletableFuture<ManualWateringAck> rejected = store.await("corr-4", Duration.ofSeconds(5));
+        Assertions.assertFalse(waiter.isDone());
+        Assertions.assertTrue(rejected.isCompletedExceptionally());
+
+        ManualWateringAck ack = new ManualWateringAck("corr-3", "accepted", null, "ok");
+        store.put("device-1", ack);
+
+        Assertions.assertSame(ack, waiter.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, store.activeWaiters());
+        Assertions.assertSame(ack, store.await("corr-3", Duration.ofSeconds(5)).getNow(null));
+    }
+
+    @Test
+    void awaitTimesOutWithoutAck() {
+        AckStore store = new AckStore(new AckSettings(), Clock.systemUTC(), new ObjectMapper(), new LocalChangeBus());
+
+        CompletableFuture<ManualWateringAck> waiter = store.await("corr-5", Duration.ofMillis(50));
+
+        ExecutionException error = Assertions.assertThrows(
+                ExecutionException.class,
+                () -> waiter.get(2, TimeUnit.SECONDS)
+        );
+        Assertions.assertInstanceOf(TimeoutException.class, error.getCause());
+        Assertions.assertEquals(0, store.activeWaiters());
+    }
+
+    @Test
+    void ackReachesWaiterOnOtherNodeThroughChangeBus() throws Exception {
+        LocalChangeBus firstBus = new LocalChangeBus();
+        LocalChangeBus secondBus = firstBus.connectPeer();
+        AckStore first = new AckStore(new AckSettings(), Clock.systemUTC(), new ObjectMapper(), firstBus);
+        AckStore second = new AckStore(new AckSettings(), Clock.systemUTC(), new ObjectMapper(), secondBus);
+
+        CompletableFuture<ManualWateringAck> waiter = second.await("corr-6", Duration.ofSeconds(5));
+        first.put("device-1", new ManualWateringAck("corr-6", "accepted", "started", "ok"));
+
+        Assertions.assertEquals(
+                new ManualWateringAck("corr-6", "accepted", "started", "ok"),
+                waiter.get(1, TimeUnit.SECONDS)
+        );
+        Assertions.assertNotNull(second.get("corr-6"));
+
+        // Translitem: putLocal (direct-podpiska, dochitka iz BD) ne rassylaetsja - kazhdyj uzel poluchaet ACK sam.
+        second.putLocal("device-1", new ManualWateringAck("corr-7", "accepted", null, "ok"));
+        Assertions.assertNull(first.get("corr-7"));
+    }
+
     private static final class MutableClock extends Clock {
         private Instant instant;
 
@@ -5,14 +5,20 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import ru.growerhub.backend.common.component.LocalChangeBus;
 import ru.growerhub.backend.common.config.DeviceSettings;
+import ru.growerhub.backend.common.config.device.DeviceShadowCacheSettings;
 import ru.growerhub.backend.device.contract.DeviceShadowState;
 import ru.growerhub.backend.device.engine.DeviceShadowStore;
 import ru.growerhub.backend.device.jpa.DeviceRepository;
+import ru.growerhub.backend.device.jpa.DeviceShadowRow;
 import ru.growerhub.backend.device.jpa.DeviceStateLastRepository;
 
 class DeviceShadowStoreTest {
@@ -27,10 +33,12 @@ class DeviceShadowStoreTest {
         DeviceStateLastRepository stateRepository = Mockito.mock(DeviceStateLastRepository.class);
         DeviceShadowStore store = new DeviceShadowStore(
                 settings,
+                new DeviceShadowCacheSettings(),
                 mapper,
                 clock,
                 deviceRepository,
-                stateRepository
+                stateRepository,
+                new LocalChangeBus()
         );
 
         DeviceShadowState.ManualWateringState manual = new DeviceShadowState.ManualWateringState(
@@ -53,6 +61,82 @@ class DeviceShadowStoreTest {
         Assertions.assertEquals(false, store.getManualWateringView("device-1").get("is_online"));
     }
 
+    @Test
+    void loadsMissingSnapshotsWithSingleQuery() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        DeviceRepository deviceRepository = Mockito.mock(DeviceRepository.class);
+        DeviceStateLastRepository stateRepository = Mockito.mock(DeviceStateLastRepository.class);
+        DeviceShadowStore store = new DeviceShadowStore(
+                new DeviceSettings(),
+                new DeviceShadowCacheSettings(),
+                mapper,
+                clock,
+                deviceRepository,
+                stateRepository,
+                new LocalChangeBus()
+        );
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 0, 0);
+        store.updateFromState("device-1", new DeviceShadowState(null, "1.0.0", null, null, null, null, null, null, null, null), now);
+        Mockito.when(deviceRepository.findShadowRowsByDeviceIdIn(Mockito.anyCollection())).thenReturn(List.of(
+                new DeviceShadowRow("device-2", now, "{\"fw_ver\":\"2.0.0\"}", now),
+                new DeviceShadowRow("device-3", now.minusMinutes(5), null, null)
+        ));
+
+        Map<String, DeviceShadowStore.DeviceSnapshot> snapshots =
+                store.getSnapshotsOrLoad(List.of("device-1", "device-2", "device-3", "device-4"));
+
+        Mockito.verify(deviceRepository, Mockito.times(1))
+                .findShadowRowsByDeviceIdIn(List.of("device-2", "device-3", "device-4"));
+        Mockito.verifyNoMoreInteractions(deviceRepository);
+        Assertions.assertEquals(DeviceShadowStore.SnapshotSource.MEMORY, snapshots.get("device-1").source());
+        Assertions.assertEquals(DeviceShadowStore.SnapshotSource.DB_STATE, snapshots.get("device-2").source());
+        Assertions.assertEquals("2.0.0", snapshots.get("device-2").state().fwVer());
+        Assertions.assertEquals(DeviceShadowStore.SnapshotSource.DB_FALLBACK, snapshots.get("device-3").source());
+        Assertions.assertFalse(snapshots.containsKey("device-4"));
+        Assertions.assertEquals(1, store.stats().hitCount());
+        Assertions.assertEquals(3, store.stats().missCount());
+        Assertions.assertEquals(1, store.stats().loadNotFoundCount());
+    }
+
+    @Test
+    void otherNodeReceivesShadowUpdatesAndEvictions() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        LocalChangeBus firstBus = new LocalChangeBus();
+        DeviceShadowStore first = store(mapper, clock, firstBus);
+        DeviceShadowStore second = store(mapper, clock, firstBus.connectPeer());
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        first.updateFromState("device-1", new DeviceShadowState(null, "1.0.0", null, null, null, null, null, null, null, null), now);
+
+        DeviceShadowStore.DeviceSnapshot snapshot = second.getSnapshotOrLoad("device-1");
+        Assertions.assertEquals(DeviceShadowStore.SnapshotSource.MEMORY, snapshot.source());
+        Assertions.assertEquals("1.0.0", snapshot.state().fwVer());
+        Assertions.assertEquals(now, snapshot.updatedAt());
+
+        // Translitem: zapozdavshee izmenenie ne zatiraet bolee svezhij state na drugom uzle.
+        second.updateFromState("device-1", new DeviceShadowState(null, "2.0.0", null, null, null, null, null, null, null, null), now.plusSeconds(10));
+        first.updateFromState("device-1", new DeviceShadowState(null, "1.5.0", null, null, null, null, null, null, null, null), now.plusSeconds(5));
+        Assertions.assertEquals("2.0.0", second.getLastState("device-1").fwVer());
+
+        first.remove("device-1");
+        Assertions.assertNull(second.getLastState("device-1"));
+        Assertions.assertEquals(0, second.stats().size());
+    }
+
+    private static DeviceShadowStore store(ObjectMapper mapper, Clock clock, LocalChangeBus changeBus) {
+        return new DeviceShadowStore(
+                new DeviceSettings(),
+                new DeviceShadowCacheSettings(),
+                mapper,
+                clock,
+                Mockito.mock(DeviceRepository.class),
+                Mockito.mock(DeviceStateLastRepository.class),
+                changeBus
+        );
+    }
+
     private static final class MutableClock extends Clock {
         private Instant instant;
 
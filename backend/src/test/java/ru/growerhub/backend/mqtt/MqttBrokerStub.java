@@ -0,0 +1,246 @@
+package ru.growerhub.backend.mqtt;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+// Translitem: zamena brokera dlja testa - MQTT 3.1.1 CONNECT/SUBSCRIBE/PUBLISH (QoS0/1 s PUBACK)/PINGREQ/DISCONNECT
+// i dostavka QoS0; shared-gruppa otdaet topik odnomu podpischiku po hash topika (kak strategija hash_topic u EMQX),
+// retained soobshchenija otdajutsja pri SUBSCRIBE tol'ko obychnym (ne $share) podpiskam, kak u EMQX i Mosquitto.
+final class MqttBrokerStub implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+    private final List<String> subscribedFilters = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connects = new AtomicInteger();
+    private final Map<String, byte[]> retained = new ConcurrentHashMap<>();
+    private volatile BiConsumer<String, byte[]> publishHandler = (topic, payload) -> {
+    };
+
+    MqttBrokerStub() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "mqtt-broker-stub");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Translitem: tekushchie podpiski zhivyh sessij.
+    List<String> filters() {
+        List<String> filters = new ArrayList<>();
+        sessions.forEach(session -> filters.addAll(session.filters));
+        return filters;
+    }
+
+    // Translitem: vse SUBSCRIBE za vremja zhizni brokera, vkljuchaja povtornye posle perepodkljuchenija.
+    List<String> subscribedFilters() {
+        return List.copyOf(subscribedFilters);
+    }
+
+    int connects() {
+        return connects.get();
+    }
+
+    // Translitem: vyzyvaetsja na potoke sessii dlja kazhdogo PUBLISH ot klienta.
+    void onPublish(BiConsumer<String, byte[]> handler) {
+        this.publishHandler = handler;
+    }
+
+    // Translitem: obryv vseh soedinenij bez DISCONNECT - klient vidit connectionLost.
+    void dropConnections() throws IOException {
+        for (Session session : sessions) {
+            session.socket.close();
+        }
+    }
+
+    void publish(String topic, String payload) throws IOException {
+        Map<String, List<Session>> groups = new LinkedHashMap<>();
+        Set<Session> receivers = new LinkedHashSet<>();
+        for (Session session : sessions) {
+            for (String filter : session.filters) {
+                if (filter.startsWith("$share/")) {
+                    String realFilter = filter.substring(filter.indexOf('/', "$share/".length()) + 1);
+                    if (matches(realFilter, topic)) {
+                        groups.computeIfAbsent(filter, ignored -> new ArrayList<>()).add(session);
+                    }
+                } else if (matches(filter, topic)) {
+                    receivers.add(session);
+                }
+            }
+        }
+        for (List<Session> members : groups.values()) {
+            receivers.add(members.get(Math.floorMod(topic.hashCode(), members.size())));
+        }
+        for (Session session : receivers) {
+            session.sendPublish(topic, payload.getBytes(StandardCharsets.UTF_8), false);
+        }
+    }
+
+    // Translitem: sohranjaetsja kak retained bez rassylki tekushchim podpischikam.
+    void retain(String topic, String payload) {
+        retained.put(topic, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean matches(String filter, String topic) {
+        return MqttMessageLog.matchesTopicFilter(filter.split("/", -1), topic);
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Session session = new Session(serverSocket.accept());
+                Thread reader = new Thread(session::run, "mqtt-broker-stub-session");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException ex) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Session session : sessions) {
+            session.socket.close();
+        }
+    }
+
+    private final class Session {
+        private final Socket socket;
+        private final List<String> filters = new CopyOnWriteArrayList<>();
+
+        private Session(Socket socket) {
+            this.socket = socket;
+        }
+
+        private void run() {
+            try (Socket ignored = socket) {
+                DataInputStream input = new DataInputStream(socket.getInputStream());
+                while (true) {
+                    int header = input.read();
+                    if (header < 0) {
+                        return;
+                    }
+                    byte[] body = input.readNBytes(readRemainingLength(input));
+                    switch (header >> 4) {
+                        case 1 -> {
+                            connects.incrementAndGet();
+                            sessions.add(this);
+                            send(0x20, new byte[] {0, 0});
+                        }
+                        case 3 -> receivePublish(header, body);
+                        case 8 -> subscribe(body);
+                        case 12 -> send(0xD0, new byte[0]);
+                        case 14 -> {
+                            return;
+                        }
+                        default -> {
+                        }
+                    }
+                }
+            } catch (IOException ex) {
+                // soedinenie zakryto klientom ili brokerom
+            } finally {
+                sessions.remove(this);
+            }
+        }
+
+        private void receivePublish(int header, byte[] body) throws IOException {
+            int qos = (header >> 1) & 0x03;
+            int topicLength = ((body[0] & 0xFF) << 8) | (body[1] & 0xFF);
+            String topic = new String(body, 2, topicLength, StandardCharsets.UTF_8);
+            int position = 2 + topicLength;
+            if (qos > 0) {
+                send(0x40, new byte[] {body[position], body[position + 1]});
+                position += 2;
+            }
+            byte[] payload = new byte[body.length - position];
+            System.arraycopy(body, position, payload, 0, payload.length);
+            publishHandler.accept(topic, payload);
+        }
+
+        private void subscribe(byte[] body) throws IOException {
+            int position = 2;
+            List<Byte> granted = new ArrayList<>();
+            List<String> requested = new ArrayList<>();
+            while (position < body.length) {
+                int length = ((body[position] & 0xFF) << 8) | (body[position + 1] & 0xFF);
+                String filter = new String(body, position + 2, length, StandardCharsets.UTF_8);
+                filters.add(filter);
+                subscribedFilters.add(filter);
+                requested.add(filter);
+                position += 2 + length + 1;
+                granted.add((byte) 0);
+            }
+            byte[] suback = new byte[2 + granted.size()];
+            suback[0] = body[0];
+            suback[1] = body[1];
+            for (int index = 0; index < granted.size(); index++) {
+                suback[2 + index] = granted.get(index);
+            }
+            send(0x90, suback);
+            for (String filter : requested) {
+                if (filter.startsWith("$share/")) {
+                    continue;
+                }
+                for (Map.Entry<String, byte[]> message : retained.entrySet()) {
+                    if (matches(filter, message.getKey())) {
+                        sendPublish(message.getKey(), message.getValue(), true);
+                    }
+                }
+            }
+        }
+
+        private void sendPublish(String topic, byte[] payload, boolean retain) throws IOException {
+            byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+            byte[] body = new byte[2 + topicBytes.length + payload.length];
+            body[0] = (byte) (topicBytes.length >> 8);
+            body[1] = (byte) topicBytes.length;
+            System.arraycopy(topicBytes, 0, body, 2, topicBytes.length);
+            System.arraycopy(payload, 0, body, 2 + topicBytes.length, payload.length);
+            send(retain ? 0x31 : 0x30, body);
+        }
+
+        private synchronized void send(int header, byte[] body) throws IOException {
+            OutputStream output = socket.getOutputStream();
+            output.write(header);
+            int remaining = body.length;
+            do {
+                int encoded = remaining % 128;
+                remaining /= 128;
+                output.write(remaining > 0 ? encoded | 0x80 : encoded);
+            } while (remaining > 0);
+            output.write(body);
+            output.flush();
+        }
+
+        private int readRemainingLength(DataInputStream input) throws IOException {
+            int multiplier = 1;
+            int value = 0;
+            int encoded;
+            do {
+                encoded = input.readUnsignedByte();
+                value += (encoded & 0x7F) * multiplier;
+                multiplier *= 128;
+            } while ((encoded & 0x80) != 0);
+            return value;
+        }
+    }
+}
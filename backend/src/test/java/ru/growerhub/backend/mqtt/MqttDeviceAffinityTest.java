@@ -0,0 +1,70 @@
+package ru.growerhub.backend.mqtt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import ru.growerhub.backend.cluster.ClusterFacade;
+import ru.growerhub.backend.common.component.LocalChangeBus;
+import ru.growerhub.backend.common.config.mqtt.MqttSharedSubscriptionSettings;
+
+class MqttDeviceAffinityTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void forwardsForeignDeviceToOwnerNode() {
+        LocalChangeBus firstBus = new LocalChangeBus();
+        LocalChangeBus secondBus = firstBus.connectPeer();
+        MqttDeviceAffinity first = new MqttDeviceAffinity(sharedSettings(true), cluster("node-a"), firstBus, mapper);
+        MqttDeviceAffinity second = new MqttDeviceAffinity(sharedSettings(true), cluster("node-b"), secondBus, mapper);
+        List<String> firstReceived = new ArrayList<>();
+        List<String> secondReceived = new ArrayList<>();
+        first.onForwarded((topic, payload) -> firstReceived.add(topic + "=" + new String(payload, StandardCharsets.UTF_8)));
+        second.onForwarded((topic, payload) -> secondReceived.add(topic + "=" + new String(payload, StandardCharsets.UTF_8)));
+
+        Assertions.assertTrue(first.forward("gh/dev/owned-by-b/state", "{\"fw_ver\":\"1\"}".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertFalse(first.forward("gh/dev/owned-by-a/state", new byte[0]));
+        Assertions.assertFalse(first.forward("zigbee2mqtt/bridge/state", new byte[0]));
+
+        Assertions.assertEquals(List.of("gh/dev/owned-by-b/state={\"fw_ver\":\"1\"}"), secondReceived);
+        Assertions.assertTrue(firstReceived.isEmpty());
+    }
+
+    @Test
+    void processesLocallyWhenAffinityDisabled() {
+        LocalChangeBus firstBus = new LocalChangeBus();
+        firstBus.connectPeer();
+        MqttDeviceAffinity affinity = new MqttDeviceAffinity(sharedSettings(false), cluster("node-a"), firstBus, mapper);
+
+        Assertions.assertFalse(affinity.forward("gh/dev/owned-by-b/state", new byte[0]));
+    }
+
+    @Test
+    void refusesSharedModeWithoutClusteredBus() {
+        Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> new MqttDeviceAffinity(sharedSettings(true), cluster("node-a"), new LocalChangeBus(), mapper)
+        );
+    }
+
+    private static MqttSharedSubscriptionSettings sharedSettings(boolean deviceAffinity) {
+        MqttSharedSubscriptionSettings settings = new MqttSharedSubscriptionSettings();
+        settings.setEnabled(true);
+        settings.setDeviceAffinity(deviceAffinity);
+        return settings;
+    }
+
+    // Translitem: vladelec - sufiks device id posle "owned-by-".
+    private static ClusterFacade cluster(String nodeName) {
+        ClusterFacade clusterFacade = Mockito.mock(ClusterFacade.class);
+        Mockito.when(clusterFacade.isEnabled()).thenReturn(true);
+        Mockito.when(clusterFacade.nodeId()).thenReturn(nodeName);
+        Mockito.when(clusterFacade.ownerNode(ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> "node-" + invocation.getArgument(0, String.class).substring("mqtt-device:owned-by-".length()));
+        return clusterFacade;
+    }
+}
@@ -0,0 +1,133 @@
+package ru.growerhub.backend.mqtt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.growerhub.backend.common.config.mqtt.MqttIngestionSettings;
+import ru.growerhub.backend.common.config.mqtt.MqttTopicSettings;
+
+class MqttIngestionPipelineTest {
+
+    @Test
+    void routesDeviceTopicsToSameLane() {
+        MqttIngestionPipeline pipeline = new MqttIngestionPipeline(
+                new MqttIngestionSettings(),
+                new MqttTopicSettings(),
+                Mockito.mock(MqttMessageHandler.class),
+                null
+        );
+
+        Assertions.assertEquals(
+                pipeline.laneHash("gh/dev/device-1/state"),
+                pipeline.laneHash("gh/dev/device-1/state/ack")
+        );
+        Assertions.assertEquals(
+                pipeline.laneHash("gh/z2m/user-1/bridge/state"),
+                pipeline.laneHash("gh/z2m/user-1/leak_sensor")
+        );
+    }
+
+    @Test
+    void dispatchesInlineWhenDisabled() {
+        MqttIngestionSettings settings = new MqttIngestionSettings();
+        settings.setEnabled(false);
+        MqttMessageHandler handler = Mockito.mock(MqttMessageHandler.class);
+        MqttIngestionPipeline pipeline = new MqttIngestionPipeline(settings, new MqttTopicSettings(), handler, null);
+        pipeline.start();
+
+        byte[] payload = "{}".getBytes(StandardCharsets.UTF_8);
+        pipeline.submit("gh/dev/device-1/state", payload);
+
+        Mockito.verify(handler).handleInboundMessage("gh/dev/device-1/state", payload);
+        Assertions.assertFalse(pipeline.isRunning());
+        Assertions.assertTrue(pipeline.stats().isEmpty());
+    }
+
+    @Test
+    void keepsPerDeviceOrderAcrossLanes() throws Exception {
+        MqttIngestionSettings settings = new MqttIngestionSettings();
+        settings.setLanes(3);
+        settings.setVirtualThreads(false);
+        List<String> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(20);
+        MqttMessageHandler handler = Mockito.mock(MqttMessageHandler.class);
+        Mockito.doAnswer(invocation -> {
+            String topic = invocation.getArgument(0);
+            byte[] payload = invocation.getArgument(1);
+            if (topic.contains("device-1")) {
+                seen.add(new String(payload, StandardCharsets.UTF_8));
+            }
+            latch.countDown();
+            return null;
+        }).when(handler).handleInboundMessage(Mockito.anyString(), Mockito.any());
+        MqttIngestionPipeline pipeline = new MqttIngestionPipeline(settings, new MqttTopicSettings(), handler, null);
+        pipeline.start();
+        try {
+            for (int index = 0; index < 10; index++) {
+                byte[] payload = String.valueOf(index).getBytes(StandardCharsets.UTF_8);
+                pipeline.submit("gh/dev/device-1/state", payload);
+                pipeline.submit("gh/dev/device-2/state", payload);
+            }
+            Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            pipeline.stop();
+        }
+
+        Assertions.assertEquals(List.of("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), seen);
+    }
+
+    @Test
+    void dropOldestReplacesOnlyStateOfSameDevice() throws Exception {
+        MqttIngestionSettings settings = new MqttIngestionSettings();
+        settings.setLanes(1);
+        settings.setQueueCapacity(2);
+        settings.setVirtualThreads(false);
+        List<String> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MqttMessageHandler handler = Mockito.mock(MqttMessageHandler.class);
+        Mockito.doAnswer(invocation -> {
+            String topic = invocation.getArgument(0);
+            seen.add(topic.substring("gh/dev/".length(), topic.indexOf('/', "gh/dev/".length())) + ":"
+                    + new String((byte[]) invocation.getArgument(1), StandardCharsets.UTF_8));
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(handler).handleInboundMessage(Mockito.anyString(), Mockito.any());
+        MqttIngestionPipeline pipeline = new MqttIngestionPipeline(settings, new MqttTopicSettings(), handler, null);
+        pipeline.start();
+        Thread blocked = null;
+        try {
+            pipeline.submit("gh/dev/device-1/state", bytes("a"));
+            Assertions.assertTrue(entered.await(5, TimeUnit.SECONDS));
+            pipeline.submit("gh/dev/device-2/state", bytes("x"));
+            pipeline.submit("gh/dev/device-1/state", bytes("b"));
+            pipeline.submit("gh/dev/device-1/state", bytes("c"));
+            Assertions.assertEquals(1L, pipeline.stats().get(0).dropped());
+
+            // Translitem: v ocheredi net starogo state device-3 - ne vytesnjaem chuzhoj, zhdem mesta.
+            blocked = new Thread(() -> pipeline.submit("gh/dev/device-3/state", bytes("y")));
+            blocked.start();
+            blocked.join(300);
+            Assertions.assertTrue(blocked.isAlive());
+            Assertions.assertEquals(1L, pipeline.stats().get(0).dropped());
+        } finally {
+            release.countDown();
+            if (blocked != null) {
+                blocked.join(5000);
+            }
+            pipeline.stop();
+        }
+
+        Assertions.assertEquals(List.of("device-1:a", "device-2:x", "device-1:c", "device-3:y"), seen);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.growerhub.backend.mqtt;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.growerhub.backend.common.config.mqtt.MqttMessageLogSettings;
+
+class MqttMessageLogTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-17T10:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    void keepsNewestMessagesWhenRingWraps() {
+        MqttMessageLog log = new MqttMessageLog(settings(3, 4096), new MqttMessageLogSettings(), CLOCK);
+
+        for (int index = 1; index <= 5; index++) {
+            log.recordInbound("gh/dev/device-" + index + "/state", bytes("{\"n\":" + index + "}"), "state");
+        }
+
+        List<MqttRecordedMessage> messages = log.list(null, null, null);
+        Assertions.assertEquals(List.of(5L, 4L, 3L), messages.stream().map(MqttRecordedMessage::id).toList());
+        Assertions.assertEquals("device-5", messages.get(0).sender());
+        Assertions.assertEquals("{\"n\":5}", messages.get(0).payload());
+        Assertions.assertEquals(LocalDateTime.of(2026, 10, 17, 10, 0), messages.get(0).receivedAt());
+        Assertions.assertEquals(1, log.list("DEVICE-4", null, null).size());
+        Assertions.assertEquals(2, log.list(null, null, 2).size());
+
+        log.clear();
+        Assertions.assertTrue(log.list(null, null, null).isEmpty());
+        log.recordOutbound("gh/dev/device-1/cmd", bytes("{}"));
+        Assertions.assertEquals("out", log.list(null, "backend", null).get(0).direction());
+    }
+
+    @Test
+    void truncatesPayloadOnRead() {
+        MqttMessageLog log = new MqttMessageLog(settings(10, 3), new MqttMessageLogSettings(), CLOCK);
+
+        log.recordInbound("unknown/topic", bytes("\u043f\u0440\u0438\u0432\u0435\u0442"), "raw");
+
+        Assertions.assertEquals("\u043f\u0440\u0438", log.list(null, null, null).get(0).payload());
+    }
+
+    @Test
+    void appliesFiltersAndSampling() {
+        MqttMessageLogSettings logSettings = new MqttMessageLogSettings();
+        logSettings.setTopicFilters(List.of("gh/dev/+/state", "gh/z2m/#"));
+        logSettings.setKinds(List.of("state", "zigbee"));
+        logSettings.setSampleEvery(2);
+        logSettings.setOutbound(false);
+        MqttMessageLog log = new MqttMessageLog(settings(10, 4096), logSettings, CLOCK);
+
+        log.recordInbound("gh/dev/device-1/state", bytes("1"), "state");
+        log.recordInbound("gh/dev/device-1/state/ack", bytes("2"), "ack");
+        log.recordInbound("gh/z2m/user-1/leak", bytes("3"), "zigbee");
+        log.recordInbound("gh/dev/device-2/state", bytes("4"), "state");
+        log.recordInbound("gh/dev/device-3/state", bytes("5"), "state");
+        log.recordOutbound("gh/dev/device-1/cmd", bytes("6"));
+
+        Assertions.assertEquals(
+                List.of("4", "1"),
+                log.list(null, null, null).stream().map(MqttRecordedMessage::payload).toList()
+        );
+    }
+
+    @Test
+    void disabledLogRecordsNothing() {
+        MqttMessageLogSettings logSettings = new MqttMessageLogSettings();
+        logSettings.setEnabled(false);
+        MqttMessageLog log = new MqttMessageLog(settings(10, 4096), logSettings, CLOCK);
+
+        log.recordInbound("gh/dev/device-1/state", bytes("{}"), "state");
+        log.recordOutbound("gh/dev/device-1/cmd", bytes("{}"));
+        log.clear();
+
+        Assertions.assertTrue(log.list(null, null, null).isEmpty());
+    }
+
+    @Test
+    void matchesMqttTopicFilters() {
+        Assertions.assertTrue(MqttMessageLog.matchesTopicFilter(new String[] {"gh", "#"}, "gh"));
+        Assertions.assertTrue(MqttMessageLog.matchesTopicFilter(new String[] {"gh", "+", "state"}, "gh/dev/state"));
+        Assertions.assertFalse(MqttMessageLog.matchesTopicFilter(new String[] {"gh", "+", "state"}, "gh/dev/x/state"));
+        Assertions.assertFalse(MqttMessageLog.matchesTopicFilter(new String[] {"gh", "dev"}, "gh/dev/x"));
+        Assertions.assertFalse(MqttMessageLog.matchesTopicFilter(new String[] {"gh", "dev", "x"}, "gh/dev"));
+    }
+
+    private static MqttSettings settings(int limit, int payloadChars) {
+        MqttSettings settings = new MqttSettings();
+        settings.setRecentMessagesLimit(limit);
+        settings.setRecentPayloadChars(payloadChars);
+        return settings;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.growerhub.backend.mqtt;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.growerhub.backend.common.config.mqtt.MqttTopicSettings;
+import ru.growerhub.backend.zigbee.contract.ZigbeeMqttMessageType;
+
+class MqttTopicRouterTest {
+    private final MqttTopicRouter router = new MqttTopicRouter(new MqttTopicSettings());
+
+    @Test
+    void routesDeviceTopics() {
+        MqttRoute state = router.route("gh/dev/device-1/state");
+        Assertions.assertEquals(MqttRoute.Kind.STATE, state.kind());
+        Assertions.assertEquals("state", state.logKind());
+        Assertions.assertEquals("device-1", state.deviceId());
+        Assertions.assertEquals("device-1", state.sender());
+
+        MqttRoute ack = router.route("gh/dev/device-1/state/ack");
+        Assertions.assertEquals(MqttRoute.Kind.ACK, ack.kind());
+        Assertions.assertEquals("ack", ack.logKind());
+        Assertions.assertEquals("device-1", ack.deviceId());
+
+        MqttRoute event = router.route("gh/dev/device-1/events");
+        Assertions.assertEquals(MqttRoute.Kind.EVENT, event.kind());
+        Assertions.assertEquals("event", event.logKind());
+        Assertions.assertEquals("device-1", event.deviceId());
+    }
+
+    @Test
+    void keepsKindButNoDeviceIdForMismatchedTopics() {
+        MqttRoute nested = router.route("gh/dev/device-1/extra/state");
+        Assertions.assertEquals(MqttRoute.Kind.STATE, nested.kind());
+        Assertions.assertNull(nested.deviceId());
+        Assertions.assertEquals("device-1", nested.sender());
+
+        MqttRoute foreign = router.route("other/device-1/state");
+        Assertions.assertEquals(MqttRoute.Kind.STATE, foreign.kind());
+        Assertions.assertNull(foreign.deviceId());
+        Assertions.assertNull(foreign.sender());
+
+        MqttRoute blank = router.route("gh/dev/ /state");
+        Assertions.assertNull(blank.deviceId());
+        Assertions.assertNull(blank.sender());
+
+        MqttRoute raw = router.route("gh/dev/device-1/telemetry");
+        Assertions.assertEquals(MqttRoute.Kind.RAW, raw.kind());
+        Assertions.assertEquals("raw", raw.logKind());
+        Assertions.assertEquals("device-1", raw.sender());
+
+        Assertions.assertEquals(MqttRoute.Kind.RAW, router.route(null).kind());
+    }
+
+    @Test
+    void routesZigbeeTopics() {
+        MqttRoute userState = router.route("gh/z2m/user-1/leak_sensor");
+        Assertions.assertEquals(MqttRoute.Kind.ZIGBEE, userState.kind());
+        Assertions.assertEquals("zigbee", userState.logKind());
+        Assertions.assertEquals("user-1", userState.mqttUsername());
+        Assertions.assertEquals("gh/z2m/user-1", userState.baseTopic());
+        Assertions.assertEquals("leak_sensor", userState.relativeTopic());
+        Assertions.assertEquals("leak_sensor", userState.friendlyName());
+        Assertions.assertEquals(ZigbeeMqttMessageType.DEVICE_STATE, userState.zigbeeType());
+
+        MqttRoute availability = router.route("zigbee2growerhub/leak_sensor/availability");
+        Assertions.assertNull(availability.mqttUsername());
+        Assertions.assertEquals("zigbee2growerhub", availability.baseTopic());
+        Assertions.assertEquals("leak_sensor", availability.friendlyName());
+        Assertions.assertEquals(ZigbeeMqttMessageType.DEVICE_AVAILABILITY, availability.zigbeeType());
+
+        Assertions.assertEquals(
+                ZigbeeMqttMessageType.COMMAND_RESPONSE,
+                router.route("gh/z2m/user-1/bridge/response/device/rename").zigbeeType()
+        );
+        Assertions.assertEquals(
+                ZigbeeMqttMessageType.BRIDGE_DEVICES,
+                router.route("gh/z2m/user-1/bridge/devices").zigbeeType()
+        );
+
+        MqttRoute ignored = router.route("gh/z2m/user-1/bridge/logging");
+        Assertions.assertEquals(MqttRoute.Kind.ZIGBEE, ignored.kind());
+        Assertions.assertNull(ignored.zigbeeType());
+
+        MqttRoute noUser = router.route("gh/z2m/user-1");
+        Assertions.assertEquals(MqttRoute.Kind.ZIGBEE, noUser.kind());
+        Assertions.assertNull(noUser.zigbeeType());
+    }
+
+    @Test
+    void reusesCachedRouteAndEvictsColdTopicsAtLimit() {
+        MqttRoute hot = router.route("gh/dev/device-1/state");
+        Assertions.assertSame(hot, router.route("gh/dev/device-1/state"));
+
+        // Translitem: potok odnorazovyh topikov ne vytesnjaet marshrut, k kotoromu obrashchajutsja.
+        for (int index = 0; index < MqttTopicRouter.ROUTE_CACHE_LIMIT * 3; index++) {
+            router.route("gh/dev/garbage-" + index + "/events");
+            if (index % 1000 == 0) {
+                router.route("gh/dev/device-1/state");
+            }
+        }
+        Assertions.assertTrue(router.cachedRoutes() <= MqttTopicRouter.ROUTE_CACHE_LIMIT);
+        Assertions.assertSame(hot, router.route("gh/dev/device-1/state"));
+
+        MqttRoute late = router.route("gh/dev/late-device/state");
+        Assertions.assertEquals("late-device", late.deviceId());
+        Assertions.assertSame(late, router.route("gh/dev/late-device/state"));
+    }
+}
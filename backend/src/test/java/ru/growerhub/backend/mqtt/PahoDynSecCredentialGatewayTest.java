@@ -2,14 +2,31 @@ package ru.growerhub.backend.mqtt;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import ru.growerhub.backend.common.config.mqtt.MqttProvisioningSettings;
 import ru.growerhub.backend.common.config.mqtt.MqttTopicSettings;
+import ru.growerhub.backend.common.contract.DomainException;
 
 class PahoDynSecCredentialGatewayTest {
+    private static final String COMMAND_TOPIC = "$CONTROL/dynamic-security/v1";
+    private static final String RESPONSE_TOPIC = "$CONTROL/dynamic-security/v1/response";
+    private static final int CALLERS = 24;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final PahoDynSecCredentialGateway gateway = new PahoDynSecCredentialGateway(
             new MqttProvisioningSettings(),
@@ -55,4 +72,150 @@ class PahoDynSecCredentialGatewayTest {
 
         Assertions.assertFalse(gateway.matchesResponse(unrelated, "not-returned", commands));
     }
+
+    @Test
+    void splitsBatchedResponseByOperation() throws Exception {
+        JsonNode response = objectMapper.readTree("""
+                {"correlationData":"batch-1","responses":[
+                  {"command":"setClientPassword"},
+                  {"command":"deleteClient"},
+                  {"command":"deleteRole","error":"Role not found"}
+                ]}
+                """);
+
+        List<List<JsonNode>> slices = PahoDynSecCredentialGateway.splitResponses(response, List.of(1, 2));
+
+        Assertions.assertEquals(2, slices.size());
+        Assertions.assertEquals("setClientPassword", slices.get(0).get(0).path("command").asText());
+        Assertions.assertEquals(2, slices.get(1).size());
+        Assertions.assertEquals("Role not found", slices.get(1).get(1).path("error").asText());
+        Assertions.assertNull(PahoDynSecCredentialGateway.splitResponses(response, List.of(1, 1)));
+    }
+
+    @Test
+    void concurrentCallersShareOneSessionAndReceiveTheirOwnSlices() throws Exception {
+        ScheduledExecutorService responder = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try (MqttBrokerStub broker = new MqttBrokerStub()) {
+            AtomicInteger batches = new AtomicInteger();
+            broker.onPublish((topic, payload) -> {
+                if (!COMMAND_TOPIC.equals(topic)) {
+                    return;
+                }
+                JsonNode request = readTree(payload);
+                // Translitem: pervyj batch otvechaet poslednim - otvety prihodjat ne v porjadke otpravki.
+                long delayMs = batches.getAndIncrement() == 0 ? 300 : 0;
+                responder.schedule(() -> respond(broker, request, true), delayMs, TimeUnit.MILLISECONDS);
+            });
+            PahoDynSecCredentialGateway connected = connectedGateway(broker.port());
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<String>> results = new ArrayList<>();
+                for (int index = 0; index < CALLERS; index++) {
+                    String username = "user-" + index;
+                    boolean first = index == 0;
+                    results.add(callers.submit(() -> {
+                        if (!first) {
+                            start.await();
+                        }
+                        try {
+                            connected.rotate(username, "secret-" + username);
+                            return "ok";
+                        } catch (DomainException ex) {
+                            return ex.getCode();
+                        }
+                    }));
+                }
+                // Translitem: ostal'nye vyzovy idut, poka pervyj batch eshche v polete.
+                awaitTrue(() -> batches.get() == 1);
+                start.countDown();
+
+                for (int index = 0; index < CALLERS; index++) {
+                    String expected = index == 3 ? "bad_gateway" : "ok";
+                    Assertions.assertEquals(expected, results.get(index).get(10, TimeUnit.SECONDS), "user-" + index);
+                }
+                Assertions.assertEquals(1, broker.connects());
+                Assertions.assertEquals(List.of(RESPONSE_TOPIC), broker.subscribedFilters());
+                Assertions.assertTrue(batches.get() >= 2);
+                Assertions.assertTrue(batches.get() < CALLERS);
+            } finally {
+                connected.closeSession();
+            }
+        } finally {
+            callers.shutdownNow();
+            responder.shutdownNow();
+        }
+    }
+
+    @Test
+    void sessionReconnectsAndResubscribesAfterConnectionLoss() throws Exception {
+        try (MqttBrokerStub broker = new MqttBrokerStub()) {
+            broker.onPublish((topic, payload) -> {
+                if (COMMAND_TOPIC.equals(topic)) {
+                    respond(broker, readTree(payload), false);
+                }
+            });
+            PahoDynSecCredentialGateway connected = connectedGateway(broker.port());
+            try {
+                connected.rotate("user-1", "first");
+
+                broker.dropConnections();
+                awaitTrue(() -> broker.connects() == 2 && broker.subscribedFilters().size() == 2);
+                connected.rotate("user-1", "second");
+
+                Assertions.assertEquals(2, broker.connects());
+                Assertions.assertEquals(List.of(RESPONSE_TOPIC, RESPONSE_TOPIC), broker.subscribedFilters());
+            } finally {
+                connected.closeSession();
+            }
+        }
+    }
+
+    private PahoDynSecCredentialGateway connectedGateway(int port) {
+        MqttProvisioningSettings settings = new MqttProvisioningSettings();
+        settings.setEnabled(true);
+        settings.setHost("127.0.0.1");
+        settings.setPort(port);
+        settings.setTls(false);
+        settings.setUsername("provisioner");
+        settings.setPassword("provisioner-secret");
+        settings.setResponseTimeoutSeconds(5);
+        settings.setBatchWindowMs(50);
+        return new PahoDynSecCredentialGateway(settings, new MqttTopicSettings(), objectMapper);
+    }
+
+    // Translitem: otvet Dynamic Security - po elementu na komandu; user-3 "ne najden", chtoby proverit' srez oshibki.
+    private void respond(MqttBrokerStub broker, JsonNode request, boolean withCorrelation) {
+        ObjectNode response = objectMapper.createObjectNode();
+        if (withCorrelation) {
+            response.set("correlationData", request.get("correlationData"));
+        }
+        ArrayNode responses = response.putArray("responses");
+        for (JsonNode command : request.path("commands")) {
+            ObjectNode item = responses.addObject().put("command", command.path("command").asText());
+            if ("user-3".equals(command.path("username").asText())) {
+                item.put("error", "Client not found");
+            }
+        }
+        try {
+            broker.publish(RESPONSE_TOPIC, objectMapper.writeValueAsString(response));
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private JsonNode readTree(byte[] payload) {
+        try {
+            return objectMapper.readTree(payload);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
 }
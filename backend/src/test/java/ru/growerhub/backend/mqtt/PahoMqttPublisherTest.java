@@ -0,0 +1,145 @@
+package ru.growerhub.backend.mqtt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.eclipse.paho.client.mqttv3.DisconnectedBufferOptions;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import ru.growerhub.backend.common.config.mqtt.MqttPublishSettings;
+
+// Okno in-flight i povtor posle obryva proverjajutsja na MqttAsyncClient-zaglushke: PUBACK/oshibku vyzyvaet test.
+class PahoMqttPublisherTest {
+    private final MqttAsyncClient client = Mockito.mock(MqttAsyncClient.class);
+    private final List<IMqttActionListener> listeners = new CopyOnWriteArrayList<>();
+    private final MqttPublishSettings publishSettings = new MqttPublishSettings();
+    private MqttPublishMetrics metrics;
+    private PahoMqttPublisher publisher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Mockito.when(client.connect(ArgumentMatchers.any(MqttConnectOptions.class)))
+                .thenReturn(Mockito.mock(IMqttToken.class));
+        Mockito.doAnswer(invocation -> {
+            listeners.add(invocation.getArgument(3));
+            return Mockito.mock(IMqttToken.class);
+        }).when(client).publish(
+                ArgumentMatchers.anyString(),
+                ArgumentMatchers.any(MqttMessage.class),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(IMqttActionListener.class)
+        );
+        publishSettings.setMaxInFlight(2);
+        publishSettings.setEnqueueTimeoutMs(0);
+        publishSettings.setDeliveryTimeoutMs(0);
+    }
+
+    @Test
+    void releasesWindowOnSuccessAndOnFailure() {
+        start();
+        CompletableFuture<Void> first = publish();
+        CompletableFuture<Void> second = publish();
+
+        listeners.get(0).onSuccess(null);
+        listeners.get(1).onFailure(null, new MqttException(MqttException.REASON_CODE_CLIENT_TIMEOUT));
+
+        Assertions.assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        Assertions.assertTrue(second.isCompletedExceptionally());
+        Assertions.assertEquals(0, metrics.snapshot().inFlight());
+        // Translitem: oba mesta v okne svobodny - dve novye publikacii prohodjat bez otkaza.
+        publish();
+        publish();
+        Assertions.assertEquals(0, metrics.snapshot().rejected());
+        Assertions.assertEquals(0, metrics.snapshot().retried());
+    }
+
+    @Test
+    void retriesOnceAfterConnectionLost() throws Exception {
+        start();
+        CompletableFuture<Void> delivery = publish();
+
+        listeners.get(0).onFailure(null, new MqttException(MqttException.REASON_CODE_CONNECTION_LOST));
+        Assertions.assertFalse(delivery.isDone());
+        Assertions.assertEquals(2, listeners.size());
+
+        listeners.get(1).onFailure(null, new MqttException(MqttException.REASON_CODE_CONNECTION_LOST));
+
+        Assertions.assertTrue(delivery.isCompletedExceptionally());
+        Mockito.verify(client, Mockito.times(2)).publish(
+                ArgumentMatchers.eq("gh/dev/device-1/cmd"),
+                ArgumentMatchers.any(MqttMessage.class),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(IMqttActionListener.class)
+        );
+        MqttPublishMetrics.Snapshot snapshot = metrics.snapshot();
+        Assertions.assertEquals(1, snapshot.retried());
+        Assertions.assertEquals(1, snapshot.failed());
+        Assertions.assertEquals(0, snapshot.inFlight());
+    }
+
+    @Test
+    void rejectsPublishWhenWindowIsFull() {
+        start();
+        publish();
+        publish();
+
+        Assertions.assertThrows(IllegalStateException.class, this::publish);
+        Assertions.assertEquals(1, metrics.snapshot().rejected());
+        Assertions.assertEquals(2, listeners.size());
+
+        listeners.get(0).onSuccess(null);
+        publish();
+        Assertions.assertEquals(3, listeners.size());
+    }
+
+    @Test
+    void sizesDisconnectedBufferToWindow() throws Exception {
+        start();
+
+        ArgumentCaptor<DisconnectedBufferOptions> buffer = ArgumentCaptor.forClass(DisconnectedBufferOptions.class);
+        Mockito.verify(client).setBufferOpts(buffer.capture());
+        Assertions.assertTrue(buffer.getValue().isBufferEnabled());
+        Assertions.assertEquals(2, buffer.getValue().getBufferSize());
+        Assertions.assertFalse(buffer.getValue().isDeleteOldestMessages());
+        ArgumentCaptor<MqttConnectOptions> options = ArgumentCaptor.forClass(MqttConnectOptions.class);
+        Mockito.verify(client).connect(options.capture());
+        Assertions.assertEquals(2, options.getValue().getMaxInflight());
+    }
+
+    private void start() {
+        DebugSettings debugSettings = new DebugSettings();
+        debugSettings.setDebug(false);
+        metrics = new MqttPublishMetrics(publishSettings);
+        publisher = new PahoMqttPublisher(
+                new MqttSettings(),
+                debugSettings,
+                new ObjectMapper(),
+                Mockito.mock(MqttMessageLog.class),
+                publishSettings,
+                metrics
+        ) {
+            @Override
+            MqttAsyncClient createClient(String brokerUrl, String clientId) {
+                return client;
+            }
+        };
+        publisher.start();
+        Assertions.assertTrue(publisher.isRunning());
+    }
+
+    private CompletableFuture<Void> publish() {
+        return publisher.publishCmdAsync("device-1", Map.of("cmd", "pump.start"));
+    }
+}
@@ -0,0 +1,200 @@
+package ru.growerhub.backend.mqtt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.growerhub.backend.common.config.mqtt.MqttIngestionSettings;
+import ru.growerhub.backend.common.config.mqtt.MqttSharedSubscriptionSettings;
+import ru.growerhub.backend.common.config.mqtt.MqttTopicSettings;
+
+class PahoMqttSubscriberSharedSubscriptionTest {
+    private static final String GROUP = "growerhub-test";
+    private static final int DEVICES = 8;
+    private static final int MESSAGES_PER_DEVICE = 10;
+
+    @Test
+    void sharedGroupDeliversEachMessageOnceAndKeepsDeviceOnOneNode() throws Exception {
+        try (MqttBrokerStub broker = new MqttBrokerStub()) {
+            List<Received> grouped = new CopyOnWriteArrayList<>();
+            List<Received> direct = new CopyOnWriteArrayList<>();
+            PahoMqttSubscriber first = subscriber(broker.port(), "node-a", grouped, direct);
+            PahoMqttSubscriber second = subscriber(broker.port(), "node-b", grouped, direct);
+            first.start();
+            second.start();
+            try {
+                Assertions.assertTrue(first.isRunning());
+                Assertions.assertTrue(second.isRunning());
+                Assertions.assertEquals(
+                        List.of(
+                                "$share/" + GROUP + "/gh/dev/#",
+                                "$share/" + GROUP + "/gh/dev/#",
+                                "gh/dev/+/state/ack",
+                                "gh/dev/+/state/ack"
+                        ),
+                        broker.filters().stream().sorted().toList()
+                );
+
+                for (int seq = 0; seq < MESSAGES_PER_DEVICE; seq++) {
+                    for (int device = 0; device < DEVICES; device++) {
+                        broker.publish("gh/dev/device-" + device + "/state", ("{\"seq\":" + seq + "}"));
+                    }
+                }
+                broker.publish("gh/dev/device-1/state/ack", "{\"correlation_id\":\"c-1\",\"result\":\"ok\"}");
+
+                int expectedGrouped = DEVICES * MESSAGES_PER_DEVICE + 1;
+                awaitTrue(() -> grouped.size() >= expectedGrouped && direct.size() >= 2);
+
+                Assertions.assertEquals(expectedGrouped, grouped.size());
+                Assertions.assertEquals(Set.of("node-a", "node-b"), nodes(direct));
+                Assertions.assertEquals(2, direct.size());
+
+                Map<String, List<Received>> byTopic = new LinkedHashMap<>();
+                for (Received message : grouped) {
+                    byTopic.computeIfAbsent(message.topic(), ignored -> new ArrayList<>()).add(message);
+                }
+                Assertions.assertEquals(1, byTopic.get("gh/dev/device-1/state/ack").size());
+                Set<String> nodesUsed = new LinkedHashSet<>();
+                for (int device = 0; device < DEVICES; device++) {
+                    List<Received> messages = byTopic.get("gh/dev/device-" + device + "/state");
+                    Assertions.assertEquals(MESSAGES_PER_DEVICE, messages.size());
+                    Assertions.assertEquals(1, nodes(messages).size());
+                    nodesUsed.addAll(nodes(messages));
+                    for (int seq = 0; seq < MESSAGES_PER_DEVICE; seq++) {
+                        Assertions.assertEquals("{\"seq\":" + seq + "}", messages.get(seq).payload());
+                    }
+                }
+                Assertions.assertEquals(Set.of("node-a", "node-b"), nodesUsed);
+            } finally {
+                first.stop();
+                second.stop();
+            }
+        }
+    }
+
+    @Test
+    void retainedBridgeSnapshotReachesEveryNodeThroughDirectSubscription() throws Exception {
+        try (MqttBrokerStub broker = new MqttBrokerStub()) {
+            broker.retain("zigbee2growerhub/bridge/devices", "[]");
+            List<String> listenTopics = List.of("gh/dev/#", "zigbee2growerhub/#");
+            List<Received> grouped = new CopyOnWriteArrayList<>();
+            List<Received> direct = new CopyOnWriteArrayList<>();
+            PahoMqttSubscriber first = subscriber(broker.port(), "node-a", grouped, direct, listenTopics);
+            PahoMqttSubscriber second = subscriber(broker.port(), "node-b", grouped, direct, listenTopics);
+            first.start();
+            second.start();
+            try {
+                List<String> filters = broker.filters();
+                for (String snapshot : List.of("state", "info", "devices")) {
+                    Assertions.assertEquals(2, Collections.frequency(filters, "zigbee2growerhub/bridge/" + snapshot));
+                }
+                Assertions.assertEquals(2, Collections.frequency(filters, "$share/" + GROUP + "/zigbee2growerhub/#"));
+                Assertions.assertTrue(filters.stream().noneMatch(filter -> filter.startsWith("gh/z2m/")));
+
+                awaitTrue(() -> grouped.size() >= 2);
+                Assertions.assertEquals(Set.of("node-a", "node-b"), nodes(grouped));
+                Assertions.assertTrue(grouped.stream()
+                        .allMatch(message -> message.topic().equals("zigbee2growerhub/bridge/devices")));
+
+                broker.publish("zigbee2growerhub/bridge/state", "{\"state\":\"online\"}");
+                awaitTrue(() -> grouped.size() >= 3 && direct.size() >= 2);
+
+                Assertions.assertEquals(
+                        1,
+                        grouped.stream().filter(message -> message.topic().endsWith("/bridge/state")).count()
+                );
+                Assertions.assertEquals(Set.of("node-a", "node-b"), nodes(direct));
+                Assertions.assertTrue(direct.stream()
+                        .allMatch(message -> message.topic().equals("zigbee2growerhub/bridge/state")));
+            } finally {
+                first.stop();
+                second.stop();
+            }
+        }
+    }
+
+    @Test
+    void buildsSharedFiltersAndValidatesGroup() {
+        Assertions.assertEquals(
+                List.of("$share/g1/gh/dev/#", "$share/other/gh/z2m/#"),
+                PahoMqttSubscriber.sharedFilters(List.of("gh/dev/#", "$share/other/gh/z2m/#"), "g1")
+        );
+        Assertions.assertTrue(PahoMqttSubscriber.isValidGroup("growerhub-backend"));
+        Assertions.assertFalse(PahoMqttSubscriber.isValidGroup("a/b"));
+        Assertions.assertFalse(PahoMqttSubscriber.isValidGroup("a+"));
+        Assertions.assertFalse(PahoMqttSubscriber.isValidGroup(" "));
+        Assertions.assertFalse(PahoMqttSubscriber.isValidGroup(null));
+    }
+
+    private static PahoMqttSubscriber subscriber(
+            int port,
+            String node,
+            List<Received> grouped,
+            List<Received> direct
+    ) {
+        return subscriber(port, node, grouped, direct, List.of("gh/dev/#"));
+    }
+
+    private static PahoMqttSubscriber subscriber(
+            int port,
+            String node,
+            List<Received> grouped,
+            List<Received> direct,
+            List<String> listenTopics
+    ) {
+        MqttSettings settings = new MqttSettings();
+        settings.setHost("127.0.0.1");
+        settings.setPort(port);
+        settings.setClientIdPrefix(node);
+        DebugSettings debugSettings = new DebugSettings();
+        debugSettings.setDebug(false);
+        MqttTopicSettings topicSettings = new MqttTopicSettings();
+        topicSettings.setListenTopics(listenTopics);
+        MqttSharedSubscriptionSettings sharedSettings = new MqttSharedSubscriptionSettings();
+        sharedSettings.setEnabled(true);
+        sharedSettings.setGroup(GROUP);
+        MqttIngestionPipeline pipeline = new MqttIngestionPipeline(
+                new MqttIngestionSettings(),
+                topicSettings,
+                null,
+                null
+        ) {
+            @Override
+            public void submit(String topic, byte[] payload) {
+                grouped.add(new Received(node, topic, new String(payload, StandardCharsets.UTF_8)));
+            }
+        };
+        return new PahoMqttSubscriber(
+                settings,
+                debugSettings,
+                topicSettings,
+                sharedSettings,
+                pipeline,
+                (topic, payload) -> direct.add(new Received(node, topic, new String(payload, StandardCharsets.UTF_8)))
+        );
+    }
+
+    private static Set<String> nodes(List<Received> messages) {
+        Set<String> nodes = new LinkedHashSet<>();
+        messages.forEach(message -> nodes.add(message.node()));
+        return nodes;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private record Received(String node, String topic, String payload) {
+    }
+}